@@ -0,0 +1,181 @@
+package de.upteams.tasktracker.files.uploading;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal S3-compatible server for benchmarks: path-style put object and multipart upload
+ * (create, upload part, list parts, complete, abort), objects are kept in memory.
+ * <p>
+ * Every request is served at most at {@code bytesPerSecond} plus {@code latencyMillis},
+ * like one connection to a remote storage, so concurrent parts make a difference as they do in production.
+ * </p>
+ */
+final class InProcessS3 implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final long latencyMillis;
+    private final long bytesPerSecond;
+    private final Map<String, Integer> objects = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+
+    InProcessS3(long latencyMillis, long bytesPerSecond) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.bytesPerSecond = bytesPerSecond;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            final String key = exchange.getRequestURI().getPath().replaceFirst("^/[^/]+/", "");
+            final Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            final String method = exchange.getRequestMethod();
+            final byte[] body = readBody(exchange);
+            simulateNetwork(body.length);
+
+            if ("POST".equals(method) && query.containsKey("uploads")) {
+                final String uploadId = UUID.randomUUID().toString();
+                uploads.put(uploadId, new ConcurrentSkipListMap<>());
+                respond(exchange, 200, "<InitiateMultipartUploadResult><Key>" + key + "</Key><UploadId>"
+                        + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+            } else if ("PUT".equals(method) && query.containsKey("partNumber")) {
+                final Map<Integer, byte[]> parts = uploads.get(query.get("uploadId"));
+                if (parts == null) {
+                    respond(exchange, 404, "<Error><Code>NoSuchUpload</Code></Error>");
+                    return;
+                }
+                parts.put(Integer.parseInt(query.get("partNumber")), body);
+                exchange.getResponseHeaders().add("ETag", "\"" + md5(body) + "\"");
+                respond(exchange, 200, "");
+            } else if ("GET".equals(method) && query.containsKey("uploadId")) {
+                final StringBuilder xml = new StringBuilder("<ListPartsResult><IsTruncated>false</IsTruncated>");
+                uploads.getOrDefault(query.get("uploadId"), Map.of()).forEach((number, part) -> xml
+                        .append("<Part><PartNumber>").append(number).append("</PartNumber><ETag>\"")
+                        .append(md5(part)).append("\"</ETag><Size>").append(part.length).append("</Size></Part>"));
+                respond(exchange, 200, xml.append("</ListPartsResult>").toString());
+            } else if ("POST".equals(method) && query.containsKey("uploadId")) {
+                final Map<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+                objects.put(key, parts.values().stream().mapToInt(part -> part.length).sum());
+                respond(exchange, 200, "<CompleteMultipartUploadResult><Key>" + key
+                        + "</Key><ETag>\"multipart\"</ETag></CompleteMultipartUploadResult>");
+            } else if ("DELETE".equals(method) && query.containsKey("uploadId")) {
+                uploads.remove(query.get("uploadId"));
+                exchange.sendResponseHeaders(204, -1);
+            } else if ("PUT".equals(method)) {
+                objects.put(key, body.length);
+                exchange.getResponseHeaders().add("ETag", "\"" + md5(body) + "\"");
+                respond(exchange, 200, "");
+            } else {
+                respond(exchange, 400, "<Error><Code>NotImplemented</Code></Error>");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void simulateNetwork(long bytes) {
+        final long millis = latencyMillis + (bytesPerSecond > 0 ? bytes * 1000 / bytesPerSecond : 0);
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Plain or {@code aws-chunked} (streaming SigV4 / trailing checksums) body
+     */
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        final String sha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        final String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        final InputStream in = exchange.getRequestBody();
+        if ((sha256 == null || !sha256.startsWith("STREAMING")) && (encoding == null || !encoding.contains("aws-chunked"))) {
+            return in.readAllBytes();
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        while (true) {
+            final String header = readLine(in);
+            final int size = Integer.parseInt(header.split(";", 2)[0].trim(), 16);
+            if (size == 0) {
+                in.readAllBytes();
+                return out.toByteArray();
+            }
+            out.write(in.readNBytes(size));
+            readLine(in);
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        final StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1 && c != '\n') {
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        final Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                final String[] nameValue = pair.split("=", 2);
+                query.put(nameValue[0], nameValue.length > 1 ? nameValue[1] : "");
+            }
+        }
+        return query;
+    }
+
+    private static String md5(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package de.upteams.tasktracker.files.uploading;
+
+import de.upteams.tasktracker.configuration.S3MultipartProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload of a {@code sizeMb} file to an {@link InProcessS3} that serves each connection
+ * at {@code mbPerSecond} with {@code latencyMs} per request:
+ * <ul>
+ *   <li>{@code singlePut} - one put object streamed from the input stream, as uploads of small files are done</li>
+ *   <li>{@code multipart} - {@link S3MultipartUploader} with 8MB parts and {@code inFlight} concurrent parts</li>
+ * </ul>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=MultipartUploadBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MultipartUploadBenchmark {
+
+    @Param({"64"})
+    public int sizeMb;
+
+    @Param({"20"})
+    public long latencyMs;
+
+    @Param({"100"})
+    public long mbPerSecond;
+
+    @Param({"1", "4", "8"})
+    public int inFlight;
+
+    private InProcessS3 s3;
+    private S3AsyncClient client;
+    private ExecutorService streamReader;
+    private S3MultipartUploader uploader;
+    private byte[] content;
+    private PutObjectRequest object;
+
+    @Setup
+    public void setUp() throws Exception {
+        s3 = new InProcessS3(latencyMs, mbPerSecond * 1024 * 1024);
+        client = S3AsyncClient.builder()
+                .endpointOverride(s3.endpoint())
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("bench", "bench")))
+                .region(Region.US_EAST_1)
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .build();
+        streamReader = Executors.newFixedThreadPool(2);
+
+        final S3MultipartProperties properties = new S3MultipartProperties();
+        properties.setPartSize(DataSize.ofMegabytes(8));
+        properties.setMaxInFlightParts(inFlight);
+        properties.setMaxBuffers(inFlight + 1);
+        uploader = new S3MultipartUploader(client, properties, new SimpleMeterRegistry());
+
+        content = new byte[sizeMb * 1024 * 1024];
+        ThreadLocalRandom.current().nextBytes(content);
+        object = PutObjectRequest.builder().bucket("bench").key("attachments/file.bin").build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        streamReader.shutdownNow();
+        s3.close();
+    }
+
+    @Benchmark
+    public Object singlePut() {
+        return client.putObject(object.toBuilder().contentLength((long) content.length).build(),
+                        AsyncRequestBody.fromInputStream(new ByteArrayInputStream(content), (long) content.length, streamReader))
+                .join();
+    }
+
+    @Benchmark
+    public MultipartUploadResult multipart() {
+        final MultipartUploadResult result = uploader.upload(object, new ByteArrayInputStream(content), null);
+        if (!result.completed()) {
+            throw new IllegalStateException("Upload failed");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package de.upteams.tasktracker.mail;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivery of {@code emails} emails to a local GreenMail SMTP server:
+ * <ul>
+ *   <li>{@code perMessage} - one SMTP session per email, as the former {@code @Async} sending did</li>
+ *   <li>{@code batched} - one session for the whole batch, as the email outbox worker does</li>
+ * </ul>
+ * With {@code tls=true} the server is SMTPS, so every session pays a TLS handshake like with the real mail host.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=EmailBatchSendBenchmark}.
+ * Scores are emails per second (keep {@code @OperationsPerInvocation} equal to {@code emails}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EmailBatchSendBenchmark {
+
+    @Param({"50"})
+    public int emails;
+
+    @Param({"false", "true"})
+    public boolean tls;
+
+    private GreenMail greenMail;
+    private EmailSender sender;
+    private List<OutgoingEmail> batch;
+
+    @Setup
+    public void setUp() {
+        final ServerSetup setup = tls ? ServerSetupTest.SMTPS : ServerSetupTest.SMTP;
+        greenMail = new GreenMail(setup);
+        greenMail.start();
+
+        final JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(setup.getPort());
+        mailSender.setProtocol(setup.getProtocol());
+        final Properties properties = new Properties();
+        properties.put("mail.smtps.ssl.trust", "*");
+        mailSender.setJavaMailProperties(properties);
+
+        sender = new EmailSender(mailSender, new SimpleMeterRegistry());
+        final Field senderEmail = ReflectionUtils.findField(EmailSender.class, "senderEmail");
+        ReflectionUtils.makeAccessible(senderEmail);
+        ReflectionUtils.setField(senderEmail, sender, "noreply@tasktracker.local");
+
+        batch = new ArrayList<>(emails);
+        for (int i = 0; i < emails; i++) {
+            batch.add(new OutgoingEmail("user" + i + "@simpsons.com", "Confirm your registration",
+                    "<html><body><a href=\"https://tasktracker.local/confirm?code=" + i + "\">Confirm</a></body></html>"));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void purge() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        greenMail.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(50)
+    public void perMessage() {
+        for (OutgoingEmail email : batch) {
+            sender.sendEmail(email.to(), email.subject(), email.html());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(50)
+    public int batched() {
+        return sender.sendAll(batch).size();
+    }
+}
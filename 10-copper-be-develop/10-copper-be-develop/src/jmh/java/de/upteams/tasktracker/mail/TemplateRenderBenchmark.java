@@ -0,0 +1,55 @@
+package de.upteams.tasktracker.mail;
+
+import de.upteams.tasktracker.configuration.FreemarkerConfig;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of the email templates:
+ * <ul>
+ *   <li>{@code freemarker} - getTemplate and processing into a fresh string per message, as before</li>
+ *   <li>{@code engine} - {@link TemplateEngine} with preloaded, precompiled templates and pooled buffers</li>
+ * </ul>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=TemplateRenderBenchmark} and {@code -prof gc}
+ * to compare allocation per message as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TemplateRenderBenchmark {
+
+    @Param({"confirm_registration_mail.ftlh", "password_reset_mail.ftlh"})
+    public String template;
+
+    private Configuration configuration;
+    private TemplateEngine engine;
+    private Map<String, Object> model;
+
+    @Setup
+    public void setUp() {
+        configuration = new FreemarkerConfig().freemarkerConfiguration(true);
+        engine = new TemplateEngine(configuration, new SimpleMeterRegistry(), true, new String[]{template});
+        model = Map.of(
+                "link", "https://tasktracker.local/confirm?code=3f2b9c1e-8d4a-4c1b-9f0e-2a7d6c5b4e3f",
+                "firstName", "Homer",
+                "lastName", "Simpson"
+        );
+    }
+
+    @Benchmark
+    public String freemarker() throws Exception {
+        Template compiled = configuration.getTemplate(template);
+        return FreeMarkerTemplateUtils.processTemplateIntoString(compiled, model);
+    }
+
+    @Benchmark
+    public String engine() {
+        return engine.generateHtml(template, model);
+    }
+}
@@ -0,0 +1,80 @@
+package de.upteams.tasktracker.security.jwt;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing and verification of an access token with all our claims:
+ * jjwt builder/parser (with prebuilt parser) against {@link Hs256JwtCodec}.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=Hs256JwtCodecBenchmark -Pjmh.profilers=gc}
+ * to compare allocation per operation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class Hs256JwtCodecBenchmark {
+
+    private static final String SECRET = "eW91ci0yNTYtYml0LXNlY3JldC1mb3ItYWNjZXNzLXRva2VuLTAxMjM0NTY3ODlhYmNkZWY=";
+
+    private SecretKey key;
+    private JwtParser parser;
+    private Hs256JwtCodec codec;
+    private TokenClaims claims;
+    private String jjwtToken;
+    private String codecToken;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        parser = Jwts.parser().verifyWith(key).build();
+        codec = new Hs256JwtCodec(List.of(key));
+        now = Instant.now().getEpochSecond();
+        claims = new TokenClaims("homer@simpsons.com", UUID.randomUUID().toString(),
+                "ROLE_USER", "CONFIRMED", 1, now + 3600);
+        jjwtToken = signWithJjwt();
+        codecToken = codec.sign(claims);
+    }
+
+    @Benchmark
+    public String jjwtSign() {
+        return signWithJjwt();
+    }
+
+    @Benchmark
+    public String codecSign() {
+        return codec.sign(claims);
+    }
+
+    @Benchmark
+    public String jjwtVerify() {
+        return parser.parseSignedClaims(jjwtToken).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String codecVerify() {
+        return codec.verify(codecToken, now).orElseThrow().subject();
+    }
+
+    private String signWithJjwt() {
+        return Jwts.builder()
+                .subject(claims.subject())
+                .claim("uid", claims.userId())
+                .claim("role", claims.role())
+                .claim("cst", claims.confirmationStatus())
+                .claim("ver", claims.tokenVersion())
+                .expiration(Date.from(Instant.ofEpochSecond(claims.expiresAt())))
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,66 @@
+package de.upteams.tasktracker.security.service;
+
+import de.upteams.tasktracker.security.jwt.TokenClaims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request token handling of {@code JwtTokenFilter}:
+ * <ul>
+ *   <li>{@code legacyDoubleParse} - old path: validate + extract subject, new parser for every call</li>
+ *   <li>{@code singleParsePrebuiltParser} - one parse with a reused parser, no cache</li>
+ *   <li>{@code verifyTokenCached} - {@link JwtTokenService#verifyToken} for an already seen token</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtVerificationBenchmark {
+
+    private static final String ACCESS_SECRET = "eW91ci0yNTYtYml0LXNlY3JldC1mb3ItYWNjZXNzLXRva2VuLTAxMjM0NTY3ODlhYmNkZWY=";
+    private static final String REFRESH_SECRET = "eW91ci0yNTYtYml0LXNlY3JldC1mb3ItcmVmcmVzaC10b2tlbi1hYmNkZWYwMTIzNDU2Nzg5";
+
+    private JwtTokenService service;
+    private SecretKey key;
+    private JwtParser prebuiltParser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        service = new JwtTokenService(ACCESS_SECRET, REFRESH_SECRET, new SimpleMeterRegistry());
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(ACCESS_SECRET));
+        prebuiltParser = Jwts.parser().verifyWith(key).build();
+        token = Jwts.builder()
+                .subject("homer@simpsons.com")
+                .expiration(Date.from(Instant.now().plusSeconds(3600)))
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String legacyDoubleParse() {
+        Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String singleParsePrebuiltParser() {
+        return prebuiltParser.parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String verifyTokenCached() {
+        return service.verifyToken(token, JwtTokenService.TokenType.ACCESS)
+                .map(TokenClaims::subject)
+                .orElseThrow();
+    }
+}
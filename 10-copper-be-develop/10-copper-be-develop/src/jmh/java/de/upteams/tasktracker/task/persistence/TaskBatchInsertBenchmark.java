@@ -0,0 +1,116 @@
+package de.upteams.tasktracker.task.persistence;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserting {@code tasks} tasks into MySQL the way the API does it:
+ * <ul>
+ *   <li>{@code singleItem} - one transaction and one INSERT per task, as with one POST /api/v1/tasks per task</li>
+ *   <li>{@code batched} - one transaction and JDBC batches of {@code batchSize}, as POST /api/v1/tasks/batch</li>
+ * </ul>
+ * {@code rewriteBatchedStatements=true} lets the driver send every batch as one multi-row INSERT.
+ * Needs a running MySQL, e.g. {@code ./gradlew jmh -Pjmh.includes=TaskBatchInsertBenchmark
+ * -Dbench.db.url=jdbc:mysql://localhost:3306/tasktracker -Dbench.db.user=root -Dbench.db.password=...}.
+ * Writes into its own table {@code task_batch_bench}, which is dropped afterwards.
+ * Scores are tasks per second (keep {@code @OperationsPerInvocation} equal to {@code tasks}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TaskBatchInsertBenchmark {
+
+    private static final String INSERT =
+            "insert into task_batch_bench (id, project_id, title, description) values (?, ?, ?, ?)";
+
+    @Param({"100"})
+    public int tasks;
+
+    @Param({"50"})
+    public int batchSize;
+
+    @Param({"false", "true"})
+    public boolean rewriteBatchedStatements;
+
+    private Connection connection;
+    private byte[] projectId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.db.url", "jdbc:mysql://localhost:3306/tasktracker");
+        connection = DriverManager.getConnection(
+                url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=" + rewriteBatchedStatements,
+                System.getProperty("bench.db.user", "root"),
+                System.getProperty("bench.db.password", ""));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    create table if not exists task_batch_bench (
+                        id binary(16) not null primary key,
+                        project_id binary(16) not null,
+                        title varchar(255) not null,
+                        description varchar(255)
+                    )""");
+        }
+        connection.setAutoCommit(false);
+        projectId = bytes(UUID.randomUUID());
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists task_batch_bench");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void singleItem() throws SQLException {
+        for (int i = 0; i < tasks; i++) {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                bind(insert, i);
+                insert.executeUpdate();
+            }
+            connection.commit();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void batched() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (int i = 0; i < tasks; i++) {
+                bind(insert, i);
+                insert.addBatch();
+                if ((i + 1) % batchSize == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private void bind(PreparedStatement insert, int i) throws SQLException {
+        insert.setBytes(1, bytes(UUID.randomUUID()));
+        insert.setBytes(2, projectId);
+        insert.setString(3, "Benchmark task " + i);
+        insert.setString(4, "Inserted by TaskBatchInsertBenchmark");
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
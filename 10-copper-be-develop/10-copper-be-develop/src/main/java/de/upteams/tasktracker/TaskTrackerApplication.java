@@ -3,12 +3,14 @@ package de.upteams.tasktracker;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main class of the App
  */
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class TaskTrackerApplication {
 
     /**
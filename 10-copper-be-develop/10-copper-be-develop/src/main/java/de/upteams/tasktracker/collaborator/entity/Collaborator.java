@@ -1,5 +1,6 @@
 package de.upteams.tasktracker.collaborator.entity;
 
+import de.upteams.tasktracker.collaborator.service.impl.ProjectMembershipListener;
 import de.upteams.tasktracker.project.entity.Project;
 import de.upteams.tasktracker.task.entity.Task;
 import de.upteams.tasktracker.user.entity.AppUser;
@@ -9,7 +10,9 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -17,6 +20,7 @@ import static de.upteams.tasktracker.utils.EntityUtil.getIdForToString;
 import static de.upteams.tasktracker.utils.EntityUtil.getIdsForToString;
 
 @Entity
+@EntityListeners(ProjectMembershipListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -30,9 +34,14 @@ public class Collaborator extends BaseEntity {
     @ManyToOne
     private Project project;
 
+    /**
+     * Roles as bitmask column, so role checks can be done in SQL: {@code (project_roles & :mask) <> 0}
+     */
     @NotNull
-    @Enumerated(EnumType.STRING)
-    private final Set<ProjectRoles> projectRolesSet = new HashSet<>();
+    @Convert(converter = ProjectRolesConverter.class)
+    @Column(name = "project_roles", nullable = false)
+    @ColumnDefault("0")
+    private final Set<ProjectRoles> projectRolesSet = EnumSet.noneOf(ProjectRoles.class);
 
     @ManyToMany
     private final Set<Task> tasks = new HashSet<>();
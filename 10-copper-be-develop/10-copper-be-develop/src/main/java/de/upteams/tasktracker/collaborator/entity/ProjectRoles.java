@@ -1,6 +1,37 @@
 package de.upteams.tasktracker.collaborator.entity;
 
+import java.util.Collection;
+import java.util.EnumSet;
+
+/**
+ * Roles are persisted as bits by ordinal, new roles must be added only at the end.
+ */
 public enum ProjectRoles {
 
-    OWNER, ADMIN, MEMBER, VIEWER
+    OWNER, ADMIN, MEMBER, VIEWER;
+
+    /**
+     * Bit of this role in a roles bitmask
+     */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public static int toMask(Collection<ProjectRoles> roles) {
+        int mask = 0;
+        for (ProjectRoles role : roles) {
+            mask |= role.bit();
+        }
+        return mask;
+    }
+
+    public static EnumSet<ProjectRoles> fromMask(int mask) {
+        final EnumSet<ProjectRoles> roles = EnumSet.noneOf(ProjectRoles.class);
+        for (ProjectRoles role : values()) {
+            if ((mask & role.bit()) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
 }
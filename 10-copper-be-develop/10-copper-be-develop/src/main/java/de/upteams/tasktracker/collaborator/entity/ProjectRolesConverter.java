@@ -0,0 +1,24 @@
+package de.upteams.tasktracker.collaborator.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Stores a set of {@link ProjectRoles} as an integer bitmask, see {@link ProjectRoles#bit()}.
+ */
+@Converter
+public class ProjectRolesConverter implements AttributeConverter<Set<ProjectRoles>, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(Set<ProjectRoles> roles) {
+        return roles == null ? 0 : ProjectRoles.toMask(roles);
+    }
+
+    @Override
+    public Set<ProjectRoles> convertToEntityAttribute(Integer mask) {
+        return mask == null ? EnumSet.noneOf(ProjectRoles.class) : ProjectRoles.fromMask(mask);
+    }
+}
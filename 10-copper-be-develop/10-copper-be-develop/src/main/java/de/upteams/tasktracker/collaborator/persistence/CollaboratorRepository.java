@@ -1,12 +1,15 @@
 package de.upteams.tasktracker.collaborator.persistence;
 
 import de.upteams.tasktracker.collaborator.entity.Collaborator;
+import de.upteams.tasktracker.collaborator.entity.ProjectRoles;
 import de.upteams.tasktracker.project.entity.Project;
 import de.upteams.tasktracker.user.entity.AppUser;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,4 +19,22 @@ public interface CollaboratorRepository extends JpaRepository<Collaborator, UUID
     @Query("select c from Collaborator c where c.appUser = ?1 and c.project = ?2")
     Optional<Collaborator> findCollaborator(AppUser user, Project project);
 
+    /**
+     * Roles bitmask of the user in the project, see {@link ProjectRoles#bit()}
+     */
+    @Query(value = "select c.project_roles from collaborator c where c.app_user_id = :userId and c.project_id = :projectId",
+            nativeQuery = true)
+    Optional<Integer> findRolesMask(@Param("userId") UUID userId, @Param("projectId") UUID projectId);
+
+    /**
+     * Collaborators of the project having any of the roles in {@code rolesMask}, filtered by the database.
+     * {@code bitand} is rendered as {@code &} on MySQL.
+     */
+    @Query("""
+            select c from Collaborator c
+            where c.project.id = :projectId and bitand(cast(c.projectRolesSet as Integer), cast(:rolesMask as Integer)) <> 0
+            """)
+    List<Collaborator> findByProjectIdHavingAnyRole(@Param("projectId") UUID projectId,
+                                                   @Param("rolesMask") int rolesMask);
+
 }
@@ -0,0 +1,186 @@
+package de.upteams.tasktracker.collaborator.persistence;
+
+import de.upteams.tasktracker.collaborator.entity.ProjectRoles;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One-off data migration of collaborator roles into {@code collaborator.project_roles} bitmask, for MySQL.
+ * <p>
+ * Roles were stored by Hibernate in the {@code collaborator.project_roles_set varbinary NOT NULL} column
+ * as a Java-serialized collection. It is not run by the application: during a rolling deploy old instances
+ * still write the old column, and schema changes must not race between starting instances.
+ * Run it with {@code ./gradlew migrateCollaboratorRoles --args=<command>} and the {@code DB_*} variables
+ * of the application:
+ * </p>
+ * <ol>
+ *     <li>{@code migrate} before the deploy: adds the bitmask column, makes the old column nullable,
+ *     so new instances can insert, and decodes the roles of collaborators without roles into the bitmask.</li>
+ *     <li>{@code drop-legacy-column} once no old instance runs: migrates collaborators added in the meantime
+ *     and drops the old column. If some value can not be decoded, the column is kept to be fixed by hand.</li>
+ * </ol>
+ * Both commands can be repeated and do nothing once the old column is gone.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class CollaboratorRolesMigration {
+
+    static final String LEGACY_COLUMN = "project_roles_set";
+
+    /**
+     * Only collections and arrays of roles or role names may be deserialized
+     */
+    private static final ObjectInputFilter LEGACY_ROLES_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=5;maxarray=64;java.util.*;java.lang.Object;java.lang.Enum;java.lang.String;java.lang.Number;java.lang.Integer;"
+                    + ProjectRoles.class.getName() + ";!*"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public static void main(String[] args) {
+        final String command = args.length == 1 ? args[0] : "";
+        final CollaboratorRolesMigration migration = new CollaboratorRolesMigration(new JdbcTemplate(
+                new DriverManagerDataSource(
+                        "jdbc:mysql://" + System.getenv("DB_HOST") + ":" + System.getenv("DB_PORT")
+                                + "/" + System.getenv("DB_NAME"),
+                        System.getenv("DB_USERNAME"),
+                        System.getenv("DB_PASSWORD"))));
+        switch (command) {
+            case "migrate" -> migration.migrate();
+            case "drop-legacy-column" -> migration.dropLegacyColumn();
+            default -> throw new IllegalArgumentException(
+                    "Usage: CollaboratorRolesMigration migrate|drop-legacy-column");
+        }
+    }
+
+    /**
+     * Copies decodable roles of collaborators without roles into the bitmask
+     *
+     * @return number of collaborators whose roles can not be decoded
+     */
+    public int migrate() {
+        if (!columnExists(LEGACY_COLUMN)) {
+            return 0;
+        }
+        if (!columnExists("project_roles")) {
+            jdbcTemplate.execute("alter table collaborator add column project_roles integer default 0 not null");
+        }
+        jdbcTemplate.execute("alter table collaborator modify " + LEGACY_COLUMN + " varbinary(255) null");
+
+        final List<Object[]> updates = new ArrayList<>();
+        final List<Object> failed = new ArrayList<>();
+        jdbcTemplate.query(
+                "select id, " + LEGACY_COLUMN + " from collaborator where project_roles = 0",
+                (ResultSet rs) -> {
+                    final Object id = rs.getObject(1);
+                    final byte[] value = rs.getBytes(2);
+                    try {
+                        final int mask = decodeMask(value);
+                        if (mask != 0) {
+                            updates.add(new Object[]{mask, id});
+                        }
+                    } catch (IllegalArgumentException e) {
+                        failed.add(id);
+                        log.warn("Roles of collaborator {} can not be migrated: {}", readableId(id), e.getMessage());
+                    }
+                }
+        );
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("update collaborator set project_roles = ? where id = ?", updates);
+        }
+        log.info("Roles of {} collaborators migrated to bitmask column, {} failed.", updates.size(), failed.size());
+        return failed.size();
+    }
+
+    /**
+     * Migrates remaining collaborators and drops the old column, unless some roles can not be decoded
+     */
+    public void dropLegacyColumn() {
+        if (!columnExists(LEGACY_COLUMN)) {
+            return;
+        }
+        final int failed = migrate();
+        if (failed > 0) {
+            log.warn("Column collaborator.{} is kept for {} collaborators with unreadable roles.",
+                    LEGACY_COLUMN, failed);
+            return;
+        }
+        jdbcTemplate.execute("alter table collaborator drop column " + LEGACY_COLUMN);
+        log.info("Column collaborator.{} dropped.", LEGACY_COLUMN);
+    }
+
+    private boolean columnExists(String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet columns = connection.getMetaData()
+                    .getColumns(connection.getCatalog(), null, "collaborator", column)) {
+                return columns.next();
+            }
+        }));
+    }
+
+    private static Object readableId(Object id) {
+        if (id instanceof byte[] bytes && bytes.length == 16) {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+        return id;
+    }
+
+    /**
+     * Bitmask of roles serialized by Hibernate: a collection or array of roles, role names or ordinals
+     */
+    static int decodeMask(byte[] value) {
+        if (value == null || value.length == 0) {
+            return 0;
+        }
+        final Object roles;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(value))) {
+            in.setObjectInputFilter(LEGACY_ROLES_FILTER);
+            roles = in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("not a serialized roles collection", e);
+        }
+        final Collection<?> elements;
+        if (roles instanceof Collection<?> collection) {
+            elements = collection;
+        } else if (roles instanceof Object[] array) {
+            elements = Arrays.asList(array);
+        } else {
+            throw new IllegalArgumentException("unexpected value " + roles);
+        }
+        int mask = 0;
+        for (Object element : elements) {
+            mask |= toRole(element).bit();
+        }
+        return mask;
+    }
+
+    private static ProjectRoles toRole(Object element) {
+        if (element instanceof ProjectRoles role) {
+            return role;
+        }
+        if (element instanceof String name) {
+            return ProjectRoles.valueOf(name);
+        }
+        if (element instanceof Number ordinal && ordinal.intValue() >= 0
+                && ordinal.intValue() < ProjectRoles.values().length) {
+            return ProjectRoles.values()[ordinal.intValue()];
+        }
+        throw new IllegalArgumentException("unexpected role " + element);
+    }
+}
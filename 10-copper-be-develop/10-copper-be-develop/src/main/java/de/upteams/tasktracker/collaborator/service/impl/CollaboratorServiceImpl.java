@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -20,10 +21,11 @@ import java.util.Optional;
 public class CollaboratorServiceImpl implements CollaboratorService {
 
     private final CollaboratorRepository collaboratorRepository;
+    private final ProjectMembershipCache membershipCache;
 
     @Override
     public boolean isUserInProject(AppUser user, Project project) {
-        return getCollaborator(user, project).isPresent();
+        return getRolesMask(user, project) != ProjectMembershipCache.NOT_A_MEMBER;
     }
 
     @Override
@@ -38,15 +40,21 @@ public class CollaboratorServiceImpl implements CollaboratorService {
 
     @Override
     public boolean hasUserPermission(AppUser user, Project project, Collection<ProjectRoles> requiredRoles) {
-        return getCollaborator(user, project)
-                .map(collaborator -> hasAnyRequiredRole(collaborator, requiredRoles))
-                .orElse(false);
+        final int rolesMask = getRolesMask(user, project);
+        return rolesMask != ProjectMembershipCache.NOT_A_MEMBER
+                && (rolesMask & ProjectRoles.toMask(requiredRoles)) != 0;
     }
 
-    private boolean hasAnyRequiredRole(Collaborator collaborator, Collection<ProjectRoles> requiredRoles) {
-        return collaborator.getProjectRolesSet()
-                .stream()
-                .anyMatch(requiredRoles::contains);
+    @Override
+    public List<Collaborator> getCollaboratorsWithAnyRole(Project project, Collection<ProjectRoles> roles) {
+        return collaboratorRepository.findByProjectIdHavingAnyRole(project.getId(), ProjectRoles.toMask(roles));
+    }
+
+    private int getRolesMask(AppUser user, Project project) {
+        if (user == null || project == null) {
+            return ProjectMembershipCache.NOT_A_MEMBER;
+        }
+        return membershipCache.getRolesMask(user.getId(), project.getId());
     }
 
 }
@@ -0,0 +1,86 @@
+package de.upteams.tasktracker.collaborator.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.upteams.tasktracker.collaborator.entity.ProjectRoles;
+import de.upteams.tasktracker.collaborator.persistence.CollaboratorRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Cache of project roles of users, keyed by (user id, project id).
+ * <p>
+ * Roles are stored as a bitmask of {@link ProjectRoles}, {@link #NOT_A_MEMBER} marks users
+ * without access, so warm authorization checks do not query the database at all.
+ * Entries are removed by {@link ProjectMembershipListener} when a collaborator is saved or deleted.
+ * </p>
+ */
+@Component
+public class ProjectMembershipCache {
+
+    public static final int NOT_A_MEMBER = -1;
+
+    private final CollaboratorRepository collaboratorRepository;
+    private final Cache<MembershipKey, Integer> roles;
+
+    public ProjectMembershipCache(
+            CollaboratorRepository collaboratorRepository,
+            MeterRegistry meterRegistry,
+            @Value("${collaborator.membership-cache.max-size:50000}") long maxSize,
+            @Value("${collaborator.membership-cache.ttl-in-sec:300}") long ttlInSeconds
+    ) {
+        this.collaboratorRepository = collaboratorRepository;
+        this.roles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlInSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, roles, "collaborator.membership");
+    }
+
+    /**
+     * Returns roles bitmask of the user in the project or {@link #NOT_A_MEMBER}.
+     */
+    public int getRolesMask(UUID userId, UUID projectId) {
+        if (userId == null || projectId == null) {
+            return NOT_A_MEMBER;
+        }
+        return roles.get(new MembershipKey(userId, projectId), this::load);
+    }
+
+    /**
+     * Removes cached roles. If called inside a transaction, the entry is removed once more
+     * after commit, so a concurrent request cannot put the old state back.
+     */
+    public void evict(UUID userId, UUID projectId) {
+        if (userId == null || projectId == null) {
+            return;
+        }
+        final MembershipKey key = new MembershipKey(userId, projectId);
+        roles.invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    roles.invalidate(key);
+                }
+            });
+        }
+    }
+
+    private Integer load(MembershipKey key) {
+        return collaboratorRepository
+                .findRolesMask(key.userId(), key.projectId())
+                .orElse(NOT_A_MEMBER);
+    }
+
+    private record MembershipKey(UUID userId, UUID projectId) {
+    }
+}
@@ -0,0 +1,29 @@
+package de.upteams.tasktracker.collaborator.service.impl;
+
+import de.upteams.tasktracker.collaborator.entity.Collaborator;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener of {@link Collaborator} that keeps {@link ProjectMembershipCache} in sync.
+ * Works for collaborators saved directly as well as via cascade from {@code Project}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProjectMembershipListener {
+
+    private final ProjectMembershipCache membershipCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void afterChange(Collaborator collaborator) {
+        if (collaborator.getAppUser() == null || collaborator.getProject() == null) {
+            return;
+        }
+        membershipCache.evict(collaborator.getAppUser().getId(), collaborator.getProject().getId());
+    }
+}
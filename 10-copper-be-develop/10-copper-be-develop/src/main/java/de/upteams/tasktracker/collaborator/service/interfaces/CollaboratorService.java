@@ -6,6 +6,7 @@ import de.upteams.tasktracker.project.entity.Project;
 import de.upteams.tasktracker.user.entity.AppUser;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CollaboratorService {
@@ -17,4 +18,6 @@ public interface CollaboratorService {
     boolean hasUserPermission(AppUser user, Project project, ProjectRoles requiredRole);
 
     boolean hasUserPermission(AppUser user, Project project, Collection<ProjectRoles> requiredRoles);
+
+    List<Collaborator> getCollaboratorsWithAnyRole(Project project, Collection<ProjectRoles> roles);
 }
@@ -0,0 +1,118 @@
+package de.upteams.tasktracker.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Named, bounded executors per kind of background work, so slow SMTP cannot starve uploads and the reverse,
+ * and CPU-heavy image processing is limited to the number of cores.
+ * Use them with {@code @Async(AsyncExecutorsConfig.UPLOAD_EXECUTOR)} etc.;
+ * {@code @Async} without a name runs on the maintenance executor (registered as {@code taskExecutor}).
+ * <p>
+ * Every executor drains queued and running tasks on shutdown for {@code awaitTermination}.
+ * Metrics are tagged by {@code name} = bean name: pool gauges ({@code executor.active}, {@code executor.queued},
+ * {@code executor.pool.size}...) are bound by Spring Boot for thread pools, the {@code executor} (run time)
+ * and {@code executor.idle} (time in queue) timers and the {@code executor.rejected} counter are recorded here.
+ * </p>
+ */
+@Configuration
+@RequiredArgsConstructor
+public class AsyncExecutorsConfig {
+
+    public static final String MAIL_EXECUTOR = "mailExecutor";
+    public static final String UPLOAD_EXECUTOR = "uploadExecutor";
+    public static final String MAINTENANCE_EXECUTOR = "maintenanceExecutor";
+    public static final String IMAGE_EXECUTOR = "imageExecutor";
+
+    private final AsyncExecutorsProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Bean(MAIL_EXECUTOR)
+    public AsyncTaskExecutor mailExecutor() {
+        return createExecutor(MAIL_EXECUTOR, properties.getMail());
+    }
+
+    @Bean(UPLOAD_EXECUTOR)
+    public AsyncTaskExecutor uploadExecutor() {
+        return createExecutor(UPLOAD_EXECUTOR, properties.getUpload());
+    }
+
+    @Bean(IMAGE_EXECUTOR)
+    public AsyncTaskExecutor imageExecutor() {
+        return createExecutor(IMAGE_EXECUTOR, properties.getImage());
+    }
+
+    @Bean({MAINTENANCE_EXECUTOR, "taskExecutor"})
+    public AsyncTaskExecutor maintenanceExecutor() {
+        return createExecutor(MAINTENANCE_EXECUTOR, properties.getMaintenance());
+    }
+
+    /**
+     * Thread pool; initialized by the container, which also binds its gauges via Spring Boot's executor metrics
+     */
+    private ThreadPoolTaskExecutor createExecutor(String name, AsyncExecutorsProperties.Pool pool) {
+        final Counter rejected = Counter.builder("executor.rejected")
+                .tag("name", name)
+                .register(meterRegistry);
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(pool.getCoreSize());
+        executor.setMaxPoolSize(pool.getMaxSize());
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setKeepAliveSeconds((int) pool.getKeepAlive().toSeconds());
+        executor.setThreadNamePrefix(threadNamePrefix(name));
+        executor.setTaskDecorator(new ObservedTasks(name));
+        final RejectedExecutionHandler policy = pool.getRejection() == AsyncExecutorsProperties.Rejection.CALLER_RUNS
+                ? new ThreadPoolExecutor.CallerRunsPolicy()
+                : new ThreadPoolExecutor.AbortPolicy();
+        executor.setRejectedExecutionHandler((task, threadPool) -> {
+            rejected.increment();
+            policy.rejectedExecution(task, threadPool);
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(pool.getAwaitTermination().toMillis());
+        return executor;
+    }
+
+    private static String threadNamePrefix(String name) {
+        return name.replace("Executor", "") + "-";
+    }
+
+    /**
+     * Records time in queue and run time of every task
+     */
+    private final class ObservedTasks implements TaskDecorator {
+
+        private final Timer execution;
+        private final Timer idle;
+
+        private ObservedTasks(String name) {
+            this.execution = Timer.builder("executor").tag("name", name).register(meterRegistry);
+            this.idle = Timer.builder("executor.idle").tag("name", name).register(meterRegistry);
+        }
+
+        @Override
+        public Runnable decorate(Runnable task) {
+            final long submittedAt = System.nanoTime();
+            return () -> {
+                final long startedAt = System.nanoTime();
+                idle.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } finally {
+                    execution.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package de.upteams.tasktracker.configuration;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Executors of {@code @Async} work, loaded from {@code async.executors}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "async.executors")
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AsyncExecutorsProperties {
+
+    /**
+     * Delivery of the email outbox
+     */
+    Pool mail = Pool.of(1, 2, 4, Rejection.ABORT);
+    /**
+     * Uploads to S3; a full queue makes the calling request thread upload itself (backpressure)
+     */
+    Pool upload = Pool.of(4, 8, 100, Rejection.CALLER_RUNS);
+    /**
+     * Cleanup jobs and other {@code @Async} methods without an explicit executor
+     */
+    Pool maintenance = Pool.of(1, 2, 50, Rejection.ABORT);
+    /**
+     * Decoding and scaling of uploaded images, CPU bound: one thread per core, a full queue rejects uploads
+     */
+    Pool image = Pool.of(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors(),
+            32, Rejection.ABORT);
+
+    public enum Rejection {
+        /**
+         * Throw {@code TaskRejectedException} to the submitter
+         */
+        ABORT,
+        /**
+         * Run the task in the submitting thread
+         */
+        CALLER_RUNS
+    }
+
+    @Data
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Pool {
+
+        int coreSize;
+        int maxSize;
+        int queueCapacity;
+        Duration keepAlive = Duration.ofSeconds(60);
+        Rejection rejection;
+        /**
+         * Time to let queued and running tasks finish on shutdown
+         */
+        Duration awaitTermination = Duration.ofSeconds(30);
+
+        static Pool of(int coreSize, int maxSize, int queueCapacity, Rejection rejection) {
+            Pool pool = new Pool();
+            pool.setCoreSize(coreSize);
+            pool.setMaxSize(maxSize);
+            pool.setQueueCapacity(queueCapacity);
+            pool.setRejection(rejection);
+            return pool;
+        }
+    }
+}
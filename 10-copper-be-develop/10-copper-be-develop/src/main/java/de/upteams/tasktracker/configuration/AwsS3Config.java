@@ -1,5 +1,8 @@
 package de.upteams.tasktracker.configuration;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,16 +13,18 @@ import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 import java.net.URI;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuration class for creating AWS S3 and DigitalOcean Spaces clients.
  * <p>
  * Loads properties prefixed with {@code digitalocean.spaces} into {@link AwsS3Configuration}
- * and uses them to build both synchronous {@link S3Client} and asynchronous
- * {@link S3AsyncClient} beans.
+ * and uses them to build synchronous {@link S3Client}, asynchronous
+ * {@link S3AsyncClient} and {@link S3Presigner} beans.
  * </p>
  *
  * <h3>Configuration Properties (application.yml or application.properties):</h3>
@@ -31,7 +36,7 @@ import java.util.concurrent.ExecutorService;
  *   <li>{@code digitalocean.spaces.bucketName} - Default bucket (space) name.</li>
  * </ul>
  *
- * <p>Both clients are configured with:</p>
+ * <p>All of them are configured with:</p>
  * <ol>
  *   <li>Endpoint override to support non-AWS S3-compatible services.</li>
  *   <li>Static credentials provider using basic credentials.</li>
@@ -120,20 +125,58 @@ public class AwsS3Config {
                 .build();
     }
 
+    /**
+     * Creates an {@link S3Presigner} for short-lived URLs that let clients upload and download
+     * objects directly, without passing the bytes through the application.
+     * Signing is a local computation, no request is sent to the storage.
+     *
+     * @return configured {@link S3Presigner} bean
+     */
+    @Bean
+    public S3Presigner s3Presigner() {
+        return S3Presigner.builder()
+                .endpointOverride(URI.create(awsConfig.getEndpoint()))
+                .credentialsProvider(
+                        StaticCredentialsProvider.create(
+                                AwsBasicCredentials.create(
+                                        awsConfig.getAccessKey(),
+                                        awsConfig.getSecretKey()
+                                )
+                        )
+                )
+                .region(Region.of(awsConfig.getRegion()))
+                .serviceConfiguration(
+                        S3Configuration.builder()
+                                .pathStyleAccessEnabled(true)
+                                .build()
+                )
+                .build();
+    }
+
     /**
      * ExecutorService for async S3 stream uploads.
      * Provides a fixed thread pool to offload blocking InputStream reads
      * and avoid blocking the SDK event-loop threads.
+     * Pool, queue and task timings are published as {@code executor.*} meters with {@code name=s3},
+     * rejected tasks are counted by {@code executor.rejected} before the usual abort.
      */
     @Bean(destroyMethod = "shutdown")
-    public ExecutorService s3ExecutorService() {
+    public ExecutorService s3ExecutorService(MeterRegistry meterRegistry) {
+        final Counter rejected = Counter.builder("executor.rejected")
+                .tag("name", "s3")
+                .register(meterRegistry);
+        final ThreadPoolExecutor.AbortPolicy abortPolicy = new ThreadPoolExecutor.AbortPolicy();
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         int poolSize = Runtime.getRuntime().availableProcessors() * 2;
         executor.setCorePoolSize(poolSize);
         executor.setMaxPoolSize(poolSize);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("s3Executor-");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            abortPolicy.rejectedExecution(task, pool);
+        });
         executor.initialize();
-        return executor.getThreadPoolExecutor();
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), "s3");
     }
 }
@@ -0,0 +1,46 @@
+package de.upteams.tasktracker.configuration;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Local disk cache of stored objects served by the application, loaded from {@code files.cache}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "files.cache")
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FileCacheProperties {
+
+    /**
+     * If disabled, file content is always downloaded by redirect to a presigned URL
+     */
+    boolean enabled = true;
+    /**
+     * Directory of cached objects, emptied at startup
+     */
+    Path directory = Path.of(System.getProperty("java.io.tmpdir"), "tasktracker-file-cache");
+    /**
+     * Disk budget of all cached objects
+     */
+    DataSize maxSize = DataSize.ofGigabytes(1);
+    /**
+     * Bigger files are not cached, they are downloaded by redirect
+     */
+    DataSize maxObjectSize = DataSize.ofMegabytes(32);
+    /**
+     * Objects up to this size (avatars, thumbnails) are kept memory-mapped
+     */
+    DataSize mmapMaxSize = DataSize.ofKilobytes(256);
+    /**
+     * Browser cache lifetime of served content; objects are never changed under their key
+     */
+    Duration clientMaxAge = Duration.ofHours(1);
+}
@@ -0,0 +1,51 @@
+package de.upteams.tasktracker.configuration;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Presigned direct-to-bucket uploads and downloads and deduplicated attachments, loaded from {@code files.storage}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "files.storage")
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FileStorageProperties {
+
+    /**
+     * Validity of presigned PUT URLs
+     */
+    Duration uploadUrlTtl = Duration.ofMinutes(10);
+    /**
+     * Validity of presigned GET URLs
+     */
+    Duration downloadUrlTtl = Duration.ofHours(1);
+    /**
+     * A cached GET URL is handed out only while it stays valid for at least this long
+     */
+    Duration downloadUrlMinValidity = Duration.ofMinutes(10);
+    long downloadUrlCacheSize = 10_000;
+    DataSize maxAvatarSize = DataSize.ofMegabytes(5);
+    DataSize maxAttachmentSize = DataSize.ofMegabytes(100);
+    /**
+     * Avatars with more pixels are rejected before decoding: a small compressed file can expand to gigabytes.
+     * 16 megapixels (4000x4000) take 64 MB decoded, per image being processed
+     */
+    long maxAvatarPixels = 16_000_000;
+    List<String> avatarContentTypes = List.of("image/png", "image/jpeg", "image/webp", "image/gif");
+    /**
+     * Attachment content without references is kept this long, in case the same file is attached again
+     */
+    Duration blobGcGrace = Duration.ofDays(1);
+    /**
+     * Blobs loaded per query of the collector
+     */
+    int blobGcBatchSize = 500;
+}
@@ -1,19 +1,36 @@
 package de.upteams.tasktracker.configuration;
 
+import freemarker.cache.StrongCacheStorage;
 import freemarker.template.Configuration;
+import freemarker.template.TemplateExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 
 @org.springframework.context.annotation.Configuration
 public class FreemarkerConfig {
 
+    /**
+     * @param cacheTemplates templates are loaded once and never checked for updates;
+     *                       disabled in dev profile to pick up edited templates
+     */
     @Bean
-    public Configuration freemarkerConfiguration() {
+    public Configuration freemarkerConfiguration(@Value("${mail.templates.cache:true}") boolean cacheTemplates) {
         Configuration configuration = new Configuration(Configuration.VERSION_2_3_32);
         configuration.setDefaultEncoding("UTF-8");
         configuration.setClassLoaderForTemplateLoading(
                 getClass().getClassLoader(),
                 "mail_templates"
         );
+        // локализованных вариантов шаблонов нет, не ищем *_en_US.ftlh при каждой загрузке
+        configuration.setLocalizedLookup(false);
+        configuration.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        configuration.setLogTemplateExceptions(false);
+        if (cacheTemplates) {
+            configuration.setCacheStorage(new StrongCacheStorage());
+            configuration.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+        } else {
+            configuration.setTemplateUpdateDelayMilliseconds(0);
+        }
         return configuration;
     }
 }
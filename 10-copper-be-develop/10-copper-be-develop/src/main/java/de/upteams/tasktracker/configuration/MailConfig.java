@@ -30,6 +30,15 @@ public class MailConfig {
     @Value("${spring.mail.properties.mail.debug:false}")
     private String debug;
 
+    @Value("${spring.mail.properties.mail.smtp.connectiontimeout:10000}")
+    private String connectionTimeout;
+
+    @Value("${spring.mail.properties.mail.smtp.timeout:10000}")
+    private String timeout;
+
+    @Value("${spring.mail.properties.mail.smtp.writetimeout:10000}")
+    private String writeTimeout;
+
     @Bean
     public JavaMailSender javaMailSender() {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
@@ -43,6 +52,9 @@ public class MailConfig {
         props.put("mail.smtp.auth", smtpAuth);
         props.put("mail.smtp.starttls.enable", startTls);
         props.put("mail.debug", debug);
+        props.put("mail.smtp.connectiontimeout", connectionTimeout);
+        props.put("mail.smtp.timeout", timeout);
+        props.put("mail.smtp.writetimeout", writeTimeout);
 
         return mailSender;
     }
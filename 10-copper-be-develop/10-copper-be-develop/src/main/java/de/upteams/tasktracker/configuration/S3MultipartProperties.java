@@ -0,0 +1,43 @@
+package de.upteams.tasktracker.configuration;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Multipart uploads to S3, loaded from {@code digitalocean.spaces.multipart}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "digitalocean.spaces.multipart")
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class S3MultipartProperties {
+
+    /**
+     * Files of this size and bigger, and streams of unknown length, are uploaded in parts
+     */
+    DataSize threshold = DataSize.ofMegabytes(16);
+    /**
+     * Size of every part but the last one; S3 requires at least 5MB
+     */
+    DataSize partSize = DataSize.ofMegabytes(8);
+    /**
+     * Parts of one upload sent concurrently; the stream is read on only while a slot is free
+     */
+    int maxInFlightParts = 4;
+    /**
+     * Part buffers of all uploads together, allocated on demand and reused; uploads wait for a free buffer,
+     * so at most {@code maxBuffers * partSize} bytes are buffered
+     */
+    int maxBuffers = 16;
+    /**
+     * Attempts per part on top of the SDK retries, with exponential backoff
+     */
+    int partRetries = 3;
+    Duration retryBackoff = Duration.ofMillis(500);
+}
@@ -0,0 +1,52 @@
+package de.upteams.tasktracker.files.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Opened content of a cached object, readable once.
+ * Stays readable if the object is evicted meanwhile: the file is unlinked, but not closed or unmapped.
+ */
+public final class CachedContent implements Closeable {
+
+    private final long size;
+    private final ByteBuffer mapped;
+    private final FileChannel channel;
+
+    CachedContent(long size, ByteBuffer mapped, FileChannel channel) {
+        this.size = size;
+        this.mapped = mapped;
+        this.channel = channel;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Writes the content without copying it through a heap buffer:
+     * from the mapped memory or with {@link FileChannel#transferTo}.
+     */
+    public void transferTo(WritableByteChannel target) throws IOException {
+        if (mapped != null) {
+            while (mapped.hasRemaining()) {
+                target.write(mapped);
+            }
+            return;
+        }
+        long position = 0;
+        while (position < size) {
+            position += channel.transferTo(position, size - position, target);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
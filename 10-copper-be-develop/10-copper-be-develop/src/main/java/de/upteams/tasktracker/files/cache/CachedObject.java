@@ -0,0 +1,61 @@
+package de.upteams.tasktracker.files.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Object downloaded into the cache directory, small ones also memory-mapped
+ */
+@Slf4j
+final class CachedObject {
+
+    private final Path path;
+    private final long size;
+    private final ByteBuffer mapped;
+
+    private CachedObject(Path path, long size, ByteBuffer mapped) {
+        this.path = path;
+        this.size = size;
+        this.mapped = mapped;
+    }
+
+    static CachedObject load(Path path, long mmapMaxSize) throws IOException {
+        final long size = Files.size(path);
+        if (size > mmapMaxSize) {
+            return new CachedObject(path, size, null);
+        }
+        // отображение остаётся действительным и после закрытия канала
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new CachedObject(path, size, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    CachedContent open() throws IOException {
+        if (mapped != null) {
+            return new CachedContent(size, mapped.duplicate(), null);
+        }
+        return new CachedContent(size, null, FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached object {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package de.upteams.tasktracker.files.cache;
+
+import de.upteams.tasktracker.files.dto.PresignedUrlDto;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Content of a stored file to send to the client: either opened from the {@link LocalObjectCache}
+ * or, for files that are not cached, a presigned URL to redirect to.
+ */
+public record FileContent(
+        String contentType,
+        String contentDisposition,
+        CachedContent content,
+        PresignedUrlDto redirect
+) implements Closeable {
+
+    public static FileContent cached(String contentType, String contentDisposition, CachedContent content) {
+        return new FileContent(contentType, contentDisposition, content, null);
+    }
+
+    public static FileContent redirect(PresignedUrlDto url) {
+        return new FileContent(null, null, null, url);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (content != null) {
+            content.close();
+        }
+    }
+}
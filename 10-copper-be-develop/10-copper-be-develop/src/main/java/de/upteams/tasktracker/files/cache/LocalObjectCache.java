@@ -0,0 +1,176 @@
+package de.upteams.tasktracker.files.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import de.upteams.tasktracker.configuration.AwsS3Configuration;
+import de.upteams.tasktracker.configuration.FileCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Read-through cache of bucket objects on the local disk, bounded by {@code files.cache.max-size} bytes.
+ * <p>
+ * A miss downloads the object with {@link S3AsyncClient} into a file of its own; concurrent misses
+ * of the same key wait for the same download. Evicted objects are deleted from the disk.
+ * Objects up to {@code files.cache.mmap-max-size} stay memory-mapped and are served without opening the file.
+ * The cache is published as {@code cache.*} meters with {@code cache=files.object-cache},
+ * downloads are timed as {@code files.cache.fetch} tagged by {@code outcome}.
+ * </p>
+ * <p>
+ * Keys are never overwritten in the bucket (random keys, content hashes), so entries are not invalidated.
+ * </p>
+ */
+@Slf4j
+@Component
+public class LocalObjectCache {
+
+    private static final String SUFFIX = ".obj";
+
+    private final S3AsyncClient s3Client;
+    private final AwsS3Configuration s3Config;
+    private final FileCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AsyncCache<String, CachedObject> objects;
+
+    public LocalObjectCache(
+            S3AsyncClient s3Client,
+            AwsS3Configuration s3Config,
+            FileCacheProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.s3Client = s3Client;
+        this.s3Config = s3Config;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.objects = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String key, CachedObject object) -> (int) Math.min(object.size(), Integer.MAX_VALUE))
+                // удаление файла дешёвое, а синхронное вытеснение делает бюджет диска строгим
+                .executor(Runnable::run)
+                .removalListener((String key, CachedObject object, RemovalCause cause) -> {
+                    if (object != null) {
+                        object.delete();
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, objects.synchronous(), "files.object-cache");
+        if (properties.isEnabled()) {
+            prepareDirectory(properties.getDirectory());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Whether an object of this size is served from the cache
+     */
+    public boolean isCacheable(long size) {
+        return properties.isEnabled() && size <= properties.getMaxObjectSize().toBytes();
+    }
+
+    /**
+     * Opens the content of the object, downloading it first on a miss.
+     *
+     * @throws IOException if the cached file can not be read
+     * @throws software.amazon.awssdk.core.exception.SdkException if the object can not be downloaded
+     */
+    public CachedContent open(String objectKey) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            final CompletableFuture<CachedObject> future = get(objectKey);
+            try {
+                return join(future).open();
+            } catch (NoSuchFileException e) {
+                // вытеснен между выдачей и открытием: скачиваем заново, но только один раз
+                objects.asMap().remove(objectKey, future);
+                if (attempt > 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    CompletableFuture<CachedObject> get(String objectKey) {
+        return objects.get(objectKey, this::fetch);
+    }
+
+    private CompletableFuture<CachedObject> fetch(String objectKey, Executor executor) {
+        final Path target = properties.getDirectory().resolve(UUID.randomUUID() + SUFFIX);
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        return s3Client.getObject(builder -> builder.bucket(s3Config.getBucketName()).key(objectKey),
+                        AsyncResponseTransformer.toFile(target))
+                .thenApply(response -> {
+                    try {
+                        return CachedObject.load(target, properties.getMmapMaxSize().toBytes());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .whenComplete((object, e) -> {
+                    sample.stop(Timer.builder("files.cache.fetch")
+                            .tag("outcome", e == null ? "success" : "failure")
+                            .register(meterRegistry));
+                    if (e != null) {
+                        log.warn("Failed to fetch '{}' into the file cache: {}", objectKey, e.getMessage());
+                        deleteQuietly(target);
+                    }
+                });
+    }
+
+    private static CachedObject join(CompletableFuture<CachedObject> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Files of the previous run are not indexed, so they are deleted
+     */
+    private static void prepareDirectory(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path file : stale) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("File cache directory " + directory + " is not usable", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package de.upteams.tasktracker.files.controller;
+
+import de.upteams.tasktracker.configuration.FileCacheProperties;
+import de.upteams.tasktracker.configuration.FileStorageProperties;
+import de.upteams.tasktracker.files.cache.FileContent;
+import de.upteams.tasktracker.files.controller.api.FileApi;
+import de.upteams.tasktracker.files.dto.AvatarDto;
+import de.upteams.tasktracker.files.dto.PresignedUrlDto;
+import de.upteams.tasktracker.files.dto.StoredFileDto;
+import de.upteams.tasktracker.files.dto.UploadUrlRequestDto;
+import de.upteams.tasktracker.files.exception.StoredFileNotFoundException;
+import de.upteams.tasktracker.files.service.interfaces.AttachmentService;
+import de.upteams.tasktracker.files.service.interfaces.AvatarService;
+import de.upteams.tasktracker.files.service.interfaces.FileStorageService;
+import de.upteams.tasktracker.security.service.AuthUserDetails;
+import de.upteams.tasktracker.user.entity.AvatarSize;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequiredArgsConstructor
+public class FileController implements FileApi {
+
+    /**
+     * Service for presigned transfers of files
+     */
+    private final FileStorageService service;
+
+    /**
+     * Service for deduplicated attachments
+     */
+    private final AttachmentService attachmentService;
+
+    /**
+     * Service for avatar renditions
+     */
+    private final AvatarService avatarService;
+
+    private final FileStorageProperties properties;
+
+    private final FileCacheProperties cacheProperties;
+
+    @Override
+    public PresignedUrlDto createUploadUrl(
+            UploadUrlRequestDto request,
+            AuthUserDetails principal
+    ) {
+        return service.createUploadUrl(request, principal.user());
+    }
+
+    @Override
+    public StoredFileDto completeUpload(
+            String id,
+            AuthUserDetails principal
+    ) {
+        return service.completeUpload(id, principal.user());
+    }
+
+    @Override
+    public PresignedUrlDto getDownloadUrl(
+            String id,
+            AuthUserDetails principal
+    ) {
+        return service.createDownloadUrl(id, principal.user());
+    }
+
+    @Override
+    public void download(
+            String id,
+            AuthUserDetails principal,
+            HttpServletResponse response
+    ) throws IOException {
+        try (FileContent content = service.openContent(id, principal.user())) {
+            send(content, response);
+        }
+    }
+
+    @Override
+    public StoredFileDto uploadAttachment(
+            String taskId,
+            MultipartFile file,
+            AuthUserDetails principal
+    ) {
+        return attachmentService.upload(taskId, file, principal.user());
+    }
+
+    @Override
+    public void deleteAttachment(
+            String id,
+            AuthUserDetails principal
+    ) {
+        attachmentService.delete(id, principal.user());
+    }
+
+    @Override
+    public AvatarDto uploadAvatar(
+            MultipartFile file,
+            AuthUserDetails principal
+    ) {
+        return avatarService.upload(file, principal.user());
+    }
+
+    @Override
+    public void downloadAvatar(
+            String userId,
+            String size,
+            AuthUserDetails principal,
+            HttpServletResponse response
+    ) throws IOException {
+        final AvatarSize avatarSize = AvatarSize.fromPathSegment(size)
+                .orElseThrow(StoredFileNotFoundException::new);
+        try (FileContent content = avatarService.openAvatar(userId, avatarSize)) {
+            send(content, response);
+        }
+    }
+
+    private void send(FileContent content, HttpServletResponse response) throws IOException {
+        if (content.redirect() != null) {
+            // браузер повторяет редирект из кэша, пока ссылка ещё достаточно долго действительна
+            final long maxAge = Math.max(0, Duration.between(Instant.now(), content.redirect().expiresAt())
+                    .minus(properties.getDownloadUrlMinValidity())
+                    .toSeconds());
+            response.setStatus(HttpStatus.FOUND.value());
+            response.setHeader(HttpHeaders.LOCATION, content.redirect().url());
+            response.setHeader(HttpHeaders.CACHE_CONTROL,
+                    CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePrivate().getHeaderValue());
+            return;
+        }
+        response.setContentType(content.contentType());
+        response.setContentLengthLong(content.content().size());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, content.contentDisposition());
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.maxAge(cacheProperties.getClientMaxAge()).cachePrivate().getHeaderValue());
+        content.content().transferTo(Channels.newChannel(response.getOutputStream()));
+    }
+}
@@ -0,0 +1,293 @@
+package de.upteams.tasktracker.files.controller.api;
+
+import de.upteams.tasktracker.exception.handling.response.ErrorResponseDto;
+import de.upteams.tasktracker.files.dto.AvatarDto;
+import de.upteams.tasktracker.files.dto.PresignedUrlDto;
+import de.upteams.tasktracker.files.dto.StoredFileDto;
+import de.upteams.tasktracker.files.dto.UploadUrlRequestDto;
+import de.upteams.tasktracker.monitoring.QueryBudget;
+import de.upteams.tasktracker.security.service.AuthUserDetails;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+@Tag(name = "File controller", description = "Uploads and downloads of avatars and task attachments")
+@PreAuthorize("isAuthenticated()")
+@RequestMapping("/api/v1/files")
+public interface FileApi {
+
+    @Operation(
+            summary = "Get upload URL",
+            description = "Registers a file and returns a presigned URL. Send the content with the given method "
+                    + "and headers directly to the URL, then call complete"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Upload URL issued",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PresignedUrlDto.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid file type or missing task",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "403", description = "Forbidden - user can not edit the project of the task",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "413", description = "File is bigger than allowed for its kind",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "timestamp": "2025-04-26T10:00:00",
+                                      "status": 413,
+                                      "error": "Payload Too Large",
+                                      "message": "File should not be bigger than 104857600 bytes",
+                                      "path": "/api/v1/files/upload-url"
+                                    }
+                                    """))
+            )
+    })
+    @PostMapping("/upload-url")
+    @ResponseStatus(HttpStatus.CREATED)
+    PresignedUrlDto createUploadUrl(
+            @Valid
+            @RequestBody
+            UploadUrlRequestDto request,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal
+    );
+
+    @Operation(summary = "Complete upload",
+            description = "Records metadata of the uploaded object; an avatar is rendered and replaces the avatar of the user")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Upload recorded",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = StoredFileDto.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Avatar is not a supported image",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "File not found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "409", description = "Object is not in the storage yet",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @PostMapping("/{id}/complete")
+    StoredFileDto completeUpload(
+            @PathVariable
+            String id,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal
+    );
+
+    @Operation(summary = "Get download URL", description = "Returns a presigned URL to download the file directly")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Download URL",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PresignedUrlDto.class))
+            ),
+            @ApiResponse(responseCode = "403", description = "Forbidden - user has no access to the project",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "File not found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @QueryBudget(3)
+    @GetMapping("/{id}/download-url")
+    PresignedUrlDto getDownloadUrl(
+            @PathVariable
+            String id,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal
+    );
+
+    @Operation(
+            summary = "Download file",
+            description = "Returns the content, usable as image source; files too big for the local cache "
+                    + "are redirected to a presigned URL, the redirect may be cached by the browser while the URL is valid"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "File content"),
+            @ApiResponse(responseCode = "302", description = "Redirect to the storage"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - user has no access to the project",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "File not found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "502", description = "File could not be loaded from the storage",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @QueryBudget(3)
+    @GetMapping("/{id}/content")
+    void download(
+            @PathVariable
+            String id,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal,
+
+            @Parameter(hidden = true)
+            HttpServletResponse response
+    ) throws IOException;
+
+    @Operation(
+            summary = "Upload attachment",
+            description = "Attaches the file to the task through the application; "
+                    + "content already stored for any attachment is not stored again"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Attachment stored",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = StoredFileDto.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Empty file",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "403", description = "Forbidden - user can not edit the project of the task",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Task not found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "413", description = "File is bigger than allowed for its kind",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @PostMapping(value = "/attachments", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    StoredFileDto uploadAttachment(
+            @RequestParam
+            String taskId,
+
+            @RequestPart("file")
+            MultipartFile file,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal
+    );
+
+    @Operation(summary = "Delete attachment", description = "Deletes an attachment of a task")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Attachment deleted"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - user is not the uploader or an editor",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Attachment not found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @DeleteMapping("/{id}")
+    void deleteAttachment(
+            @PathVariable
+            String id,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal
+    );
+
+    @Operation(
+            summary = "Upload avatar",
+            description = "Replaces the avatar of the current user with thumbnails of the image in fixed sizes"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Avatar stored",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = AvatarDto.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Empty file, unsupported or too big image",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "413", description = "File is bigger than allowed for avatars",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "503", description = "Too many images are processed at the moment",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @PostMapping(value = "/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    AvatarDto uploadAvatar(
+            @RequestPart("file")
+            MultipartFile file,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal
+    );
+
+    @Operation(
+            summary = "Download avatar",
+            description = "Returns a rendition of the avatar of the user: small, medium or large"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Image"),
+            @ApiResponse(responseCode = "302", description = "Redirect to the storage"),
+            @ApiResponse(responseCode = "404", description = "User has no uploaded avatar or unknown size",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @QueryBudget(2)
+    @GetMapping("/avatars/{userId}/{size}")
+    void downloadAvatar(
+            @PathVariable
+            String userId,
+
+            @PathVariable
+            String size,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal,
+
+            @Parameter(hidden = true)
+            HttpServletResponse response
+    ) throws IOException;
+}
@@ -0,0 +1,17 @@
+package de.upteams.tasktracker.files.dto;
+
+import de.upteams.tasktracker.user.entity.AvatarSize;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+/**
+ * URLs of the renditions of an uploaded avatar
+ */
+@Schema(description = "URLs of the avatar renditions")
+public record AvatarDto(
+        @Schema(description = "URL per rendition size",
+                example = "{\"SMALL\": \"https://api.example.com/api/v1/files/avatars/3b241101-e2bb-4255-8caf-4136c566a962/small?v=8f14e45f\"}")
+        Map<AvatarSize, String> urls
+) {
+}
@@ -0,0 +1,28 @@
+package de.upteams.tasktracker.files.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Short-lived URL to transfer a file directly from or to the bucket
+ */
+@Schema(description = "Short-lived URL to transfer a file directly from or to the storage")
+public record PresignedUrlDto(
+        @Schema(description = "Id of the file", example = "3b241101-e2bb-4255-8caf-4136c566a962")
+        String fileId,
+
+        @Schema(description = "HTTP method to use with the URL", example = "PUT")
+        String method,
+
+        @Schema(description = "Presigned URL", example = "https://tasktracker.fra1.digitaloceanspaces.com/attachments/...")
+        String url,
+
+        @Schema(description = "Headers that must be sent exactly as given, they are part of the signature",
+                example = "{\"content-type\": \"application/pdf\"}")
+        Map<String, String> headers,
+
+        @Schema(description = "Time the URL stops working", example = "2025-04-26T10:10:00Z")
+        Instant expiresAt
+) {}
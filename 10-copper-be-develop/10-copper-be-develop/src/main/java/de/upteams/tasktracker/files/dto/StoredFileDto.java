@@ -0,0 +1,47 @@
+package de.upteams.tasktracker.files.dto;
+
+import de.upteams.tasktracker.files.entity.FileKind;
+import de.upteams.tasktracker.files.entity.StoredFile;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+/**
+ * Metadata of an uploaded file
+ */
+@Schema(description = "Metadata of an uploaded file")
+public record StoredFileDto(
+        @Schema(description = "Id of the file", example = "3b241101-e2bb-4255-8caf-4136c566a962")
+        String id,
+
+        @Schema(description = "Purpose of the file", example = "ATTACHMENT")
+        FileKind kind,
+
+        @Schema(description = "Task of an attachment, null for avatars", example = "0d6f4a6e-5f9b-4c1e-9a51-2d8a4c9f1b7e")
+        String taskId,
+
+        @Schema(description = "Original file name", example = "specification.pdf")
+        String fileName,
+
+        @Schema(description = "MIME type", example = "application/pdf")
+        String contentType,
+
+        @Schema(description = "Size in bytes", example = "524288")
+        long size,
+
+        @Schema(description = "Time the upload was completed", example = "2025-04-26T10:01:00Z")
+        Instant uploadedAt
+) {
+
+    public static StoredFileDto of(StoredFile file) {
+        return new StoredFileDto(
+                file.getId().toString(),
+                file.getKind(),
+                file.getTask() == null ? null : file.getTask().getId().toString(),
+                file.getFileName(),
+                file.getContentType(),
+                file.getSize(),
+                file.getUploadedAt()
+        );
+    }
+}
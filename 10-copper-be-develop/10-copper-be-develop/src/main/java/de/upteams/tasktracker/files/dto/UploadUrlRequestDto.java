@@ -0,0 +1,37 @@
+package de.upteams.tasktracker.files.dto;
+
+import de.upteams.tasktracker.files.entity.FileKind;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+/**
+ * File the client is going to upload directly to the bucket
+ */
+@Schema(description = "File the client is going to upload directly to the storage")
+public record UploadUrlRequestDto(
+        @Schema(description = "Purpose of the file; an AVATAR is the original image, rendered on completion",
+                example = "ATTACHMENT")
+        @NotNull
+        FileKind kind,
+
+        @Schema(description = "Task of an attachment, omitted for avatars", example = "0d6f4a6e-5f9b-4c1e-9a51-2d8a4c9f1b7e")
+        String taskId,
+
+        @Schema(description = "Original file name, used for downloads", example = "specification.pdf")
+        @NotBlank
+        @Size(max = 255)
+        String fileName,
+
+        @Schema(description = "MIME type, must be sent as Content-Type of the upload", example = "application/pdf")
+        @NotBlank
+        @Size(max = 127)
+        String contentType,
+
+        @Schema(description = "Exact size in bytes, must be sent as Content-Length of the upload", example = "524288")
+        @NotNull
+        @Positive
+        Long size
+) {}
@@ -0,0 +1,70 @@
+package de.upteams.tasktracker.files.entity;
+
+import de.upteams.tasktracker.utils.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Unique content of attachments, stored once under a key derived from its SHA-256.
+ * {@link #refCount} is the number of {@link StoredFile}s using it; released blobs are collected
+ * by {@code FileBlobCollector} after a grace period.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(
+        name = "file_blob",
+        uniqueConstraints = @UniqueConstraint(name = "uk_file_blob_sha256", columnNames = "sha256"),
+        indexes = @Index(name = "idx_file_blob_ref_count_released", columnList = "ref_count, released_at")
+)
+public class FileBlob extends BaseEntity {
+
+    /**
+     * Hex SHA-256 of the content
+     */
+    @Column(name = "sha256", nullable = false, updatable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "object_key", nullable = false, updatable = false, length = 512)
+    private String objectKey;
+
+    @Column(name = "size", nullable = false, updatable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Time the last reference was removed, null while referenced
+     */
+    @Column(name = "released_at")
+    private Instant releasedAt;
+
+    public FileBlob(String sha256, String objectKey, long size) {
+        this.sha256 = sha256;
+        this.objectKey = objectKey;
+        this.size = size;
+        this.refCount = 1;
+    }
+
+    @Override
+    public String toString() {
+        return "FileBlob{" +
+                "id=" + id +
+                ", sha256='" + sha256 + '\'' +
+                ", size=" + size +
+                ", refCount=" + refCount +
+                ", releasedAt=" + releasedAt +
+                '}';
+    }
+}
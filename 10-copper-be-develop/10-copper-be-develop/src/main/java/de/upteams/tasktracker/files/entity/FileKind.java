@@ -0,0 +1,25 @@
+package de.upteams.tasktracker.files.entity;
+
+/**
+ * Purpose of a stored file, defines its key prefix, size limit and who may download it
+ */
+public enum FileKind {
+    /**
+     * Profile picture, visible to every user
+     */
+    AVATAR("avatars"),
+    /**
+     * File of a task, visible to collaborators of its project
+     */
+    ATTACHMENT("attachments");
+
+    private final String keyPrefix;
+
+    FileKind(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public String keyPrefix() {
+        return keyPrefix;
+    }
+}
@@ -0,0 +1,12 @@
+package de.upteams.tasktracker.files.entity;
+
+public enum FileStatus {
+    /**
+     * Upload URL issued, the client did not report the upload as finished yet
+     */
+    PENDING,
+    /**
+     * Object exists in the bucket, size and ETag are recorded
+     */
+    UPLOADED
+}
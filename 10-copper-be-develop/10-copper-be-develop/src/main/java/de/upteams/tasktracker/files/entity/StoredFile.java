@@ -0,0 +1,124 @@
+package de.upteams.tasktracker.files.entity;
+
+import de.upteams.tasktracker.task.entity.Task;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.utils.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+import static de.upteams.tasktracker.utils.EntityUtil.getIdForToString;
+
+/**
+ * Metadata of an object in the bucket. Files uploaded with presigned URLs own their object,
+ * attachments uploaded through the application share the object of their {@link FileBlob}.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(
+        name = "stored_file",
+        indexes = {
+                @Index(name = "idx_stored_file_task", columnList = "task_id"),
+                @Index(name = "idx_stored_file_object_key", columnList = "object_key")
+        }
+)
+public class StoredFile extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, updatable = false, length = 16)
+    private FileKind kind;
+
+    @Column(name = "object_key", nullable = false, updatable = false, length = 512)
+    private String objectKey;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false, updatable = false)
+    private AppUser owner;
+
+    /**
+     * Task of an attachment, null for avatars. Attachments are deleted together with the task,
+     * references of their blobs are recounted by the collector.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "task_id", updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Task task;
+
+    /**
+     * Deduplicated content, null for files uploaded with presigned URLs
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id", updatable = false)
+    private FileBlob blob;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "content_type", nullable = false, length = 127)
+    private String contentType;
+
+    /**
+     * Declared size until the upload is completed, then the size of the stored object
+     */
+    @Column(name = "size", nullable = false)
+    private long size;
+
+    @Column(name = "etag", length = 128)
+    private String etag;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private FileStatus status = FileStatus.PENDING;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "uploaded_at")
+    private Instant uploadedAt;
+
+    public StoredFile(FileKind kind, String objectKey, AppUser owner, Task task,
+                      String fileName, String contentType, long size) {
+        this.kind = kind;
+        this.objectKey = objectKey;
+        this.owner = owner;
+        this.task = task;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.size = size;
+    }
+
+    /**
+     * Uploaded attachment referencing deduplicated content
+     */
+    public static StoredFile attachment(FileBlob blob, AppUser owner, Task task, String fileName, String contentType) {
+        final StoredFile file = new StoredFile(FileKind.ATTACHMENT, blob.getObjectKey(), owner, task,
+                fileName, contentType, blob.getSize());
+        file.blob = blob;
+        file.status = FileStatus.UPLOADED;
+        file.uploadedAt = Instant.now();
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        return "StoredFile{" +
+                "id=" + id +
+                ", kind=" + kind +
+                ", objectKey='" + objectKey + '\'' +
+                ", ownerId=" + getIdForToString(owner) +
+                ", taskId=" + getIdForToString(task) +
+                ", blobId=" + getIdForToString(blob) +
+                ", size=" + size +
+                ", status=" + status +
+                '}';
+    }
+}
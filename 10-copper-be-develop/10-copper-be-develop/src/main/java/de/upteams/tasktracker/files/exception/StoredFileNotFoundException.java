@@ -0,0 +1,14 @@
+package de.upteams.tasktracker.files.exception;
+
+import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception that throws when a stored file does not exist in the Database or was not uploaded yet
+ */
+public class StoredFileNotFoundException extends RestApiException {
+
+    public StoredFileNotFoundException() {
+        super(HttpStatus.NOT_FOUND, "File not found");
+    }
+}
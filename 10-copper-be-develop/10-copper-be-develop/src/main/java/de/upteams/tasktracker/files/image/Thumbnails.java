@@ -0,0 +1,106 @@
+package de.upteams.tasktracker.files.image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+/**
+ * Square thumbnails of uploaded images.
+ * <p>
+ * An image is decoded and center-cropped once by {@link #decodeSquare}; the result is only read afterwards,
+ * so renditions of several sizes can be drawn from it concurrently.
+ * Images with transparency are encoded as PNG, opaque ones as JPEG.
+ * </p>
+ */
+public final class Thumbnails {
+
+    private Thumbnails() {
+    }
+
+    /**
+     * Encoded thumbnail
+     */
+    public record Rendition(byte[] content, String contentType, String extension) {
+    }
+
+    /**
+     * Decodes the image and crops its center square.
+     *
+     * @throws IllegalArgumentException if the content is not a supported image or has more than {@code maxPixels}
+     */
+    public static BufferedImage decodeSquare(byte[] content, long maxPixels) {
+        final BufferedImage image;
+        // кэш в памяти: ImageIO по умолчанию буферизует потоки во временных файлах
+        try (ImageInputStream stream = new MemoryCacheImageInputStream(new ByteArrayInputStream(content))) {
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                // размеры читаются из заголовка, до выделения памяти под пиксели
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new IllegalArgumentException("Image should not have more than " + maxPixels + " pixels");
+                }
+                image = reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Image could not be decoded", e);
+        }
+        final int side = Math.min(image.getWidth(), image.getHeight());
+        return image.getSubimage((image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+    }
+
+    /**
+     * Scales the square image to {@code pixels} x {@code pixels} and encodes it
+     */
+    public static Rendition render(BufferedImage square, int pixels) {
+        final boolean alpha = square.getColorModel().hasAlpha();
+        BufferedImage current = square;
+        int side = square.getWidth();
+        // уменьшаем вдвое за шаг: билинейная интерполяция за один большой шаг теряет детали
+        while (side / 2 >= pixels) {
+            side /= 2;
+            current = scale(current, side, alpha);
+        }
+        if (side != pixels || current == square) {
+            current = scale(current, pixels, alpha);
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            ImageIO.write(current, alpha ? "png" : "jpeg", stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return alpha
+                ? new Rendition(out.toByteArray(), "image/png", "png")
+                : new Rendition(out.toByteArray(), "image/jpeg", "jpg");
+    }
+
+    private static BufferedImage scale(BufferedImage source, int side, boolean alpha) {
+        final BufferedImage target = new BufferedImage(side, side,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, side, side, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
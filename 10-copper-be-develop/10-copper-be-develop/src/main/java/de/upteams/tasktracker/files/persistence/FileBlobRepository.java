@@ -0,0 +1,66 @@
+package de.upteams.tasktracker.files.persistence;
+
+import de.upteams.tasktracker.files.entity.FileBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, UUID> {
+
+    Optional<FileBlob> findBySha256(String sha256);
+
+    /**
+     * Adds a reference to the blob with this content, if there is one.
+     * A single UPDATE, so concurrent uploads of the same content do not lose references.
+     *
+     * @return 1 if the blob exists, 0 otherwise
+     */
+    @Modifying
+    @Query("update FileBlob b set b.refCount = b.refCount + 1, b.releasedAt = null where b.sha256 = :sha256")
+    int acquire(@Param("sha256") String sha256);
+
+    /**
+     * Removes a reference; the blob becomes collectable when it was the last one.
+     * {@code releasedAt} is assigned first: MySQL evaluates assignments left to right.
+     */
+    @Modifying
+    @Query("""
+            update FileBlob b
+            set b.releasedAt = case when b.refCount <= 1 then :now else b.releasedAt end,
+                b.refCount = b.refCount - 1
+            where b.id = :id
+            """)
+    int release(@Param("id") UUID id, @Param("now") Instant now);
+
+    /**
+     * Fixes reference counts that drifted, e.g. by attachments deleted in cascade with their task
+     */
+    @Modifying
+    @Query(value = """
+            update file_blob b
+            set b.ref_count = (select count(*) from stored_file f where f.blob_id = b.id)
+            """, nativeQuery = true)
+    int recountReferences();
+
+    @Modifying
+    @Query("update FileBlob b set b.releasedAt = :now where b.refCount <= 0 and b.releasedAt is null")
+    int markReleased(@Param("now") Instant now);
+
+    @Query("select b.id from FileBlob b where b.refCount <= 0 and b.releasedAt < :before order by b.releasedAt")
+    List<UUID> findReleasedBefore(@Param("before") Instant before, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from FileBlob b where b.id = :id")
+    Optional<FileBlob> lockById(@Param("id") UUID id);
+}
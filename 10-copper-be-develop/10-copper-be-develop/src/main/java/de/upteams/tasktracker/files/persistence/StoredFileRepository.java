@@ -0,0 +1,21 @@
+package de.upteams.tasktracker.files.persistence;
+
+import de.upteams.tasktracker.files.entity.StoredFile;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, UUID> {
+
+    /**
+     * File with the project of its task, as needed for the access check of downloads
+     */
+    @EntityGraph(attributePaths = {"task", "task.project"})
+    Optional<StoredFile> findWithTaskById(UUID id);
+
+    long countByBlobId(UUID blobId);
+}
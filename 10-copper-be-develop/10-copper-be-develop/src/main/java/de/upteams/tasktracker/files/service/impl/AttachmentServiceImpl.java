@@ -0,0 +1,238 @@
+package de.upteams.tasktracker.files.service.impl;
+
+import de.upteams.tasktracker.collaborator.service.interfaces.CollaboratorService;
+import de.upteams.tasktracker.configuration.AwsS3Configuration;
+import de.upteams.tasktracker.configuration.FileStorageProperties;
+import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
+import de.upteams.tasktracker.files.dto.StoredFileDto;
+import de.upteams.tasktracker.files.entity.FileBlob;
+import de.upteams.tasktracker.files.entity.FileKind;
+import de.upteams.tasktracker.files.entity.StoredFile;
+import de.upteams.tasktracker.files.exception.StoredFileNotFoundException;
+import de.upteams.tasktracker.files.persistence.FileBlobRepository;
+import de.upteams.tasktracker.files.persistence.StoredFileRepository;
+import de.upteams.tasktracker.files.service.interfaces.AttachmentService;
+import de.upteams.tasktracker.files.uploading.FileService;
+import de.upteams.tasktracker.task.entity.Task;
+import de.upteams.tasktracker.task.service.interfaces.TaskService;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Content-addressed attachments.
+ * <p>
+ * The SHA-256 of the upload is computed in one streaming pass over the request part, before anything
+ * is sent to the bucket: known content only gets one more reference in {@link FileBlob#getRefCount()},
+ * new content is uploaded under {@code blobs/sha256/<first two hex digits>/<hash>}.
+ * Counted as {@code files.blob.dedup} tagged by {@code result} ({@code hit} or {@code miss}).
+ * Blobs without references are deleted by {@link FileBlobCollector}.
+ * </p>
+ * <p>
+ * Uploads run in short transactions of their own, so no connection is held while the content is transferred.
+ * </p>
+ */
+@Slf4j
+@Service
+public class AttachmentServiceImpl implements AttachmentService {
+
+    static final String BLOB_KEY_PREFIX = "blobs/sha256/";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final StoredFileRepository files;
+    private final FileBlobRepository blobs;
+    private final TaskService taskService;
+    private final CollaboratorService collaboratorService;
+    private final UserService userService;
+    private final FileService fileService;
+    private final S3Client s3Client;
+    private final AwsS3Configuration s3Config;
+    private final FileStorageProperties properties;
+    private final TransactionTemplate transactions;
+    private final Counter dedupHits;
+    private final Counter dedupMisses;
+
+    public AttachmentServiceImpl(
+            StoredFileRepository files,
+            FileBlobRepository blobs,
+            TaskService taskService,
+            CollaboratorService collaboratorService,
+            UserService userService,
+            FileService fileService,
+            S3Client s3Client,
+            AwsS3Configuration s3Config,
+            FileStorageProperties properties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.files = files;
+        this.blobs = blobs;
+        this.taskService = taskService;
+        this.collaboratorService = collaboratorService;
+        this.userService = userService;
+        this.fileService = fileService;
+        this.s3Client = s3Client;
+        this.s3Config = s3Config;
+        this.properties = properties;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.dedupHits = Counter.builder("files.blob.dedup")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.dedupMisses = Counter.builder("files.blob.dedup")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public StoredFileDto upload(final String taskId, final MultipartFile content, final AppUser user) {
+        if (content == null || content.isEmpty()) {
+            throw new RestApiException(HttpStatus.BAD_REQUEST, "Attachment should not be empty");
+        }
+        final long maxSize = properties.getMaxAttachmentSize().toBytes();
+        if (content.getSize() > maxSize) {
+            throw new RestApiException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "File should not be bigger than " + maxSize + " bytes");
+        }
+        final Task task = taskService.getOrThrow(taskId);
+        if (!collaboratorService.hasUserPermission(user, task.getProject(), FileStorageServiceImpl.EDITOR_ROLES)) {
+            throw new RestApiException(HttpStatus.FORBIDDEN, "User has no access to this project");
+        }
+        final String fileName = StringUtils.hasText(StringUtils.getFilename(content.getOriginalFilename()))
+                ? StringUtils.getFilename(content.getOriginalFilename()).trim()
+                : "attachment";
+        final String contentType = StringUtils.hasText(content.getContentType())
+                ? content.getContentType().trim().toLowerCase(Locale.ROOT)
+                : DEFAULT_CONTENT_TYPE;
+
+        final FileBlob blob = acquireBlob(sha256(content), content);
+        try {
+            final StoredFile file = transactions.execute(status ->
+                    files.save(StoredFile.attachment(blob, userService.getReference(user.getId()), task, fileName, contentType)));
+            log.debug("Attached {}", file);
+            return StoredFileDto.of(file);
+        } catch (RuntimeException e) {
+            transactions.executeWithoutResult(status -> blobs.release(blob.getId(), Instant.now()));
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional
+    public void delete(final String fileId, final AppUser user) {
+        final StoredFile file = files
+                .findWithTaskById(UUID.fromString(fileId))
+                .filter(found -> found.getKind() == FileKind.ATTACHMENT)
+                .orElseThrow(StoredFileNotFoundException::new);
+        if (!file.getOwner().getId().equals(user.getId())
+                && !collaboratorService.hasUserPermission(user, file.getTask().getProject(),
+                FileStorageServiceImpl.EDITOR_ROLES)) {
+            throw new RestApiException(HttpStatus.FORBIDDEN, "User has no access to this project");
+        }
+        files.delete(file);
+
+        if (file.getBlob() != null) {
+            blobs.release(file.getBlob().getId(), Instant.now());
+            return;
+        }
+        // объект загружен по presigned-ссылке и принадлежит только этому файлу
+        final String objectKey = file.getObjectKey();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    s3Client.deleteObject(builder -> builder.bucket(s3Config.getBucketName()).key(objectKey));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to delete object '{}' of a deleted attachment: {}", objectKey, e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Takes a reference to stored content with this hash, uploading the content if there is none yet
+     */
+    private FileBlob acquireBlob(final String sha256, final MultipartFile content) {
+        final FileBlob existing = findAndAcquire(sha256);
+        if (existing != null) {
+            dedupHits.increment();
+            return existing;
+        }
+
+        final String objectKey = blobKey(sha256);
+        final boolean uploaded;
+        try {
+            uploaded = fileService.uploadFileAsync(objectKey, content.getInputStream(),
+                    Map.of("sha256", sha256), null, content.getSize(), false).join();
+        } catch (IOException e) {
+            throw new RestApiException(HttpStatus.BAD_REQUEST, "Attachment could not be read");
+        }
+        if (!uploaded) {
+            throw new RestApiException(HttpStatus.BAD_GATEWAY, "Attachment could not be stored");
+        }
+
+        try {
+            final FileBlob created = transactions.execute(status ->
+                    blobs.saveAndFlush(new FileBlob(sha256, objectKey, content.getSize())));
+            dedupMisses.increment();
+            return created;
+        } catch (DataIntegrityViolationException e) {
+            // тот же контент загружен параллельно: ключ совпадает, объект в бакете тот же
+            final FileBlob concurrent = findAndAcquire(sha256);
+            if (concurrent == null) {
+                throw e;
+            }
+            dedupHits.increment();
+            return concurrent;
+        }
+    }
+
+    private FileBlob findAndAcquire(final String sha256) {
+        return transactions.execute(status -> blobs.acquire(sha256) > 0
+                ? blobs.findBySha256(sha256).orElseThrow()
+                : null);
+    }
+
+    static String blobKey(final String sha256) {
+        return BLOB_KEY_PREFIX + sha256.substring(0, 2) + "/" + sha256;
+    }
+
+    private static String sha256(final MultipartFile content) {
+        try (InputStream in = content.getInputStream()) {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final byte[] buffer = new byte[HASH_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new RestApiException(HttpStatus.BAD_REQUEST, "Attachment could not be read");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
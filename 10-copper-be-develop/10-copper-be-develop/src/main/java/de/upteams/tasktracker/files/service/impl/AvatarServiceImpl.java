@@ -0,0 +1,287 @@
+package de.upteams.tasktracker.files.service.impl;
+
+import de.upteams.tasktracker.configuration.AsyncExecutorsConfig;
+import de.upteams.tasktracker.configuration.AwsS3Configuration;
+import de.upteams.tasktracker.configuration.FileStorageProperties;
+import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
+import de.upteams.tasktracker.files.cache.FileContent;
+import de.upteams.tasktracker.files.cache.LocalObjectCache;
+import de.upteams.tasktracker.files.dto.AvatarDto;
+import de.upteams.tasktracker.files.dto.PresignedUrlDto;
+import de.upteams.tasktracker.files.exception.StoredFileNotFoundException;
+import de.upteams.tasktracker.files.image.Thumbnails;
+import de.upteams.tasktracker.files.service.interfaces.AvatarService;
+import de.upteams.tasktracker.files.uploading.FileService;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.entity.AvatarSize;
+import de.upteams.tasktracker.user.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Avatar pipeline: the uploaded image (sent to the application or uploaded with a presigned URL) is decoded
+ * once on the {@link AsyncExecutorsConfig#IMAGE_EXECUTOR}, every {@link AvatarSize} is rendered from it in parallel
+ * on the same bounded pool and each rendition is uploaded through {@link FileService} as soon as it is ready.
+ * Then the rendition keys are saved to the user under its row lock and the objects of the previous avatar
+ * are deleted after commit. If any step fails, the renditions already uploaded are deleted once every started
+ * rendition has finished.
+ * Timed as {@code files.avatar.upload} tagged by {@code outcome}.
+ * <p>
+ * Renditions are served from the {@link LocalObjectCache}, or by redirect to a presigned URL if it is disabled.
+ * Keys contain a random version, so the URLs of a new avatar differ and browsers may cache them.
+ * </p>
+ */
+@Slf4j
+@Service
+public class AvatarServiceImpl implements AvatarService {
+
+    private final UserService userService;
+    private final FileService fileService;
+    private final LocalObjectCache objectCache;
+    private final S3Presigner presigner;
+    private final S3Client s3Client;
+    private final AwsS3Configuration s3Config;
+    private final FileStorageProperties properties;
+    private final Executor imageExecutor;
+    private final MeterRegistry meterRegistry;
+    private final String baseUrl;
+
+    public AvatarServiceImpl(
+            UserService userService,
+            FileService fileService,
+            LocalObjectCache objectCache,
+            S3Presigner presigner,
+            S3Client s3Client,
+            AwsS3Configuration s3Config,
+            FileStorageProperties properties,
+            @Qualifier(AsyncExecutorsConfig.IMAGE_EXECUTOR) Executor imageExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${app.base-url}") String baseUrl
+    ) {
+        this.userService = userService;
+        this.fileService = fileService;
+        this.objectCache = objectCache;
+        this.presigner = presigner;
+        this.s3Client = s3Client;
+        this.s3Config = s3Config;
+        this.properties = properties;
+        this.imageExecutor = imageExecutor;
+        this.meterRegistry = meterRegistry;
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public AvatarDto upload(final MultipartFile image, final AppUser user) {
+        if (image == null || image.isEmpty()) {
+            throw new RestApiException(HttpStatus.BAD_REQUEST, "Avatar should not be empty");
+        }
+        final long maxSize = properties.getMaxAvatarSize().toBytes();
+        if (image.getSize() > maxSize) {
+            throw new RestApiException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "File should not be bigger than " + maxSize + " bytes");
+        }
+        final String contentType = image.getContentType() == null
+                ? ""
+                : image.getContentType().trim().toLowerCase(Locale.ROOT);
+        if (!properties.getAvatarContentTypes().contains(contentType)) {
+            throw new RestApiException(HttpStatus.BAD_REQUEST,
+                    "Avatar should be one of " + properties.getAvatarContentTypes());
+        }
+        final byte[] content;
+        try {
+            content = image.getBytes();
+        } catch (IOException e) {
+            throw new RestApiException(HttpStatus.BAD_REQUEST, "Avatar could not be read");
+        }
+        return replace(content, user);
+    }
+
+    @Override
+    public AvatarDto replace(final byte[] content, final AppUser user) {
+        final String version = UUID.randomUUID().toString();
+        final Queue<String> uploaded = new ConcurrentLinkedQueue<>();
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        final Map<AvatarSize, String> keys;
+        try {
+            keys = renderAndUpload(content, user.getId(), version, uploaded).join();
+            outcome = "success";
+        } catch (CompletionException | TaskRejectedException e) {
+            deleteObjects(uploaded);
+            throw translate(e instanceof CompletionException ? e.getCause() : e);
+        } finally {
+            sample.stop(Timer.builder("files.avatar.upload")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+
+        final Map<AvatarSize, String> urls = new EnumMap<>(AvatarSize.class);
+        keys.keySet().forEach(size -> urls.put(size, avatarUrl(user.getId(), size, version)));
+        final List<String> replaced;
+        try {
+            replaced = userService.replaceAvatarKeys(user.getId(), keys, urls.get(AvatarSize.MEDIUM));
+        } catch (RuntimeException e) {
+            deleteObjects(keys.values());
+            throw e;
+        }
+        deleteAfterCommit(replaced);
+        log.debug("Avatar of user {} replaced with {}", user.getId(), keys.values());
+        return new AvatarDto(urls);
+    }
+
+    @Override
+    public FileContent openAvatar(final String userId, final AvatarSize size) {
+        final String key = userService.getByIdOrThrow(userId).getAvatarKey(size);
+        if (key == null) {
+            throw new StoredFileNotFoundException();
+        }
+        final String contentType = key.endsWith(".png") ? "image/png" : "image/jpeg";
+        if (!objectCache.isEnabled()) {
+            return FileContent.redirect(presignGet(userId, key, contentType));
+        }
+        try {
+            return FileContent.cached(contentType, ContentDisposition.inline().build().toString(),
+                    objectCache.open(key));
+        } catch (NoSuchKeyException e) {
+            throw new StoredFileNotFoundException();
+        } catch (IOException | SdkException e) {
+            log.warn("Failed to load avatar '{}': {}", key, e.getMessage());
+            throw new RestApiException(HttpStatus.BAD_GATEWAY, "File could not be loaded from the storage");
+        }
+    }
+
+    private CompletableFuture<Map<AvatarSize, String>> renderAndUpload(
+            byte[] content, UUID userId, String version, Queue<String> uploaded) {
+        return CompletableFuture
+                .supplyAsync(() -> Thumbnails.decodeSquare(content, properties.getMaxAvatarPixels()), imageExecutor)
+                .thenCompose(square -> {
+                    final Map<AvatarSize, CompletableFuture<String>> renditions = new EnumMap<>(AvatarSize.class);
+                    try {
+                        for (AvatarSize size : AvatarSize.values()) {
+                            renditions.put(size, CompletableFuture
+                                    .supplyAsync(() -> Thumbnails.render(square, size.pixels()), imageExecutor)
+                                    .thenCompose(rendition -> upload(userId, version, size, rendition, uploaded)));
+                        }
+                    } catch (TaskRejectedException e) {
+                        // уже запущенные размеры ещё загружаются: ждём их, иначе очистка не увидит их ключи
+                        return CompletableFuture.allOf(renditions.values().toArray(CompletableFuture[]::new))
+                                .<Map<AvatarSize, String>>handle((ignored, failure) -> {
+                                    throw new CompletionException(e);
+                                });
+                    }
+                    return CompletableFuture.allOf(renditions.values().toArray(CompletableFuture[]::new))
+                            .thenApply(ignored -> {
+                                final Map<AvatarSize, String> keys = new EnumMap<>(AvatarSize.class);
+                                renditions.forEach((size, key) -> keys.put(size, key.join()));
+                                return keys;
+                            });
+                });
+    }
+
+    private CompletableFuture<String> upload(UUID userId, String version, AvatarSize size,
+                                             Thumbnails.Rendition rendition, Queue<String> uploaded) {
+        final String key = "avatars/" + userId + "/" + version + "/" + size.pathSegment() + "." + rendition.extension();
+        return fileService.uploadFileAsync(key, new ByteArrayInputStream(rendition.content()),
+                        Map.of("rendition", size.pathSegment()), rendition.contentType(),
+                        (long) rendition.content().length, false)
+                .thenApply(succeeded -> {
+                    if (!succeeded) {
+                        throw new IllegalStateException("Upload of '" + key + "' failed");
+                    }
+                    uploaded.add(key);
+                    return key;
+                });
+    }
+
+    private String avatarUrl(UUID userId, AvatarSize size, String version) {
+        return baseUrl + "/api/v1/files/avatars/" + userId + "/" + size.pathSegment() + "?v=" + version.substring(0, 8);
+    }
+
+    private PresignedUrlDto presignGet(String userId, String key, String contentType) {
+        final PresignedGetObjectRequest presigned = presigner.presignGetObject(builder -> builder
+                .signatureDuration(properties.getDownloadUrlTtl())
+                .getObjectRequest(request -> request
+                        .bucket(s3Config.getBucketName())
+                        .key(key)
+                        .responseContentType(contentType)));
+        return new PresignedUrlDto(userId, "GET", presigned.url().toString(), Map.of(), presigned.expiration());
+    }
+
+    private static RuntimeException translate(Throwable cause) {
+        if (cause instanceof RestApiException restApiException) {
+            return restApiException;
+        }
+        if (cause instanceof IllegalArgumentException) {
+            return new RestApiException(HttpStatus.BAD_REQUEST, cause.getMessage());
+        }
+        if (cause instanceof TaskRejectedException) {
+            return new RestApiException(HttpStatus.SERVICE_UNAVAILABLE, "Too many images are processed, try again later");
+        }
+        log.warn("Avatar upload failed: {}", cause.getMessage(), cause);
+        return new RestApiException(HttpStatus.BAD_GATEWAY, "Avatar could not be stored");
+    }
+
+    /**
+     * Objects of the previous avatar may be deleted only once the new keys are committed
+     */
+    private void deleteAfterCommit(List<String> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteObjects(keys);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteObjects(keys);
+            }
+        });
+    }
+
+    /**
+     * Best effort: a failure leaves only unreferenced objects behind
+     */
+    private void deleteObjects(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            s3Client.deleteObjects(builder -> builder
+                    .bucket(s3Config.getBucketName())
+                    .delete(delete -> delete.objects(keys.stream()
+                            .map(key -> ObjectIdentifier.builder().key(key).build())
+                            .toList())));
+        } catch (SdkException e) {
+            log.warn("Failed to delete avatar objects {}: {}", keys, e.getMessage());
+        }
+    }
+}
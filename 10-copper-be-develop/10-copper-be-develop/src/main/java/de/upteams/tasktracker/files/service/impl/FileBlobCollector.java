@@ -0,0 +1,117 @@
+package de.upteams.tasktracker.files.service.impl;
+
+import de.upteams.tasktracker.configuration.AsyncExecutorsConfig;
+import de.upteams.tasktracker.configuration.AwsS3Configuration;
+import de.upteams.tasktracker.configuration.FileStorageProperties;
+import de.upteams.tasktracker.files.entity.FileBlob;
+import de.upteams.tasktracker.files.persistence.FileBlobRepository;
+import de.upteams.tasktracker.files.persistence.StoredFileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deletes {@link FileBlob}s that have had no references for {@code files.storage.blob-gc-grace},
+ * counted as {@code files.blobs.collected}.
+ * <p>
+ * Reference counts are recounted first, attachments removed in cascade with their task are not released one by one.
+ * Every blob is deleted in its own transaction holding the row lock, so a concurrent upload of the same content
+ * either takes a reference before (and the blob is kept) or finds no blob after and uploads the content again.
+ * </p>
+ */
+@Slf4j
+@Component
+public class FileBlobCollector {
+
+    private final FileBlobRepository blobs;
+    private final StoredFileRepository files;
+    private final S3Client s3Client;
+    private final AwsS3Configuration s3Config;
+    private final FileStorageProperties properties;
+    private final TransactionTemplate transactions;
+    private final Counter collected;
+
+    public FileBlobCollector(
+            FileBlobRepository blobs,
+            StoredFileRepository files,
+            S3Client s3Client,
+            AwsS3Configuration s3Config,
+            FileStorageProperties properties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.blobs = blobs;
+        this.files = files;
+        this.s3Client = s3Client;
+        this.s3Config = s3Config;
+        this.properties = properties;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.collected = Counter.builder("files.blobs.collected")
+                .description("Unreferenced attachment contents deleted from the storage")
+                .register(meterRegistry);
+    }
+
+    @Async(AsyncExecutorsConfig.MAINTENANCE_EXECUTOR)
+    @Scheduled(cron = "${files.storage.blob-gc-cron:0 0 4 * * *}")
+    public void collect() {
+        final Instant now = Instant.now();
+        transactions.executeWithoutResult(status -> {
+            blobs.recountReferences();
+            blobs.markReleased(now);
+        });
+
+        final Instant releasedBefore = now.minus(properties.getBlobGcGrace());
+        final int batchSize = properties.getBlobGcBatchSize();
+        int deleted = 0;
+        List<UUID> candidates;
+        boolean failed = false;
+        do {
+            candidates = blobs.findReleasedBefore(releasedBefore, Limit.of(batchSize));
+            for (UUID id : candidates) {
+                try {
+                    if (Boolean.TRUE.equals(transactions.execute(status -> collect(id)))) {
+                        deleted++;
+                    }
+                } catch (RuntimeException e) {
+                    // остальные попробуем при следующем запуске, чтобы не выбирать тот же блоб бесконечно
+                    failed = true;
+                    log.warn("Failed to collect blob {}: {}", id, e.getMessage());
+                }
+            }
+        } while (!failed && candidates.size() == batchSize);
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced attachment blobs", deleted);
+        }
+    }
+
+    private boolean collect(UUID id) {
+        final FileBlob blob = blobs.lockById(id).orElse(null);
+        if (blob == null || blob.getRefCount() > 0) {
+            return false;
+        }
+        final long references = files.countByBlobId(id);
+        if (references > 0) {
+            log.warn("{} has {} references, fixing the count", blob, references);
+            blob.setRefCount((int) references);
+            blob.setReleasedAt(null);
+            return false;
+        }
+        blobs.delete(blob);
+        blobs.flush();
+        // объект удаляется под блокировкой строки: параллельная загрузка того же контента ждёт коммита
+        s3Client.deleteObject(builder -> builder.bucket(s3Config.getBucketName()).key(blob.getObjectKey()));
+        collected.increment();
+        return true;
+    }
+}
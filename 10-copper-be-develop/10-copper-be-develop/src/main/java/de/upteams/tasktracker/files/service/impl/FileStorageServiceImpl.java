@@ -0,0 +1,291 @@
+package de.upteams.tasktracker.files.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.upteams.tasktracker.collaborator.entity.ProjectRoles;
+import de.upteams.tasktracker.collaborator.service.interfaces.CollaboratorService;
+import de.upteams.tasktracker.configuration.AwsS3Configuration;
+import de.upteams.tasktracker.configuration.FileStorageProperties;
+import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
+import de.upteams.tasktracker.files.cache.FileContent;
+import de.upteams.tasktracker.files.cache.LocalObjectCache;
+import de.upteams.tasktracker.files.dto.PresignedUrlDto;
+import de.upteams.tasktracker.files.dto.StoredFileDto;
+import de.upteams.tasktracker.files.dto.UploadUrlRequestDto;
+import de.upteams.tasktracker.files.entity.FileKind;
+import de.upteams.tasktracker.files.entity.FileStatus;
+import de.upteams.tasktracker.files.entity.StoredFile;
+import de.upteams.tasktracker.files.exception.StoredFileNotFoundException;
+import de.upteams.tasktracker.files.persistence.StoredFileRepository;
+import de.upteams.tasktracker.files.service.interfaces.AvatarService;
+import de.upteams.tasktracker.files.service.interfaces.FileStorageService;
+import de.upteams.tasktracker.task.entity.Task;
+import de.upteams.tasktracker.task.service.interfaces.TaskService;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Issues presigned URLs for avatars, task attachments and downloads of stored files.
+ * <p>
+ * Uploads: the client asks for a PUT URL (a {@code PENDING} file is registered), sends the bytes to the bucket
+ * and reports completion; the object is then checked with a HEAD request and its size and ETag are recorded.
+ * An uploaded avatar is the original: on completion it is read back and rendered by {@link AvatarService}.
+ * Downloads: GET URLs are cached per file for {@code downloadUrlTtl - downloadUrlMinValidity}, so repeated
+ * downloads get the same URL (and hit the browser cache) and every handed out URL is valid long enough to be used.
+ * The cache is published as {@code cache.*} meters with {@code cache=files.download-url}.
+ * Content of files small enough for the {@link LocalObjectCache} is served by the application instead.
+ * </p>
+ */
+@Slf4j
+@Service
+public class FileStorageServiceImpl implements FileStorageService {
+
+    static final List<ProjectRoles> EDITOR_ROLES =
+            List.of(ProjectRoles.MEMBER, ProjectRoles.OWNER, ProjectRoles.ADMIN);
+
+    private final StoredFileRepository repository;
+    private final TaskService taskService;
+    private final CollaboratorService collaboratorService;
+    private final UserService userService;
+    private final AvatarService avatarService;
+    private final S3Presigner presigner;
+    private final S3Client s3Client;
+    private final AwsS3Configuration s3Config;
+    private final FileStorageProperties properties;
+    private final LocalObjectCache objectCache;
+    private final Cache<UUID, PresignedUrlDto> downloadUrls;
+
+    public FileStorageServiceImpl(
+            StoredFileRepository repository,
+            TaskService taskService,
+            CollaboratorService collaboratorService,
+            UserService userService,
+            AvatarService avatarService,
+            S3Presigner presigner,
+            S3Client s3Client,
+            AwsS3Configuration s3Config,
+            FileStorageProperties properties,
+            LocalObjectCache objectCache,
+            MeterRegistry meterRegistry
+    ) {
+        if (properties.getDownloadUrlTtl().compareTo(properties.getDownloadUrlMinValidity()) <= 0) {
+            throw new IllegalStateException("files.storage.download-url-ttl must be longer than download-url-min-validity");
+        }
+        this.repository = repository;
+        this.taskService = taskService;
+        this.collaboratorService = collaboratorService;
+        this.userService = userService;
+        this.avatarService = avatarService;
+        this.presigner = presigner;
+        this.s3Client = s3Client;
+        this.s3Config = s3Config;
+        this.properties = properties;
+        this.objectCache = objectCache;
+        this.downloadUrls = Caffeine.newBuilder()
+                .maximumSize(properties.getDownloadUrlCacheSize())
+                .expireAfterWrite(properties.getDownloadUrlTtl().minus(properties.getDownloadUrlMinValidity()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, downloadUrls, "files.download-url");
+    }
+
+    @Override
+    @Transactional
+    public PresignedUrlDto createUploadUrl(final UploadUrlRequestDto request, final AppUser user) {
+        final long maxSize = (request.kind() == FileKind.AVATAR
+                ? properties.getMaxAvatarSize()
+                : properties.getMaxAttachmentSize()).toBytes();
+        if (request.size() > maxSize) {
+            throw new RestApiException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "File should not be bigger than " + maxSize + " bytes");
+        }
+        final String contentType = request.contentType().trim().toLowerCase(Locale.ROOT);
+        final Task task;
+        if (request.kind() == FileKind.AVATAR) {
+            if (!properties.getAvatarContentTypes().contains(contentType)) {
+                throw new RestApiException(HttpStatus.BAD_REQUEST,
+                        "Avatar should be one of " + properties.getAvatarContentTypes());
+            }
+            task = null;
+        } else {
+            if (request.taskId() == null || request.taskId().isBlank()) {
+                throw new RestApiException(HttpStatus.BAD_REQUEST, "Attachment should belong to a task");
+            }
+            task = taskService.getOrThrow(request.taskId());
+            if (!collaboratorService.hasUserPermission(user, task.getProject(), EDITOR_ROLES)) {
+                throw new RestApiException(HttpStatus.FORBIDDEN, "User has no access to this project");
+            }
+        }
+
+        // случайный ключ: имя файла от клиента в ключ не попадает
+        final String objectKey = request.kind().keyPrefix() + "/"
+                + (task == null ? user.getId() : task.getId()) + "/" + UUID.randomUUID();
+        final StoredFile file = repository.save(new StoredFile(request.kind(), objectKey, userService.getReference(user.getId()), task,
+                request.fileName().trim(), contentType, request.size()));
+
+        final PresignedPutObjectRequest presigned = presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(properties.getUploadUrlTtl())
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(s3Config.getBucketName())
+                        .key(objectKey)
+                        .contentType(contentType)
+                        .contentLength(request.size())
+                        .build())
+                .build());
+        return new PresignedUrlDto(file.getId().toString(), "PUT", presigned.url().toString(),
+                signedHeaders(presigned.signedHeaders()), presigned.expiration());
+    }
+
+    /**
+     * Not transactional: no connection is held while avatar renditions are rendered and uploaded
+     */
+    @Override
+    public StoredFileDto completeUpload(final String fileId, final AppUser user) {
+        final StoredFile file = repository
+                .findById(UUID.fromString(fileId))
+                .orElseThrow(StoredFileNotFoundException::new);
+        if (!file.getOwner().getId().equals(user.getId())) {
+            throw new RestApiException(HttpStatus.FORBIDDEN, "Only the uploader can complete the upload");
+        }
+        if (file.getStatus() == FileStatus.UPLOADED) {
+            return StoredFileDto.of(file);
+        }
+
+        final HeadObjectResponse head = headObject(file.getObjectKey());
+        if (file.getKind() == FileKind.AVATAR) {
+            // оригинал проходит ту же нарезку размеров, что и аватар, загруженный через приложение
+            avatarService.replace(readObject(file.getObjectKey()), user);
+        }
+        file.setSize(head.contentLength());
+        file.setEtag(head.eTag());
+        file.setStatus(FileStatus.UPLOADED);
+        file.setUploadedAt(Instant.now());
+
+        log.debug("Upload of {} completed", file);
+        return StoredFileDto.of(repository.save(file));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PresignedUrlDto createDownloadUrl(final String fileId, final AppUser user) {
+        final StoredFile file = findReadable(fileId, user);
+        return downloadUrls.get(file.getId(), id -> presignGet(file));
+    }
+
+    /**
+     * Not transactional: no connection is held while a missing object is downloaded into the cache
+     */
+    @Override
+    public FileContent openContent(final String fileId, final AppUser user) {
+        final StoredFile file = findReadable(fileId, user);
+        if (!objectCache.isCacheable(file.getSize())) {
+            return FileContent.redirect(downloadUrls.get(file.getId(), id -> presignGet(file)));
+        }
+        try {
+            return FileContent.cached(file.getContentType(), contentDisposition(file).toString(),
+                    objectCache.open(file.getObjectKey()));
+        } catch (NoSuchKeyException e) {
+            throw new StoredFileNotFoundException();
+        } catch (IOException | SdkException e) {
+            log.warn("Failed to load content of {}: {}", file, e.getMessage());
+            throw new RestApiException(HttpStatus.BAD_GATEWAY, "File could not be loaded from the storage");
+        }
+    }
+
+    private StoredFile findReadable(String fileId, AppUser user) {
+        final StoredFile file = repository
+                .findWithTaskById(UUID.fromString(fileId))
+                .filter(found -> found.getStatus() == FileStatus.UPLOADED)
+                .orElseThrow(StoredFileNotFoundException::new);
+        if (file.getKind() == FileKind.ATTACHMENT
+                && !collaboratorService.isUserInProject(user, file.getTask().getProject())) {
+            throw new RestApiException(HttpStatus.FORBIDDEN, "User has no access to this project");
+        }
+        return file;
+    }
+
+    private static ContentDisposition contentDisposition(StoredFile file) {
+        return (file.getKind() == FileKind.AVATAR
+                ? ContentDisposition.inline()
+                : ContentDisposition.attachment())
+                .filename(file.getFileName(), StandardCharsets.UTF_8)
+                .build();
+    }
+
+    private PresignedUrlDto presignGet(StoredFile file) {
+        final ContentDisposition disposition = contentDisposition(file);
+        final PresignedGetObjectRequest presigned = presigner.presignGetObject(GetObjectPresignRequest.builder()
+                .signatureDuration(properties.getDownloadUrlTtl())
+                .getObjectRequest(GetObjectRequest.builder()
+                        .bucket(s3Config.getBucketName())
+                        .key(file.getObjectKey())
+                        .responseContentType(file.getContentType())
+                        .responseContentDisposition(disposition.toString())
+                        .build())
+                .build());
+        return new PresignedUrlDto(file.getId().toString(), "GET", presigned.url().toString(),
+                signedHeaders(presigned.signedHeaders()), presigned.expiration());
+    }
+
+    private HeadObjectResponse headObject(String objectKey) {
+        try {
+            return s3Client.headObject(builder -> builder.bucket(s3Config.getBucketName()).key(objectKey));
+        } catch (S3Exception e) {
+            if (e.statusCode() == HttpStatus.NOT_FOUND.value()) {
+                throw new RestApiException(HttpStatus.CONFLICT, "File was not uploaded yet");
+            }
+            throw e;
+        }
+    }
+
+    private byte[] readObject(String objectKey) {
+        try {
+            return s3Client.getObjectAsBytes(builder -> builder.bucket(s3Config.getBucketName()).key(objectKey))
+                    .asByteArray();
+        } catch (SdkException e) {
+            log.warn("Failed to read uploaded avatar '{}': {}", objectKey, e.getMessage());
+            throw new RestApiException(HttpStatus.BAD_GATEWAY, "File could not be loaded from the storage");
+        }
+    }
+
+    /**
+     * Headers the client has to send, names in lower case; {@code host} is set by every HTTP client from the URL anyway
+     */
+    private static Map<String, String> signedHeaders(Map<String, List<String>> headers) {
+        final Map<String, String> result = new LinkedHashMap<>();
+        headers.forEach((name, values) -> {
+            if (!"host".equalsIgnoreCase(name)) {
+                result.put(name.toLowerCase(Locale.ROOT), String.join(",", values));
+            }
+        });
+        return result;
+    }
+}
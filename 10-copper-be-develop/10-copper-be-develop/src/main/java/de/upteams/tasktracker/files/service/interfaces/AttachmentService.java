@@ -0,0 +1,22 @@
+package de.upteams.tasktracker.files.service.interfaces;
+
+import de.upteams.tasktracker.files.dto.StoredFileDto;
+import de.upteams.tasktracker.user.entity.AppUser;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Task attachments uploaded through the application. The content is stored once per SHA-256,
+ * attachments with the same content in any task or project share one object in the bucket.
+ */
+public interface AttachmentService {
+
+    /**
+     * Attaches the file to the task; content already in the storage is not uploaded again.
+     */
+    StoredFileDto upload(String taskId, MultipartFile content, AppUser user);
+
+    /**
+     * Deletes an attachment of any upload mode. Shared content is removed only when no attachment uses it.
+     */
+    void delete(String fileId, AppUser user);
+}
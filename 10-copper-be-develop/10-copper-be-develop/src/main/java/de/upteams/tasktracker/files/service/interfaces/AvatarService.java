@@ -0,0 +1,30 @@
+package de.upteams.tasktracker.files.service.interfaces;
+
+import de.upteams.tasktracker.files.cache.FileContent;
+import de.upteams.tasktracker.files.dto.AvatarDto;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.entity.AvatarSize;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Avatars uploaded as images and stored as renditions of fixed sizes, see {@link AvatarSize}.
+ */
+public interface AvatarService {
+
+    /**
+     * Replaces the avatar of the user with thumbnails of the image; {@code avatarUrl} of the user
+     * is set to the {@link AvatarSize#MEDIUM} rendition.
+     */
+    AvatarDto upload(MultipartFile image, AppUser user);
+
+    /**
+     * Same as {@link #upload} for an image already checked for size and type,
+     * e.g. the original uploaded with a presigned URL.
+     */
+    AvatarDto replace(byte[] image, AppUser user);
+
+    /**
+     * Opens a rendition of the avatar of the user. The result has to be closed.
+     */
+    FileContent openAvatar(String userId, AvatarSize size);
+}
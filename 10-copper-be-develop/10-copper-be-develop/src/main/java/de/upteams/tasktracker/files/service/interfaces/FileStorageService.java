@@ -0,0 +1,38 @@
+package de.upteams.tasktracker.files.service.interfaces;
+
+import de.upteams.tasktracker.files.cache.FileContent;
+import de.upteams.tasktracker.files.dto.PresignedUrlDto;
+import de.upteams.tasktracker.files.dto.StoredFileDto;
+import de.upteams.tasktracker.files.dto.UploadUrlRequestDto;
+import de.upteams.tasktracker.user.entity.AppUser;
+
+/**
+ * Avatars and task attachments transferred directly between clients and the bucket.
+ * The application issues presigned URLs and records metadata of the stored objects;
+ * small files are also served by the application from a local cache.
+ */
+public interface FileStorageService {
+
+    /**
+     * Registers a pending file and returns a presigned PUT URL for its content.
+     */
+    PresignedUrlDto createUploadUrl(UploadUrlRequestDto request, AppUser user);
+
+    /**
+     * Records size and ETag of the uploaded object; for avatars also renders the original into the avatar of the user,
+     * see {@link AvatarService#replace}.
+     * Repeated calls return the same result.
+     */
+    StoredFileDto completeUpload(String fileId, AppUser user);
+
+    /**
+     * Returns a presigned GET URL of an uploaded file, the same one for repeated calls while it stays valid.
+     */
+    PresignedUrlDto createDownloadUrl(String fileId, AppUser user);
+
+    /**
+     * Opens the content of an uploaded file from the local cache, or returns a presigned GET URL
+     * for files that are not cached. The result has to be closed.
+     */
+    FileContent openContent(String fileId, AppUser user);
+}
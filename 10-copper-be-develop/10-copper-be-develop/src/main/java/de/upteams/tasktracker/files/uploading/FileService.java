@@ -1,5 +1,6 @@
 package de.upteams.tasktracker.files.uploading;
 
+import de.upteams.tasktracker.configuration.AsyncExecutorsConfig;
 import org.springframework.scheduling.annotation.Async;
 
 import java.io.InputStream;
@@ -11,11 +12,13 @@ import java.util.concurrent.CompletableFuture;
  * <p>
  * Provides a method for uploading a file stream to a specified object key in the target bucket.
  * The method returns a CompletableFuture indicating success ({@code true}) or failure ({@code false}).
+ * Big files and streams of unknown length are uploaded in parts; {@link #uploadMultipartAsync}
+ * additionally reports the upload id, so a failed upload can be resumed.
  * </p>
  * <p>
  * <strong>Note:</strong> To enable asynchronous execution of {@link #uploadFileAsync},
- * ensure that Spring's async support is configured (e.g., with {@code @EnableAsync}
- * and a suitable ExecutorService bean).
+ * ensure that Spring's async support is configured (e.g., with {@code @EnableAsync}).
+ * Uploads run on the dedicated {@link AsyncExecutorsConfig#UPLOAD_EXECUTOR}.
  * </p>
  *
  * <p><strong>Example usage:</strong></p>
@@ -52,13 +55,14 @@ public interface FileService {
      * @param inputStream   the file content as an InputStream; will be closed after upload
      * @param metadata      optional metadata to attach to the object (may be null or empty)
      * @param contentType   optional MIME type of the file (e.g., "image/png"); may be null or blank
-     * @param contentLength exact size in bytes of the input stream; must be greater than zero
+     * @param contentLength exact size in bytes of the input stream; must be greater than zero,
+     *                      or null if unknown
      * @param isPublicRead  if true, assigns PUBLIC_READ ACL; otherwise PRIVATE
      * @return a CompletableFuture that completes with true if the upload succeeded,
      *         or false if validation fails or an exception occurs
-     * @throws IllegalArgumentException if objectKey is null/blank or contentLength is null/≤0
+     * @throws IllegalArgumentException if objectKey is null/blank or contentLength is ≤0
      */
-    @Async
+    @Async(AsyncExecutorsConfig.UPLOAD_EXECUTOR)
     CompletableFuture<Boolean> uploadFileAsync(
             String objectKey,
             InputStream inputStream,
@@ -67,4 +71,30 @@ public interface FileService {
             Long contentLength,
             boolean isPublicRead
     );
+
+    /**
+     * Asynchronously uploads a file stream of any length in parts under the given object key.
+     * <p>
+     * If the result is not completed, calling again with its upload id and the same content
+     * (from the beginning) sends only the parts that are missing.
+     * </p>
+     *
+     * @param objectKey      the target key (path) under which to store the file; must not be null or blank
+     * @param inputStream    the file content as an InputStream; will be closed after upload
+     * @param metadata       optional metadata to attach to the object; ignored when resuming
+     * @param contentType    optional MIME type of the file; ignored when resuming
+     * @param isPublicRead   if true, assigns PUBLIC_READ ACL; otherwise PRIVATE; ignored when resuming
+     * @param resumeUploadId upload id of a not completed result, or null to start a new upload
+     * @return a CompletableFuture that completes with the result, also if the upload failed
+     * @throws IllegalArgumentException if objectKey is null/blank
+     */
+    @Async(AsyncExecutorsConfig.UPLOAD_EXECUTOR)
+    CompletableFuture<MultipartUploadResult> uploadMultipartAsync(
+            String objectKey,
+            InputStream inputStream,
+            Map<String, String> metadata,
+            String contentType,
+            boolean isPublicRead,
+            String resumeUploadId
+    );
 }
@@ -1,6 +1,12 @@
 package de.upteams.tasktracker.files.uploading;
 
+import de.upteams.tasktracker.configuration.AsyncExecutorsConfig;
 import de.upteams.tasktracker.configuration.AwsS3Configuration;
+import de.upteams.tasktracker.configuration.S3MultipartProperties;
+import de.upteams.tasktracker.monitoring.jfr.S3UploadEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,6 +31,15 @@ import java.util.concurrent.ExecutorService;
  * An {@link ExecutorService} is required for reading the InputStream without blocking SDK event-loop threads.
  * Configuration is provided by {@link AwsS3Configuration}.
  * </p>
+ * <p>
+ * Files from {@link S3MultipartProperties#getThreshold()} on and streams of unknown length are uploaded
+ * in parts by {@link S3MultipartUploader}, which reads them in the upload executor thread.
+ * </p>
+ * <p>
+ * Each upload is timed until the SDK future completes as {@code s3.upload} tagged by {@code outcome}
+ * and {@code mode} ({@code single} or {@code multipart}),
+ * uploaded sizes are recorded in the {@code s3.upload.size} summary, the upload is emitted as JFR {@link S3UploadEvent}.
+ * </p>
  *
  * <p><strong>Example usage:</strong></p>
  * <pre>{@code
@@ -50,6 +65,9 @@ public class FileServiceImpl implements FileService {
     private final S3AsyncClient s3Client;
     private final AwsS3Configuration config;
     private final ExecutorService executorService;
+    private final S3MultipartUploader multipartUploader;
+    private final S3MultipartProperties multipartProperties;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Asynchronously uploads a file input stream to the configured bucket.
@@ -58,12 +76,12 @@ public class FileServiceImpl implements FileService {
      * @param inputStream   file content stream; will be closed automatically
      * @param metadata      optional metadata map; may be null or empty
      * @param contentType   optional MIME type (e.g. "image/png"); may be null or blank
-     * @param contentLength exact file size in bytes; must be > 0
+     * @param contentLength exact file size in bytes; must be > 0, or null if unknown
      * @param isPublicRead  if true, the object will have PUBLIC_READ ACL, otherwise PRIVATE
      * @return CompletableFuture<Boolean> resolving to true if upload succeeds, false otherwise
-     * @throws IllegalArgumentException if objectKey is null/blank or contentLength is null/≤0
+     * @throws IllegalArgumentException if objectKey is null/blank or contentLength is ≤0
      */
-    @Async
+    @Async(AsyncExecutorsConfig.UPLOAD_EXECUTOR)
     public CompletableFuture<Boolean> uploadFileAsync(
             final String objectKey,
             final @NonNull InputStream inputStream,
@@ -72,33 +90,23 @@ public class FileServiceImpl implements FileService {
             final Long contentLength,
             boolean isPublicRead) {
 
-        if (objectKey == null || objectKey.isBlank()) {
-            throw new IllegalArgumentException("Object key cannot be null or empty");
-        }
-        if (contentLength == null || contentLength <= 0) {
+        final PutObjectRequest.Builder builder = requestBuilder(objectKey, metadata, contentType, isPublicRead);
+        if (contentLength != null && contentLength <= 0) {
             throw new IllegalArgumentException(
                     String.format("Invalid content length %d for '%s'", contentLength, objectKey)
             );
         }
-
-        final PutObjectRequest.Builder builder = PutObjectRequest.builder()
-                .bucket(config.getBucketName())
-                .key(objectKey)
-                .acl(isPublicRead ? ObjectCannedACL.PUBLIC_READ : ObjectCannedACL.PRIVATE)
-                .contentLength(contentLength);
-
-        if (metadata != null && !metadata.isEmpty()) {
-            builder.metadata(metadata);
-            log.debug("Added metadata for {}: {}", objectKey, metadata);
-        }
-        if (contentType != null && !contentType.isBlank()) {
-            builder.contentType(contentType);
-            log.debug("Content-Type set to: {}", contentType);
+        if (contentLength == null || contentLength >= multipartProperties.getThreshold().toBytes()) {
+            return CompletableFuture.completedFuture(uploadInParts(builder.build(), inputStream, null).completed());
         }
-        final PutObjectRequest request = builder.build();
+
+        final PutObjectRequest request = builder.contentLength(contentLength).build();
         final AsyncRequestBody requestBody = AsyncRequestBody.fromInputStream(inputStream, contentLength, executorService);
 
         log.debug("Starting async upload of '{}' to bucket '{}' ({} bytes)", objectKey, config.getBucketName(), contentLength);
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        final S3UploadEvent event = new S3UploadEvent();
+        event.begin();
 
         return s3Client.putObject(request, requestBody)
                 .thenApply(response -> {
@@ -115,11 +123,104 @@ public class FileServiceImpl implements FileService {
                     return false;
                 })
                 .whenComplete((result, ex) -> {
-                    try {
-                        inputStream.close();
-                    } catch (Exception e) {
-                        log.warn("Failed to close stream for '{}': {}", objectKey, e.getMessage(), e);
-                    }
+                    recordUpload(sample, event, objectKey, "single", Boolean.TRUE.equals(result), contentLength);
+                    closeQuietly(inputStream, objectKey);
                 });
     }
+
+    /**
+     * Uploads a file stream of any length in parts, resuming an unfinished upload if its id is given.
+     *
+     * @param objectKey      target key (path) for the file in the bucket; must not be null or blank
+     * @param inputStream    file content stream, from the beginning also when resuming; will be closed automatically
+     * @param metadata       optional metadata map; ignored when resuming
+     * @param contentType    optional MIME type; ignored when resuming
+     * @param isPublicRead   if true, the object will have PUBLIC_READ ACL, otherwise PRIVATE; ignored when resuming
+     * @param resumeUploadId upload id of an earlier not completed result, or null to start a new upload
+     * @return CompletableFuture resolving to the result, also if the upload failed
+     * @throws IllegalArgumentException if objectKey is null/blank
+     */
+    @Async(AsyncExecutorsConfig.UPLOAD_EXECUTOR)
+    public CompletableFuture<MultipartUploadResult> uploadMultipartAsync(
+            final String objectKey,
+            final @NonNull InputStream inputStream,
+            final Map<String, String> metadata,
+            final String contentType,
+            boolean isPublicRead,
+            final String resumeUploadId) {
+
+        final PutObjectRequest request = requestBuilder(objectKey, metadata, contentType, isPublicRead).build();
+        return CompletableFuture.completedFuture(uploadInParts(request, inputStream, resumeUploadId));
+    }
+
+    private PutObjectRequest.Builder requestBuilder(
+            String objectKey,
+            Map<String, String> metadata,
+            String contentType,
+            boolean isPublicRead) {
+
+        if (objectKey == null || objectKey.isBlank()) {
+            throw new IllegalArgumentException("Object key cannot be null or empty");
+        }
+        final PutObjectRequest.Builder builder = PutObjectRequest.builder()
+                .bucket(config.getBucketName())
+                .key(objectKey)
+                .acl(isPublicRead ? ObjectCannedACL.PUBLIC_READ : ObjectCannedACL.PRIVATE);
+
+        if (metadata != null && !metadata.isEmpty()) {
+            builder.metadata(metadata);
+            log.debug("Added metadata for {}: {}", objectKey, metadata);
+        }
+        if (contentType != null && !contentType.isBlank()) {
+            builder.contentType(contentType);
+            log.debug("Content-Type set to: {}", contentType);
+        }
+        return builder;
+    }
+
+    private MultipartUploadResult uploadInParts(PutObjectRequest request, InputStream inputStream, String resumeUploadId) {
+        log.debug("Starting multipart upload of '{}' to bucket '{}'{}", request.key(), request.bucket(),
+                resumeUploadId == null ? "" : ", resuming " + resumeUploadId);
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        final S3UploadEvent event = new S3UploadEvent();
+        event.begin();
+        MultipartUploadResult result = null;
+        try {
+            result = multipartUploader.upload(request, inputStream, resumeUploadId);
+            return result;
+        } finally {
+            recordUpload(sample, event, request.key(), "multipart",
+                    result != null && result.completed(), result == null ? 0 : result.bytes());
+            closeQuietly(inputStream, request.key());
+        }
+    }
+
+    private void recordUpload(Timer.Sample sample, S3UploadEvent event, String objectKey, String mode,
+                              boolean succeeded, long bytes) {
+        sample.stop(Timer.builder("s3.upload")
+                .tag("outcome", succeeded ? "success" : "failure")
+                .tag("mode", mode)
+                .register(meterRegistry));
+        event.end();
+        if (event.shouldCommit()) {
+            event.objectKey = objectKey;
+            event.bytes = bytes;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+        if (succeeded) {
+            DistributionSummary.builder("s3.upload.size")
+                    .baseUnit("bytes")
+                    .register(meterRegistry)
+                    .record(bytes);
+        }
+    }
+
+    private static void closeQuietly(InputStream inputStream, String objectKey) {
+        try {
+            inputStream.close();
+        } catch (Exception e) {
+            log.warn("Failed to close stream for '{}': {}", objectKey, e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,21 @@
+package de.upteams.tasktracker.files.uploading;
+
+/**
+ * Outcome of an upload by {@link S3MultipartUploader}.
+ *
+ * @param uploadId      S3 multipart upload id; {@code null} if the stream fitted into one part and was put as a whole.
+ *                      If the upload is not {@code completed}, pass it to
+ *                      {@link FileService#uploadMultipartAsync} with the same content to resume
+ * @param completed     true if the object was stored
+ * @param bytes         bytes read from the stream
+ * @param uploadedParts parts sent in this attempt
+ * @param skippedParts  parts already stored by an earlier attempt with the same content
+ */
+public record MultipartUploadResult(
+        String uploadId,
+        boolean completed,
+        long bytes,
+        int uploadedParts,
+        int skippedParts
+) {
+}
@@ -0,0 +1,362 @@
+package de.upteams.tasktracker.files.uploading;
+
+import de.upteams.tasktracker.configuration.S3MultipartProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsResponse;
+import software.amazon.awssdk.services.s3.model.Part;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams objects to S3 as multipart uploads.
+ * <p>
+ * The stream is read in the calling thread into part buffers; up to {@code maxInFlightParts} parts
+ * are uploaded concurrently, so a slow network stops the reading instead of buffering the whole file.
+ * Buffers come from one pool of {@code maxBuffers} shared by all uploads: when it is exhausted, uploads wait
+ * for a buffer of a part in flight, so memory stays bounded however many uploads run.
+ * The length of the stream does not have to be known. A stream that fits into the first part is put as one object.
+ * </p>
+ * <p>
+ * Failed parts are retried with exponential backoff. A failed upload is not aborted: passing its upload id
+ * with the same content again skips parts S3 already has (same size and MD5 ETag) and sends the rest.
+ * Unfinished uploads should be removed by an {@code AbortIncompleteMultipartUpload} lifecycle rule of the bucket.
+ * </p>
+ * <p>
+ * Parts are timed as {@code s3.upload.part} tagged by {@code outcome}, retries are counted by
+ * {@code s3.upload.part.retries}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class S3MultipartUploader {
+
+    /**
+     * S3 limits
+     */
+    static final int MAX_PARTS = 10_000;
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final S3AsyncClient s3Client;
+    private final S3MultipartProperties properties;
+    private final int partSize;
+    private final BlockingQueue<byte[]> buffers;
+    private final Semaphore freeBuffers;
+    private final Timer partSucceeded;
+    private final Timer partFailed;
+    private final Counter retries;
+
+    public S3MultipartUploader(
+            S3AsyncClient s3Client,
+            S3MultipartProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        if (properties.getPartSize().toBytes() < MIN_PART_SIZE || properties.getPartSize().toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Part size must be between 5MB and 2GB, got " + properties.getPartSize());
+        }
+        if (properties.getMaxInFlightParts() < 1) {
+            throw new IllegalStateException("At least one part must be allowed in flight");
+        }
+        if (properties.getMaxBuffers() < 1) {
+            throw new IllegalStateException("At least one part buffer must be allowed");
+        }
+        this.s3Client = s3Client;
+        this.properties = properties;
+        this.partSize = (int) properties.getPartSize().toBytes();
+        this.buffers = new ArrayBlockingQueue<>(properties.getMaxBuffers());
+        this.freeBuffers = new Semaphore(properties.getMaxBuffers());
+        this.partSucceeded = Timer.builder("s3.upload.part").tag("outcome", "success").register(meterRegistry);
+        this.partFailed = Timer.builder("s3.upload.part").tag("outcome", "failure").register(meterRegistry);
+        this.retries = Counter.builder("s3.upload.part.retries").register(meterRegistry);
+    }
+
+    /**
+     * Uploads the stream, blocking until the object is stored or the upload failed.
+     * The stream is not closed.
+     *
+     * @param object         bucket, key, ACL, metadata and content type of the object; the content length is ignored
+     * @param inputStream    content of the object
+     * @param resumeUploadId id of an unfinished upload of the same content, or {@code null} to start a new one
+     */
+    public MultipartUploadResult upload(PutObjectRequest object, InputStream inputStream, String resumeUploadId) {
+        byte[] buffer;
+        try {
+            buffer = borrowBuffer();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new MultipartUploadResult(resumeUploadId, false, 0, 0, 0);
+        }
+        int length;
+        try {
+            length = inputStream.readNBytes(buffer, 0, partSize);
+        } catch (IOException e) {
+            releaseBuffer(buffer);
+            log.warn("Failed to read '{}': {}", object.key(), e.getMessage(), e);
+            return new MultipartUploadResult(resumeUploadId, false, 0, 0, 0);
+        }
+        if (resumeUploadId == null && length < partSize) {
+            return putWhole(object, buffer, length);
+        }
+
+        final String uploadId;
+        final Map<Integer, Part> storedParts;
+        try {
+            uploadId = resumeUploadId != null ? resumeUploadId : createUpload(object);
+            storedParts = resumeUploadId != null ? listParts(object, resumeUploadId) : Map.of();
+        } catch (CompletionException e) {
+            releaseBuffer(buffer);
+            log.error("Failed to start multipart upload of '{}': {}", object.key(), e.getCause().getMessage(), e.getCause());
+            return new MultipartUploadResult(resumeUploadId, false, 0, 0, 0);
+        }
+
+        final Semaphore window = new Semaphore(properties.getMaxInFlightParts());
+        final Map<Integer, CompletedPart> completedParts = new ConcurrentSkipListMap<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        long bytes = 0;
+        int partNumber = 1;
+        int skipped = 0;
+        while (true) {
+            bytes += length;
+            final Part stored = storedParts.get(partNumber);
+            if (stored != null && isSamePart(stored, buffer, length)) {
+                completedParts.put(partNumber, CompletedPart.builder().partNumber(partNumber).eTag(stored.eTag()).build());
+                releaseBuffer(buffer);
+                skipped++;
+            } else {
+                try {
+                    window.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    releaseBuffer(buffer);
+                    failure.compareAndSet(null, e);
+                    break;
+                }
+                inFlight.add(uploadPart(object, uploadId, partNumber, buffer, length, completedParts, failure, window));
+            }
+            if (length < partSize || failure.get() != null) {
+                break;
+            }
+            try {
+                // здесь загрузка держит только буферы частей в полёте, они вернутся в пул и без неё
+                buffer = borrowBuffer();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+                break;
+            }
+            try {
+                length = inputStream.readNBytes(buffer, 0, partSize);
+            } catch (IOException e) {
+                releaseBuffer(buffer);
+                failure.compareAndSet(null, e);
+                break;
+            }
+            if (length == 0) {
+                releaseBuffer(buffer);
+                break;
+            }
+            if (++partNumber > MAX_PARTS) {
+                releaseBuffer(buffer);
+                failure.compareAndSet(null, new IllegalStateException(
+                        "More than %d parts of %s".formatted(MAX_PARTS, properties.getPartSize())));
+                break;
+            }
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+
+        final int uploaded = inFlight.size();
+        if (failure.get() == null) {
+            try {
+                complete(object, uploadId, completedParts);
+                log.debug("Multipart upload of '{}' completed: {} bytes, {} parts sent, {} skipped",
+                        object.key(), bytes, uploaded, skipped);
+                return new MultipartUploadResult(uploadId, true, bytes, uploaded, skipped);
+            } catch (CompletionException e) {
+                failure.set(e.getCause());
+            }
+        }
+        log.error("Multipart upload {} of '{}' failed, resumable with the same content: {}",
+                uploadId, object.key(), failure.get().getMessage(), failure.get());
+        return new MultipartUploadResult(uploadId, false, bytes, uploaded, skipped);
+    }
+
+    private MultipartUploadResult putWhole(PutObjectRequest object, byte[] buffer, int length) {
+        try {
+            s3Client.putObject(object.toBuilder().contentLength((long) length).build(),
+                    AsyncRequestBody.fromByteBufferUnsafe(ByteBuffer.wrap(buffer, 0, length).slice())).join();
+            return new MultipartUploadResult(null, true, length, 1, 0);
+        } catch (CompletionException e) {
+            log.error("S3 upload failed for '{}': {}", object.key(), e.getCause().getMessage(), e.getCause());
+            return new MultipartUploadResult(null, false, length, 0, 0);
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    private String createUpload(PutObjectRequest object) {
+        return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                        .bucket(object.bucket())
+                        .key(object.key())
+                        .acl(object.acl())
+                        .metadata(object.metadata())
+                        .contentType(object.contentType())
+                        .build())
+                .join()
+                .uploadId();
+    }
+
+    private Map<Integer, Part> listParts(PutObjectRequest object, String uploadId) {
+        final Map<Integer, Part> parts = new HashMap<>();
+        Integer marker = null;
+        ListPartsResponse response;
+        do {
+            response = s3Client.listParts(ListPartsRequest.builder()
+                            .bucket(object.bucket())
+                            .key(object.key())
+                            .uploadId(uploadId)
+                            .partNumberMarker(marker)
+                            .build())
+                    .join();
+            response.parts().forEach(part -> parts.put(part.partNumber(), part));
+            marker = response.nextPartNumberMarker();
+        } while (Boolean.TRUE.equals(response.isTruncated()));
+        return parts;
+    }
+
+    private CompletableFuture<?> uploadPart(
+            PutObjectRequest object,
+            String uploadId,
+            int partNumber,
+            byte[] buffer,
+            int length,
+            Map<Integer, CompletedPart> completedParts,
+            AtomicReference<Throwable> failure,
+            Semaphore window
+    ) {
+        final UploadPartRequest request = UploadPartRequest.builder()
+                .bucket(object.bucket())
+                .key(object.key())
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength((long) length)
+                .build();
+        final ByteBuffer body = ByteBuffer.wrap(buffer, 0, length).slice();
+        return sendPart(request, body, 1).handle((part, ex) -> {
+            releaseBuffer(buffer);
+            window.release();
+            if (ex == null) {
+                completedParts.put(partNumber, part);
+            } else {
+                failure.compareAndSet(null, ex instanceof CompletionException ? ex.getCause() : ex);
+            }
+            return null;
+        });
+    }
+
+    private CompletableFuture<CompletedPart> sendPart(UploadPartRequest request, ByteBuffer body, int attempt) {
+        final long startedAt = System.nanoTime();
+        return s3Client.uploadPart(request, AsyncRequestBody.fromByteBufferUnsafe(body.asReadOnlyBuffer()))
+                .thenApply(response -> {
+                    partSucceeded.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    return CompletedPart.builder().partNumber(request.partNumber()).eTag(response.eTag()).build();
+                })
+                .exceptionallyCompose(ex -> {
+                    partFailed.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    if (attempt >= properties.getPartRetries() || !isRetryable(ex)) {
+                        return CompletableFuture.failedFuture(ex);
+                    }
+                    retries.increment();
+                    log.debug("Retrying part {} of '{}' after attempt {}: {}",
+                            request.partNumber(), request.key(), attempt, ex.getMessage());
+                    final long delay = properties.getRetryBackoff().toMillis() << (attempt - 1);
+                    return CompletableFuture.supplyAsync(() -> null,
+                                    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> sendPart(request, body, attempt + 1));
+                });
+    }
+
+    private void complete(PutObjectRequest object, String uploadId, Map<Integer, CompletedPart> completedParts) {
+        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                        .bucket(object.bucket())
+                        .key(object.key())
+                        .uploadId(uploadId)
+                        .multipartUpload(CompletedMultipartUpload.builder()
+                                .parts(completedParts.values())
+                                .build())
+                        .build())
+                .join();
+    }
+
+    /**
+     * Client errors (missing upload, access denied...) do not go away on retry, throttling and timeouts may
+     */
+    private static boolean isRetryable(Throwable ex) {
+        final Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof SdkServiceException serviceException) {
+            final int status = serviceException.statusCode();
+            return status >= 500 || status == 408 || status == 429;
+        }
+        return true;
+    }
+
+    /**
+     * ETag of an unencrypted part is the MD5 of its content
+     */
+    private static boolean isSamePart(Part stored, byte[] buffer, int length) {
+        if (stored.size() == null || stored.size() != length || stored.eTag() == null) {
+            return false;
+        }
+        try {
+            final MessageDigest md5 = MessageDigest.getInstance("MD5");
+            md5.update(buffer, 0, length);
+            return stored.eTag().replace("\"", "").equalsIgnoreCase(HexFormat.of().formatHex(md5.digest()));
+        } catch (NoSuchAlgorithmException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Takes a pooled buffer or allocates a new one while fewer than {@code maxBuffers} exist, waits otherwise
+     */
+    private byte[] borrowBuffer() throws InterruptedException {
+        freeBuffers.acquire();
+        final byte[] buffer = buffers.poll();
+        return buffer == null ? new byte[partSize] : buffer;
+    }
+
+    private void releaseBuffer(byte[] buffer) {
+        buffers.offer(buffer);
+        freeBuffers.release();
+    }
+}
@@ -0,0 +1,34 @@
+package de.upteams.tasktracker.logging;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Logging of service calls, loaded from {@code monitoring.service-calls}.
+ * Timings are always recorded, arguments and results are logged only for listed packages.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "monitoring.service-calls")
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ServiceCallLoggingProperties {
+
+    /**
+     * Packages (with subpackages) whose service calls are logged, e.g. {@code de.upteams.tasktracker.task}
+     */
+    List<String> logPackages = new ArrayList<>();
+    /**
+     * Share of calls that are logged, from 0 to 1
+     */
+    double sampleRate = 0.01;
+    /**
+     * Maximum length of rendered arguments and of rendered result
+     */
+    int maxLength = 512;
+}
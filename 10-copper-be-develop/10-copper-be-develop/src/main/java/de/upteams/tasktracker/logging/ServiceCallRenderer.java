@@ -0,0 +1,89 @@
+package de.upteams.tasktracker.logging;
+
+import de.upteams.tasktracker.utils.EntityId;
+import org.hibernate.Hibernate;
+
+import java.lang.reflect.Array;
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Renders service arguments and results for the call log.
+ * <p>
+ * Never calls {@code toString()} of entities and DTOs: entities are rendered as {@code Name#id},
+ * collections only with their size (uninitialized lazy ones are not touched),
+ * other objects with their class name only, so neither lazy loading nor secrets like passwords
+ * get into the log. Output is cut at the given length.
+ * </p>
+ */
+final class ServiceCallRenderer {
+
+    private static final int MAX_STRING_LENGTH = 64;
+    private static final String CUT = "...";
+
+    private ServiceCallRenderer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static String render(Object value, int maxLength) {
+        StringBuilder sb = new StringBuilder();
+        append(sb, value);
+        return cut(sb, maxLength);
+    }
+
+    static String renderArgs(Object[] args, int maxLength) {
+        StringBuilder sb = new StringBuilder().append('[');
+        for (int i = 0; i < args.length && sb.length() <= maxLength; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            append(sb, args[i]);
+        }
+        return cut(sb.append(']'), maxLength);
+    }
+
+    private static void append(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("null");
+        } else if (!Hibernate.isInitialized(value)) {
+            sb.append(Hibernate.getClassLazy(value).getSimpleName()).append("[uninitialized]");
+        } else if (value instanceof EntityId entity) {
+            sb.append(Hibernate.getClassLazy(entity).getSimpleName()).append('#').append(entity.getId());
+        } else if (value instanceof CharSequence text) {
+            sb.append('"');
+            if (text.length() > MAX_STRING_LENGTH) {
+                sb.append(text, 0, MAX_STRING_LENGTH).append(CUT);
+            } else {
+                sb.append(text);
+            }
+            sb.append('"');
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Character
+                || value instanceof Enum<?> || value instanceof UUID || value instanceof TemporalAccessor) {
+            sb.append(value);
+        } else if (value instanceof Optional<?> optional) {
+            sb.append("Optional[");
+            append(sb, optional.orElse(null));
+            sb.append(']');
+        } else if (value instanceof Collection<?> collection) {
+            sb.append(value.getClass().getSimpleName()).append("[size=").append(collection.size()).append(']');
+        } else if (value instanceof Map<?, ?> map) {
+            sb.append(value.getClass().getSimpleName()).append("[size=").append(map.size()).append(']');
+        } else if (value.getClass().isArray()) {
+            sb.append(value.getClass().getComponentType().getSimpleName())
+                    .append("[length=").append(Array.getLength(value)).append(']');
+        } else {
+            sb.append(value.getClass().getSimpleName());
+        }
+    }
+
+    private static String cut(StringBuilder sb, int maxLength) {
+        if (sb.length() <= maxLength) {
+            return sb.toString();
+        }
+        sb.setLength(maxLength);
+        return sb.append(CUT).toString();
+    }
+}
@@ -0,0 +1,171 @@
+package de.upteams.tasktracker.logging;
+
+import de.upteams.tasktracker.monitoring.jfr.RequestTrace;
+import de.upteams.tasktracker.monitoring.jfr.ServiceCallEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Around-advice for all services of the application.
+ * <p>
+ * Every call is recorded into the {@code service.method} timer (with percentile histogram),
+ * failed calls additionally into the {@code service.method.errors} counter tagged by exception.
+ * Arguments and results are logged only for packages listed in {@link ServiceCallLoggingProperties},
+ * only for a sample of calls, rendered by {@link ServiceCallRenderer} and written as key-value pairs
+ * to the {@code service-calls} logger, which has an asynchronous appender in {@code logback-spring.xml}.
+ * </p>
+ * <p>
+ * Every call is also emitted as JFR {@link ServiceCallEvent} with the path and user of the current request
+ * and the {@code projectId} argument, if the method has one.
+ * </p>
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMethodInstrumentation {
+
+    private static final Logger CALL_LOG = LoggerFactory.getLogger("service-calls");
+    private static final String PROJECT_ID_PARAMETER = "projectId";
+
+    private final MeterRegistry meterRegistry;
+    private final ServiceCallLoggingProperties properties;
+    private final Map<MethodKey, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Pointcut for all methods of all services of the application, except the aspect itself and its settings,
+     * which it reads on every call
+     */
+    @Pointcut("execution(* de.upteams.tasktracker..*Service*.*(..))"
+            + " && !within(de.upteams.tasktracker.logging.ServiceMethodInstrumentation)"
+            + " && !within(de.upteams.tasktracker.logging.ServiceCallLoggingProperties)")
+    public void allServiceMethods() {
+    }
+
+    @Around("allServiceMethods()")
+    public Object aroundServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        final MethodMeters methodMeters = metersOf(joinPoint);
+        final ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        final long start = System.nanoTime();
+        try {
+            final Object result = joinPoint.proceed();
+            final long nanos = System.nanoTime() - start;
+            methodMeters.timer().record(nanos, TimeUnit.NANOSECONDS);
+            commitEvent(event, methodMeters, joinPoint.getArgs(), false);
+            if (isSampled(methodMeters)) {
+                logCall(methodMeters, joinPoint.getArgs(), nanos)
+                        .addKeyValue("result", ServiceCallRenderer.render(result, properties.getMaxLength()))
+                        .log("service call");
+            }
+            return result;
+        } catch (Throwable e) {
+            final long nanos = System.nanoTime() - start;
+            methodMeters.timer().record(nanos, TimeUnit.NANOSECONDS);
+            commitEvent(event, methodMeters, joinPoint.getArgs(), true);
+            Counter.builder("service.method.errors")
+                    .tag("class", methodMeters.className())
+                    .tag("method", methodMeters.methodName())
+                    .tag("exception", e.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+            if (isSampled(methodMeters)) {
+                logCall(methodMeters, joinPoint.getArgs(), nanos)
+                        .addKeyValue("error", e.getClass().getSimpleName())
+                        .log("service call failed");
+            }
+            throw e;
+        }
+    }
+
+    private static void commitEvent(ServiceCallEvent event, MethodMeters methodMeters, Object[] args, boolean failed) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        final RequestTrace trace = RequestTrace.current();
+        event.service = methodMeters.className();
+        event.method = methodMeters.methodName();
+        event.path = trace.path();
+        event.userIdHash = trace.userIdHash();
+        event.failed = failed;
+        if (methodMeters.projectIdArg() >= 0 && args[methodMeters.projectIdArg()] != null) {
+            event.projectId = args[methodMeters.projectIdArg()].toString();
+        }
+        event.commit();
+    }
+
+    private LoggingEventBuilder logCall(MethodMeters methodMeters, Object[] args, long nanos) {
+        return CALL_LOG.atInfo()
+                .addKeyValue("class", methodMeters.className())
+                .addKeyValue("method", methodMeters.methodName())
+                .addKeyValue("durationUs", TimeUnit.NANOSECONDS.toMicros(nanos))
+                .addKeyValue("args", ServiceCallRenderer.renderArgs(args, properties.getMaxLength()));
+    }
+
+    private boolean isSampled(MethodMeters methodMeters) {
+        return methodMeters.logged()
+                && CALL_LOG.isInfoEnabled()
+                && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+    }
+
+    private MethodMeters metersOf(ProceedingJoinPoint joinPoint) {
+        final Class<?> type = ClassUtils.getUserClass(joinPoint.getTarget());
+        final Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return meters.computeIfAbsent(new MethodKey(type, method), this::createMeters);
+    }
+
+    private MethodMeters createMeters(MethodKey key) {
+        final String className = key.type().getSimpleName();
+        final String methodName = key.method().getName();
+        final Timer timer = Timer.builder("service.method")
+                .description("Latency of service methods")
+                .tag("class", className)
+                .tag("method", methodName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        final String packageName = key.type().getPackageName();
+        final boolean logged = properties.getLogPackages().stream()
+                .anyMatch(logPackage -> packageName.equals(logPackage) || packageName.startsWith(logPackage + "."));
+        return new MethodMeters(className, methodName, timer, logged, projectIdArg(key.method()));
+    }
+
+    /**
+     * Index of the {@code UUID projectId} parameter or -1. Parameter names are available
+     * since the project is compiled with {@code -parameters}.
+     */
+    private static int projectIdArg(Method method) {
+        final Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].getType() == UUID.class && PROJECT_ID_PARAMETER.equals(parameters[i].getName())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private record MethodKey(Class<?> type, Method method) {
+    }
+
+    private record MethodMeters(String className, String methodName, Timer timer, boolean logged, int projectIdArg) {
+    }
+}
@@ -1,35 +1,122 @@
 package de.upteams.tasktracker.mail;
 
 import de.upteams.tasktracker.mail.exception.EmailSendingException;
+import de.upteams.tasktracker.monitoring.jfr.MailEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends html emails, timed as {@code mail.send} (single messages) and {@code mail.send.batch}
+ * tagged by {@code outcome} and emitted as JFR {@link MailEvent} of the {@code send} phase.
+ */
 @Component
 @RequiredArgsConstructor
 public class EmailSender {
     private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
 
     @Value("${spring.mail.username}")
     private String senderEmail;
 
     public void sendEmail(String to, String subject, String htmlContent) {
+        final MailEvent event = new MailEvent();
+        event.begin();
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            mailSender.send(createMessage(new OutgoingEmail(to, subject, htmlContent)));
+            outcome = "success";
+        } catch (MessagingException e) {
+            throw new EmailSendingException(to, e);
+        } finally {
+            sample.stop(Timer.builder("mail.send")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            commitEvent(event, "success".equals(outcome));
+        }
+    }
+
+    /**
+     * Sends all emails over one SMTP connection.
+     *
+     * @return failures by index in {@code emails}, empty if every email was accepted by the server
+     */
+    public Map<Integer, Exception> sendAll(List<OutgoingEmail> emails) {
+        final MailEvent event = new MailEvent();
+        event.begin();
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        final Map<Integer, Exception> failures = new HashMap<>();
+        final List<MimeMessage> messages = new ArrayList<>(emails.size());
+        final Map<MimeMessage, Integer> indexes = new IdentityHashMap<>();
+        for (int i = 0; i < emails.size(); i++) {
+            try {
+                final MimeMessage message = createMessage(emails.get(i));
+                messages.add(message);
+                indexes.put(message, i);
+            } catch (MessagingException e) {
+                failures.put(i, e);
+            }
+        }
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+            if (!messages.isEmpty()) {
+                mailSender.send(messages.toArray(MimeMessage[]::new));
+            }
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                indexes.values().forEach(index -> failures.put(index, e));
+            }
+            e.getFailedMessages().forEach((message, cause) -> {
+                final Integer index = indexes.get(message);
+                if (index != null) {
+                    failures.put(index, cause);
+                }
+            });
+        } catch (MailException e) {
+            // например, ошибка аутентификации: не ушло ни одно письмо
+            indexes.values().forEach(index -> failures.put(index, e));
+        } finally {
+            final String outcome = failures.isEmpty() ? "success"
+                    : failures.size() == emails.size() ? "failure" : "partial";
+            sample.stop(Timer.builder("mail.send.batch")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            commitEvent(event, failures.isEmpty());
+        }
+        return failures;
+    }
 
-            helper.setFrom(senderEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
+    private MimeMessage createMessage(OutgoingEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
 
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            throw new EmailSendingException("Failed to send email to " + to, e);
+        helper.setFrom(senderEmail);
+        helper.setTo(email.to());
+        helper.setSubject(email.subject());
+        helper.setText(email.html(), true);
+        return message;
+    }
+
+    private static void commitEvent(MailEvent event, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = "send";
+            event.succeeded = succeeded;
+            event.commit();
         }
     }
 }
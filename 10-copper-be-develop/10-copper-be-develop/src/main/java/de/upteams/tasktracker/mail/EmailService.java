@@ -1,15 +1,20 @@
 package de.upteams.tasktracker.mail;
 
+import de.upteams.tasktracker.mail.outbox.EmailOutbox;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
 import java.util.Map;
 
 /**
- * Service for email sending
+ * Service for email sending.
+ * <p>
+ * Emails are rendered right away and put into {@link EmailOutbox} in the transaction of the caller,
+ * they are delivered by the outbox worker once the transaction commits.
+ * </p>
  */
 @Service
 @RequiredArgsConstructor
@@ -18,10 +23,9 @@ public class EmailService {
     @Value("${app.frontend-url}")
     private String frontendUrl;
 
-    private final EmailSender emailSender;
+    private final EmailOutbox emailOutbox;
     private final TemplateEngine templateEngine;
 
-    @Async
     public void sendConfirmationEmail(String sentTo, String firstName, String lastName, String confirmationCode) {
         String confirmationLink = "%s/confirm?code=%s".formatted(frontendUrl, confirmationCode);
 
@@ -32,18 +36,25 @@ public class EmailService {
         );
 
         String htmlContent = templateEngine.generateHtml("confirm_registration_mail.ftlh", model);
-        emailSender.sendEmail(sentTo, "Confirm your registration", htmlContent);
+        emailOutbox.enqueue(sentTo, "Confirm your registration", htmlContent, dedupKey("confirm", sentTo));
     }
 
-    @Async
-        public void sendPasswordResetEmail(@NotBlank(message = "{user.email.notBlank}") String email, String token) {
-            String resetLink = "%s/reset-password?token=%s".formatted(frontendUrl, token);
+    public void sendPasswordResetEmail(@NotBlank(message = "{user.email.notBlank}") String email, String token) {
+        String resetLink = "%s/reset-password?token=%s".formatted(frontendUrl, token);
 
-            Map<String, Object> model = Map.of(
-                    "link", resetLink
-            );
+        Map<String, Object> model = Map.of(
+                "link", resetLink
+        );
+
+        String htmlContent = templateEngine.generateHtml("password_reset_mail.ftlh", model);
+        emailOutbox.enqueue(email, "Reset your password", htmlContent, dedupKey("reset", email));
+    }
 
-            String htmlContent = templateEngine.generateHtml("password_reset_mail.ftlh", model);
-            emailSender.sendEmail(email, "Reset your password", htmlContent);
+    /**
+     * A new code makes the previous email useless, so a pending email of the same purpose to the same address
+     * is replaced by the new one
+     */
+    private static String dedupKey(String purpose, String recipient) {
+        return purpose + ":" + recipient.toLowerCase(Locale.ROOT);
     }
 }
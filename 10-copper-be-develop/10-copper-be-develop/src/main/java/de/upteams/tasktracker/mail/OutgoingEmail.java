@@ -0,0 +1,7 @@
+package de.upteams.tasktracker.mail;
+
+/**
+ * Rendered email ready for {@link EmailSender}
+ */
+public record OutgoingEmail(String to, String subject, String html) {
+}
@@ -0,0 +1,127 @@
+package de.upteams.tasktracker.mail;
+
+import freemarker.core.MarkupOutputFormat;
+import freemarker.core.OutputFormat;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateModelException;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pre-rendered template: static text between interpolations is rendered once,
+ * per message only the escaped values are put into the slots.
+ * <p>
+ * Only templates consisting of plain {@code ${name}} interpolations are compiled, any directive,
+ * macro call or expression keeps the template on the regular FreeMarker path.
+ * The static parts are obtained by rendering the template with marker values, so the result
+ * is exactly what FreeMarker produces, including escaping of the output format.
+ * </p>
+ */
+final class SlotTemplate {
+
+    private static final Pattern COMMENT = Pattern.compile("<#--.*?-->", Pattern.DOTALL);
+    private static final Pattern DIRECTIVE = Pattern.compile("</?[#@]|\\[/?[#@]|#\\{");
+    private static final Pattern INTERPOLATION = Pattern.compile("\\$\\{([^}]*)}");
+    private static final Pattern NAME = Pattern.compile("\\s*([A-Za-z_][A-Za-z0-9_]*)\\s*");
+    private static final Pattern MARKER = Pattern.compile("\u0001(\\d+)\u0002");
+
+    private final String[] chunks;
+    private final String[] slots;
+    private final MarkupOutputFormat<?> escaping;
+    private final int staticLength;
+
+    private SlotTemplate(String[] chunks, String[] slots, MarkupOutputFormat<?> escaping) {
+        this.chunks = chunks;
+        this.slots = slots;
+        this.escaping = escaping;
+        int length = 0;
+        for (String chunk : chunks) {
+            length += chunk.length();
+        }
+        this.staticLength = length;
+    }
+
+    /**
+     * @return compiled template or empty if the template has more than plain interpolations
+     */
+    static Optional<SlotTemplate> compile(Template template) throws TemplateException, IOException {
+        final String source = COMMENT.matcher(template.toString()).replaceAll("");
+        if (DIRECTIVE.matcher(source).find()) {
+            return Optional.empty();
+        }
+        final Set<String> names = new LinkedHashSet<>();
+        final Matcher interpolation = INTERPOLATION.matcher(source);
+        while (interpolation.find()) {
+            final Matcher name = NAME.matcher(interpolation.group(1));
+            if (!name.matches()) {
+                return Optional.empty();
+            }
+            names.add(name.group(1));
+        }
+
+        final List<String> slotNames = new ArrayList<>(names);
+        final Map<String, Object> markers = new HashMap<>();
+        for (int i = 0; i < slotNames.size(); i++) {
+            markers.put(slotNames.get(i), "\u0001" + i + "\u0002");
+        }
+        final StringWriter writer = new StringWriter();
+        template.process(markers, writer);
+        final String rendered = writer.toString();
+
+        final List<String> chunks = new ArrayList<>();
+        final List<String> slots = new ArrayList<>();
+        final Matcher marker = MARKER.matcher(rendered);
+        int last = 0;
+        while (marker.find()) {
+            chunks.add(rendered.substring(last, marker.start()));
+            slots.add(slotNames.get(Integer.parseInt(marker.group(1))));
+            last = marker.end();
+        }
+        chunks.add(rendered.substring(last));
+
+        final OutputFormat format = template.getOutputFormat();
+        final MarkupOutputFormat<?> escaping = template.getAutoEscaping() && format instanceof MarkupOutputFormat<?> markup
+                ? markup
+                : null;
+        return Optional.of(new SlotTemplate(chunks.toArray(String[]::new), slots.toArray(String[]::new), escaping));
+    }
+
+    /**
+     * Appends the rendered template to {@code out}.
+     *
+     * @return false, without appending anything, if a slot value is missing or is not a string:
+     * such models are rendered by FreeMarker to keep its formatting and error reporting
+     */
+    boolean renderTo(Map<String, ?> model, StringBuilder out) {
+        final String[] values = new String[slots.length];
+        int length = staticLength;
+        try {
+            for (int i = 0; i < slots.length; i++) {
+                if (!(model.get(slots[i]) instanceof String value)) {
+                    return false;
+                }
+                values[i] = escaping == null ? value : escaping.escapePlainText(value);
+                length += values[i].length();
+            }
+        } catch (TemplateModelException e) {
+            return false;
+        }
+        out.ensureCapacity(out.length() + length);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(chunks[i]).append(values[i]);
+        }
+        out.append(chunks[slots.length]);
+        return true;
+    }
+}
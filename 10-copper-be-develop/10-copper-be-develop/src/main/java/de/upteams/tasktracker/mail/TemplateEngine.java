@@ -2,37 +2,178 @@ package de.upteams.tasktracker.mail;
 
 import de.upteams.tasktracker.mail.exception.TemplateNotFoundException;
 import de.upteams.tasktracker.mail.exception.TemplateProcessingException;
+import de.upteams.tasktracker.monitoring.jfr.MailEvent;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Renders FreeMarker templates, timed as {@code mail.template.render} tagged by template name
+ * and emitted as JFR {@link MailEvent} of the {@code render} phase.
+ * <p>
+ * With {@code mail.templates.cache} (default, disabled in dev) templates listed in {@code mail.templates.preload}
+ * are loaded at startup, other ones on first use, and kept for the lifetime of the application.
+ * Templates of plain interpolations are pre-rendered into a {@link SlotTemplate}, so per message only
+ * the values are escaped and copied; other templates are processed by FreeMarker.
+ * Output is collected in pooled buffers instead of a fresh writer per message.
+ * </p>
+ */
+@Slf4j
 @Component
 public class TemplateEngine {
 
+    /**
+     * Bigger buffers are not returned to the pool, so one huge email does not pin its memory
+     */
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+    private static final int INITIAL_CAPACITY = 4 * 1024;
+
     private final Configuration freemarkerConfig;
+    private final MeterRegistry meterRegistry;
+    private final boolean cacheTemplates;
+    private final Map<String, PreparedTemplate> prepared = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final BlockingQueue<StringBuilder> buffers =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
 
-    public TemplateEngine(@Qualifier("freemarkerConfiguration") Configuration freemarkerConfig) {
+    public TemplateEngine(
+            @Qualifier("freemarkerConfiguration") Configuration freemarkerConfig,
+            MeterRegistry meterRegistry,
+            @Value("${mail.templates.cache:true}") boolean cacheTemplates,
+            @Value("${mail.templates.preload:}") String[] preload
+    ) {
         this.freemarkerConfig = freemarkerConfig;
+        this.meterRegistry = meterRegistry;
+        this.cacheTemplates = cacheTemplates;
+        if (cacheTemplates) {
+            // отсутствующий или сломанный шаблон должен ронять старт, а не первую отправку письма
+            for (String templateName : preload) {
+                log.debug("Preloaded template {} (precompiled: {})",
+                        templateName, prepare(templateName).slots() != null);
+            }
+        }
     }
 
     public String generateHtml(String templateName, Map<String, Object> model) {
+        final MailEvent event = new MailEvent();
+        event.begin();
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        final StringBuilder buffer = borrowBuffer();
         try {
-            Template template = freemarkerConfig.getTemplate(templateName);
-            return FreeMarkerTemplateUtils.processTemplateIntoString(template, model);
-        } catch (IOException e) {
-            throw new TemplateNotFoundException(templateName);
-        } catch (Exception e) {
+            final PreparedTemplate template = prepare(templateName);
+            if (template.slots() == null || !template.slots().renderTo(model, buffer)) {
+                template.template().process(model, new StringBuilderWriter(buffer));
+            }
+            event.succeeded = true;
+            return buffer.toString();
+        } catch (IOException | TemplateException e) {
             throw new TemplateProcessingException(templateName, e);
+        } finally {
+            releaseBuffer(buffer);
+            sample.stop(timers.computeIfAbsent(templateName, name -> Timer.builder("mail.template.render")
+                    .tag("template", name)
+                    .register(meterRegistry)));
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = "render";
+                event.template = templateName;
+                event.commit();
+            }
         }
     }
 
     public String generateHtml(String templateName) {
         return generateHtml(templateName, new HashMap<>());
     }
+
+    private PreparedTemplate prepare(String templateName) {
+        if (!cacheTemplates) {
+            return new PreparedTemplate(load(templateName), null);
+        }
+        return prepared.computeIfAbsent(templateName, name -> {
+            final Template template = load(name);
+            try {
+                return new PreparedTemplate(template, SlotTemplate.compile(template).orElse(null));
+            } catch (TemplateException | IOException e) {
+                throw new TemplateProcessingException(name, e);
+            }
+        });
+    }
+
+    private Template load(String templateName) {
+        try {
+            return freemarkerConfig.getTemplate(templateName);
+        } catch (IOException e) {
+            throw new TemplateNotFoundException(templateName);
+        }
+    }
+
+    private StringBuilder borrowBuffer() {
+        final StringBuilder buffer = buffers.poll();
+        return buffer == null ? new StringBuilder(INITIAL_CAPACITY) : buffer;
+    }
+
+    private void releaseBuffer(StringBuilder buffer) {
+        if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+            buffer.setLength(0);
+            buffers.offer(buffer);
+        }
+    }
+
+    private record PreparedTemplate(Template template, SlotTemplate slots) {
+    }
+
+    /**
+     * Unsynchronized writer into a pooled buffer
+     */
+    private static final class StringBuilderWriter extends Writer {
+
+        private final StringBuilder buffer;
+
+        private StringBuilderWriter(StringBuilder buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            buffer.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(String str) {
+            buffer.append(str);
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            buffer.append(str, offset, offset + length);
+        }
+
+        @Override
+        public void write(int c) {
+            buffer.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
@@ -0,0 +1,186 @@
+package de.upteams.tasktracker.mail.outbox;
+
+import de.upteams.tasktracker.mail.EmailSender;
+import de.upteams.tasktracker.mail.OutgoingEmail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox of emails.
+ * <p>
+ * Emails are stored in the transaction of the business operation, so they are sent only if it commits
+ * and are not lost if the mail server is unavailable. {@link EmailOutboxWorker} sends due messages
+ * in batches over one SMTP connection; failed messages are retried with exponential backoff.
+ * </p>
+ * <p>
+ * No transaction or row lock is held during the SMTP session: a batch is claimed in a short transaction
+ * (status {@link OutboxStatus#SENDING} with a lease until {@code mail.outbox.lease}), sent, and the results
+ * are stored in a second transaction. Delivery is at-least-once: a batch of a crashed instance,
+ * or one not finished within the lease, is claimed and sent again.
+ * </p>
+ * <p>
+ * Metrics: {@code mail.outbox.sent}, {@code mail.outbox.retried} and {@code mail.outbox.failed} counters.
+ * </p>
+ */
+@Slf4j
+@Component
+public class EmailOutbox {
+
+    private final EmailOutboxRepository repository;
+    private final EmailSender emailSender;
+    private final EmailOutboxProperties properties;
+    private final TransactionTemplate transactions;
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    public EmailOutbox(
+            EmailOutboxRepository repository,
+            EmailSender emailSender,
+            EmailOutboxProperties properties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.emailSender = emailSender;
+        this.properties = properties;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.sentCounter = Counter.builder("mail.outbox.sent").register(meterRegistry);
+        this.retriedCounter = Counter.builder("mail.outbox.retried").register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.outbox.failed").register(meterRegistry);
+    }
+
+    /**
+     * Adds the email to the outbox in the current transaction.
+     *
+     * @param dedupKey purpose and recipient of the email, e.g. {@code confirm:<email>};
+     *                 a pending email with the same key is replaced, so only the latest link reaches the recipient
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String to, String subject, String html, String dedupKey) {
+        final String keyHash = sha256(dedupKey);
+        if (repository.deletePending(keyHash) > 0) {
+            log.debug("Pending email {} is replaced", keyHash);
+        }
+        repository.save(new EmailOutboxMessage(to, subject, html, keyHash, Instant.now()));
+    }
+
+    /**
+     * Claims one batch of due messages, sends it and stores the results.
+     *
+     * @return number of messages in the batch
+     */
+    public int sendDueBatch() {
+        final Instant leaseUntil = Instant.now().plus(properties.getLease()).truncatedTo(ChronoUnit.MILLIS);
+        final List<EmailOutboxMessage> batch = transactions.execute(status -> claimDue(leaseUntil));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        final Map<Integer, Exception> failures = emailSender.sendAll(batch.stream()
+                .map(message -> new OutgoingEmail(message.getRecipient(), message.getSubject(), message.getHtml()))
+                .toList());
+        transactions.executeWithoutResult(status -> storeResults(batch, failures, leaseUntil));
+        return batch.size();
+    }
+
+    private List<EmailOutboxMessage> claimDue(Instant leaseUntil) {
+        final List<EmailOutboxMessage> batch = repository.lockDue(Instant.now(), Limit.of(properties.getBatchSize()));
+        for (EmailOutboxMessage message : batch) {
+            message.setStatus(OutboxStatus.SENDING);
+            message.setNextAttemptAt(leaseUntil);
+        }
+        return batch;
+    }
+
+    private void storeResults(List<EmailOutboxMessage> batch, Map<Integer, Exception> failures, Instant leaseUntil) {
+        final Map<UUID, EmailOutboxMessage> claimed = repository
+                .findClaimed(batch.stream().map(EmailOutboxMessage::getId).toList(), leaseUntil).stream()
+                .collect(Collectors.toMap(EmailOutboxMessage::getId, Function.identity()));
+        final Instant now = Instant.now();
+        for (int i = 0; i < batch.size(); i++) {
+            final EmailOutboxMessage message = claimed.get(batch.get(i).getId());
+            if (message == null) {
+                // аренда истекла и сообщение забрал другой экземпляр
+                log.warn("Lease of email {} expired before its result was stored", batch.get(i).getId());
+                continue;
+            }
+            final Exception failure = failures.get(i);
+            if (failure == null) {
+                message.setStatus(OutboxStatus.SENT);
+                message.setSentAt(now);
+                message.setLastError(null);
+                sentCounter.increment();
+            } else {
+                onFailure(message, failure, now);
+            }
+        }
+    }
+
+    public long pendingCount() {
+        return repository.countByStatus(OutboxStatus.PENDING);
+    }
+
+    @Transactional
+    public int deleteSent() {
+        return repository.deleteSentBefore(Instant.now().minus(properties.getRetention()));
+    }
+
+    private void onFailure(EmailOutboxMessage message, Exception failure, Instant now) {
+        message.setAttempts(message.getAttempts() + 1);
+        message.setLastError(StringUtils.abbreviate(failure.getMessage(), 512));
+        if (message.getAttempts() >= properties.getMaxAttempts()) {
+            message.setStatus(OutboxStatus.FAILED);
+            failedCounter.increment();
+            log.error("Giving up email {} after {} attempts: {}", message.getId(), message.getAttempts(), failure.getMessage());
+            return;
+        }
+        final Duration delay = backoff(message.getAttempts(), properties.getInitialBackoff(), properties.getMaxBackoff());
+        // до 10% случайной задержки, чтобы повторы после сбоя почтового сервера не шли одной волной
+        final long jitterMillis = ThreadLocalRandom.current().nextLong(delay.toMillis() / 10 + 1);
+        message.setStatus(OutboxStatus.PENDING);
+        message.setNextAttemptAt(now.plus(delay).plusMillis(jitterMillis));
+        retriedCounter.increment();
+        log.warn("Email {} failed (attempt {}), next attempt at {}: {}",
+                message.getId(), message.getAttempts(), message.getNextAttemptAt(), failure.getMessage());
+    }
+
+    /**
+     * Delay after the given number of failed attempts: initial, 2x, 4x... capped by max.
+     */
+    static Duration backoff(int attempts, Duration initial, Duration max) {
+        final int shift = Math.min(Math.max(attempts - 1, 0), 30);
+        final Duration delay = initial.multipliedBy(1L << shift);
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
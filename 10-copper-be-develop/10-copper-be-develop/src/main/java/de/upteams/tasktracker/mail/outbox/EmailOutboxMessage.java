@@ -0,0 +1,84 @@
+package de.upteams.tasktracker.mail.outbox;
+
+import de.upteams.tasktracker.utils.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Email waiting for delivery. Written in the transaction of the business operation,
+ * sent by {@link EmailOutboxWorker}.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(
+        name = "email_outbox",
+        indexes = {
+                @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at"),
+                @Index(name = "idx_email_outbox_dedup_key", columnList = "dedup_key, status")
+        }
+)
+public class EmailOutboxMessage extends BaseEntity {
+
+    @Column(name = "recipient", nullable = false, updatable = false)
+    private String recipient;
+
+    @Column(name = "subject", nullable = false, updatable = false)
+    private String subject;
+
+    @Column(name = "html", nullable = false, updatable = false, columnDefinition = "MEDIUMTEXT")
+    private String html;
+
+    /**
+     * SHA-256 of the deduplication key: purpose and recipient of the email
+     */
+    @Column(name = "dedup_key", nullable = false, updatable = false, length = 64)
+    private String dedupKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    /**
+     * When a pending message is due; for a {@link OutboxStatus#SENDING} message the end of its lease
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    @Column(name = "last_error", length = 512)
+    private String lastError;
+
+    public EmailOutboxMessage(String recipient, String subject, String html, String dedupKey, Instant nextAttemptAt) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.html = html;
+        this.dedupKey = dedupKey;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    @Override
+    public String toString() {
+        return "EmailOutboxMessage{" +
+                "id=" + id +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                ", nextAttemptAt=" + nextAttemptAt +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package de.upteams.tasktracker.mail.outbox;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Email outbox, loaded from {@code mail.outbox}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "mail.outbox")
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EmailOutboxProperties {
+
+    /**
+     * Messages sent over one SMTP connection
+     */
+    int batchSize = 50;
+    /**
+     * After the last failed attempt the message is marked as FAILED
+     */
+    int maxAttempts = 8;
+    /**
+     * Delay before the second attempt, doubled for every next one
+     */
+    Duration initialBackoff = Duration.ofSeconds(30);
+    Duration maxBackoff = Duration.ofHours(1);
+    /**
+     * A claimed batch must be sent within this time, otherwise it is claimed again by any instance
+     */
+    Duration lease = Duration.ofMinutes(10);
+    /**
+     * Sent messages are deleted after this period
+     */
+    Duration retention = Duration.ofDays(7);
+}
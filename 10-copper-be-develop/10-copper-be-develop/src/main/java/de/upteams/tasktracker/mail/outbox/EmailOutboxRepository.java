@@ -0,0 +1,63 @@
+package de.upteams.tasktracker.mail.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, UUID> {
+
+    /**
+     * Removes pending messages with the key, they are replaced by a newer message of the same kind
+     */
+    @Modifying
+    @Query("""
+            delete from EmailOutboxMessage m
+            where m.dedupKey = :dedupKey and m.status = de.upteams.tasktracker.mail.outbox.OutboxStatus.PENDING
+            """)
+    int deletePending(@Param("dedupKey") String dedupKey);
+
+    /**
+     * Locks due messages and messages with an expired lease for claiming. Rows locked by another instance
+     * are skipped ({@code FOR UPDATE SKIP LOCKED}), so several instances claim different messages.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select m from EmailOutboxMessage m
+            where m.status in (de.upteams.tasktracker.mail.outbox.OutboxStatus.PENDING,
+                               de.upteams.tasktracker.mail.outbox.OutboxStatus.SENDING)
+              and m.nextAttemptAt <= :now
+            order by m.nextAttemptAt
+            """)
+    List<EmailOutboxMessage> lockDue(@Param("now") Instant now, Limit limit);
+
+    /**
+     * Messages of a claimed batch which are still claimed with the given lease
+     */
+    @Query("""
+            select m from EmailOutboxMessage m
+            where m.id in :ids and m.status = de.upteams.tasktracker.mail.outbox.OutboxStatus.SENDING
+              and m.nextAttemptAt = :leaseUntil
+            """)
+    List<EmailOutboxMessage> findClaimed(@Param("ids") Collection<UUID> ids, @Param("leaseUntil") Instant leaseUntil);
+
+    long countByStatus(OutboxStatus status);
+
+    @Modifying
+    @Query("""
+            delete from EmailOutboxMessage m
+            where m.status = de.upteams.tasktracker.mail.outbox.OutboxStatus.SENT and m.sentAt < :before
+            """)
+    int deleteSentBefore(@Param("before") Instant before);
+}
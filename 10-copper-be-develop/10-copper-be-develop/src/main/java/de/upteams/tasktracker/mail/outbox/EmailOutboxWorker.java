@@ -0,0 +1,84 @@
+package de.upteams.tasktracker.mail.outbox;
+
+import de.upteams.tasktracker.configuration.AsyncExecutorsConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@link EmailOutbox}: sends batches while full batches are found, then reports
+ * the number of pending messages as the {@code mail.outbox.pending} gauge.
+ * <p>
+ * The scheduler only triggers draining, SMTP sessions run on the {@link AsyncExecutorsConfig#MAIL_EXECUTOR},
+ * one drain at a time; cleanup runs on the maintenance executor.
+ * </p>
+ */
+@Slf4j
+@Component
+public class EmailOutboxWorker {
+
+    private final EmailOutbox outbox;
+    private final EmailOutboxProperties properties;
+    private final TaskExecutor mailExecutor;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    public EmailOutboxWorker(
+            EmailOutbox outbox,
+            EmailOutboxProperties properties,
+            @Qualifier(AsyncExecutorsConfig.MAIL_EXECUTOR) TaskExecutor mailExecutor,
+            MeterRegistry meterRegistry
+    ) {
+        this.outbox = outbox;
+        this.properties = properties;
+        this.mailExecutor = mailExecutor;
+        Gauge.builder("mail.outbox.pending", pending, AtomicLong::get)
+                .description("Emails waiting for delivery")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:1000}")
+    public void triggerDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            mailExecutor.execute(this::drain);
+        } catch (TaskRejectedException e) {
+            draining.set(false);
+            log.warn("Mail executor rejected outbox drain: {}", e.getMessage());
+        }
+    }
+
+    void drain() {
+        try {
+            int sent;
+            do {
+                sent = outbox.sendDueBatch();
+            } while (sent == properties.getBatchSize());
+            pending.set(outbox.pendingCount());
+        } catch (RuntimeException e) {
+            log.error("Failed to drain email outbox: {}", e.getMessage(), e);
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    @Async(AsyncExecutorsConfig.MAINTENANCE_EXECUTOR)
+    @Scheduled(cron = "${mail.outbox.cleanup-cron:0 30 3 * * *}")
+    public void cleanup() {
+        final int deleted = outbox.deleteSent();
+        if (deleted > 0) {
+            log.info("Deleted {} sent emails from the outbox", deleted);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package de.upteams.tasktracker.mail.outbox;
+
+public enum OutboxStatus {
+    PENDING,
+    /**
+     * Claimed by an instance which is sending it; claimed again by any instance once
+     * {@link EmailOutboxMessage#getNextAttemptAt()} (the end of the lease) has passed
+     */
+    SENDING,
+    SENT,
+    /**
+     * Delivery was given up after the last attempt
+     */
+    FAILED
+}
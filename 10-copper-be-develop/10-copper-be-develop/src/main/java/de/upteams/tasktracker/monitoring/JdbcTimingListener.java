@@ -0,0 +1,75 @@
+package de.upteams.tasktracker.monitoring;
+
+import de.upteams.tasktracker.monitoring.jfr.JdbcExecutionEvent;
+import de.upteams.tasktracker.monitoring.jfr.RequestTrace;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session listener that adds the time of JDBC executions to {@link RequestQueryStats}
+ * and logs single slow statements. Every execution is also emitted as JFR {@link JdbcExecutionEvent}.
+ * Hibernate creates one instance per session.
+ */
+@Slf4j
+public class JdbcTimingListener implements SessionEventListener {
+
+    private long startedAt;
+    private JdbcExecutionEvent event;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        started();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        finished(false);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        started();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        finished(true);
+    }
+
+    private void started() {
+        event = new JdbcExecutionEvent();
+        event.begin();
+        startedAt = System.nanoTime();
+    }
+
+    private void finished(boolean batch) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        commitEvent(stats, batch);
+        if (stats == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - startedAt;
+        if (stats.onExecuted(nanos)) {
+            log.warn("Slow SQL statement ({} ms) in {}: {}",
+                    TimeUnit.NANOSECONDS.toMillis(nanos), stats.handler(), stats.lastSql());
+        }
+    }
+
+    private void commitEvent(RequestQueryStats stats, boolean batch) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            RequestTrace trace = RequestTrace.current();
+            event.batch = batch;
+            event.path = trace.path();
+            event.userIdHash = trace.userIdHash();
+            event.sql = stats == null ? null : stats.lastSql();
+            event.commit();
+        }
+        event = null;
+    }
+}
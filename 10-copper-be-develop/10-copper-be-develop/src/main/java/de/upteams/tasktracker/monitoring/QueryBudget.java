@@ -0,0 +1,20 @@
+package de.upteams.tasktracker.monitoring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a request to the endpoint may execute.
+ * Can be put on a controller (or its api interface) and on single methods,
+ * endpoints without it get {@code monitoring.query-budget.default-budget}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface QueryBudget {
+
+    int value();
+}
@@ -0,0 +1,12 @@
+package de.upteams.tasktracker.monitoring;
+
+/**
+ * Thrown from the statement that goes over the {@link QueryBudget} of the request,
+ * only when {@code monitoring.query-budget.fail-on-exceed} is enabled (in tests).
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String handler, int budget, String sql) {
+        super("Request to " + handler + " exceeded its budget of " + budget + " SQL statements with: " + sql);
+    }
+}
@@ -0,0 +1,89 @@
+package de.upteams.tasktracker.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens {@link RequestQueryStats} for every controller call, and once the request is completed
+ * publishes the number of statements and JDBC time tagged by controller method
+ * and logs requests over their {@link QueryBudget}.
+ * <p>
+ * Metrics: {@code http.server.requests.sql.statements}, {@code http.server.requests.sql.time}
+ * (both with percentile histograms) and {@code http.server.requests.sql.over_budget}.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    private final QueryMonitoringProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (properties.isEnabled() && handler instanceof HandlerMethod handlerMethod) {
+            RequestQueryStats.start(
+                    handlerName(handlerMethod),
+                    budgetOf(handlerMethod),
+                    properties.isFailOnExceed(),
+                    properties.getSlowQuery().toNanos()
+            );
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestQueryStats stats = RequestQueryStats.finish();
+        if (stats == null) {
+            return;
+        }
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements executed by one request")
+                .tag("handler", stats.handler())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.statements());
+        Timer.builder("http.server.requests.sql.time")
+                .description("Total JDBC execution time of one request")
+                .tag("handler", stats.handler())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.jdbcNanos(), TimeUnit.NANOSECONDS);
+        if (stats.isOverBudget()) {
+            Counter.builder("http.server.requests.sql.over_budget")
+                    .tag("handler", stats.handler())
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("{} {} ({}) executed {} SQL statements in {} ms, budget is {}. Last statement: {}",
+                    request.getMethod(), request.getRequestURI(), stats.handler(), stats.statements(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.jdbcNanos()), stats.budget(), stats.lastSql());
+        }
+    }
+
+    private int budgetOf(HandlerMethod handlerMethod) {
+        // аннотации ищутся и в *Api интерфейсах контроллеров
+        QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), QueryBudget.class);
+        }
+        return budget == null ? properties.getDefaultBudget() : budget.value();
+    }
+
+    private static String handlerName(HandlerMethod handlerMethod) {
+        return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+    }
+}
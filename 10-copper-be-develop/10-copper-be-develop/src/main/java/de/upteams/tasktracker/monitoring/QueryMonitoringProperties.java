@@ -0,0 +1,33 @@
+package de.upteams.tasktracker.monitoring;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Per-request SQL monitoring, loaded from {@code monitoring.query-budget}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "monitoring.query-budget")
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class QueryMonitoringProperties {
+
+    boolean enabled = true;
+    /**
+     * Budget of endpoints without {@link QueryBudget}
+     */
+    int defaultBudget = 10;
+    /**
+     * Fail the statement that goes over the budget instead of logging the request, meant for tests
+     */
+    boolean failOnExceed = false;
+    /**
+     * Single statements running longer are logged with their SQL
+     */
+    Duration slowQuery = Duration.ofMillis(200);
+}
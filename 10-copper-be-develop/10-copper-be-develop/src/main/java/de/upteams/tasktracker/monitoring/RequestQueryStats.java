@@ -0,0 +1,88 @@
+package de.upteams.tasktracker.monitoring;
+
+/**
+ * SQL statements and JDBC time of the request processed by the current thread.
+ * <p>
+ * Filled by {@link QueryCountingInspector} and {@link JdbcTimingListener},
+ * opened and closed around the controller call by {@link QueryBudgetInterceptor}.
+ * Tests may open it around any code with {@link #start} and {@link #finish}.
+ * </p>
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private final String handler;
+    private final int budget;
+    private final boolean failOnExceed;
+    private final long slowQueryNanos;
+    private int statements;
+    private long jdbcNanos;
+    private String lastSql;
+
+    private RequestQueryStats(String handler, int budget, boolean failOnExceed, long slowQueryNanos) {
+        this.handler = handler;
+        this.budget = budget;
+        this.failOnExceed = failOnExceed;
+        this.slowQueryNanos = slowQueryNanos;
+    }
+
+    public static RequestQueryStats start(String handler, int budget, boolean failOnExceed, long slowQueryNanos) {
+        RequestQueryStats stats = new RequestQueryStats(handler, budget, failOnExceed, slowQueryNanos);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * @return stats of the current request or null outside of a monitored request
+     */
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static RequestQueryStats finish() {
+        RequestQueryStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    void onStatement(String sql) {
+        statements++;
+        lastSql = sql;
+        if (failOnExceed && statements > budget) {
+            throw new QueryBudgetExceededException(handler, budget, sql);
+        }
+    }
+
+    /**
+     * @return true if the statement was slow
+     */
+    boolean onExecuted(long nanos) {
+        jdbcNanos += nanos;
+        return nanos >= slowQueryNanos;
+    }
+
+    public String handler() {
+        return handler;
+    }
+
+    public int budget() {
+        return budget;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long jdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public String lastSql() {
+        return lastSql;
+    }
+
+    public boolean isOverBudget() {
+        return statements > budget;
+    }
+}
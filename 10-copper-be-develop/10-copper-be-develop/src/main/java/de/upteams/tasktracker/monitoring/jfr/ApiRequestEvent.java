@@ -0,0 +1,39 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Controller call, from the handler mapping to the completed response.
+ * Emitted by {@link JfrRequestInterceptor}.
+ */
+@Name("de.upteams.tasktracker.ApiRequest")
+@Label("API Request")
+@Category({"Task Tracker", "Web"})
+@Description("Controller call of the REST API")
+@StackTrace(false)
+public class ApiRequestEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Path")
+    @Description("Path pattern of the handler, e.g. /api/v1/tasks/{id}")
+    public String path;
+
+    @Label("Handler")
+    public String handler;
+
+    @Label("User Id Hash")
+    public String userIdHash;
+
+    @Label("Status")
+    public int status;
+
+    @Label("SQL Statements")
+    public int sqlStatements;
+}
@@ -0,0 +1,33 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Authentication of a request by the access token, emitted by {@code JwtTokenFilter}.
+ */
+@Name("de.upteams.tasktracker.AuthFilter")
+@Label("Auth Filter")
+@Category({"Task Tracker", "Security"})
+@Description("Token resolution, verification and principal lookup of one request")
+@StackTrace(false)
+public class AuthFilterEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Result")
+    @Description("anonymous, authenticated or rejected")
+    public String result;
+
+    @Label("Principal Source")
+    @Description("claims or database, empty if no token was verified")
+    public String principalSource;
+
+    @Label("User Id Hash")
+    public String userIdHash;
+}
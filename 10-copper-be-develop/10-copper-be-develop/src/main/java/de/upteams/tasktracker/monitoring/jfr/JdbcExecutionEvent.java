@@ -0,0 +1,31 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Execution of a JDBC statement or batch, emitted by {@code JdbcTimingListener}.
+ */
+@Name("de.upteams.tasktracker.JdbcExecution")
+@Label("JDBC Execution")
+@Category({"Task Tracker", "Database"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class JdbcExecutionEvent extends Event {
+
+    @Label("Batch")
+    public boolean batch;
+
+    @Label("Path")
+    public String path;
+
+    @Label("User Id Hash")
+    public String userIdHash;
+
+    @Label("SQL")
+    public String sql;
+}
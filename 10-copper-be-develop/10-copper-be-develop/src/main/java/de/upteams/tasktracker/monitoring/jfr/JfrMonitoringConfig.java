@@ -0,0 +1,22 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers {@link JfrRequestInterceptor} after the SQL monitoring interceptor:
+ * its completion callback runs first, while the request statistics are still open.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class JfrMonitoringConfig implements WebMvcConfigurer {
+
+    private final JfrRequestInterceptor jfrRequestInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(jfrRequestInterceptor).order(1);
+    }
+}
@@ -0,0 +1,36 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Flight recordings, loaded from {@code monitoring.jfr}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "monitoring.jfr")
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class JfrProperties {
+
+    /**
+     * JFR settings of recordings: {@code default} (about 1% overhead) or {@code profile}
+     */
+    String settings = "default";
+    /**
+     * Always-on recording kept as a ring buffer on disk, dumped via {@code /actuator/jfr/continuous}
+     */
+    boolean continuous = true;
+    Duration continuousMaxAge = Duration.ofMinutes(30);
+    DataSize continuousMaxSize = DataSize.ofMegabytes(100);
+    /**
+     * Upper bounds of recordings started via the actuator endpoint
+     */
+    Duration maxDuration = Duration.ofMinutes(10);
+    DataSize maxSize = DataSize.ofMegabytes(256);
+}
@@ -0,0 +1,161 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Owns flight recordings of the application: the optional always-on continuous recording
+ * and at most one bounded on-demand recording started via {@link JfrRecordingEndpoint}.
+ * Recordings are dumped into temporary files, the caller is responsible for deleting them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JfrRecorder implements DisposableBean {
+
+    static final String CONTINUOUS = "tasktracker-continuous";
+    static final String ON_DEMAND = "tasktracker-on-demand";
+
+    private final JfrProperties properties;
+    private Recording continuous;
+    private Recording onDemand;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void startContinuous() {
+        if (!properties.isContinuous() || continuous != null) {
+            return;
+        }
+        continuous = newRecording(CONTINUOUS);
+        continuous.setMaxAge(properties.getContinuousMaxAge());
+        continuous.setMaxSize(properties.getContinuousMaxSize().toBytes());
+        continuous.start();
+        log.info("Started continuous flight recording, max age {}, max size {}",
+                properties.getContinuousMaxAge(), properties.getContinuousMaxSize());
+    }
+
+    /**
+     * Starts the on-demand recording, its duration and size are capped by {@link JfrProperties}.
+     *
+     * @return empty if an on-demand recording is already running
+     */
+    public synchronized Optional<JfrRecordingStatus> start(Duration duration) {
+        if (onDemand != null && onDemand.getState() == RecordingState.RUNNING) {
+            return Optional.empty();
+        }
+        closeOnDemand();
+        final Duration max = properties.getMaxDuration();
+        onDemand = newRecording(ON_DEMAND);
+        onDemand.setDuration(duration == null || duration.isNegative() || duration.isZero() || duration.compareTo(max) > 0
+                ? max
+                : duration);
+        onDemand.setMaxSize(properties.getMaxSize().toBytes());
+        onDemand.start();
+        return Optional.of(JfrRecordingStatus.of(onDemand));
+    }
+
+    /**
+     * Stops the on-demand recording (if its duration has not elapsed yet) and dumps it.
+     *
+     * @return file of the recording or empty if there is none
+     */
+    public synchronized Optional<Path> stop() {
+        if (onDemand == null) {
+            return Optional.empty();
+        }
+        try {
+            if (onDemand.getState() == RecordingState.RUNNING) {
+                onDemand.stop();
+            }
+            return Optional.of(dump(onDemand));
+        } finally {
+            closeOnDemand();
+        }
+    }
+
+    /**
+     * Dumps the data of the continuous recording collected so far, the recording keeps running.
+     *
+     * @return file of the recording or empty if the continuous recording is disabled
+     */
+    public synchronized Optional<Path> dumpContinuous() {
+        return continuous == null ? Optional.empty() : Optional.of(dump(continuous));
+    }
+
+    public synchronized Map<String, JfrRecordingStatus> status() {
+        final Map<String, JfrRecordingStatus> result = new LinkedHashMap<>();
+        if (continuous != null) {
+            result.put("continuous", JfrRecordingStatus.of(continuous));
+        }
+        if (onDemand != null) {
+            result.put("onDemand", JfrRecordingStatus.of(onDemand));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        closeOnDemand();
+        if (continuous != null) {
+            continuous.close();
+            continuous = null;
+        }
+    }
+
+    private Recording newRecording(String name) {
+        try {
+            final Recording recording = new Recording(Configuration.getConfiguration(properties.getSettings()));
+            recording.setName(name);
+            recording.setToDisk(true);
+            return recording;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Cannot load JFR settings '%s'".formatted(properties.getSettings()), e);
+        }
+    }
+
+    private static Path dump(Recording recording) {
+        Path file = null;
+        try {
+            file = Files.createTempFile(recording.getName() + "-", ".jfr");
+            recording.dump(file);
+            return file;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Cannot dump flight recording " + recording.getName(), e);
+        }
+    }
+
+    private void closeOnDemand() {
+        if (onDemand != null) {
+            onDemand.close();
+            onDemand = null;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Actuator endpoint {@code /actuator/jfr} for flight recordings:
+ * <ul>
+ *   <li>{@code GET} - state of the recordings;</li>
+ *   <li>{@code POST} with optional {@code {"duration": "5m"}} - starts a bounded on-demand recording;</li>
+ *   <li>{@code DELETE} - stops the on-demand recording and streams the {@code .jfr} file;</li>
+ *   <li>{@code GET /continuous} - streams the data of the continuous recording collected so far.</li>
+ * </ul>
+ * Like the rest of the actuator it is available to admins only.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrRecordingEndpoint {
+
+    private static final String CONTINUOUS = "continuous";
+
+    private final JfrRecorder recorder;
+
+    @ReadOperation
+    public Map<String, JfrRecordingStatus> recordings() {
+        return recorder.status();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<JfrRecordingStatus> start(@Nullable Duration duration) {
+        return recorder.start(duration)
+                .map(status -> new WebEndpointResponse<>(status, WebEndpointResponse.STATUS_OK))
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Resource> stop() {
+        return stream(recorder.stop());
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Resource> dump(@Selector String name) {
+        if (!CONTINUOUS.equals(name)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return stream(recorder.dumpContinuous());
+    }
+
+    private static WebEndpointResponse<Resource> stream(Optional<Path> file) {
+        if (file.isEmpty()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            // временный файл удаляется при закрытии потока после отправки ответа
+            Resource resource = new InputStreamResource(
+                    Files.newInputStream(file.get(), StandardOpenOption.DELETE_ON_CLOSE));
+            return new WebEndpointResponse<>(resource, WebEndpointResponse.STATUS_OK);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read flight recording " + file.get(), e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import jdk.jfr.Recording;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * State of a flight recording as returned by {@link JfrRecordingEndpoint}.
+ */
+public record JfrRecordingStatus(
+        String name,
+        String state,
+        Instant startTime,
+        Duration duration,
+        long maxSizeBytes,
+        long sizeBytes
+) {
+
+    static JfrRecordingStatus of(Recording recording) {
+        return new JfrRecordingStatus(
+                recording.getName(),
+                recording.getState().name(),
+                recording.getStartTime(),
+                recording.getDuration(),
+                recording.getMaxSize(),
+                recording.getSize()
+        );
+    }
+}
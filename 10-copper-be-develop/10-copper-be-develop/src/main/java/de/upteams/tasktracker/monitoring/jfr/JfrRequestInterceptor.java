@@ -0,0 +1,72 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import de.upteams.tasktracker.monitoring.RequestQueryStats;
+import de.upteams.tasktracker.security.service.AuthUserDetails;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.UUID;
+
+/**
+ * Opens {@link RequestTrace} for every controller call and emits {@link ApiRequestEvent} once it is completed.
+ * Registered after {@code QueryBudgetInterceptor}, so the SQL statements of the request are still available.
+ */
+@Component
+public class JfrRequestInterceptor implements HandlerInterceptor {
+
+    private static final String EVENT_ATTRIBUTE = JfrRequestInterceptor.class.getName() + ".event";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        RequestTrace.start(pathOf(request), currentUserId());
+        ApiRequestEvent event = new ApiRequestEvent();
+        event.begin();
+        request.setAttribute(EVENT_ATTRIBUTE, event);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(EVENT_ATTRIBUTE) instanceof ApiRequestEvent event)) {
+            return;
+        }
+        request.removeAttribute(EVENT_ATTRIBUTE);
+        event.end();
+        if (event.shouldCommit()) {
+            RequestTrace trace = RequestTrace.current();
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            RequestQueryStats stats = RequestQueryStats.current();
+            event.method = request.getMethod();
+            event.path = trace.path();
+            event.handler = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+            event.userIdHash = trace.userIdHash();
+            event.status = response.getStatus();
+            event.sqlStatements = stats == null ? 0 : stats.statements();
+            event.commit();
+        }
+        RequestTrace.finish();
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        // шаблон пути, чтобы id не попадали в запись
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? request.getRequestURI() : pattern.toString();
+    }
+
+    private static UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthUserDetails details) {
+            return details.user().getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,28 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Step of the email pipeline, emitted by {@code TemplateEngine} and {@code EmailSender}.
+ */
+@Name("de.upteams.tasktracker.Mail")
+@Label("Mail")
+@Category({"Task Tracker", "Mail"})
+@StackTrace(false)
+public class MailEvent extends Event {
+
+    @Label("Phase")
+    @Description("render or send")
+    public String phase;
+
+    @Label("Template")
+    public String template;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
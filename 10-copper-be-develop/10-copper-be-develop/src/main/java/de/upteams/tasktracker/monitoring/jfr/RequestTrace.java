@@ -0,0 +1,72 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Path and user of the request processed by the current thread, so events emitted deeper
+ * in the call stack can be tied to the API call. Opened and closed by {@link JfrRequestInterceptor}.
+ */
+public final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final RequestTrace NONE = new RequestTrace(null, null);
+
+    private final String path;
+    private final UUID userId;
+    private String userIdHash;
+
+    private RequestTrace(String path, UUID userId) {
+        this.path = path;
+        this.userId = userId;
+    }
+
+    static void start(String path, UUID userId) {
+        CURRENT.set(new RequestTrace(path, userId));
+    }
+
+    static void finish() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return trace of the current request, with empty values outside of a request
+     */
+    public static RequestTrace current() {
+        RequestTrace trace = CURRENT.get();
+        return trace == null ? NONE : trace;
+    }
+
+    /**
+     * Short stable hash of the user id: calls of one user can be grouped without the id in the recording.
+     */
+    public static String hashUserId(UUID userId) {
+        if (userId == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(userId.toString().getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public String path() {
+        return path;
+    }
+
+    /**
+     * Hash of the user id, computed on the first call: only events that are actually committed need it.
+     */
+    public String userIdHash() {
+        if (userIdHash == null && userId != null) {
+            userIdHash = hashUserId(userId);
+        }
+        return userIdHash;
+    }
+}
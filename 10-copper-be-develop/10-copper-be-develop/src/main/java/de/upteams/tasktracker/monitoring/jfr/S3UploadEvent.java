@@ -0,0 +1,29 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Upload of an object to S3, from the call to the completion of the SDK future.
+ * Emitted by {@code FileServiceImpl}, the event is committed by the thread that completes the upload.
+ */
+@Name("de.upteams.tasktracker.S3Upload")
+@Label("S3 Upload")
+@Category({"Task Tracker", "Files"})
+@StackTrace(false)
+public class S3UploadEvent extends Event {
+
+    @Label("Object Key")
+    public String objectKey;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,37 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Call of a service method, emitted by {@code ServiceMethodInstrumentation}.
+ */
+@Name("de.upteams.tasktracker.ServiceCall")
+@Label("Service Call")
+@Category({"Task Tracker", "Service"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class ServiceCallEvent extends Event {
+
+    @Label("Service")
+    public String service;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Project Id")
+    public String projectId;
+
+    @Label("Path")
+    public String path;
+
+    @Label("User Id Hash")
+    public String userIdHash;
+
+    @Label("Failed")
+    public boolean failed;
+}
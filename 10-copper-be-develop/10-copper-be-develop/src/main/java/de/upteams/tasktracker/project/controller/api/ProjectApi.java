@@ -2,6 +2,7 @@ package de.upteams.tasktracker.project.controller.api;
 
 import de.upteams.tasktracker.exception.handling.response.ErrorResponseDto;
 import de.upteams.tasktracker.exception.handling.response.ValidationErrorDto;
+import de.upteams.tasktracker.monitoring.QueryBudget;
 import de.upteams.tasktracker.project.dto.request.ProjectCreateDto;
 import de.upteams.tasktracker.project.dto.response.ProjectResponseDto;
 import de.upteams.tasktracker.security.service.AuthUserDetails;
@@ -92,6 +93,7 @@ public interface ProjectApi {
                                     }
                                     """)))
     })
+    @QueryBudget(2)
     @GetMapping("/{id}")
     ProjectResponseDto getById(
             @PathVariable
@@ -105,6 +107,7 @@ public interface ProjectApi {
                     content = @Content(mediaType = "application/json",
                             array = @ArraySchema(schema = @Schema(implementation = ProjectResponseDto.class))))
     })
+    @QueryBudget(2)
     @GetMapping
     List<ProjectResponseDto> getAll();
 
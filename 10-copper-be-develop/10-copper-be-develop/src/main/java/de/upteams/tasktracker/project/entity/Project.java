@@ -46,7 +46,7 @@ public class Project extends BaseEntity {
     )
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @NotNull
     @JoinColumn(name = "user_id", nullable = false)
     private AppUser owner;
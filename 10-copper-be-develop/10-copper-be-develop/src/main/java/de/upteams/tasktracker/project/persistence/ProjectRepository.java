@@ -1,11 +1,24 @@
 package de.upteams.tasktracker.project.persistence;
 
 import de.upteams.tasktracker.project.entity.Project;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, UUID> {
+
+    /**
+     * All projects with owners in one select, owner is lazy otherwise
+     */
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    List<Project> findAll();
+
+    @EntityGraph(attributePaths = "owner")
+    Optional<Project> findWithOwnerById(UUID id);
 }
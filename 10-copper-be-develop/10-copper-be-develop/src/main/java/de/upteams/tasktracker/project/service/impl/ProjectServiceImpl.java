@@ -8,8 +8,10 @@ import de.upteams.tasktracker.project.persistence.ProjectRepository;
 import de.upteams.tasktracker.project.service.interfaces.ProjectService;
 import de.upteams.tasktracker.project.utils.ProjectMapper;
 import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,17 +25,23 @@ public class ProjectServiceImpl implements ProjectService {
 
     private final ProjectRepository repository;
     private final ProjectMapper mappingService;
+    private final UserService userService;
 
     @Override
+    @Transactional
     public ProjectResponseDto save(ProjectCreateDto newProjectDto, AppUser projectOwner) {
         Project project = mappingService.mapDtoToEntity(newProjectDto);
-        project.setOwner(projectOwner);
+        // владелец из principal содержит только claims токена, в ответ нужен полный профиль
+        project.setOwner(userService.getByIdOrThrow(projectOwner.getId().toString()));
         return mappingService.mapEntityToDto(repository.save(project));
     }
 
     @Override
     public ProjectResponseDto getById(String id) {
-        return mappingService.mapEntityToDto(getOrTrow(id));
+        return repository
+                .findWithOwnerById(UUID.fromString(id))
+                .map(mappingService::mapEntityToDto)
+                .orElseThrow(ProjectNotFoundException::new);
     }
 
     @Override
@@ -3,6 +3,7 @@ package de.upteams.tasktracker.security.config;
 import de.upteams.tasktracker.security.filter.JwtTokenFilter;
 import de.upteams.tasktracker.security.handler.CustomAccessDeniedHandler;
 import de.upteams.tasktracker.security.handler.RestAuthenticationEntryPoint;
+import de.upteams.tasktracker.security.ratelimit.RateLimitFilter;
 import de.upteams.tasktracker.security.service.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -16,7 +17,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -43,18 +44,23 @@ public class SecurityConfig {
      * Filter for checking User's tokens
      */
     private final JwtTokenFilter jwtTokenFilter;
+    /**
+     * Limits requests to public auth endpoints, runs before JWT filter
+     */
+    private final RateLimitFilter rateLimitFilter;
     private final CustomUserDetailsService userDetailsService;
-
-    @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    /**
+     * BCrypt on bounded executor, see {@link de.upteams.tasktracker.security.password.PasswordHashingConfig}
+     */
+    private final PasswordEncoder passwordEncoder;
 
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // re-hash passwords with outdated BCrypt cost on successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -93,13 +99,18 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/v1/password/forgot").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/password/reset").permitAll()
 
+                        // Actuator: health открыт, метрики только для админа
+                        .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         .anyRequest().authenticated()
                 )
                 .exceptionHandling(ex -> ex
                         .authenticationEntryPoint(new RestAuthenticationEntryPoint())
                         .accessDeniedHandler(new CustomAccessDeniedHandler())
                 )
-                .addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, JwtTokenFilter.class);
 
         return http.build();
     }
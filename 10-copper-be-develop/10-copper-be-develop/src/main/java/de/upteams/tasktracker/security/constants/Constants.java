@@ -9,4 +9,12 @@ public interface Constants {
      */
     String ACCESS_TOKEN_COOKIE = "Access-Token";
     String REFRESH_TOKEN_COOKIE = "Refresh-Token";
+
+    /**
+     * Constants for custom JWT claims names
+     */
+    String CLAIM_USER_ID = "uid";
+    String CLAIM_ROLE = "role";
+    String CLAIM_CONFIRMATION_STATUS = "cst";
+    String CLAIM_TOKEN_VERSION = "ver";
 }
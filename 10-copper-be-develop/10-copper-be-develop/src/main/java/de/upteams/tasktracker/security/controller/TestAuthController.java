@@ -2,6 +2,8 @@ package de.upteams.tasktracker.security.controller;
 
 import de.upteams.tasktracker.security.service.AuthUserDetails;
 import de.upteams.tasktracker.user.dto.response.UserResponseDto;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.service.UserService;
 import de.upteams.tasktracker.user.util.AppUserMapper;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,13 +25,14 @@ public class TestAuthController {
 
 
     private final AppUserMapper appUserMapper;
+    private final UserService userService;
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("/role/admin")
     public UserResponseDto adminReq(@AuthenticationPrincipal
                                     @Parameter(hidden = true)
                                     AuthUserDetails principal) {
-        return appUserMapper.mapEntityToDto(principal.user());
+        return appUserMapper.mapEntityToDto(currentUser(principal));
     }
 
     @PreAuthorize("hasRole('ROLE_USER')")
@@ -37,7 +40,7 @@ public class TestAuthController {
     public UserResponseDto userReq(@AuthenticationPrincipal
                                    @Parameter(hidden = true)
                                    AuthUserDetails principal) {
-        return appUserMapper.mapEntityToDto(principal.user());
+        return appUserMapper.mapEntityToDto(currentUser(principal));
     }
 
     @PreAuthorize("isAuthenticated()")
@@ -45,7 +48,7 @@ public class TestAuthController {
     public UserResponseDto anyAuth(@AuthenticationPrincipal
                                    @Parameter(hidden = true)
                                    AuthUserDetails principal) {
-        return appUserMapper.mapEntityToDto(principal.user());
+        return appUserMapper.mapEntityToDto(currentUser(principal));
     }
 
     @PermitAll
@@ -58,4 +61,11 @@ public class TestAuthController {
     public String notAnnotated() {
         return "Not Annotated";
     }
+
+    /**
+     * Principal carries only token claims, the profile is loaded from the database
+     */
+    private AppUser currentUser(AuthUserDetails principal) {
+        return userService.getByIdOrThrow(principal.user().getId().toString());
+    }
 }
@@ -1,16 +1,23 @@
 package de.upteams.tasktracker.security.filter;
 
+import de.upteams.tasktracker.monitoring.jfr.AuthFilterEvent;
+import de.upteams.tasktracker.monitoring.jfr.RequestTrace;
+import de.upteams.tasktracker.security.jwt.TokenClaims;
+import de.upteams.tasktracker.security.service.AuthUserDetails;
 import de.upteams.tasktracker.security.service.CookieService;
 import de.upteams.tasktracker.security.service.CustomUserDetailsService;
 import de.upteams.tasktracker.security.service.JwtTokenService;
-import io.jsonwebtoken.ExpiredJwtException;
+import de.upteams.tasktracker.security.service.TokenVersionRegistry;
+import de.upteams.tasktracker.user.entity.AppUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,16 +28,55 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.WebUtils;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static de.upteams.tasktracker.security.constants.Constants.ACCESS_TOKEN_COOKIE;
 
+/**
+ * Authenticates requests by the access token cookie.
+ * <p>
+ * Metrics: {@code security.auth.filter} times the authentication part of the filter (without the rest
+ * of the chain) tagged by {@code result}, {@code security.auth.principal} times principal resolution
+ * tagged by {@code source} (token claims or user lookup). The same part is emitted as JFR {@link AuthFilterEvent}.
+ * </p>
+ */
 @Component
-@RequiredArgsConstructor
 public class JwtTokenFilter extends OncePerRequestFilter {
 
     private final CustomUserDetailsService userDetailsService;
     private final JwtTokenService jwtTokenService;
     private final CookieService cookieService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    /**
+     * In stateless mode the principal is built from access token claims without reading the user
+     */
+    private final boolean stateless;
+    private final Timer anonymousTimer;
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
+    private final Timer principalFromClaimsTimer;
+    private final Timer principalFromDatabaseTimer;
+
+    public JwtTokenFilter(
+            CustomUserDetailsService userDetailsService,
+            JwtTokenService jwtTokenService,
+            CookieService cookieService,
+            TokenVersionRegistry tokenVersionRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.at.stateless:false}") boolean stateless
+    ) {
+        this.userDetailsService = userDetailsService;
+        this.jwtTokenService = jwtTokenService;
+        this.cookieService = cookieService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.stateless = stateless;
+        this.anonymousTimer = filterTimer(meterRegistry, "anonymous");
+        this.authenticatedTimer = filterTimer(meterRegistry, "authenticated");
+        this.rejectedTimer = filterTimer(meterRegistry, "rejected");
+        this.principalFromClaimsTimer = principalTimer(meterRegistry, "claims");
+        this.principalFromDatabaseTimer = principalTimer(meterRegistry, "database");
+    }
 
     @Override
     protected void doFilterInternal(
@@ -38,32 +84,93 @@ public class JwtTokenFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
+        final AuthFilterEvent event = new AuthFilterEvent();
+        event.begin();
+        final long start = System.nanoTime();
         String token = resolveToken(request);
         final JwtTokenService.TokenType tokenType = JwtTokenService.TokenType.ACCESS;
 
-        if (StringUtils.isNoneBlank(token)) {
-            try {
-                if (jwtTokenService.validateToken(token, tokenType)) {
-                    final String username = jwtTokenService.getUsernameFromToken(token, tokenType);
-                    final UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(auth);
-
-                }
-            } catch (ExpiredJwtException ex) {
+        if (!StringUtils.isNoneBlank(token)) {
+            recordAuthentication(event, anonymousTimer, start, request, "anonymous", null);
+        } else {
+            final Optional<UserDetails> principal = jwtTokenService.verifyToken(token, tokenType)
+                    .flatMap(claims -> resolvePrincipal(claims, event));
+            if (principal.isPresent()) {
+                final UserDetails userDetails = principal.get();
+                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+                auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(auth);
+                recordAuthentication(event, authenticatedTimer, start, request, "authenticated", userDetails);
+            } else {
                 SecurityContextHolder.clearContext();
                 response.addCookie(cookieService.generateLogoutCookie(ACCESS_TOKEN_COOKIE));
+                recordAuthentication(event, rejectedTimer, start, request, "rejected", null);
             }
         }
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Returns principal for verified claims. In stateless mode tokens with user claims are
+     * trusted as long as their version was not revoked; other tokens fall back to the user lookup.
+     */
+    private Optional<UserDetails> resolvePrincipal(TokenClaims claims, AuthFilterEvent event) {
+        final long start = System.nanoTime();
+        if (stateless) {
+            final Optional<AuthUserDetails> fromClaims = jwtTokenService.extractPrincipal(claims);
+            if (fromClaims.isPresent()) {
+                event.principalSource = "claims";
+                final AppUser user = fromClaims.get().user();
+                final boolean current = tokenVersionRegistry.isCurrent(user.getId(), user.getTokenVersion());
+                principalFromClaimsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return current ? Optional.of(fromClaims.get()) : Optional.empty();
+            }
+        }
+        event.principalSource = "database";
+        try {
+            return Optional.of(userDetailsService.loadUserByUsername(claims.subject()));
+        } finally {
+            principalFromDatabaseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void recordAuthentication(
+            AuthFilterEvent event,
+            Timer timer,
+            long start,
+            HttpServletRequest request,
+            String result,
+            UserDetails principal
+    ) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = request.getRequestURI();
+            event.result = result;
+            if (principal instanceof AuthUserDetails details) {
+                event.userIdHash = RequestTrace.hashUserId(details.user().getId());
+            }
+            event.commit();
+        }
+    }
+
+    private static Timer filterTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("security.auth.filter")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Timer principalTimer(MeterRegistry meterRegistry, String source) {
+        return Timer.builder("security.auth.principal")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
     /**
      * Extracts JWT token from Authorization header or cookie.
      */
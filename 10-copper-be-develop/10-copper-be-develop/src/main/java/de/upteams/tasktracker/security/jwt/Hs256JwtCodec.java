@@ -0,0 +1,479 @@
+package de.upteams.tasktracker.security.jwt;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static de.upteams.tasktracker.security.constants.Constants.*;
+
+/**
+ * HS256 signer and verifier specialized for {@link TokenClaims}.
+ * <p>
+ * Header segments are precomputed per key, {@link Mac} instances and byte buffers are
+ * reused per thread, and the payload is read by a small flat JSON reader instead of a general
+ * JSON mapper. Verification allocates only the returned claims and their strings.
+ * </p>
+ * <p>
+ * Key rotation: the first key signs new tokens, all keys verify. Every key has a {@code kid}
+ * derived from its fingerprint, which is written into the header, so a token is checked only
+ * against the key it was signed with. Tokens without {@code kid} (issued before rotation support)
+ * are checked against all keys.
+ * </p>
+ */
+public final class Hs256JwtCodec {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+    /**
+     * Base64URL length of a 32 byte signature without padding
+     */
+    private static final int SIGNATURE_CHARS = 43;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final String LEGACY_HEADER = encode("{\"alg\":\"HS256\"}");
+
+    private static final ThreadLocal<byte[]> EXPECTED_SIGNATURE = ThreadLocal.withInitial(() -> new byte[SIGNATURE_LENGTH]);
+    private static final ThreadLocal<byte[]> ACTUAL_SIGNATURE = ThreadLocal.withInitial(() -> new byte[SIGNATURE_LENGTH]);
+    private static final ThreadLocal<StringBuilder> JSON_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private static final ThreadLocal<byte[]> INPUT_BUFFER = ThreadLocal.withInitial(() -> new byte[512]);
+    private static final ThreadLocal<byte[]> PAYLOAD_BUFFER = ThreadLocal.withInitial(() -> new byte[384]);
+
+    private final List<SigningKey> keys;
+
+    /**
+     * @param keys signing key first, then keys which are only accepted for verification
+     */
+    public Hs256JwtCodec(List<SecretKey> keys) {
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("At least one key is required");
+        }
+        final List<SigningKey> signingKeys = new ArrayList<>(keys.size());
+        for (SecretKey key : keys) {
+            signingKeys.add(new SigningKey(key));
+        }
+        this.keys = List.copyOf(signingKeys);
+    }
+
+    /**
+     * Key id of the key used for new tokens
+     */
+    public String activeKeyId() {
+        return keys.get(0).kid;
+    }
+
+    public String sign(TokenClaims claims) {
+        final SigningKey key = keys.get(0);
+        final StringBuilder json = JSON_BUFFER.get();
+        json.setLength(0);
+        writePayload(json, claims);
+
+        final String signingInput = key.headerSegment + '.' + encode(json.toString());
+        final byte[] signature = EXPECTED_SIGNATURE.get();
+        final byte[] input = signingInput.getBytes(StandardCharsets.US_ASCII);
+        key.mac(input, input.length, signature);
+        return signingInput + '.' + ENCODER.encodeToString(signature);
+    }
+
+    /**
+     * Verifies signature and expiration.
+     *
+     * @param nowEpochSeconds current time
+     * @return claims or empty Optional for malformed, forged or expired tokens
+     */
+    public Optional<TokenClaims> verify(String token, long nowEpochSeconds) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        final int firstDot = token.indexOf('.');
+        final int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || token.length() - secondDot - 1 != SIGNATURE_CHARS) {
+            return Optional.empty();
+        }
+
+        final byte[] actual = ACTUAL_SIGNATURE.get();
+        if (decodeBase64Url(token, secondDot + 1, token.length(), actual) != SIGNATURE_LENGTH) {
+            return Optional.empty();
+        }
+
+        final byte[] input = buffer(INPUT_BUFFER, secondDot);
+        if (!toAscii(token, secondDot, input) || !verifySignature(token, firstDot, input, secondDot, actual)) {
+            return Optional.empty();
+        }
+
+        final TokenClaims claims;
+        try {
+            final byte[] payload = buffer(PAYLOAD_BUFFER, secondDot * 3 / 4);
+            final int payloadLength = decodeBase64Url(token, firstDot + 1, secondDot, payload);
+            if (payloadLength < 0) {
+                return Optional.empty();
+            }
+            claims = new FlatJsonReader(payload, payloadLength).readClaims();
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return Optional.empty();
+        }
+        if (claims == null || (claims.hasExpiration() && claims.expiresAt() <= nowEpochSeconds)) {
+            return Optional.empty();
+        }
+        return Optional.of(claims);
+    }
+
+    private boolean verifySignature(String token, int headerLength, byte[] input, int inputLength, byte[] actual) {
+        final byte[] expected = EXPECTED_SIGNATURE.get();
+        for (SigningKey key : keys) {
+            if (token.startsWith(key.headerSegment) && key.headerSegment.length() == headerLength) {
+                key.mac(input, inputLength, expected);
+                return MessageDigest.isEqual(expected, actual);
+            }
+        }
+        if (LEGACY_HEADER.length() != headerLength || !token.startsWith(LEGACY_HEADER)) {
+            return false;
+        }
+        for (SigningKey key : keys) {
+            key.mac(input, inputLength, expected);
+            if (MessageDigest.isEqual(expected, actual)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writePayload(StringBuilder json, TokenClaims claims) {
+        json.append('{');
+        boolean first = writeString(json, "sub", claims.subject(), true);
+        first = writeString(json, CLAIM_USER_ID, claims.userId(), first);
+        first = writeString(json, CLAIM_ROLE, claims.role(), first);
+        first = writeString(json, CLAIM_CONFIRMATION_STATUS, claims.confirmationStatus(), first);
+        if (claims.tokenVersion() != null) {
+            json.append(first ? "" : ",").append('"').append(CLAIM_TOKEN_VERSION).append("\":").append(claims.tokenVersion().intValue());
+            first = false;
+        }
+        if (claims.hasExpiration()) {
+            json.append(first ? "" : ",").append("\"exp\":").append(claims.expiresAt());
+        }
+        json.append('}');
+    }
+
+    private static boolean writeString(StringBuilder json, String name, String value, boolean first) {
+        if (value == null) {
+            return first;
+        }
+        if (!first) {
+            json.append(',');
+        }
+        json.append('"').append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+        return false;
+    }
+
+    /**
+     * Per-thread buffer of at least {@code size} bytes, grown for unusually long tokens
+     */
+    private static byte[] buffer(ThreadLocal<byte[]> holder, int size) {
+        byte[] buffer = holder.get();
+        if (buffer.length < size) {
+            buffer = new byte[size];
+            holder.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Copies the signing input into {@code out}, characters outside ASCII make the token malformed
+     */
+    private static boolean toAscii(String token, int length, byte[] out) {
+        for (int i = 0; i < length; i++) {
+            final char c = token.charAt(i);
+            if (c > 0x7F) {
+                return false;
+            }
+            out[i] = (byte) c;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes canonical unpadded Base64URL without allocation
+     *
+     * @return number of decoded bytes or -1 for malformed input
+     */
+    private static int decodeBase64Url(String token, int from, int to, byte[] out) {
+        if ((to - from) % 4 == 1 || (to - from) * 3 / 4 > out.length) {
+            return -1;
+        }
+        int buffer = 0;
+        int bits = 0;
+        int index = 0;
+        for (int i = from; i < to; i++) {
+            final int value = base64UrlValue(token.charAt(i));
+            if (value < 0) {
+                return -1;
+            }
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[index++] = (byte) (buffer >> bits);
+                buffer &= (1 << bits) - 1;
+            }
+        }
+        return buffer == 0 ? index : -1;
+    }
+
+    private static int base64UrlValue(char c) {
+        if (c >= 'A' && c <= 'Z') return c - 'A';
+        if (c >= 'a' && c <= 'z') return c - 'a' + 26;
+        if (c >= '0' && c <= '9') return c - '0' + 52;
+        if (c == '-') return 62;
+        if (c == '_') return 63;
+        return -1;
+    }
+
+    private static String encode(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class SigningKey {
+
+        private final String kid;
+        private final String headerSegment;
+        private final ThreadLocal<Mac> mac;
+
+        private SigningKey(SecretKey key) {
+            this.kid = keyId(key);
+            this.headerSegment = encode("{\"alg\":\"HS256\",\"typ\":\"JWT\",\"kid\":\"" + kid + "\"}");
+            this.mac = ThreadLocal.withInitial(() -> {
+                try {
+                    final Mac instance = Mac.getInstance(ALGORITHM);
+                    instance.init(key);
+                    return instance;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("HmacSHA256 is not available", e);
+                }
+            });
+            // ключ проверяется сразу, а не при первом запросе
+            mac.get();
+        }
+
+        private void mac(byte[] input, int length, byte[] out) {
+            final Mac instance = mac.get();
+            instance.update(input, 0, length);
+            try {
+                instance.doFinal(out, 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static String keyId(SecretKey key) {
+            try {
+                final byte[] fingerprint = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+                return ENCODER.encodeToString(fingerprint).substring(0, 8);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+            }
+        }
+    }
+
+    /**
+     * Reader for flat JSON objects with string, integer, boolean and null values.
+     * Unknown claims are skipped, nested objects and arrays are rejected.
+     */
+    private static final class FlatJsonReader {
+
+        private final byte[] json;
+        private final int length;
+        private int pos;
+
+        private FlatJsonReader(byte[] json, int length) {
+            this.json = json;
+            this.length = length;
+        }
+
+        private TokenClaims readClaims() {
+            String subject = null;
+            String userId = null;
+            String role = null;
+            String confirmationStatus = null;
+            Integer tokenVersion = null;
+            long expiresAt = TokenClaims.NO_EXPIRATION;
+
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return atEnd() ? new TokenClaims(null, null, null, null, null, expiresAt) : null;
+            }
+            while (true) {
+                skipWhitespace();
+                final String name = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                switch (name) {
+                    case "sub" -> subject = readNullableString();
+                    case CLAIM_USER_ID -> userId = readNullableString();
+                    case CLAIM_ROLE -> role = readNullableString();
+                    case CLAIM_CONFIRMATION_STATUS -> confirmationStatus = readNullableString();
+                    case CLAIM_TOKEN_VERSION -> tokenVersion = Math.toIntExact(readLong());
+                    case "exp" -> expiresAt = readLong();
+                    default -> skipValue();
+                }
+                skipWhitespace();
+                final byte next = next();
+                if (next == '}') {
+                    break;
+                }
+                if (next != ',') {
+                    throw new IllegalArgumentException("Malformed claims");
+                }
+            }
+            if (!atEnd()) {
+                return null;
+            }
+            return new TokenClaims(subject, userId, role, confirmationStatus, tokenVersion, expiresAt);
+        }
+
+        private String readNullableString() {
+            if (peek() == 'n') {
+                expectLiteral("null");
+                return null;
+            }
+            return readString();
+        }
+
+        private String readString() {
+            expect('"');
+            final int start = pos;
+            while (pos < length && json[pos] != '"' && json[pos] != '\\') {
+                pos++;
+            }
+            if (pos < length && json[pos] == '"') {
+                return new String(json, start, pos++ - start, StandardCharsets.UTF_8);
+            }
+            // строка с escape-последовательностями — редкий случай
+            final StringBuilder value = new StringBuilder().append(new String(json, start, pos - start, StandardCharsets.UTF_8));
+            while (true) {
+                final byte b = next();
+                if (b == '"') {
+                    return value.toString();
+                }
+                if (b == '\\') {
+                    final byte escaped = next();
+                    switch (escaped) {
+                        case '"', '\\', '/' -> value.append((char) escaped);
+                        case 'b' -> value.append('\b');
+                        case 'f' -> value.append('\f');
+                        case 'n' -> value.append('\n');
+                        case 'r' -> value.append('\r');
+                        case 't' -> value.append('\t');
+                        case 'u' -> {
+                            if (pos + 4 > length) {
+                                throw new IllegalArgumentException("Malformed claims");
+                            }
+                            value.append((char) Integer.parseInt(new String(json, pos, 4, StandardCharsets.US_ASCII), 16));
+                            pos += 4;
+                        }
+                        default -> throw new IllegalArgumentException("Malformed claims");
+                    }
+                } else {
+                    final int segmentStart = pos - 1;
+                    while (pos < length && json[pos] != '"' && json[pos] != '\\') {
+                        pos++;
+                    }
+                    value.append(new String(json, segmentStart, pos - segmentStart, StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        private long readLong() {
+            final int start = pos;
+            if (peek() == '-') {
+                pos++;
+            }
+            long value = 0;
+            while (pos < length && json[pos] >= '0' && json[pos] <= '9') {
+                value = Math.addExact(Math.multiplyExact(value, 10), json[pos++] - '0');
+            }
+            final int digitsStart = json[start] == '-' ? start + 1 : start;
+            if (pos == digitsStart) {
+                throw new IllegalArgumentException("Malformed claims");
+            }
+            return json[start] == '-' ? -value : value;
+        }
+
+        private void skipValue() {
+            final byte b = peek();
+            if (b == '"') {
+                readString();
+            } else if (b == 't') {
+                expectLiteral("true");
+            } else if (b == 'f') {
+                expectLiteral("false");
+            } else if (b == 'n') {
+                expectLiteral("null");
+            } else {
+                readLong();
+            }
+        }
+
+        private void expectLiteral(String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                expect(literal.charAt(i));
+            }
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw new IllegalArgumentException("Malformed claims");
+            }
+        }
+
+        private byte next() {
+            if (pos >= length) {
+                throw new IllegalArgumentException("Malformed claims");
+            }
+            return json[pos++];
+        }
+
+        private byte peek() {
+            if (pos >= length) {
+                throw new IllegalArgumentException("Malformed claims");
+            }
+            return json[pos];
+        }
+
+        private void skipWhitespace() {
+            while (pos < length && (json[pos] == ' ' || json[pos] == '\t' || json[pos] == '\n' || json[pos] == '\r')) {
+                pos++;
+            }
+        }
+
+        private boolean atEnd() {
+            skipWhitespace();
+            return pos == length;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.upteams.tasktracker.security.jwt;
+
+/**
+ * Claims of our access and refresh tokens.
+ * Refresh tokens carry only subject, token version and expiration.
+ *
+ * @param subject            user's email ({@code sub})
+ * @param userId             user's id ({@code uid})
+ * @param role               role name ({@code role})
+ * @param confirmationStatus confirmation status name ({@code cst})
+ * @param tokenVersion       token version of the user ({@code ver}), null for old tokens
+ * @param expiresAt          expiration in epoch seconds ({@code exp}), {@link #NO_EXPIRATION} if absent
+ */
+public record TokenClaims(
+        String subject,
+        String userId,
+        String role,
+        String confirmationStatus,
+        Integer tokenVersion,
+        long expiresAt
+) {
+
+    public static final long NO_EXPIRATION = 0L;
+
+    public boolean hasExpiration() {
+        return expiresAt != NO_EXPIRATION;
+    }
+}
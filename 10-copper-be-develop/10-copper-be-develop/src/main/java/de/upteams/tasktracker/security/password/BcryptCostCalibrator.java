@@ -0,0 +1,53 @@
+package de.upteams.tasktracker.security.password;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Chooses BCrypt cost factor for a target hashing latency on the current hardware.
+ * <p>
+ * Hashing time doubles with every cost step, so one measurement at the minimal cost is enough
+ * to find the highest cost that still fits into the target.
+ * </p>
+ */
+@Slf4j
+public final class BcryptCostCalibrator {
+
+    private static final int MEASUREMENTS = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private BcryptCostCalibrator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalArgumentException("Invalid BCrypt strength range " + minStrength + ".." + maxStrength);
+        }
+        final String salt = BCrypt.gensalt(minStrength);
+        // первый прогон — прогрев
+        BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < MEASUREMENTS; i++) {
+            final long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        final int strength = strengthFor(targetMillis * 1_000_000L, bestNanos, minStrength, maxStrength);
+        log.info("BCrypt calibration: cost {} took {} ms, chosen cost {} for target {} ms",
+                minStrength, bestNanos / 1_000_000, strength, targetMillis);
+        return strength;
+    }
+
+    static int strengthFor(long targetNanos, long nanosAtMinStrength, int minStrength, int maxStrength) {
+        int strength = minStrength;
+        long expectedNanos = Math.max(nanosAtMinStrength, 1);
+        while (strength < maxStrength && expectedNanos * 2 <= targetNanos) {
+            expectedNanos *= 2;
+            strength++;
+        }
+        return strength;
+    }
+}
@@ -0,0 +1,146 @@
+package de.upteams.tasktracker.security.password;
+
+import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt password encoder which runs hashing and verification on a dedicated bounded executor.
+ * <p>
+ * Request threads only wait for the result. When all hashing threads are busy and the queue is
+ * full, or the result does not arrive in time, the call fails fast with 503, so a login storm
+ * cannot occupy every servlet thread.
+ * </p>
+ * <p>
+ * Hashes created with a cost factor below the configured minimum are reported by {@link #upgradeEncoding(String)},
+ * so they are re-hashed on the next successful login. Stronger hashes are never re-hashed to a lower cost,
+ * so instances that calibrated different costs do not re-hash each other's passwords back and forth.
+ * </p>
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[abyx]?\\$(\\d\\d)\\$");
+    private static final String BUSY_MESSAGE = "Server is busy, please try again later";
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final int minStrength;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, Duration timeout) {
+        this(strength, strength, threads, queueCapacity, timeout);
+    }
+
+    /**
+     * @param strength    cost factor of new hashes
+     * @param minStrength hashes with a lower cost factor are re-hashed, must not be above {@code strength}
+     */
+    public BoundedPasswordEncoder(int strength, int minStrength, int threads, int queueCapacity, Duration timeout) {
+        if (minStrength > strength) {
+            throw new IllegalArgumentException("Minimal BCrypt strength " + minStrength + " is above " + strength);
+        }
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.minStrength = minStrength;
+        this.timeoutMillis = timeout.toMillis();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        final Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < minStrength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Exposed for metrics
+     */
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        final Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing queue is full ({} queued)", executor.getQueue().size());
+            throw new RestApiException(HttpStatus.SERVICE_UNAVAILABLE, BUSY_MESSAGE);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Password hashing did not finish in {} ms", timeoutMillis);
+            throw new RestApiException(HttpStatus.SERVICE_UNAVAILABLE, BUSY_MESSAGE);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RestApiException(HttpStatus.SERVICE_UNAVAILABLE, BUSY_MESSAGE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package de.upteams.tasktracker.security.password;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * Password encoder with bounded hashing executor and calibrated BCrypt cost.
+ * Fixed {@code security.password.bcrypt.strength} disables calibration.
+ * Calibration only raises the cost above {@code security.password.bcrypt.min-strength}, and only hashes
+ * below that configured floor are re-hashed, so the result of calibration on one instance never causes
+ * re-hashing on another.
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${security.password.bcrypt.strength:0}") int fixedStrength,
+            @Value("${security.password.bcrypt.target-ms:250}") long targetMillis,
+            @Value("${security.password.bcrypt.min-strength:10}") int minStrength,
+            @Value("${security.password.bcrypt.max-strength:14}") int maxStrength,
+            @Value("${security.password.executor.threads:0}") int threads,
+            @Value("${security.password.executor.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password.executor.timeout-ms:5000}") long timeoutMillis
+    ) {
+        final int strength = fixedStrength > 0
+                ? fixedStrength
+                : BcryptCostCalibrator.calibrate(targetMillis, minStrength, maxStrength);
+        final int floor = fixedStrength > 0 ? fixedStrength : minStrength;
+        final int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                strength, floor, poolSize, queueCapacity, Duration.ofMillis(timeoutMillis));
+        new ExecutorServiceMetrics(encoder.getExecutor(), "password.hashing", Collections.emptyList()).bindTo(meterRegistry);
+        return encoder;
+    }
+}
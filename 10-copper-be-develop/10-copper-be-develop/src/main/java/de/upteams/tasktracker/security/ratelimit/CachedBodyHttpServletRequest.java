@@ -0,0 +1,94 @@
+package de.upteams.tasktracker.security.ratelimit;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Request wrapper which reads the (small) body once, so it can be inspected by a filter
+ * and then read again by the controller.
+ * <p>
+ * At most {@code maxBody + 1} bytes are read, whatever {@code Content-Length} says, also for chunked bodies.
+ * A body over the limit is not replayed completely, such request must be rejected, see {@link #isTruncated()}.
+ * </p>
+ */
+class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+    private final boolean truncated;
+
+    CachedBodyHttpServletRequest(HttpServletRequest request, int maxBody) throws IOException {
+        super(request);
+        final byte[] read = request.getInputStream().readNBytes(maxBody + 1);
+        this.truncated = read.length > maxBody;
+        this.body = truncated ? Arrays.copyOf(read, maxBody) : read;
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Body is longer than the limit and only its beginning was read
+     */
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        final ByteArrayInputStream source = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return source.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException("Async reading is not supported");
+            }
+
+            @Override
+            public int read() {
+                return source.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return source.read(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        final String encoding = getCharacterEncoding();
+        final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+}
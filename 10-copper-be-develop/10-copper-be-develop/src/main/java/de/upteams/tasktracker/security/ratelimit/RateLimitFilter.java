@@ -0,0 +1,229 @@
+package de.upteams.tasktracker.security.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.upteams.tasktracker.security.handler.ErrorResponse;
+import de.upteams.tasktracker.security.handler.ErrorResponseWriter;
+import de.upteams.tasktracker.user.util.EmailNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Rate limiting of public endpoints which do expensive work (BCrypt, DB writes, SMTP).
+ * <p>
+ * Runs before {@code JwtTokenFilter}. Every configured route has token buckets per client IP
+ * and per target email taken from the JSON body. Buckets are kept in a bounded cache and
+ * removed after {@code security.rate-limit.idle-timeout} without requests.
+ * Rejected requests get 429 with {@code Retry-After} and are counted in
+ * {@code security.rate_limit.rejected}; they are logged only at debug level.
+ * </p>
+ * <p>
+ * Routes are matched by the decoded path within the application without repeated and trailing slashes,
+ * so path variants which reach the same controller share the buckets. On routes with email limit
+ * the body is read up to {@value #MAX_INSPECTED_BODY} bytes also without {@code Content-Length},
+ * larger bodies get 413. Client IP is {@code getRemoteAddr()}, behind a proxy it is taken
+ * from trusted forwarded headers ({@code server.forward-headers-strategy}).
+ * </p>
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final int MAX_INSPECTED_BODY = 16 * 1024;
+    private static final String IP_KEY = "ip";
+    private static final String EMAIL_KEY = "email";
+    private static final Pattern REPEATED_SLASHES = Pattern.compile("/{2,}");
+    /**
+     * Decodes the path and removes {@code ;} parameters, as Spring MVC does before matching
+     */
+    private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RateLimitProperties.Route> routes = new HashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final Cache<BucketKey, TokenBucket> buckets;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+
+        Duration idleTimeout = properties.getIdleTimeout();
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            routes.put(routeKey(route.getMethod(), normalizePath(route.getPath())), route);
+            // пустой bucket не должен удаляться раньше, чем успеет наполниться
+            idleTimeout = max(idleTimeout, refillTime(route.getIpCapacity(), route.getIpRefillPerMinute()));
+            if (route.getEmailCapacity() > 0) {
+                idleTimeout = max(idleTimeout, refillTime(route.getEmailCapacity(), route.getEmailRefillPerMinute()));
+            }
+        }
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "security.rate_limit.buckets");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled() || findRoute(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        final RateLimitProperties.Route route = findRoute(request);
+        final long now = System.nanoTime();
+
+        long waitNanos = consume(route, IP_KEY, request.getRemoteAddr(),
+                route.getIpCapacity(), route.getIpRefillPerMinute(), now);
+
+        HttpServletRequest chainRequest = request;
+        if (waitNanos == 0 && route.getEmailCapacity() > 0 && request.getContentLengthLong() != 0) {
+            // длина -1 у chunked-запросов: читаем тело до лимита, а не пропускаем проверку
+            if (request.getContentLengthLong() > MAX_INSPECTED_BODY) {
+                rejectTooLarge(request, response);
+                return;
+            }
+            final CachedBodyHttpServletRequest cached = new CachedBodyHttpServletRequest(request, MAX_INSPECTED_BODY);
+            if (cached.isTruncated()) {
+                rejectTooLarge(request, response);
+                return;
+            }
+            chainRequest = cached;
+            final String email = extractEmail(cached.getBody());
+            if (email != null) {
+                waitNanos = consume(route, EMAIL_KEY, email,
+                        route.getEmailCapacity(), route.getEmailRefillPerMinute(), now);
+            }
+        }
+
+        if (waitNanos > 0) {
+            reject(request, response, waitNanos);
+            return;
+        }
+        filterChain.doFilter(chainRequest, response);
+    }
+
+    private long consume(RateLimitProperties.Route route, String keyType, String key,
+                         int capacity, int refillPerMinute, long now) {
+        final BucketKey bucketKey = new BucketKey(route.getPath(), keyType, key);
+        final TokenBucket bucket = buckets.get(bucketKey,
+                k -> new TokenBucket(capacity, emissionInterval(refillPerMinute), now));
+        final long waitNanos = bucket.tryConsume(now);
+        if (waitNanos > 0) {
+            rejectionCounter(route.getPath(), keyType).increment();
+            // под атакой WARN на каждый отказ забил бы лог, отказы видны по счётчику
+            log.debug("Rate limit exceeded on {} by {} {}", route.getPath(), keyType,
+                    IP_KEY.equals(keyType) ? key : "***");
+        }
+        return waitNanos;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        final long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME),
+                429,
+                "Too Many Requests",
+                "Too many requests, please try again in " + retryAfterSeconds + " seconds",
+                request.getRequestURI()
+        );
+        ErrorResponseWriter.write(response, error);
+    }
+
+    private void rejectTooLarge(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME),
+                413,
+                "Payload Too Large",
+                "Request body must not exceed " + MAX_INSPECTED_BODY + " bytes",
+                request.getRequestURI()
+        );
+        ErrorResponseWriter.write(response, error);
+    }
+
+    private RateLimitProperties.Route findRoute(HttpServletRequest request) {
+        return routes.get(routeKey(request.getMethod(), normalizePath(PATH_HELPER.getPathWithinApplication(request))));
+    }
+
+    private String extractEmail(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            final JsonNode email = objectMapper.readTree(body).get(EMAIL_KEY);
+            return email != null && email.isTextual() ? EmailNormalizer.normalize(email.asText()) : null;
+        } catch (IOException e) {
+            // невалидный JSON отклонит контроллер
+            return null;
+        }
+    }
+
+    private Counter rejectionCounter(String path, String keyType) {
+        return rejections.computeIfAbsent(path + ' ' + keyType, k -> Counter
+                .builder("security.rate_limit.rejected")
+                .description("Requests rejected by rate limiting")
+                .tag("route", path)
+                .tag("key", keyType)
+                .register(meterRegistry));
+    }
+
+    /**
+     * {@code /api//v1/auth/login/} -> {@code /api/v1/auth/login}
+     */
+    static String normalizePath(String path) {
+        final String collapsed = REPEATED_SLASHES.matcher(path).replaceAll("/");
+        return collapsed.length() > 1 && collapsed.endsWith("/")
+                ? collapsed.substring(0, collapsed.length() - 1)
+                : collapsed;
+    }
+
+    private static long emissionInterval(int refillPerMinute) {
+        return TimeUnit.MINUTES.toNanos(1) / Math.max(refillPerMinute, 1);
+    }
+
+    private static Duration refillTime(int capacity, int refillPerMinute) {
+        return Duration.ofNanos(emissionInterval(refillPerMinute) * Math.max(capacity, 1));
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static String routeKey(String method, String path) {
+        return method + ' ' + path;
+    }
+
+    private record BucketKey(String route, String keyType, String key) {
+    }
+}
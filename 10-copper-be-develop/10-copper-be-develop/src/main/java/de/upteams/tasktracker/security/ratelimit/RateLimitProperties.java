@@ -0,0 +1,47 @@
+package de.upteams.tasktracker.security.ratelimit;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Limits for public endpoints, loaded from {@code security.rate-limit}.
+ * <p>
+ * Every route has a bucket per client IP and, when {@code email-capacity} is set,
+ * a bucket per target email from the JSON request body.
+ * </p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "security.rate-limit")
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RateLimitProperties {
+
+    boolean enabled = true;
+    /**
+     * Buckets not used for this time are removed
+     */
+    Duration idleTimeout = Duration.ofMinutes(15);
+    long maxBuckets = 100_000;
+    List<Route> routes = new ArrayList<>();
+
+    @Data
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Route {
+        String method = "POST";
+        String path;
+        int ipCapacity = 20;
+        int ipRefillPerMinute = 20;
+        /**
+         * 0 disables the limit by email
+         */
+        int emailCapacity = 0;
+        int emailRefillPerMinute = 0;
+    }
+}
@@ -0,0 +1,46 @@
+package de.upteams.tasktracker.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ * <p>
+ * Implemented as GCRA: the whole state is one "theoretical arrival time", so a request is
+ * admitted with a single CAS and no lock. A bucket of {@code capacity} tokens is refilled with
+ * one token every {@code emissionIntervalNanos}.
+ * </p>
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(int capacity, long emissionIntervalNanos, long nowNanos) {
+        if (capacity < 1 || emissionIntervalNanos < 1) {
+            throw new IllegalArgumentException("Capacity and refill interval must be positive");
+        }
+        this.emissionIntervalNanos = emissionIntervalNanos;
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @return 0 if the token was taken, otherwise nanoseconds until the next token is available
+     */
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            final long current = theoreticalArrival.get();
+            final long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            final long waitNanos = next - nowNanos - burstNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
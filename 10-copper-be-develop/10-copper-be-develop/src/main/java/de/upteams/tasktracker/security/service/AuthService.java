@@ -3,13 +3,14 @@ package de.upteams.tasktracker.security.service;
 import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
 import de.upteams.tasktracker.security.dto.LoginRequest;
 import de.upteams.tasktracker.security.entities.TokenResponseDto;
+import de.upteams.tasktracker.security.jwt.TokenClaims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 
@@ -24,7 +25,7 @@ public class AuthService {
 
     public TokenResponseDto login(LoginRequest loginRequest) {
         String userEmail = loginRequest.email();
-        UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+        AuthUserDetails userDetails = (AuthUserDetails) userDetailsService.loadUserByUsername(userEmail);
 
         Authentication authentication;
         try {
@@ -53,17 +54,27 @@ public class AuthService {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        String accessToken = jwtTokenService.generateAccessToken(userEmail);
-        String refreshToken = jwtTokenService.generateRefreshToken(userEmail);
+        String accessToken = jwtTokenService.generateAccessToken(userDetails.user());
+        String refreshToken = jwtTokenService.generateRefreshToken(userDetails.user());
         return new TokenResponseDto(accessToken, refreshToken);
     }
 
 
     public String refreshAccessToken(String refreshToken) {
-        if (jwtTokenService.validateToken(refreshToken, JwtTokenService.TokenType.REFRESH)) {
-            String username = jwtTokenService.getUsernameFromToken(refreshToken, JwtTokenService.TokenType.REFRESH);
-            return jwtTokenService.generateAccessToken(username);
+        final TokenClaims claims = jwtTokenService.verifyToken(refreshToken, JwtTokenService.TokenType.REFRESH)
+                .orElseThrow(() -> new RestApiException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+
+        final AuthUserDetails userDetails;
+        try {
+            userDetails = (AuthUserDetails) userDetailsService.loadUserByUsername(claims.subject());
+        } catch (UsernameNotFoundException ex) {
+            throw new RestApiException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        }
+        // Refresh tokens issued before password change, ban etc. are revoked
+        if (jwtTokenService.getTokenVersion(claims) < userDetails.user().getTokenVersion()
+                || !userDetails.isAccountNonLocked()) {
+            throw new RestApiException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
         }
-        throw new RestApiException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        return jwtTokenService.generateAccessToken(userDetails.user());
     }
 }
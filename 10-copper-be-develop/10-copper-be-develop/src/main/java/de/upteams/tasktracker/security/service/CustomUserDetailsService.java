@@ -1,29 +1,108 @@
 package de.upteams.tasktracker.security.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import de.upteams.tasktracker.user.entity.AppUser;
 import de.upteams.tasktracker.user.persistence.UserRepository;
-import lombok.RequiredArgsConstructor;
+import de.upteams.tasktracker.user.util.EmailNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
 
 /**
  * Service to load user-specific data for authentication.
+ * <p>
+ * Loaded principals are kept in a bounded in-process cache with TTL, so authenticated requests
+ * do not query the database every time. The cache holds immutable {@link PrincipalSnapshot}s,
+ * every lookup returns a principal of its own. Services that change user's email, role, password or
+ * confirmation status must call {@link #evictUser(String)}.
+ * </p>
  */
 @Service
-@RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final String CACHE_NAME = "auth.principals";
 
     private final UserRepository userRepository;
+    private final Cache<String, PrincipalSnapshot> principals;
+
+    public CustomUserDetailsService(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${security.principal-cache.ttl-in-sec:300}") long ttlInSeconds
+    ) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlInSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, CACHE_NAME);
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        AppUser user = userRepository.findByEmailIgnoreCase(username)
+        if (username == null) {
+            throw new UsernameNotFoundException("User not found: null");
+        }
+        return principals.get(cacheKey(username), key -> loadFromDatabase(username)).toUserDetails();
+    }
+
+    /**
+     * Stores password re-hashed with the current BCrypt cost after successful login.
+     * Token version is not changed, because the password itself stays the same.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        final AppUser appUser = userRepository.findByEmailNormalized(cacheKey(user.getUsername()))
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + user.getUsername()));
+        appUser.setPassword(newPassword);
+        userRepository.save(appUser);
+        evictUser(appUser.getEmail());
+        return new AuthUserDetails(appUser);
+    }
+
+    /**
+     * Removes cached principal of the user. If called inside a transaction, the principal is
+     * removed once more after commit, so a concurrent request cannot put the old state back.
+     */
+    public void evictUser(String email) {
+        if (email == null) {
+            return;
+        }
+        final String key = cacheKey(email);
+        principals.invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.invalidate(key);
+                }
+            });
+        }
+    }
+
+    private PrincipalSnapshot loadFromDatabase(String username) {
+        AppUser user = userRepository.findByEmailNormalized(cacheKey(username))
                 .orElseThrow(() -> new UsernameNotFoundException(
                         "User not found: " + username
                 ));
-        return new AuthUserDetails(user);
+        return PrincipalSnapshot.of(user);
     }
-}
 
+    private static String cacheKey(String email) {
+        return EmailNormalizer.normalize(email);
+    }
+}
@@ -1,20 +1,56 @@
 package de.upteams.tasktracker.security.service;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import de.upteams.tasktracker.security.jwt.Hs256JwtCodec;
+import de.upteams.tasktracker.security.jwt.TokenClaims;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.entity.ConfirmationStatus;
+import de.upteams.tasktracker.user.entity.Role;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
  * Service for generation, validation and parsing of JWT tokens.
+ * <p>
+ * Tokens are signed and verified by {@link Hs256JwtCodec}, one per {@link TokenType}.
+ * Successfully verified tokens are kept in a bounded cache keyed by the SHA-256 digest of the
+ * token, so a token that was already seen is not parsed and HMAC-verified again until it expires.
+ * </p>
+ * <p>
+ * Secrets can be rotated: put the new secret into {@code jwt.at.secret}/{@code jwt.rt.secret}
+ * and the old one into {@code jwt.at.previous-secrets}/{@code jwt.rt.previous-secrets}.
+ * Tokens signed with previous secrets stay valid until they expire.
+ * </p>
+ * <p>
+ * Metrics: {@code security.jwt.sign} and {@code security.jwt.verify} timers tagged by token type,
+ * verification additionally by {@code cache} (hit/miss) and {@code result} (valid/invalid).
+ * </p>
  */
 @Service
 public class JwtTokenService {
@@ -24,96 +60,243 @@ public class JwtTokenService {
         REFRESH
     }
 
+    private static final long DEFAULT_VERIFIED_CACHE_SIZE = 10_000;
+
+    /**
+     * Upper bound for tokens without {@code exp} claim, so they never stay in the cache forever
+     */
+    private static final Duration MAX_CACHED_LIFETIME = Duration.ofMinutes(15);
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    });
+
     @Value("${jwt.at.live-in-min}")
     private int accessTokenLiveInMinutes;
     @Value("${jwt.rt.live-in-min}")
     private int refreshTokenLiveInMinutes;
 
-    private final SecretKey accessTokenKey;
-    private final SecretKey refreshTokenKey;
+    private final Map<TokenType, Hs256JwtCodec> codecs = new EnumMap<>(TokenType.class);
+    private final Cache<VerifiedTokenKey, TokenClaims> verifiedTokens;
+    private final Map<TokenType, Timer> signTimers = new EnumMap<>(TokenType.class);
+    private final Map<TokenType, VerifyTimers> verifyTimers = new EnumMap<>(TokenType.class);
 
+    public JwtTokenService(String accessPhrase, String refreshPhrase, MeterRegistry meterRegistry) {
+        this(accessPhrase, refreshPhrase, new String[0], new String[0], DEFAULT_VERIFIED_CACHE_SIZE, meterRegistry);
+    }
+
+    @Autowired
     public JwtTokenService(
             @Value("${jwt.at.secret}") String accessPhrase,
-            @Value("${jwt.rt.secret}") String refreshPhrase
+            @Value("${jwt.rt.secret}") String refreshPhrase,
+            @Value("${jwt.at.previous-secrets:}") String[] previousAccessPhrases,
+            @Value("${jwt.rt.previous-secrets:}") String[] previousRefreshPhrases,
+            @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheSize,
+            MeterRegistry meterRegistry
     ) {
 
         Objects.requireNonNull(accessPhrase, "Access token secret is null");
         Objects.requireNonNull(refreshPhrase, "Refresh token secret is null");
-        if (accessPhrase.length() < 32 || refreshPhrase.length() < 32) {
-            throw new IllegalArgumentException("Secrets must be at least 32 characters long");
+        codecs.put(TokenType.ACCESS, new Hs256JwtCodec(keys(accessPhrase, previousAccessPhrases)));
+        codecs.put(TokenType.REFRESH, new Hs256JwtCodec(keys(refreshPhrase, previousRefreshPhrases)));
+
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new UntilTokenExpiration())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "security.jwt.verified");
+
+        for (TokenType type : TokenType.values()) {
+            final String typeTag = type.name().toLowerCase();
+            signTimers.put(type, Timer.builder("security.jwt.sign")
+                    .tag("type", typeTag)
+                    .register(meterRegistry));
+            verifyTimers.put(type, new VerifyTimers(
+                    verifyTimer(meterRegistry, typeTag, "hit", "valid"),
+                    verifyTimer(meterRegistry, typeTag, "miss", "valid"),
+                    verifyTimer(meterRegistry, typeTag, "miss", "invalid")
+            ));
+        }
+    }
+
+    /**
+     * Verifies the token once and returns its claims.
+     * Returns empty Optional if the token is malformed, has a wrong signature or is expired.
+     */
+    public Optional<TokenClaims> verifyToken(String token, TokenType tokenType) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
         }
-        this.accessTokenKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(accessPhrase));
-        this.refreshTokenKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(refreshPhrase));
+        final long start = System.nanoTime();
+        final VerifyTimers timers = verifyTimers.get(tokenType);
+        final VerifiedTokenKey cacheKey = new VerifiedTokenKey(tokenType, digest(token));
+        final TokenClaims cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null) {
+            timers.hit().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(cached);
+        }
+        final Optional<TokenClaims> claims = codecs.get(tokenType).verify(token, Instant.now().getEpochSecond());
+        claims.ifPresent(verified -> verifiedTokens.put(cacheKey, verified));
+        (claims.isPresent() ? timers.valid() : timers.invalid()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return claims;
     }
 
     /**
      * Extracts subject (username) from given JWT token by type.
      */
     public String getUsernameFromToken(String token, TokenType tokenType) {
-        SecretKey key = selectKey(tokenType);
-        return extractClaim(token, Claims::getSubject, key);
+        return extractClaim(token, TokenClaims::subject, tokenType);
     }
 
     /**
      * Generic extractor for any claim from token.
      */
     public <T> T extractClaim(String token,
-                              Function<Claims, T> claimsResolver,
-                              SecretKey key) {
-        Claims claims = parseClaims(token, key);
+                              Function<TokenClaims, T> claimsResolver,
+                              TokenType tokenType) {
+        TokenClaims claims = verifyToken(token, tokenType)
+                .orElseThrow(() -> new JwtException("Token is invalid or expired"));
         return claimsResolver.apply(claims);
     }
 
     /**
-     * Generate access token with username and roles.
+     * Generate access token with username, user id, role, confirmation status and token version.
+     * These claims allow building the principal without reading the user in stateless mode.
+     */
+    public String generateAccessToken(AppUser user) {
+        Instant expiry = Instant.now().plusSeconds(accessTokenLiveInMinutes * 60L);
+        return sign(TokenType.ACCESS, new TokenClaims(
+                user.getEmail(),
+                user.getId() == null ? null : user.getId().toString(),
+                user.getRole() == null ? null : user.getRole().name(),
+                user.getConfirmationStatus() == null ? null : user.getConfirmationStatus().name(),
+                user.getTokenVersion(),
+                expiry.getEpochSecond()
+        ));
+    }
+
+    /**
+     * Generate refresh token with username and token version only.
+     */
+    public String generateRefreshToken(AppUser user) {
+        Instant expiry = Instant.now().plusSeconds(refreshTokenLiveInMinutes * 60L);
+        return sign(TokenType.REFRESH, new TokenClaims(
+                user.getEmail(), null, null, null, user.getTokenVersion(), expiry.getEpochSecond()
+        ));
+    }
+
+    /**
+     * Builds principal from claims of a verified access token.
+     * Returns empty Optional for tokens issued without user claims.
      */
-    public String generateAccessToken(String userEmail) {
-        Instant now = Instant.now();
-        Instant expiry = now.plusSeconds(accessTokenLiveInMinutes * 60L);
-        return Jwts.builder()
-                .subject(userEmail)
-                .expiration(Date.from(expiry))
-                .signWith(accessTokenKey, Jwts.SIG.HS256)
-                .compact();
+    public Optional<AuthUserDetails> extractPrincipal(TokenClaims claims) {
+        if (claims.userId() == null || claims.role() == null
+                || claims.confirmationStatus() == null || claims.tokenVersion() == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new AuthUserDetails(AppUser.fromTokenClaims(
+                    UUID.fromString(claims.userId()),
+                    claims.subject(),
+                    Role.valueOf(claims.role()),
+                    ConfirmationStatus.valueOf(claims.confirmationStatus()),
+                    claims.tokenVersion()
+            )));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
     /**
-     * Generate refresh token with username only.
+     * Returns token version from claims; tokens issued without version have version 0.
      */
-    public String generateRefreshToken(String userEmail) {
-        Instant now = Instant.now();
-        Instant expiry = now.plusSeconds(refreshTokenLiveInMinutes * 60L);
-        return Jwts.builder()
-                .subject(userEmail)
-                .expiration(Date.from(expiry))
-                .signWith(refreshTokenKey, Jwts.SIG.HS256)
-                .compact();
+    public int getTokenVersion(TokenClaims claims) {
+        return claims.tokenVersion() == null ? 0 : claims.tokenVersion();
     }
 
     /**
      * Validate given token type.
      */
     public boolean validateToken(String token, TokenType tokenType) {
-        try {
-            parseClaims(token, selectKey(tokenType));
-            return true;
-        } catch (Exception e) {
-            return false;
+        return verifyToken(token, tokenType).isPresent();
+    }
+
+    private String sign(TokenType tokenType, TokenClaims claims) {
+        final long start = System.nanoTime();
+        final String token = codecs.get(tokenType).sign(claims);
+        signTimers.get(tokenType).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String type, String cache, String result) {
+        return Timer.builder("security.jwt.verify")
+                .tag("type", type)
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static List<SecretKey> keys(String activePhrase, String[] previousPhrases) {
+        final List<SecretKey> keys = new ArrayList<>();
+        keys.add(toKey(activePhrase));
+        for (String phrase : previousPhrases) {
+            if (phrase != null && !phrase.isBlank()) {
+                keys.add(toKey(phrase.trim()));
+            }
+        }
+        return keys;
+    }
+
+    private static SecretKey toKey(String phrase) {
+        if (phrase.length() < 32) {
+            throw new IllegalArgumentException("Secrets must be at least 32 characters long");
         }
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(phrase));
     }
 
     /**
-     * Internal: parse and verify token signature and expiration using old API.
+     * Tokens are cached by digest only, so bearer tokens themselves are not kept in the heap.
      */
-    private Claims parseClaims(String token, SecretKey key) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private static String digest(String token) {
+        final MessageDigest sha256 = SHA_256.get();
+        sha256.reset();
+        final byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private record VerifiedTokenKey(TokenType tokenType, String digest) {
     }
 
-    private SecretKey selectKey(TokenType tokenType) {
-        return tokenType == TokenType.ACCESS ? accessTokenKey : refreshTokenKey;
+    private record VerifyTimers(Timer hit, Timer valid, Timer invalid) {
+    }
+
+    /**
+     * Keeps verified claims exactly until the {@code exp} of the token.
+     */
+    private static final class UntilTokenExpiration implements Expiry<VerifiedTokenKey, TokenClaims> {
+
+        @Override
+        public long expireAfterCreate(VerifiedTokenKey key, TokenClaims claims, long currentTime) {
+            if (!claims.hasExpiration()) {
+                return MAX_CACHED_LIFETIME.toNanos();
+            }
+            final long millisLeft = claims.expiresAt() * 1000 - System.currentTimeMillis();
+            return Duration.ofMillis(Math.max(millisLeft, 0)).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(VerifiedTokenKey key, TokenClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(VerifiedTokenKey key, TokenClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
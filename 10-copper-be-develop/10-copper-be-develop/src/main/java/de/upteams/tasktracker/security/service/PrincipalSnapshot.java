@@ -0,0 +1,46 @@
+package de.upteams.tasktracker.security.service;
+
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.entity.ConfirmationStatus;
+import de.upteams.tasktracker.user.entity.Role;
+
+import java.util.UUID;
+
+/**
+ * Immutable copy of the user state needed for authentication, kept in the principal cache.
+ * Every lookup gets its own {@link AuthUserDetails}, so cached state is never shared as a mutable entity.
+ */
+record PrincipalSnapshot(
+        UUID id,
+        String email,
+        String password,
+        Role role,
+        ConfirmationStatus confirmationStatus,
+        int tokenVersion
+) {
+
+    static PrincipalSnapshot of(AppUser user) {
+        return new PrincipalSnapshot(
+                user.getId(),
+                user.getEmail(),
+                user.getPassword(),
+                user.getRole(),
+                user.getConfirmationStatus(),
+                user.getTokenVersion()
+        );
+    }
+
+    /**
+     * New principal with a detached user carrying only these fields, like a principal restored from token claims
+     */
+    AuthUserDetails toUserDetails() {
+        final AppUser user = AppUser.fromTokenClaims(id, email, role, confirmationStatus, tokenVersion);
+        user.setPassword(password);
+        return new AuthUserDetails(user);
+    }
+
+    @Override
+    public String toString() {
+        return "PrincipalSnapshot{id=" + id + ", role=" + role + ", confirmationStatus=" + confirmationStatus + '}';
+    }
+}
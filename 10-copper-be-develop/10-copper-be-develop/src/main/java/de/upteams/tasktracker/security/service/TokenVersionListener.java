@@ -0,0 +1,21 @@
+package de.upteams.tasktracker.security.service;
+
+import de.upteams.tasktracker.user.entity.AppUser;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener of {@link AppUser} that passes changed token versions to {@link TokenVersionRegistry}.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenVersionListener {
+
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    @PostUpdate
+    public void afterUpdate(AppUser user) {
+        tokenVersionRegistry.update(user.getId(), user.getTokenVersion(), user.getTokenVersionUpdatedAt());
+    }
+}
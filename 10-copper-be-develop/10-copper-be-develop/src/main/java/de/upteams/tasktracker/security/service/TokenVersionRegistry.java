@@ -0,0 +1,127 @@
+package de.upteams.tasktracker.security.service;
+
+import de.upteams.tasktracker.user.persistence.TokenVersionView;
+import de.upteams.tasktracker.user.persistence.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory table of current token versions of users.
+ * <p>
+ * Used in stateless mode ({@code jwt.at.stateless=true}) to revoke access tokens without reading
+ * the user on every request. Only users whose tokens were revoked within the access token lifetime
+ * are kept: older revocations can not match a token that has not expired yet, so they are dropped.
+ * The table is updated right after commit of the changed user on this instance and refreshed
+ * from the database periodically, reading only versions increased since the previous refresh,
+ * to pick up changes made by other instances.
+ * </p>
+ */
+@Component
+@Slf4j
+public class TokenVersionRegistry {
+
+    /**
+     * Versions increased this long before the previous refresh are read again,
+     * so transactions committed late and clock skew between instances are covered
+     */
+    static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final UserRepository userRepository;
+    private final boolean statelessMode;
+    private final Duration accessTokenLifetime;
+    private final Map<UUID, RevokedVersion> versions = new ConcurrentHashMap<>();
+    private volatile Instant refreshedAt;
+
+    public TokenVersionRegistry(
+            UserRepository userRepository,
+            @Value("${jwt.at.stateless:false}") boolean statelessMode,
+            @Value("${jwt.at.live-in-min}") long accessTokenLiveInMinutes
+    ) {
+        this.userRepository = userRepository;
+        this.statelessMode = statelessMode;
+        this.accessTokenLifetime = Duration.ofMinutes(accessTokenLiveInMinutes);
+    }
+
+    /**
+     * Checks that token of given version was issued after the last revocation for the user.
+     */
+    public boolean isCurrent(UUID userId, int tokenVersion) {
+        final RevokedVersion revoked = versions.get(userId);
+        return revoked == null || tokenVersion >= revoked.version();
+    }
+
+    /**
+     * Registers new token version of the user. Applied after commit when called in a transaction.
+     *
+     * @param updatedAt when the version was increased, revocations older than the access token lifetime are ignored
+     */
+    public void update(UUID userId, int tokenVersion, Instant updatedAt) {
+        if (!statelessMode || userId == null || tokenVersion <= 0 || updatedAt == null
+                || updatedAt.isBefore(expiredBefore(Instant.now()))) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(userId, tokenVersion, updatedAt);
+                }
+            });
+        } else {
+            put(userId, tokenVersion, updatedAt);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.at.version-refresh-ms:30000}")
+    public void refresh() {
+        if (!statelessMode) {
+            return;
+        }
+        final Instant now = Instant.now();
+        try {
+            final List<TokenVersionView> changed = refreshedAt == null
+                    // при старте читаются и версии, увеличенные до появления колонки с временем
+                    ? userRepository.findTokenVersionsRevokedSince(expiredBefore(now))
+                    : userRepository.findTokenVersionsChangedSince(refreshedAt.minus(REFRESH_OVERLAP));
+            for (TokenVersionView view : changed) {
+                put(view.getId(), view.getTokenVersion(),
+                        view.getTokenVersionUpdatedAt() != null ? view.getTokenVersionUpdatedAt() : now);
+            }
+            refreshedAt = now;
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh token versions: {}", e.getMessage(), e);
+        }
+        final Instant expiredBefore = expiredBefore(now);
+        versions.values().removeIf(revoked -> revoked.updatedAt().isBefore(expiredBefore));
+    }
+
+    int size() {
+        return versions.size();
+    }
+
+    private void put(UUID userId, int tokenVersion, Instant updatedAt) {
+        versions.merge(userId, new RevokedVersion(tokenVersion, updatedAt),
+                (current, next) -> next.version() > current.version() ? next : current);
+    }
+
+    /**
+     * Tokens issued before this time have expired, allowing for clock skew between instances
+     */
+    private Instant expiredBefore(Instant now) {
+        return now.minus(accessTokenLifetime).minus(REFRESH_OVERLAP);
+    }
+
+    private record RevokedVersion(int version, Instant updatedAt) {
+    }
+}
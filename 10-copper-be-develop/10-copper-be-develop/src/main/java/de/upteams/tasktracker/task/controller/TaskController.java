@@ -1,12 +1,20 @@
 package de.upteams.tasktracker.task.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.upteams.tasktracker.security.service.AuthUserDetails;
 import de.upteams.tasktracker.task.controller.api.TaskApi;
+import de.upteams.tasktracker.task.dto.TaskBatchDeleteDto;
+import de.upteams.tasktracker.task.dto.TaskBatchRequestDto;
+import de.upteams.tasktracker.task.dto.TaskBatchResultDto;
 import de.upteams.tasktracker.task.dto.TaskDto;
+import de.upteams.tasktracker.task.dto.TaskPageDto;
 import de.upteams.tasktracker.task.service.interfaces.TaskService;
+import de.upteams.tasktracker.task.utils.TaskNdjsonWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -18,6 +26,8 @@ public class TaskController implements TaskApi {
      */
     private final TaskService service;
 
+    private final ObjectMapper objectMapper;
+
     @Override
     public TaskDto save(
             TaskDto task,
@@ -34,6 +44,16 @@ public class TaskController implements TaskApi {
         return service.getById(id);
     }
 
+    @Override
+    public TaskPageDto getPage(
+            String projectId,
+            String cursor,
+            Integer size,
+            AuthUserDetails principal
+    ) {
+        return service.getPage(projectId, cursor, size, principal.user());
+    }
+
     @Override
     public List<TaskDto> getAll(
             String projectId,
@@ -42,6 +62,16 @@ public class TaskController implements TaskApi {
         return service.getAll(projectId, principal.user());
     }
 
+    @Override
+    public void exportTasks(
+            String projectId,
+            AuthUserDetails principal,
+            HttpServletResponse response
+    ) throws IOException {
+        TaskNdjsonWriter writer = new TaskNdjsonWriter(response, objectMapper, "tasks-" + projectId + ".ndjson");
+        service.exportTasks(projectId, principal.user(), writer);
+    }
+
     @Override
     public void deleteById(
             String id,
@@ -49,4 +79,28 @@ public class TaskController implements TaskApi {
     ) {
         service.delete(id, principal.user());
     }
+
+    @Override
+    public TaskBatchResultDto createAll(
+            TaskBatchRequestDto request,
+            AuthUserDetails principal
+    ) {
+        return service.createAll(request, principal.user());
+    }
+
+    @Override
+    public TaskBatchResultDto updateAll(
+            TaskBatchRequestDto request,
+            AuthUserDetails principal
+    ) {
+        return service.updateAll(request, principal.user());
+    }
+
+    @Override
+    public TaskBatchResultDto deleteAll(
+            TaskBatchDeleteDto request,
+            AuthUserDetails principal
+    ) {
+        return service.deleteAll(request, principal.user());
+    }
 }
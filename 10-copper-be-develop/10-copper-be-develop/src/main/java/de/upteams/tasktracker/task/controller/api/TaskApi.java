@@ -2,8 +2,13 @@ package de.upteams.tasktracker.task.controller.api;
 
 import de.upteams.tasktracker.exception.handling.response.ErrorResponseDto;
 import de.upteams.tasktracker.exception.handling.response.ValidationErrorDto;
+import de.upteams.tasktracker.monitoring.QueryBudget;
 import de.upteams.tasktracker.security.service.AuthUserDetails;
+import de.upteams.tasktracker.task.dto.TaskBatchDeleteDto;
+import de.upteams.tasktracker.task.dto.TaskBatchRequestDto;
+import de.upteams.tasktracker.task.dto.TaskBatchResultDto;
 import de.upteams.tasktracker.task.dto.TaskDto;
+import de.upteams.tasktracker.task.dto.TaskPageDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -13,10 +18,14 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @Tag(name = "Task controller")
@@ -92,6 +101,7 @@ public interface TaskApi {
                                     """))
             )
     })
+    @QueryBudget(3)
     @GetMapping("/{id}")
     TaskDto getById(
             @PathVariable
@@ -102,7 +112,58 @@ public interface TaskApi {
             AuthUserDetails principal
     );
 
-    @Operation(summary = "Get all Tasks for Project", description = "Retrieves all tasks under a specific project")
+    @Operation(
+            summary = "Get page of Tasks for Project",
+            description = "Retrieves tasks of a specific project ordered by creation time. "
+                    + "Pass nextCursor of the response as cursor to get the next page"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Page of tasks",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskPageDto.class)))
+            ,
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "timestamp": "2025-04-26T10:00:00",
+                                      "status": 400,
+                                      "error": "Bad Request",
+                                      "message": "Invalid cursor",
+                                      "path": "/api/v1/tasks/project/7"
+                                    }
+                                    """))
+            ),
+            @ApiResponse(responseCode = "403", description = "Forbidden - user has no access to the project",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @QueryBudget(5)
+    @GetMapping("/project/{projectId}")
+    TaskPageDto getPage(
+            @PathVariable
+            String projectId,
+
+            @RequestParam(required = false)
+            @Parameter(description = "nextCursor of the previous page, omit for the first page")
+            String cursor,
+
+            @RequestParam(required = false)
+            @Parameter(description = "Page size, 50 by default, at most 200")
+            Integer size,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal
+    );
+
+    @Operation(
+            summary = "Get all Tasks for Project",
+            description = "Retrieves all tasks under a specific project in one response. "
+                    + "Only with unpaged=true, prefer the paged variant for large projects"
+    )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "List of tasks",
                     content = @Content(mediaType = "application/json",
@@ -113,7 +174,8 @@ public interface TaskApi {
                             schema = @Schema(implementation = ErrorResponseDto.class))
             )
     })
-    @GetMapping("/project/{projectId}")
+    @QueryBudget(5)
+    @GetMapping(value = "/project/{projectId}", params = "unpaged=true")
     List<TaskDto> getAll(
             @PathVariable
             String projectId,
@@ -123,6 +185,38 @@ public interface TaskApi {
             AuthUserDetails principal
     );
 
+    @Operation(
+            summary = "Export Tasks of Project",
+            description = "Streams all tasks of a specific project as newline-delimited JSON, one task per line"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks of the project",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = TaskDto.class)))
+            ,
+            @ApiResponse(responseCode = "403", description = "Forbidden - user has no access to the project",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "503", description = "Too many exports are running, retry later",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @QueryBudget(25)
+    @GetMapping("/project/{projectId}/export")
+    void exportTasks(
+            @PathVariable
+            String projectId,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal,
+
+            @Parameter(hidden = true)
+            HttpServletResponse response
+    ) throws IOException;
+
     @Operation(summary = "Delete Task", description = "Deletes a task by its ID")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Task deleted successfully"),
@@ -143,4 +237,124 @@ public interface TaskApi {
             @Parameter(hidden = true)
             AuthUserDetails principal
     );
+
+    @Operation(
+            summary = "Create Tasks in batch",
+            description = "Creates up to 500 tasks of one project in one transaction, results are reported per task"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks created",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskBatchResultDto.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "succeeded": 1,
+                                      "failed": 1,
+                                      "items": [
+                                        { "index": 0, "id": "0d6f4a6e-5f9b-4c1e-9a51-2d8a4c9f1b7e", "status": 201, "message": null },
+                                        { "index": 1, "id": null, "status": 400, "message": "must not be blank" }
+                                      ]
+                                    }
+                                    """))
+            ),
+            @ApiResponse(responseCode = "400", description = "Empty batch, null items or more items than allowed",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "403", description = "Forbidden - user can not change tasks of the project",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @QueryBudget(25)
+    @PostMapping("/batch")
+    TaskBatchResultDto createAll(
+            @Valid
+            @RequestBody
+            TaskBatchRequestDto request,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal
+    );
+
+    @Operation(
+            summary = "Update Tasks in batch",
+            description = "Updates title and description of up to 500 tasks of one project, results are reported per task"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks updated",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskBatchResultDto.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "succeeded": 1,
+                                      "failed": 1,
+                                      "items": [
+                                        { "index": 0, "id": "0d6f4a6e-5f9b-4c1e-9a51-2d8a4c9f1b7e", "status": 200, "message": null },
+                                        { "index": 1, "id": null, "status": 400, "message": "must not be blank" }
+                                      ]
+                                    }
+                                    """))
+            ),
+            @ApiResponse(responseCode = "400", description = "Empty batch, null items or more items than allowed",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "403", description = "Forbidden - user can not change tasks of the project",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @QueryBudget(25)
+    @PutMapping("/batch")
+    TaskBatchResultDto updateAll(
+            @Valid
+            @RequestBody
+            TaskBatchRequestDto request,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal
+    );
+
+    @Operation(
+            summary = "Delete Tasks in batch",
+            description = "Deletes up to 500 tasks of one project by ids, results are reported per task"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks deleted",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskBatchResultDto.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "succeeded": 1,
+                                      "failed": 1,
+                                      "items": [
+                                        { "index": 0, "id": "0d6f4a6e-5f9b-4c1e-9a51-2d8a4c9f1b7e", "status": 204, "message": null },
+                                        { "index": 1, "id": "5b0c1f7e-8d2a-4e6b-a3c9-7f1e2d4b6a80", "status": 404, "message": "Task not found" }
+                                      ]
+                                    }
+                                    """))
+            ),
+            @ApiResponse(responseCode = "400", description = "Empty batch, null items or more items than allowed",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(responseCode = "403", description = "Forbidden - user can not change tasks of the project",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @QueryBudget(25)
+    @PostMapping("/batch/delete")
+    TaskBatchResultDto deleteAll(
+            @Valid
+            @RequestBody
+            TaskBatchDeleteDto request,
+
+            @AuthenticationPrincipal
+            @Parameter(hidden = true)
+            AuthUserDetails principal
+    );
 }
@@ -0,0 +1,21 @@
+package de.upteams.tasktracker.task.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * One Task of a batch request
+ */
+@Schema(description = "Task of a batch create or update request")
+public record TaskBatchItemDto(
+        @Schema(
+                description = "Id of the Task to update, ignored on create",
+                example = "0d6f4a6e-5f9b-4c1e-9a51-2d8a4c9f1b7e"
+        )
+        String id,
+
+        @Schema(description = "Title of the Task", example = "Implement repository layer")
+        String title,
+
+        @Schema(description = "Detailed description of the Task", example = "Create JPA repositories for all entities")
+        String description
+) {}
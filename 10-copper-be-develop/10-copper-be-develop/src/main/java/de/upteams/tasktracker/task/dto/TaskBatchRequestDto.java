@@ -0,0 +1,22 @@
+package de.upteams.tasktracker.task.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Batch of Tasks of one Project to create or update
+ */
+@Schema(description = "Batch of Tasks of one Project to create or update")
+public record TaskBatchRequestDto(
+        @Schema(description = "Project of all Tasks of the batch", example = "7c1e6a3b-2f4d-4b8e-9c0a-1d2e3f4a5b6c")
+        @NotBlank
+        String projectId,
+
+        @Schema(description = "Tasks, results are returned in the same order")
+        @NotEmpty
+        List<@NotNull TaskBatchItemDto> tasks
+) {}
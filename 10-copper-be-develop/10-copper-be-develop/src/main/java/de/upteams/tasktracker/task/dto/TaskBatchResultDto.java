@@ -0,0 +1,45 @@
+package de.upteams.tasktracker.task.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Per-item results of a batch request
+ */
+@Schema(description = "Results of a batch request, one per item in the order of the request")
+public record TaskBatchResultDto(
+        @Schema(description = "Number of items that were applied", example = "2")
+        int succeeded,
+
+        @Schema(description = "Number of items that were rejected", example = "1")
+        int failed,
+
+        List<Item> items
+) {
+
+    public static TaskBatchResultDto of(List<Item> items) {
+        int succeeded = 0;
+        for (Item item : items) {
+            if (item.status() < 400) {
+                succeeded++;
+            }
+        }
+        return new TaskBatchResultDto(succeeded, items.size() - succeeded, items);
+    }
+
+    @Schema(description = "Result of one item of a batch request")
+    public record Item(
+            @Schema(description = "Position of the item in the request", example = "0")
+            int index,
+
+            @Schema(description = "Id of the Task", example = "0d6f4a6e-5f9b-4c1e-9a51-2d8a4c9f1b7e")
+            String id,
+
+            @Schema(description = "HTTP status of the item", example = "201")
+            int status,
+
+            @Schema(description = "Reason of the failure, null on success", example = "Task not found")
+            String message
+    ) {}
+}
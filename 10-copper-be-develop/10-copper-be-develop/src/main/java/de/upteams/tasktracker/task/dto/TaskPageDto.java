@@ -0,0 +1,23 @@
+package de.upteams.tasktracker.task.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of project Tasks
+ */
+@Schema(description = "Page of Tasks of a Project ordered by creation time")
+@Value
+public class TaskPageDto {
+
+    @Schema(description = "Tasks of the page")
+    List<TaskDto> items;
+
+    @Schema(
+            description = "Opaque cursor of the next page, null if this is the last page",
+            example = "AAAAAGgM3gAAAAAAnb8k4xJ1Rp-2gZ5g2d6F9w"
+    )
+    String nextCursor;
+}
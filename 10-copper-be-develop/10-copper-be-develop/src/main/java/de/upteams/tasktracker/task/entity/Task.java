@@ -10,7 +10,10 @@ import jakarta.validation.constraints.Pattern;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -21,7 +24,10 @@ import static de.upteams.tasktracker.utils.EntityUtil.getIdsForToString;
  * Task entity
  */
 @Entity
-@Table(name = "task")
+@Table(
+        name = "task",
+        indexes = @Index(name = "idx_task_project_created_id", columnList = "project_id, created_at, id")
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -43,7 +49,7 @@ public class Task extends BaseEntity {
     private String description;
 
     @NotNull
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id", nullable = false)
     private Project project;
 
@@ -55,6 +61,14 @@ public class Task extends BaseEntity {
     )
     private final Set<Collaborator> executors = new HashSet<>();
 
+    /**
+     * Creation time, together with id gives stable order for keyset pagination of project tasks
+     */
+    @CreationTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP(6)")
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
     public Task(String title, String description, Project project) {
         this.title = title;
         this.description = description;
@@ -74,6 +88,7 @@ public class Task extends BaseEntity {
                 ", projectId=" + getIdForToString(project) +
                 ", description='" + description + '\'' +
                 ", title='" + title + '\'' +
+                ", createdAt=" + createdAt +
                 '}';
     }
 }
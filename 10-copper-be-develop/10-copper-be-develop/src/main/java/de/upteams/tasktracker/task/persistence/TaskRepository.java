@@ -2,11 +2,16 @@ package de.upteams.tasktracker.task.persistence;
 
 import de.upteams.tasktracker.project.entity.Project;
 import de.upteams.tasktracker.task.entity.Task;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 
@@ -14,4 +19,29 @@ import java.util.UUID;
 public interface TaskRepository extends JpaRepository<Task, UUID> {
     @Query("select t from Task t where t.project = ?1")
     List<Task> findByProject(Project project);
+
+    @EntityGraph(attributePaths = "project")
+    Optional<Task> findWithProjectById(UUID id);
+
+    /**
+     * First page of project tasks in (created_at, id) order, served by idx_task_project_created_id.
+     */
+    @Query("select t from Task t where t.project.id = :projectId order by t.createdAt, t.id")
+    List<Task> findFirstPage(@Param("projectId") UUID projectId, Limit limit);
+
+    /**
+     * Next page of project tasks: tasks strictly after the given (created_at, id) position.
+     */
+    @Query("""
+            select t from Task t
+            where t.project.id = :projectId
+              and (t.createdAt > :createdAt or (t.createdAt = :createdAt and t.id > :id))
+            order by t.createdAt, t.id
+            """)
+    List<Task> findPageAfter(
+            @Param("projectId") UUID projectId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") UUID id,
+            Limit limit
+    );
 }
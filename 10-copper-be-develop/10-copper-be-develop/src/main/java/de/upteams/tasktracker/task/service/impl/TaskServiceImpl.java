@@ -5,32 +5,89 @@ import de.upteams.tasktracker.collaborator.service.interfaces.CollaboratorServic
 import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
 import de.upteams.tasktracker.project.entity.Project;
 import de.upteams.tasktracker.project.service.interfaces.ProjectService;
+import de.upteams.tasktracker.task.dto.TaskBatchDeleteDto;
+import de.upteams.tasktracker.task.dto.TaskBatchItemDto;
+import de.upteams.tasktracker.task.dto.TaskBatchRequestDto;
+import de.upteams.tasktracker.task.dto.TaskBatchResultDto;
 import de.upteams.tasktracker.task.dto.TaskDto;
+import de.upteams.tasktracker.task.dto.TaskPageDto;
 import de.upteams.tasktracker.task.entity.Task;
 import de.upteams.tasktracker.task.exception.TaskNotFoundException;
 import de.upteams.tasktracker.task.persistence.TaskRepository;
 import de.upteams.tasktracker.task.service.interfaces.TaskService;
+import de.upteams.tasktracker.task.utils.TaskCursor;
 import de.upteams.tasktracker.task.utils.TaskMappingService;
+import de.upteams.tasktracker.task.utils.TaskNdjsonWriter;
 import de.upteams.tasktracker.user.entity.AppUser;
-import lombok.RequiredArgsConstructor;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 
 /**
  * Service for various operations with Tasks
  */
 @Service
-@RequiredArgsConstructor
 public class TaskServiceImpl implements TaskService {
 
+    private static final List<ProjectRoles> EDITOR_ROLES =
+            List.of(ProjectRoles.MEMBER, ProjectRoles.OWNER, ProjectRoles.ADMIN);
+
     private final TaskRepository repository;
     private final TaskMappingService mappingService;
     private final ProjectService projectService;
     private final CollaboratorService collaboratorService;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBatchSize;
+    private final int exportPageSize;
+    /**
+     * Every running export holds a pooled connection until the response is written
+     */
+    private final Semaphore exportPermits;
+
+    public TaskServiceImpl(
+            TaskRepository repository,
+            TaskMappingService mappingService,
+            ProjectService projectService,
+            CollaboratorService collaboratorService,
+            EntityManager entityManager,
+            Validator validator,
+            @Value("${task.page.default-size:50}") int defaultPageSize,
+            @Value("${task.page.max-size:200}") int maxPageSize,
+            @Value("${task.batch.max-size:500}") int maxBatchSize,
+            @Value("${task.export.page-size:500}") int exportPageSize,
+            @Value("${task.export.max-concurrent:2}") int maxConcurrentExports
+    ) {
+        this.repository = repository;
+        this.mappingService = mappingService;
+        this.projectService = projectService;
+        this.collaboratorService = collaboratorService;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
+        this.exportPageSize = exportPageSize;
+        this.exportPermits = new Semaphore(maxConcurrentExports);
+    }
 
     @Override
     public TaskDto save(final TaskDto newTaskDto) {
@@ -39,8 +96,12 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public TaskDto getById(String id) {
-        return mappingService.mapEntityToDto(getOrThrow(id));
+        return repository
+                .findWithProjectById(UUID.fromString(id))
+                .map(mappingService::mapEntityToDto)
+                .orElseThrow(TaskNotFoundException::new);
     }
 
     @Override
@@ -56,12 +117,9 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TaskDto> getAll(final String projectId, final AppUser authUser) {
-        final Project project = projectService.getOrTrow(projectId);
-        boolean userInProject = collaboratorService.isUserInProject(authUser, project);
-        if (!userInProject) {
-            throw new RestApiException(HttpStatus.FORBIDDEN, "User has no access to this project");
-        }
+        final Project project = getAccessibleProject(projectId, authUser);
         return repository
                 .findByProject(project)
                 .stream()
@@ -69,13 +127,64 @@ public class TaskServiceImpl implements TaskService {
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public TaskPageDto getPage(final String projectId, final String cursor, final Integer size, final AppUser authUser) {
+        final int pageSize = size == null ? defaultPageSize : size;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new RestApiException(HttpStatus.BAD_REQUEST, "Page size should be between 1 and " + maxPageSize);
+        }
+        final TaskCursor after = cursor == null || cursor.isEmpty() ? null : TaskCursor.decode(cursor);
+        final Project project = getAccessibleProject(projectId, authUser);
+
+        // одна лишняя запись показывает, есть ли следующая страница, без count-запроса
+        final Limit limit = Limit.of(pageSize + 1);
+        final List<Task> tasks = after == null
+                ? repository.findFirstPage(project.getId(), limit)
+                : repository.findPageAfter(project.getId(), after.createdAt(), after.id(), limit);
+
+        final boolean hasNext = tasks.size() > pageSize;
+        final List<Task> page = hasNext ? tasks.subList(0, pageSize) : tasks;
+        final String nextCursor = hasNext ? TaskCursor.of(page.get(pageSize - 1)).encode() : null;
+        return new TaskPageDto(page.stream().map(mappingService::mapEntityToDto).toList(), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTasks(final String projectId, final AppUser authUser, final TaskNdjsonWriter writer)
+            throws IOException {
+        final Project project = getAccessibleProject(projectId, authUser);
+        if (!exportPermits.tryAcquire()) {
+            throw new RestApiException(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports are running, try again later");
+        }
+        try {
+            writer.start();
+            final Limit limit = Limit.of(exportPageSize);
+            List<Task> page = repository.findFirstPage(project.getId(), limit);
+            while (!page.isEmpty()) {
+                for (Task task : page) {
+                    writer.write(mappingService.mapEntityToDto(task));
+                }
+                final Task last = page.get(page.size() - 1);
+                // иначе persistence context растёт вместе с проектом
+                entityManager.clear();
+                page = page.size() < exportPageSize
+                        ? List.of()
+                        : repository.findPageAfter(project.getId(), last.getCreatedAt(), last.getId(), limit);
+            }
+            writer.finish();
+        } finally {
+            exportPermits.release();
+        }
+    }
+
     @Override
     public void delete(final String id, final AppUser changer) {
         final Task existedTask = getOrThrow(id);
         final boolean hasPermission = collaboratorService.hasUserPermission(
                 changer,
                 existedTask.getProject(),
-                List.of(ProjectRoles.MEMBER, ProjectRoles.OWNER, ProjectRoles.ADMIN)
+                EDITOR_ROLES
         );
         if (!hasPermission) {
             throw new RestApiException(HttpStatus.FORBIDDEN, "User has no access to this project");
@@ -83,4 +192,138 @@ public class TaskServiceImpl implements TaskService {
         repository.delete(existedTask);
     }
 
+    @Override
+    @Transactional
+    public TaskBatchResultDto createAll(final TaskBatchRequestDto request, final AppUser changer) {
+        checkBatchSize(request.tasks().size());
+        final Project project = getEditableProject(request.projectId(), changer);
+        final List<TaskBatchResultDto.Item> results = new ArrayList<>(request.tasks().size());
+        for (int i = 0; i < request.tasks().size(); i++) {
+            final TaskBatchItemDto item = request.tasks().get(i);
+            final String violation = validate(item.title(), item.description());
+            if (violation != null) {
+                results.add(new TaskBatchResultDto.Item(i, null, HttpStatus.BAD_REQUEST.value(), violation));
+                continue;
+            }
+            // UUID генерируется при persist, сами INSERT уходят пачками при flush
+            final Task task = repository.save(new Task(item.title(), item.description(), project));
+            results.add(new TaskBatchResultDto.Item(i, task.getId().toString(), HttpStatus.CREATED.value(), null));
+        }
+        return TaskBatchResultDto.of(results);
+    }
+
+    @Override
+    @Transactional
+    public TaskBatchResultDto updateAll(final TaskBatchRequestDto request, final AppUser changer) {
+        checkBatchSize(request.tasks().size());
+        final Project project = getEditableProject(request.projectId(), changer);
+        final Map<UUID, Task> tasks = loadProjectTasks(
+                request.tasks().stream().map(TaskBatchItemDto::id).toList(), project);
+        final List<TaskBatchResultDto.Item> results = new ArrayList<>(request.tasks().size());
+        for (int i = 0; i < request.tasks().size(); i++) {
+            final TaskBatchItemDto item = request.tasks().get(i);
+            final Task task = tasks.get(parseId(item.id()));
+            if (task == null) {
+                results.add(notFound(i, item.id()));
+                continue;
+            }
+            // проверяем до изменения, иначе dirty checking запишет невалидные значения
+            final String violation = validate(item.title(), item.description());
+            if (violation != null) {
+                results.add(new TaskBatchResultDto.Item(i, item.id(), HttpStatus.BAD_REQUEST.value(), violation));
+                continue;
+            }
+            task.setTitle(item.title());
+            task.setDescription(item.description());
+            results.add(new TaskBatchResultDto.Item(i, item.id(), HttpStatus.OK.value(), null));
+        }
+        return TaskBatchResultDto.of(results);
+    }
+
+    @Override
+    @Transactional
+    public TaskBatchResultDto deleteAll(final TaskBatchDeleteDto request, final AppUser changer) {
+        checkBatchSize(request.ids().size());
+        final Project project = getEditableProject(request.projectId(), changer);
+        final Map<UUID, Task> tasks = loadProjectTasks(request.ids(), project);
+        final List<TaskBatchResultDto.Item> results = new ArrayList<>(request.ids().size());
+        for (int i = 0; i < request.ids().size(); i++) {
+            final String id = request.ids().get(i);
+            final Task task = tasks.remove(parseId(id));
+            if (task == null) {
+                results.add(notFound(i, id));
+                continue;
+            }
+            repository.delete(task);
+            results.add(new TaskBatchResultDto.Item(i, id, HttpStatus.NO_CONTENT.value(), null));
+        }
+        return TaskBatchResultDto.of(results);
+    }
+
+    private void checkBatchSize(final int size) {
+        if (size > maxBatchSize) {
+            throw new RestApiException(HttpStatus.BAD_REQUEST, "Batch should contain at most " + maxBatchSize + " items");
+        }
+    }
+
+    private Project getEditableProject(final String projectId, final AppUser changer) {
+        final Project project = projectService.getOrTrow(projectId);
+        if (!collaboratorService.hasUserPermission(changer, project, EDITOR_ROLES)) {
+            throw new RestApiException(HttpStatus.FORBIDDEN, "User has no access to this project");
+        }
+        return project;
+    }
+
+    /**
+     * Loads tasks by ids with one select, tasks of other projects are skipped.
+     */
+    private Map<UUID, Task> loadProjectTasks(final List<String> ids, final Project project) {
+        final List<UUID> uuids = ids.stream()
+                .map(TaskServiceImpl::parseId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        final Map<UUID, Task> tasks = new HashMap<>();
+        for (Task task : repository.findAllById(uuids)) {
+            if (project.getId().equals(task.getProject().getId())) {
+                tasks.put(task.getId(), task);
+            }
+        }
+        return tasks;
+    }
+
+    private String validate(final String title, final String description) {
+        final List<ConstraintViolation<Task>> violations = new ArrayList<>();
+        violations.addAll(validator.validateValue(Task.class, "title", title));
+        violations.addAll(validator.validateValue(Task.class, "description", description));
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining("; "));
+    }
+
+    private static UUID parseId(final String id) {
+        if (id == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static TaskBatchResultDto.Item notFound(final int index, final String id) {
+        return new TaskBatchResultDto.Item(index, id, HttpStatus.NOT_FOUND.value(), "Task not found");
+    }
+
+    private Project getAccessibleProject(final String projectId, final AppUser authUser) {
+        final Project project = projectService.getOrTrow(projectId);
+        if (!collaboratorService.isUserInProject(authUser, project)) {
+            throw new RestApiException(HttpStatus.FORBIDDEN, "User has no access to this project");
+        }
+        return project;
+    }
 }
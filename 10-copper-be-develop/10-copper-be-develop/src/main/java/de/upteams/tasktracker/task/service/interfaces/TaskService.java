@@ -1,9 +1,15 @@
 package de.upteams.tasktracker.task.service.interfaces;
 
+import de.upteams.tasktracker.task.dto.TaskBatchDeleteDto;
+import de.upteams.tasktracker.task.dto.TaskBatchRequestDto;
+import de.upteams.tasktracker.task.dto.TaskBatchResultDto;
 import de.upteams.tasktracker.task.dto.TaskDto;
+import de.upteams.tasktracker.task.dto.TaskPageDto;
 import de.upteams.tasktracker.task.entity.Task;
+import de.upteams.tasktracker.task.utils.TaskNdjsonWriter;
 import de.upteams.tasktracker.user.entity.AppUser;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +28,35 @@ public interface TaskService {
 
     List<TaskDto> getAll(String projectId, AppUser authUser);
 
+    /**
+     * Returns tasks of the project in creation order, starting after the given cursor.
+     *
+     * @param cursor {@code nextCursor} of the previous page or null for the first page
+     * @param size   page size or null for the default one
+     */
+    TaskPageDto getPage(String projectId, String cursor, Integer size, AppUser authUser);
+
+    /**
+     * Writes all tasks of the project to the writer in creation order, without loading them all at once.
+     */
+    void exportTasks(String projectId, AppUser authUser, TaskNdjsonWriter writer) throws IOException;
+
     void delete(String id, AppUser changer);
 
+    /**
+     * Creates tasks of one project in one transaction, permission is checked once for the project.
+     * Invalid items are reported in the result and do not fail the others.
+     */
+    TaskBatchResultDto createAll(TaskBatchRequestDto request, AppUser changer);
+
+    /**
+     * Updates title and description of tasks of one project, see {@link #createAll}.
+     */
+    TaskBatchResultDto updateAll(TaskBatchRequestDto request, AppUser changer);
+
+    /**
+     * Deletes tasks of one project, see {@link #createAll}.
+     */
+    TaskBatchResultDto deleteAll(TaskBatchDeleteDto request, AppUser changer);
+
 }
@@ -0,0 +1,57 @@
+package de.upteams.tasktracker.task.utils;
+
+import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
+import de.upteams.tasktracker.task.entity.Task;
+import org.springframework.http.HttpStatus;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in the (created_at, id) ordered list of project tasks.
+ * <p>
+ * Clients get it as an opaque base64url token of 28 bytes:
+ * epoch seconds (8), nanos (4) and id (16) of the last task of the page.
+ * </p>
+ */
+public record TaskCursor(Instant createdAt, UUID id) {
+
+    private static final int LENGTH = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    public static TaskCursor of(Task task) {
+        return new TaskCursor(task.getCreatedAt(), task.getId());
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH)
+                .putLong(createdAt.getEpochSecond())
+                .putInt(createdAt.getNano())
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws RestApiException with status 400 if the token was not issued by {@link #encode()}
+     */
+    public static TaskCursor decode(String token) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token);
+            if (bytes.length != LENGTH) {
+                throw invalidCursor();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            Instant createdAt = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            return new TaskCursor(createdAt, new UUID(buffer.getLong(), buffer.getLong()));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static RestApiException invalidCursor() {
+        return new RestApiException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+}
@@ -24,5 +24,6 @@ public interface TaskMappingService {
 
     @Mapping(target = "project", ignore = true)
     @Mapping(target = "executors", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
     Task mapDtoToEntity(TaskDto dto);
 }
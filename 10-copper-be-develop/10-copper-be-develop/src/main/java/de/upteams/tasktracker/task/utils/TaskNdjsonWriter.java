@@ -0,0 +1,59 @@
+package de.upteams.tasktracker.task.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.upteams.tasktracker.task.dto.TaskDto;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+
+/**
+ * Writes tasks to the servlet output stream as newline-delimited JSON, one task per line.
+ * Tasks are serialized one by one with a streaming generator, nothing is collected in memory
+ * and the output is flushed by the container buffer, not after each task.
+ */
+public class TaskNdjsonWriter {
+
+    private final HttpServletResponse response;
+    private final ObjectWriter objectWriter;
+    private final String fileName;
+    private JsonGenerator generator;
+
+    public TaskNdjsonWriter(HttpServletResponse response, ObjectMapper objectMapper, String fileName) {
+        this.response = response;
+        this.objectWriter = objectMapper
+                .writerFor(TaskDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fileName = fileName;
+    }
+
+    /**
+     * Commits response headers, must be called once access to the data is checked.
+     */
+    public void start() throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName).build().toString());
+        generator = objectWriter.createGenerator(response.getOutputStream());
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // разделитель между корневыми объектами пишем сами — перевод строки после каждой задачи
+        generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+    }
+
+    public void write(TaskDto task) throws IOException {
+        objectWriter.writeValue(generator, task);
+        generator.writeRaw('\n');
+    }
+
+    public void finish() throws IOException {
+        generator.close();
+        response.flushBuffer();
+    }
+}
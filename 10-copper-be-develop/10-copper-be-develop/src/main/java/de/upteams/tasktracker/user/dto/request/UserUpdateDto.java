@@ -4,13 +4,12 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
-import org.hibernate.validator.constraints.URL;
 
 /**
  * DTO for updating user's profile
  *
  * <p>This DTO contains only the fields that a user is allowed to update in their profile.
- * It is used in profile edit endpoints.</p>
+ * It is used in profile edit endpoints. The avatar is changed only by uploading an image.</p>
  */
 @Schema(description = "DTO for updating user's profile")
 public record UserUpdateDto(
@@ -44,15 +43,6 @@ public record UserUpdateDto(
         String department,
 
 
-        @Schema(
-                description = "URL of user's avatar image",
-                example = "https://example.com/avatar/homer.png"
-        )
-        @URL(message = "{user.avatarUrl.invalid}")
-        @Size(max = 255, message = "{user.avatarUrl.max}")
-        String avatarUrl,
-
-
         @Schema(
                 description = "Short biography or info about the user",
                 example = "Code Donut Sleep Repeat"
@@ -1,5 +1,7 @@
 package de.upteams.tasktracker.user.entity;
 
+import de.upteams.tasktracker.security.service.TokenVersionListener;
+import de.upteams.tasktracker.user.util.EmailNormalizer;
 import de.upteams.tasktracker.utils.BaseEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -10,6 +12,9 @@ import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Instant;
+import java.util.UUID;
+
 /**
  * Application User entity
  */
@@ -17,7 +22,11 @@ import org.hibernate.annotations.ColumnDefault;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "app_user")
+@Table(
+        name = "app_user",
+        indexes = @Index(name = "idx_app_user_token_version_updated_at", columnList = "token_version_updated_at")
+)
+@EntityListeners(TokenVersionListener.class)
 public class AppUser extends BaseEntity {
 
     @NotBlank
@@ -33,6 +42,18 @@ public class AppUser extends BaseEntity {
     )
     private String email;
 
+    /**
+     * Lower-cased and trimmed email that is used for all lookups by email.
+     * Nullable on database level only to allow adding the column to existing table,
+     * see {@link de.upteams.tasktracker.user.persistence.NormalizedEmailBackfill}.
+     */
+    @Column(
+            name = "email_normalized",
+            unique = true,
+            columnDefinition = "VARCHAR(255) COLLATE ascii_bin"
+    )
+    private String emailNormalized;
+
     @NotNull(message = "{user.firstName.notBlank}")
     @Column(name = "first_name", nullable = false, length = 100)
     private String firstName;
@@ -65,18 +86,113 @@ public class AppUser extends BaseEntity {
     @Column(name = "avatar_url", length = 512)
     private String avatarUrl;
 
+    /**
+     * Object keys of the avatar renditions, see {@link AvatarSize}; null unless the avatar was uploaded as image
+     */
+    @Column(name = "avatar_small_key", length = 512)
+    private String avatarSmallKey;
+
+    @Column(name = "avatar_medium_key", length = 512)
+    private String avatarMediumKey;
+
+    @Column(name = "avatar_large_key", length = 512)
+    private String avatarLargeKey;
+
     @Column(name = "bio", columnDefinition = "TEXT")
     private String bio;
 
+    /**
+     * Version of issued tokens. Access and refresh tokens that carry an older version are revoked.
+     * Increased on password or email change and automatically on role or confirmation status change.
+     */
+    @Column(name = "token_version", nullable = false)
+    @ColumnDefault("0")
+    private int tokenVersion;
+
+    /**
+     * When {@link #tokenVersion} was last increased; null if it was never increased since the column was added.
+     * Lets other instances pick up only recent revocations, see {@link TokenVersionListener}.
+     */
+    @Column(name = "token_version_updated_at")
+    private Instant tokenVersionUpdatedAt;
 
     public AppUser(String password, String email, String firstName, String lastName) {
         this.password = password;
         this.email = email;
+        this.emailNormalized = EmailNormalizer.normalize(email);
         this.firstName = firstName;
         this.lastName = lastName;
         role = Role.ROLE_USER;
     }
 
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailNormalized = EmailNormalizer.normalize(email);
+    }
+
+    public void setRole(Role role) {
+        if (id != null && this.role != null && this.role != role) {
+            incrementTokenVersion();
+        }
+        this.role = role;
+    }
+
+    public void setConfirmationStatus(ConfirmationStatus confirmationStatus) {
+        if (id != null && this.confirmationStatus != null && this.confirmationStatus != confirmationStatus) {
+            incrementTokenVersion();
+        }
+        this.confirmationStatus = confirmationStatus;
+    }
+
+    public String getAvatarKey(AvatarSize size) {
+        return switch (size) {
+            case SMALL -> avatarSmallKey;
+            case MEDIUM -> avatarMediumKey;
+            case LARGE -> avatarLargeKey;
+        };
+    }
+
+    public void setAvatarKey(AvatarSize size, String key) {
+        switch (size) {
+            case SMALL -> avatarSmallKey = key;
+            case MEDIUM -> avatarMediumKey = key;
+            case LARGE -> avatarLargeKey = key;
+        }
+    }
+
+    /**
+     * Revokes all tokens issued to this user so far.
+     */
+    public void incrementTokenVersion() {
+        tokenVersion++;
+        tokenVersionUpdatedAt = Instant.now();
+    }
+
+    /**
+     * Creates a detached user known only by the claims of a verified access token.
+     * Such instance has no password and profile data and must never be saved.
+     */
+    public static AppUser fromTokenClaims(UUID id,
+                                          String email,
+                                          Role role,
+                                          ConfirmationStatus confirmationStatus,
+                                          int tokenVersion) {
+        AppUser user = new AppUser();
+        user.id = id;
+        user.email = email;
+        user.emailNormalized = EmailNormalizer.normalize(email);
+        user.role = role;
+        user.confirmationStatus = confirmationStatus;
+        user.tokenVersion = tokenVersion;
+        return user;
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void normalizeEmail() {
+        emailNormalized = EmailNormalizer.normalize(email);
+    }
+
 
     @Override
     public String toString() {
@@ -0,0 +1,48 @@
+package de.upteams.tasktracker.user.entity;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Fixed renditions of uploaded avatars, square with the given side in pixels
+ */
+public enum AvatarSize {
+    /**
+     * Lists, comments, assignees
+     */
+    SMALL(48),
+    /**
+     * Cards and headers
+     */
+    MEDIUM(128),
+    /**
+     * Profile page
+     */
+    LARGE(320);
+
+    private final int pixels;
+
+    AvatarSize(int pixels) {
+        this.pixels = pixels;
+    }
+
+    public int pixels() {
+        return pixels;
+    }
+
+    /**
+     * Lower case name used in URLs
+     */
+    public String pathSegment() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Optional<AvatarSize> fromPathSegment(String segment) {
+        for (AvatarSize size : values()) {
+            if (size.pathSegment().equalsIgnoreCase(segment)) {
+                return Optional.of(size);
+            }
+        }
+        return Optional.empty();
+    }
+}
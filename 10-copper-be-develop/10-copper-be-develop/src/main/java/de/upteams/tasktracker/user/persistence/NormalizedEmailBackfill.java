@@ -0,0 +1,36 @@
+package de.upteams.tasktracker.user.persistence;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-time data migration for {@code app_user.email_normalized}.
+ * <p>
+ * The column is added by Hibernate schema update as nullable, so its unique index can be created
+ * on a table with existing users. On startup this runner fills the column for such users.
+ * It does nothing once all rows are filled.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NormalizedEmailBackfill implements ApplicationRunner {
+
+    private final UserRepository repository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            int updated = repository.backfillNormalizedEmails();
+            if (updated > 0) {
+                log.info("Normalized email backfilled for {} users.", updated);
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.error("Unable to backfill normalized emails: some users have emails that differ only in case.", e);
+        }
+    }
+}
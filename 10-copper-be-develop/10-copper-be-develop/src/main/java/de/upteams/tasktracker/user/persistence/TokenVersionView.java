@@ -0,0 +1,16 @@
+package de.upteams.tasktracker.user.persistence;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Projection of user's id, current token version and the time it was increased.
+ */
+public interface TokenVersionView {
+
+    UUID getId();
+
+    int getTokenVersion();
+
+    Instant getTokenVersionUpdatedAt();
+}
@@ -1,18 +1,64 @@
 package de.upteams.tasktracker.user.persistence;
 
 import de.upteams.tasktracker.user.entity.AppUser;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * All lookups by email go through {@code email_normalized}, so they use its unique index.
+ * Callers must pass email normalized with {@link de.upteams.tasktracker.user.util.EmailNormalizer}.
+ */
 @Repository
 public interface UserRepository extends JpaRepository<AppUser, UUID> {
 
-    @Query("select a from AppUser a where upper(a.email) = upper(?1)")
-    Optional<AppUser> findByEmailIgnoreCase(String email);
-    Optional<AppUser> findByEmail(String email);
-    boolean existsByEmailIgnoreCaseAndIdNot(String email, UUID id);
+    Optional<AppUser> findByEmailNormalized(String emailNormalized);
+
+    boolean existsByEmailNormalizedAndIdNot(String emailNormalized, UUID id);
+
+    /**
+     * Loads the user and locks its row until the end of the transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from AppUser a where a.id = :id")
+    Optional<AppUser> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Token versions increased after the given time
+     */
+    @Query("""
+            select a.id as id, a.tokenVersion as tokenVersion, a.tokenVersionUpdatedAt as tokenVersionUpdatedAt
+            from AppUser a
+            where a.tokenVersionUpdatedAt > :since
+            """)
+    List<TokenVersionView> findTokenVersionsChangedSince(@Param("since") Instant since);
+
+    /**
+     * Token versions increased after the given time or before the time was recorded
+     */
+    @Query("""
+            select a.id as id, a.tokenVersion as tokenVersion, a.tokenVersionUpdatedAt as tokenVersionUpdatedAt
+            from AppUser a
+            where a.tokenVersionUpdatedAt > :since
+               or (a.tokenVersionUpdatedAt is null and a.tokenVersion > 0)
+            """)
+    List<TokenVersionView> findTokenVersionsRevokedSince(@Param("since") Instant since);
+
+    /**
+     * Fills {@code email_normalized} for rows created before the column existed.
+     */
+    @Modifying
+    @Transactional
+    @Query("update AppUser a set a.emailNormalized = lower(trim(a.email)) where a.emailNormalized is null")
+    int backfillNormalizedEmails();
 }
@@ -4,8 +4,10 @@ import de.upteams.tasktracker.user.dto.ChangePasswordRequestDto;
 import de.upteams.tasktracker.user.dto.request.UserUpdateDto;
 import de.upteams.tasktracker.user.dto.response.UserResponseDto;
 import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.entity.AvatarSize;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,6 +24,20 @@ public interface UserService {
 
     AppUser getByIdOrThrow(String id);
 
+    /**
+     * Managed reference for associations of new entities, without loading the user.
+     * The user of the principal is restored from token claims and must not be persisted.
+     */
+    AppUser getReference(UUID id);
+
+    /**
+     * Sets the keys of the avatar renditions and {@code avatarUrl} while holding the row lock of the user,
+     * so concurrent avatar uploads can not lose each other's keys.
+     *
+     * @return keys of the replaced renditions, their objects are to be deleted after commit
+     */
+    List<String> replaceAvatarKeys(UUID userId, Map<AvatarSize, String> keys, String avatarUrl);
+
     List<UserResponseDto> getAll();
 
     void changePassword(ChangePasswordRequestDto request);
@@ -1,13 +1,16 @@
 package de.upteams.tasktracker.user.service.impl;
 
 import de.upteams.tasktracker.mail.EmailService;
+import de.upteams.tasktracker.security.service.CustomUserDetailsService;
 import de.upteams.tasktracker.user.entity.AppUser;
 import de.upteams.tasktracker.user.entity.PasswordResetToken;
 import de.upteams.tasktracker.user.persistence.PasswordResetTokenRepository;
 import de.upteams.tasktracker.user.persistence.UserRepository;
+import de.upteams.tasktracker.user.util.EmailNormalizer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -28,11 +31,15 @@ public class PasswordResetService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
     private final int EXPIRATION_MINUTES = 60; // токен действует 1 час
 
-    // Создание токена и отправка письма
+    // Создание токена и письма в outbox в одной транзакции
+    @Transactional
     public void createPasswordResetToken(String email) {
-        Optional<AppUser> userOpt = userRepository.findByEmail(email);
+        Optional<AppUser> userOpt = userRepository.findByEmailNormalized(EmailNormalizer.normalize(email));
         if (userOpt.isEmpty()) {
             // Не раскрываем информацию о существовании пользователя
             return;
@@ -70,7 +77,9 @@ public class PasswordResetService {
 
         AppUser user = prt.getUser();
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.incrementTokenVersion();
         userRepository.save(user);
+        userDetailsService.evictUser(user.getEmail());
 
         tokenRepository.delete(prt); // удаляем токен после использования
         return true;
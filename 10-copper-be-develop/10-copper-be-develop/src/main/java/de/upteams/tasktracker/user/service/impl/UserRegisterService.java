@@ -10,9 +10,10 @@ import de.upteams.tasktracker.user.dto.response.UserCreateResponseDto;
 import de.upteams.tasktracker.user.entity.AppUser;
 import de.upteams.tasktracker.user.exception.UserAlreadyExistException;
 import de.upteams.tasktracker.user.service.UserService;
+import de.upteams.tasktracker.user.util.EmailNormalizer;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -25,23 +26,23 @@ import static de.upteams.tasktracker.user.entity.ConfirmationStatus.UNCONFIRMED;
 public class UserRegisterService {
 
     private final EmailService emailService;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
     private final ConfirmationService confirmationService;
     private final UserService userService;
     private final JwtTokenService jwtTokenService;
 
     @Transactional
     public UserCreateResponseDto register(final UserCreateDto dto) {
-        final String normalizedEmail = dto.email().toLowerCase().trim();
-        final String encodedPassword = passwordEncoder.encode(dto.password());
+        final String normalizedEmail = EmailNormalizer.normalize(dto.email());
 
         final Optional<AppUser> foundUserByEmail = userService.getByEmail(normalizedEmail);
         if (foundUserByEmail.isPresent()) {
             return handleExistingUser(foundUserByEmail.get());
         }
 
+        // хешируем только для нового пользователя
         final AppUser appUser = new AppUser(
-                encodedPassword,
+                passwordEncoder.encode(dto.password()),
                 normalizedEmail,
                 dto.firstName(),
                 dto.lastName()
@@ -93,8 +94,8 @@ public class UserRegisterService {
 
         confirmationService.removeToken(confirmationToken);
 
-       String accessToken = jwtTokenService.generateAccessToken(registeredUser.getEmail());
-       String refreshToken = jwtTokenService.generateRefreshToken(registeredUser.getEmail());
+       String accessToken = jwtTokenService.generateAccessToken(registeredUser);
+       String refreshToken = jwtTokenService.generateRefreshToken(registeredUser);
        return new TokenResponseDto(accessToken,refreshToken);
     }
 }
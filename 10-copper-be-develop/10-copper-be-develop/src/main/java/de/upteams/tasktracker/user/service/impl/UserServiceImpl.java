@@ -1,15 +1,17 @@
 package de.upteams.tasktracker.user.service.impl;
 
+import de.upteams.tasktracker.security.service.CustomUserDetailsService;
 import de.upteams.tasktracker.user.dto.ChangePasswordRequestDto;
-import java.util.Locale;
 import de.upteams.tasktracker.user.dto.request.UserUpdateDto;
 import de.upteams.tasktracker.user.dto.response.UserResponseDto;
 import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.entity.AvatarSize;
 import de.upteams.tasktracker.user.exception.EmailAlreadyUsedException;
 import de.upteams.tasktracker.user.exception.UserNotFoundException;
 import de.upteams.tasktracker.user.persistence.UserRepository;
 import de.upteams.tasktracker.user.service.UserService;
 import de.upteams.tasktracker.user.util.AppUserMapper;
+import de.upteams.tasktracker.user.util.EmailNormalizer;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
@@ -18,7 +20,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -32,16 +36,19 @@ public class UserServiceImpl implements UserService {
     private final UserRepository repository;
     private final AppUserMapper mappingService;
     private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     public AppUser saveOrUpdate(final AppUser user) {
-        return repository.save(user);
+        final AppUser saved = repository.save(user);
+        userDetailsService.evictUser(saved.getEmail());
+        return saved;
     }
 
     @Override
     @Transactional
     public Optional<AppUser> getByEmail(String email) {
-        return repository.findByEmailIgnoreCase(email);
+        return repository.findByEmailNormalized(EmailNormalizer.normalize(email));
     }
 
     @Override
@@ -59,6 +66,27 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(UserNotFoundException::new);
     }
 
+    @Override
+    public AppUser getReference(UUID id) {
+        return repository.getReferenceById(id);
+    }
+
+    @Override
+    @Transactional
+    public List<String> replaceAvatarKeys(UUID userId, Map<AvatarSize, String> keys, String avatarUrl) {
+        final AppUser user = repository.findByIdForUpdate(userId).orElseThrow(UserNotFoundException::new);
+        final List<String> replaced = new ArrayList<>();
+        keys.forEach((size, key) -> {
+            final String previous = user.getAvatarKey(size);
+            if (previous != null && !previous.equals(key)) {
+                replaced.add(previous);
+            }
+            user.setAvatarKey(size, key);
+        });
+        user.setAvatarUrl(avatarUrl);
+        return replaced;
+    }
+
     @Override
     public List<UserResponseDto> getAll() {
         return repository
@@ -84,18 +112,21 @@ public class UserServiceImpl implements UserService {
     private void applyProfileUpdates(AppUser user, UserUpdateDto dto) {
 
         if (dto.email() != null && !dto.email().isBlank()) {
-            String normalized = dto.email().trim().toLowerCase(Locale.ROOT);
-            if (!normalized.equalsIgnoreCase(user.getEmail())
-                    && repository.existsByEmailIgnoreCaseAndIdNot(normalized, user.getId())) {
+            String normalized = EmailNormalizer.normalize(dto.email());
+            if (!normalized.equals(user.getEmailNormalized())
+                    && repository.existsByEmailNormalizedAndIdNot(normalized, user.getId())) {
                 throw new EmailAlreadyUsedException("Unable to update profile"); // нейтрально
             }
-            user.setEmail(normalized);
+            if (!normalized.equals(user.getEmailNormalized())) {
+                userDetailsService.evictUser(user.getEmail());
+                user.setEmail(normalized);
+                user.incrementTokenVersion();
+            }
         }
 
         if (dto.displayName() != null) user.setDisplayName(dto.displayName().trim());
         if (dto.position() != null)     user.setPosition(dto.position().trim());
         if (dto.department() != null)   user.setDepartment(dto.department().trim());
-        if (dto.avatarUrl() != null)    user.setAvatarUrl(dto.avatarUrl().trim());
         if (dto.bio() != null)          user.setBio(dto.bio().trim());
     }
 
@@ -105,6 +136,7 @@ public class UserServiceImpl implements UserService {
         AppUser user = repository.findById(userId).orElseThrow(UserNotFoundException::new);
         applyProfileUpdates(user, dto);
         repository.save(user);
+        userDetailsService.evictUser(user.getEmail());
         return mappingService.mapEntityToDto(user);
     }
 
@@ -112,7 +144,9 @@ public class UserServiceImpl implements UserService {
     public AppUser updateProfile(String userId, UserUpdateDto updateDto) {
         AppUser user = getByEmailOrThrow(userId);
         applyProfileUpdates(user, updateDto);
-        return repository.save(user);
+        final AppUser saved = repository.save(user);
+        userDetailsService.evictUser(saved.getEmail());
+        return saved;
     }
 
     private String getCurrentUserId() {
@@ -126,7 +160,7 @@ public class UserServiceImpl implements UserService {
 
         if (principal instanceof UserDetails userDetails) {
             // напрямую через UserRepository
-            AppUser user = repository.findByEmailIgnoreCase(userDetails.getUsername())
+            AppUser user = getByEmail(userDetails.getUsername())
                     .orElseThrow(() -> new UserNotFoundException("Current user not found in DB"));
             return user.getId().toString();
         }
@@ -169,8 +203,7 @@ public class UserServiceImpl implements UserService {
         }
         String email = auth.getName();
 
-        AppUser user = repository.findByEmailIgnoreCase(email)
-                .orElseThrow(UserNotFoundException::new);
+        AppUser user = getByEmailOrThrow(email);
 
 
         // 3) Проверяем текущий пароль
@@ -181,7 +214,9 @@ public class UserServiceImpl implements UserService {
 
 
         user.setPassword(passwordEncoder.encode(request.newPassword()));
+        user.incrementTokenVersion();
         repository.save(user);
+        userDetailsService.evictUser(user.getEmail());
 
 
     }
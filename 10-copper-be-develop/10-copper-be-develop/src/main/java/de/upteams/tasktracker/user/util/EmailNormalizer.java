@@ -0,0 +1,24 @@
+package de.upteams.tasktracker.user.util;
+
+import java.util.Locale;
+
+/**
+ * Utility class for bringing user's email to the form that is stored in
+ * {@code app_user.email_normalized} and used for all lookups by email.
+ */
+public final class EmailNormalizer {
+
+    private EmailNormalizer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Trims the email and converts it to lower case.
+     *
+     * @param email email in any form; may be null
+     * @return normalized email, or null if given email is null
+     */
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
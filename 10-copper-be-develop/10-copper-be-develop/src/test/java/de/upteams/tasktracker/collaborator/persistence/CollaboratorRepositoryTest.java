@@ -0,0 +1,94 @@
+package de.upteams.tasktracker.collaborator.persistence;
+
+import de.upteams.tasktracker.collaborator.entity.Collaborator;
+import de.upteams.tasktracker.collaborator.entity.ProjectRoles;
+import de.upteams.tasktracker.collaborator.service.impl.ProjectMembershipCache;
+import de.upteams.tasktracker.project.entity.Project;
+import de.upteams.tasktracker.security.service.TokenVersionRegistry;
+import de.upteams.tasktracker.user.entity.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Role filters evaluated by the database on the bitmask column, on H2 in MySQL mode
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:collaborators;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CollaboratorRepositoryTest {
+
+    @MockitoBean
+    private ProjectMembershipCache membershipCache;
+    @MockitoBean
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private CollaboratorRepository repository;
+
+    private Project project;
+    private Collaborator owner;
+    private Collaborator admin;
+    private Collaborator member;
+
+    @BeforeEach
+    void setUp() {
+        AppUser lead = em.persist(new AppUser("secret", "lead@simpsons.com", "Marge", "Simpson"));
+        project = em.persist(new Project("Springfield", null, lead));
+        Project other = em.persist(new Project("Shelbyville", null, lead));
+        owner = collaborator("homer", project, EnumSet.of(ProjectRoles.OWNER, ProjectRoles.MEMBER));
+        admin = collaborator("lisa", project, EnumSet.of(ProjectRoles.ADMIN));
+        member = collaborator("bart", project, EnumSet.of(ProjectRoles.MEMBER));
+        collaborator("maggie", project, EnumSet.noneOf(ProjectRoles.class));
+        collaborator("ned", other, EnumSet.of(ProjectRoles.ADMIN));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void findByProjectIdHavingAnyRole_filtersByMaskInSql() {
+        List<Collaborator> managers = repository.findByProjectIdHavingAnyRole(project.getId(),
+                ProjectRoles.toMask(List.of(ProjectRoles.ADMIN, ProjectRoles.OWNER)));
+
+        assertEquals(Set.of(owner.getId(), admin.getId()),
+                Set.copyOf(managers.stream().map(Collaborator::getId).toList()));
+        assertEquals(EnumSet.of(ProjectRoles.OWNER, ProjectRoles.MEMBER), Set.copyOf(
+                managers.stream().filter(c -> c.getId().equals(owner.getId())).findFirst().orElseThrow()
+                        .getProjectRolesSet()));
+    }
+
+    @Test
+    void findByProjectIdHavingAnyRole_returnsNothingForEmptyMask() {
+        assertEquals(List.of(), repository.findByProjectIdHavingAnyRole(project.getId(), 0));
+        assertEquals(List.of(member.getId()), repository
+                .findByProjectIdHavingAnyRole(project.getId(), ProjectRoles.MEMBER.bit()).stream()
+                .map(Collaborator::getId)
+                .filter(id -> !id.equals(owner.getId()))
+                .toList());
+    }
+
+    private Collaborator collaborator(String name, Project project, Set<ProjectRoles> roles) {
+        AppUser user = em.persist(new AppUser("secret", name + "@simpsons.com", name, "Simpson"));
+        Collaborator collaborator = new Collaborator();
+        collaborator.setAppUser(user);
+        collaborator.setProject(project);
+        collaborator.getProjectRolesSet().addAll(roles);
+        return em.persist(collaborator);
+    }
+}
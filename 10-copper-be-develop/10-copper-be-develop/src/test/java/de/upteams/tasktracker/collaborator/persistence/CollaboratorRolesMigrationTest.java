@@ -0,0 +1,162 @@
+package de.upteams.tasktracker.collaborator.persistence;
+
+import de.upteams.tasktracker.collaborator.entity.ProjectRoles;
+import org.hibernate.internal.util.SerializationHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the migration steps of a rolling deploy on the collaborator table as created by Hibernate
+ * before the bitmask column, on H2 in MySQL mode.
+ */
+class CollaboratorRolesMigrationTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private CollaboratorRolesMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:roles-migration;MODE=MySQL;DATABASE_TO_LOWER=TRUE", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // схема до перехода на битовую маску
+        jdbcTemplate.execute("""
+                create table collaborator (
+                    id binary(16) not null,
+                    app_user_id binary(16) not null,
+                    project_id binary(16) not null,
+                    project_roles_set varbinary(255) not null,
+                    primary key (id)
+                )""");
+        migration = new CollaboratorRolesMigration(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop all objects");
+        dataSource.destroy();
+    }
+
+    @Test
+    void migrate_copiesRolesBeforeDeployAndKeepsOldColumnForOldInstances() {
+        UUID owner = insertLegacy(SerializationHelper.serialize(roles(ProjectRoles.OWNER, ProjectRoles.ADMIN)));
+        UUID member = insertLegacy(SerializationHelper.serialize(roles(ProjectRoles.MEMBER)));
+        UUID noRoles = insertLegacy(SerializationHelper.serialize(roles()));
+
+        assertEquals(0, migration.migrate());
+
+        assertEquals(ProjectRoles.OWNER.bit() | ProjectRoles.ADMIN.bit(), rolesMask(owner));
+        assertEquals(ProjectRoles.MEMBER.bit(), rolesMask(member));
+        assertEquals(0, rolesMask(noRoles));
+        assertTrue(legacyColumnExists());
+        // новые экземпляры пишут без старой колонки, старые — по-прежнему в неё
+        jdbcTemplate.update("insert into collaborator (id, app_user_id, project_id) values (?, ?, ?)",
+                bytes(UUID.randomUUID()), bytes(UUID.randomUUID()), bytes(UUID.randomUUID()));
+        insertLegacy(SerializationHelper.serialize(roles(ProjectRoles.VIEWER)));
+    }
+
+    @Test
+    void dropLegacyColumn_migratesCollaboratorsAddedByOldInstances() {
+        insertLegacy(SerializationHelper.serialize(roles(ProjectRoles.OWNER)));
+        migration.migrate();
+        UUID addedDuringDeploy = insertLegacy(SerializationHelper.serialize(roles(ProjectRoles.VIEWER)));
+
+        migration.dropLegacyColumn();
+
+        assertEquals(ProjectRoles.VIEWER.bit(), rolesMask(addedDuringDeploy));
+        assertFalse(legacyColumnExists());
+        assertDoesNotThrow(migration::dropLegacyColumn);
+        assertEquals(0, migration.migrate());
+    }
+
+    @Test
+    void keepsRolesOfAlreadyMigratedCollaborators() {
+        UUID collaborator = insertLegacy(SerializationHelper.serialize(roles(ProjectRoles.VIEWER)));
+        migration.migrate();
+        jdbcTemplate.update("update collaborator set project_roles = ? where id = ?",
+                ProjectRoles.ADMIN.bit(), bytes(collaborator));
+
+        migration.dropLegacyColumn();
+
+        assertEquals(ProjectRoles.ADMIN.bit(), rolesMask(collaborator));
+    }
+
+    @Test
+    void keepsOldColumnIfRolesCanNotBeDecoded() {
+        UUID broken = insertLegacy(new byte[]{1, 2, 3});
+        UUID member = insertLegacy(SerializationHelper.serialize(roles(ProjectRoles.MEMBER)));
+
+        migration.dropLegacyColumn();
+
+        assertEquals(0, rolesMask(broken));
+        assertEquals(ProjectRoles.MEMBER.bit(), rolesMask(member));
+        assertTrue(legacyColumnExists());
+    }
+
+    @Test
+    void doesNothingWithoutOldColumn() {
+        jdbcTemplate.execute("alter table collaborator drop column project_roles_set");
+
+        assertEquals(0, migration.migrate());
+        assertDoesNotThrow(migration::dropLegacyColumn);
+    }
+
+    @Test
+    void decodeMask_acceptsRoleNamesAndArrays() {
+        assertEquals(ProjectRoles.ADMIN.bit(),
+                CollaboratorRolesMigration.decodeMask(SerializationHelper.serialize(new ArrayList<>(List.of("ADMIN")))));
+        assertEquals(ProjectRoles.OWNER.bit() | ProjectRoles.VIEWER.bit(),
+                CollaboratorRolesMigration.decodeMask(SerializationHelper.serialize(
+                        new ProjectRoles[]{ProjectRoles.OWNER, ProjectRoles.VIEWER})));
+    }
+
+    @Test
+    void decodeMask_rejectsOtherClasses() {
+        byte[] value = SerializationHelper.serialize(new ArrayList<>(List.of(UUID.randomUUID())));
+
+        assertThrows(IllegalArgumentException.class, () -> CollaboratorRolesMigration.decodeMask(value));
+    }
+
+    /**
+     * Insert of the version before the bitmask column
+     */
+    private UUID insertLegacy(byte[] roles) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update(
+                "insert into collaborator (id, app_user_id, project_id, project_roles_set) values (?, ?, ?, ?)",
+                bytes(id), bytes(UUID.randomUUID()), bytes(UUID.randomUUID()), roles);
+        return id;
+    }
+
+    private int rolesMask(UUID id) {
+        return jdbcTemplate.queryForObject("select project_roles from collaborator where id = ?", Integer.class, bytes(id));
+    }
+
+    private boolean legacyColumnExists() {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.columns where table_name = 'collaborator'"
+                        + " and column_name = 'project_roles_set'", Integer.class) > 0;
+    }
+
+    /**
+     * Roles the way Hibernate serialized a basic {@code Set<ProjectRoles>} into varbinary
+     */
+    private static ArrayList<ProjectRoles> roles(ProjectRoles... roles) {
+        return new ArrayList<>(List.of(roles));
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
@@ -0,0 +1,65 @@
+package de.upteams.tasktracker.collaborator.service.impl;
+
+import de.upteams.tasktracker.collaborator.entity.ProjectRoles;
+import de.upteams.tasktracker.collaborator.entity.ProjectRolesConverter;
+import de.upteams.tasktracker.collaborator.persistence.CollaboratorRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProjectMembershipCacheTest {
+
+    private CollaboratorRepository repository;
+    private ProjectMembershipCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CollaboratorRepository.class);
+        cache = new ProjectMembershipCache(repository, new SimpleMeterRegistry(), 100, 60);
+    }
+
+    @Test
+    void getRolesMask_queriesDatabaseOnlyOnce() {
+        UUID userId = UUID.randomUUID();
+        UUID projectId = UUID.randomUUID();
+        when(repository.findRolesMask(userId, projectId)).thenReturn(Optional.of(ProjectRoles.MEMBER.bit()));
+
+        int first = cache.getRolesMask(userId, projectId);
+        int second = cache.getRolesMask(userId, projectId);
+
+        assertEquals(ProjectRoles.MEMBER.bit(), first);
+        assertEquals(first, second);
+        verify(repository, times(1)).findRolesMask(userId, projectId);
+    }
+
+    @Test
+    void evict_reloadsChangedMembership() {
+        UUID userId = UUID.randomUUID();
+        UUID projectId = UUID.randomUUID();
+        when(repository.findRolesMask(userId, projectId)).thenReturn(Optional.empty());
+
+        assertEquals(ProjectMembershipCache.NOT_A_MEMBER, cache.getRolesMask(userId, projectId));
+
+        when(repository.findRolesMask(userId, projectId)).thenReturn(Optional.of(ProjectRoles.OWNER.bit()));
+        cache.evict(userId, projectId);
+
+        assertEquals(ProjectRoles.OWNER.bit(), cache.getRolesMask(userId, projectId));
+    }
+
+    @Test
+    void rolesConverter_roundTrip() {
+        ProjectRolesConverter converter = new ProjectRolesConverter();
+        EnumSet<ProjectRoles> roles = EnumSet.of(ProjectRoles.ADMIN, ProjectRoles.VIEWER);
+
+        assertEquals(roles, converter.convertToEntityAttribute(converter.convertToDatabaseColumn(roles)));
+        assertEquals(0, converter.convertToDatabaseColumn(EnumSet.noneOf(ProjectRoles.class)));
+        assertTrue(converter.convertToEntityAttribute(null).isEmpty());
+    }
+}
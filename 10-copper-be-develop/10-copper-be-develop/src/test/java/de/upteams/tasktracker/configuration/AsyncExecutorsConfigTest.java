@@ -0,0 +1,49 @@
+package de.upteams.tasktracker.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncExecutorsConfigTest {
+
+    @Test
+    void mailExecutor_recordsTasksAndCountsRejections() throws Exception {
+        AsyncExecutorsProperties properties = new AsyncExecutorsProperties();
+        properties.setMail(AsyncExecutorsProperties.Pool.of(1, 1, 0, AsyncExecutorsProperties.Rejection.ABORT));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) new AsyncExecutorsConfig(properties, registry).mailExecutor();
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                awaitQuietly(release);
+                finished.countDown();
+            });
+
+            assertThrows(TaskRejectedException.class, () -> executor.execute(() -> { }));
+            release.countDown();
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, registry.get("executor.rejected").tag("name", "mailExecutor").counter().count());
+        assertEquals(1, registry.get("executor.idle").tag("name", "mailExecutor").timer().count());
+        assertTrue(executor.getThreadNamePrefix().startsWith("mail-"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
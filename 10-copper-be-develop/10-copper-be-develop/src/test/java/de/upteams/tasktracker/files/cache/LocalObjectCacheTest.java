@@ -0,0 +1,124 @@
+package de.upteams.tasktracker.files.cache;
+
+import de.upteams.tasktracker.configuration.AwsS3Configuration;
+import de.upteams.tasktracker.configuration.FileCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LocalObjectCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private S3AsyncClient s3Client;
+    private FileCacheProperties properties;
+    private CompletableFuture<Void> storage;
+
+    @BeforeEach
+    void setUp() {
+        s3Client = mock(S3AsyncClient.class);
+        properties = new FileCacheProperties();
+        properties.setDirectory(directory);
+        storage = CompletableFuture.completedFuture(null);
+        // отдаёт ключ объекта как его содержимое, когда завершится storage
+        when(s3Client.getObject(any(Consumer.class), any(AsyncResponseTransformer.class))).thenAnswer(invocation -> {
+            Consumer<GetObjectRequest.Builder> request = invocation.getArgument(0);
+            GetObjectRequest.Builder builder = GetObjectRequest.builder();
+            request.accept(builder);
+            byte[] content = builder.build().key().getBytes(StandardCharsets.UTF_8);
+            AsyncResponseTransformer<GetObjectResponse, GetObjectResponse> transformer = invocation.getArgument(1);
+            return storage.thenCompose(ignored -> {
+                CompletableFuture<GetObjectResponse> result = transformer.prepare();
+                transformer.onResponse(GetObjectResponse.builder().contentLength((long) content.length).build());
+                transformer.onStream(AsyncRequestBody.fromBytes(content));
+                return result;
+            });
+        });
+    }
+
+    @Test
+    void open_concurrentMissesDownloadOnce() throws IOException {
+        storage = new CompletableFuture<>();
+        LocalObjectCache cache = newCache();
+
+        CompletableFuture<CachedObject> first = cache.get("avatars/1");
+        CompletableFuture<CachedObject> second = cache.get("avatars/1");
+        assertFalse(first.isDone());
+        storage.complete(null);
+
+        assertSame(first.join(), second.join());
+        assertEquals("avatars/1", read(cache, "avatars/1"));
+        verify(s3Client, times(1)).getObject(any(Consumer.class), any(AsyncResponseTransformer.class));
+    }
+
+    @Test
+    void open_servesFilesBiggerThanMmapLimitFromDisk() throws IOException {
+        properties.setMmapMaxSize(DataSize.ofBytes(0));
+        LocalObjectCache cache = newCache();
+
+        assertEquals("attachments/2", read(cache, "attachments/2"));
+        assertEquals(1, cachedFiles());
+    }
+
+    @Test
+    void evictedObjectsAreDeletedFromDisk() throws IOException {
+        properties.setMaxSize(DataSize.ofBytes(12));
+        LocalObjectCache cache = newCache();
+
+        read(cache, "avatars/1");
+        read(cache, "avatars/2");
+
+        assertEquals(1, cachedFiles());
+    }
+
+    @Test
+    void staleFilesAreDeletedAtStartup() throws IOException {
+        Files.writeString(directory.resolve("stale.obj"), "old");
+
+        newCache();
+
+        assertEquals(0, cachedFiles());
+    }
+
+    private LocalObjectCache newCache() {
+        AwsS3Configuration s3Config = new AwsS3Configuration();
+        s3Config.setBucketName("tasktracker");
+        return new LocalObjectCache(s3Client, s3Config, properties, new SimpleMeterRegistry());
+    }
+
+    private static String read(LocalObjectCache cache, String objectKey) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CachedContent content = cache.open(objectKey)) {
+            content.transferTo(Channels.newChannel(out));
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private long cachedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package de.upteams.tasktracker.files.service.impl;
+
+import de.upteams.tasktracker.collaborator.service.interfaces.CollaboratorService;
+import de.upteams.tasktracker.configuration.AwsS3Configuration;
+import de.upteams.tasktracker.configuration.FileStorageProperties;
+import de.upteams.tasktracker.files.dto.StoredFileDto;
+import de.upteams.tasktracker.files.entity.FileBlob;
+import de.upteams.tasktracker.files.entity.StoredFile;
+import de.upteams.tasktracker.files.persistence.FileBlobRepository;
+import de.upteams.tasktracker.files.persistence.StoredFileRepository;
+import de.upteams.tasktracker.files.uploading.FileService;
+import de.upteams.tasktracker.project.entity.Project;
+import de.upteams.tasktracker.task.entity.Task;
+import de.upteams.tasktracker.task.service.interfaces.TaskService;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AttachmentServiceImplTest {
+
+    private static final byte[] BYTES = "spec v1".getBytes(StandardCharsets.UTF_8);
+
+    private StoredFileRepository files;
+    private FileBlobRepository blobs;
+    private FileService fileService;
+    private SimpleMeterRegistry meterRegistry;
+    private AttachmentServiceImpl service;
+    private final AppUser user = new AppUser();
+    private final Task task = mock(Task.class);
+    private final MockMultipartFile content = new MockMultipartFile("file", "spec.pdf", "application/pdf", BYTES);
+
+    @BeforeEach
+    void setUp() {
+        files = mock(StoredFileRepository.class);
+        blobs = mock(FileBlobRepository.class);
+        fileService = mock(FileService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(user, "id", UUID.randomUUID());
+
+        Project project = mock(Project.class);
+        when(task.getId()).thenReturn(UUID.randomUUID());
+        when(task.getProject()).thenReturn(project);
+        TaskService taskService = mock(TaskService.class);
+        when(taskService.getOrThrow("task")).thenReturn(task);
+        CollaboratorService collaboratorService = mock(CollaboratorService.class);
+        when(collaboratorService.hasUserPermission(eq(user), eq(project), anyCollection())).thenReturn(true);
+
+        when(files.save(any(StoredFile.class))).thenAnswer(invocation -> withId(invocation.getArgument(0)));
+        when(blobs.saveAndFlush(any(FileBlob.class))).thenAnswer(invocation -> withId(invocation.getArgument(0)));
+        when(fileService.uploadFileAsync(anyString(), any(), anyMap(), any(), anyLong(), anyBoolean()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        UserService userService = mock(UserService.class);
+        when(userService.getReference(user.getId())).thenReturn(user);
+
+        service = new AttachmentServiceImpl(files, blobs, taskService, collaboratorService, userService, fileService,
+                mock(S3Client.class), new AwsS3Configuration(), new FileStorageProperties(),
+                mock(PlatformTransactionManager.class), meterRegistry);
+    }
+
+    @Test
+    void upload_storesNewContentUnderItsHash() {
+        StoredFileDto dto = service.upload("task", content, user);
+
+        String sha256 = sha256Of();
+        assertEquals("spec.pdf", dto.fileName());
+        assertEquals(content.getSize(), dto.size());
+        verify(fileService).uploadFileAsync(eq(AttachmentServiceImpl.blobKey(sha256)), any(),
+                eq(Map.of("sha256", sha256)), isNull(), eq(content.getSize()), eq(false));
+        verify(blobs).saveAndFlush(argThat(blob -> blob.getSha256().equals(sha256) && blob.getRefCount() == 1));
+        assertEquals(1, meterRegistry.get("files.blob.dedup").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void upload_sameContentIsNotUploadedAgain() {
+        FileBlob stored = withId(new FileBlob(sha256Of(), "blobs/sha256/x", content.getSize()));
+        when(blobs.acquire(stored.getSha256())).thenReturn(1);
+        when(blobs.findBySha256(stored.getSha256())).thenReturn(Optional.of(stored));
+
+        service.upload("task", content, user);
+
+        verifyNoInteractions(fileService);
+        verify(files).save(argThat(file -> file.getBlob() == stored && file.getObjectKey().equals("blobs/sha256/x")));
+        assertEquals(1, meterRegistry.get("files.blob.dedup").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void upload_concurrentlyStoredContentIsReferenced() {
+        String sha256 = sha256Of();
+        FileBlob concurrent = withId(new FileBlob(sha256, AttachmentServiceImpl.blobKey(sha256), content.getSize()));
+        when(blobs.acquire(sha256)).thenReturn(0, 1);
+        when(blobs.findBySha256(sha256)).thenReturn(Optional.of(concurrent));
+        doThrow(new DataIntegrityViolationException("uk_file_blob_sha256")).when(blobs).saveAndFlush(any(FileBlob.class));
+
+        service.upload("task", content, user);
+
+        verify(files).save(argThat(file -> file.getBlob() == concurrent));
+        assertEquals(1, meterRegistry.get("files.blob.dedup").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void upload_releasesBlobIfAttachmentIsNotSaved() {
+        doThrow(new IllegalStateException("database is down")).when(files).save(any(StoredFile.class));
+
+        assertThrows(IllegalStateException.class, () -> service.upload("task", content, user));
+
+        verify(blobs).release(any(UUID.class), any());
+    }
+
+    private static String sha256Of() {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(BYTES));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T withId(T entity) {
+        ReflectionTestUtils.setField(entity, "id", UUID.randomUUID());
+        return entity;
+    }
+}
@@ -0,0 +1,192 @@
+package de.upteams.tasktracker.files.service.impl;
+
+import de.upteams.tasktracker.configuration.AwsS3Configuration;
+import de.upteams.tasktracker.configuration.FileStorageProperties;
+import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
+import de.upteams.tasktracker.files.cache.LocalObjectCache;
+import de.upteams.tasktracker.files.dto.AvatarDto;
+import de.upteams.tasktracker.files.uploading.FileService;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.entity.AvatarSize;
+import de.upteams.tasktracker.user.exception.UserNotFoundException;
+import de.upteams.tasktracker.user.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AvatarServiceImplTest {
+
+    private UserService userService;
+    private FileService fileService;
+    private S3Client s3Client;
+    private ExecutorService imageExecutor;
+    private AvatarServiceImpl service;
+    private final AppUser user = new AppUser();
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        fileService = mock(FileService.class);
+        s3Client = mock(S3Client.class);
+        imageExecutor = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(user, "id", UUID.randomUUID());
+        when(userService.replaceAvatarKeys(eq(user.getId()), anyMap(), anyString()))
+                .thenReturn(List.of("avatars/old/small.jpg"));
+        when(fileService.uploadFileAsync(anyString(), any(), anyMap(), anyString(), anyLong(), anyBoolean()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        service = newService(new FileStorageProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageExecutor.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upload_storesEverySizeAndReplacesPreviousAvatar() throws IOException {
+        AvatarDto avatar = service.upload(image(BufferedImage.TYPE_INT_RGB, 600, 400, "png"), user);
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<InputStream> contents = ArgumentCaptor.forClass(InputStream.class);
+        verify(fileService, times(3)).uploadFileAsync(keys.capture(), contents.capture(), anyMap(),
+                eq("image/jpeg"), anyLong(), eq(false));
+        ArgumentCaptor<Map<AvatarSize, String>> saved = ArgumentCaptor.forClass(Map.class);
+        verify(userService).replaceAvatarKeys(eq(user.getId()), saved.capture(),
+                eq(avatar.urls().get(AvatarSize.MEDIUM)));
+        for (AvatarSize size : AvatarSize.values()) {
+            String key = saved.getValue().get(size);
+            assertTrue(key.startsWith("avatars/" + user.getId() + "/"));
+            assertTrue(key.endsWith("/" + size.pathSegment() + ".jpg"));
+            assertTrue(keys.getAllValues().contains(key));
+            assertTrue(avatar.urls().get(size).startsWith(
+                    "http://localhost:8080/api/v1/files/avatars/" + user.getId() + "/" + size.pathSegment() + "?v="));
+        }
+        for (InputStream content : contents.getAllValues()) {
+            BufferedImage rendition = ImageIO.read(content);
+            assertEquals(rendition.getWidth(), rendition.getHeight());
+        }
+        ArgumentCaptor<Consumer<DeleteObjectsRequest.Builder>> delete = ArgumentCaptor.forClass(Consumer.class);
+        verify(s3Client).deleteObjects(delete.capture());
+        assertEquals(List.of("avatars/old/small.jpg"), deletedKeys(delete.getValue()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upload_deletesNewRenditionsIfKeysCanNotBeSaved() throws IOException {
+        when(userService.replaceAvatarKeys(eq(user.getId()), anyMap(), anyString()))
+                .thenThrow(new UserNotFoundException());
+
+        assertThrows(UserNotFoundException.class,
+                () -> service.upload(image(BufferedImage.TYPE_INT_RGB, 64, 64, "png"), user));
+
+        ArgumentCaptor<Consumer<DeleteObjectsRequest.Builder>> delete = ArgumentCaptor.forClass(Consumer.class);
+        verify(s3Client).deleteObjects(delete.capture());
+        List<String> deleted = deletedKeys(delete.getValue());
+        assertEquals(AvatarSize.values().length, deleted.size());
+        assertTrue(deleted.stream().allMatch(key -> key.startsWith("avatars/" + user.getId() + "/")));
+    }
+
+    @Test
+    void upload_keepsTransparencyAsPng() throws IOException {
+        service.upload(image(BufferedImage.TYPE_INT_ARGB, 64, 64, "png"), user);
+
+        verify(fileService, times(3)).uploadFileAsync(endsWith(".png"), any(), anyMap(),
+                eq("image/png"), anyLong(), eq(false));
+    }
+
+    @Test
+    void upload_rejectsImagesOverPixelLimitWithoutStoringAnything() throws IOException {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setMaxAvatarPixels(100);
+        service = newService(properties);
+
+        RestApiException rejected = assertThrows(RestApiException.class,
+                () -> service.upload(image(BufferedImage.TYPE_INT_RGB, 20, 20, "png"), user));
+
+        assertEquals(HttpStatus.BAD_REQUEST, rejected.getHttpStatus());
+        verifyNoInteractions(fileService);
+        verify(userService, never()).replaceAvatarKeys(any(), anyMap(), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upload_deletesRenditionsStillUploadingWhenLaterRenderIsRejected() throws IOException {
+        // декодирование и первый размер принимаются, второй размер пул уже отклоняет
+        AtomicInteger submitted = new AtomicInteger();
+        Executor saturated = task -> {
+            if (submitted.incrementAndGet() > 2) {
+                throw new TaskRejectedException("Pool is full");
+            }
+            imageExecutor.execute(task);
+        };
+        when(fileService.uploadFileAsync(anyString(), any(), anyMap(), anyString(), anyLong(), anyBoolean()))
+                .thenReturn(CompletableFuture.supplyAsync(() -> true,
+                        CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS)));
+        service = newService(new FileStorageProperties(), saturated);
+
+        RestApiException rejected = assertThrows(RestApiException.class,
+                () -> service.upload(image(BufferedImage.TYPE_INT_RGB, 64, 64, "png"), user));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getHttpStatus());
+        ArgumentCaptor<Consumer<DeleteObjectsRequest.Builder>> delete = ArgumentCaptor.forClass(Consumer.class);
+        verify(s3Client).deleteObjects(delete.capture());
+        List<String> deleted = deletedKeys(delete.getValue());
+        assertEquals(1, deleted.size());
+        assertTrue(deleted.get(0).endsWith("/small.jpg"));
+        verify(userService, never()).replaceAvatarKeys(any(), anyMap(), anyString());
+    }
+
+    private AvatarServiceImpl newService(FileStorageProperties properties) {
+        return newService(properties, imageExecutor);
+    }
+
+    private AvatarServiceImpl newService(FileStorageProperties properties, Executor executor) {
+        return new AvatarServiceImpl(userService, fileService, mock(LocalObjectCache.class),
+                mock(S3Presigner.class), s3Client, new AwsS3Configuration(), properties,
+                executor, new SimpleMeterRegistry(), "http://localhost:8080");
+    }
+
+    private static List<String> deletedKeys(Consumer<DeleteObjectsRequest.Builder> delete) {
+        DeleteObjectsRequest.Builder request = DeleteObjectsRequest.builder();
+        delete.accept(request);
+        return request.build().delete().objects().stream().map(ObjectIdentifier::key).toList();
+    }
+
+    private static MockMultipartFile image(int type, int width, int height, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, type), format, out);
+        return new MockMultipartFile("file", "me." + format, "image/" + format, out.toByteArray());
+    }
+}
@@ -0,0 +1,203 @@
+package de.upteams.tasktracker.files.service.impl;
+
+import de.upteams.tasktracker.collaborator.service.interfaces.CollaboratorService;
+import de.upteams.tasktracker.configuration.AwsS3Configuration;
+import de.upteams.tasktracker.configuration.FileStorageProperties;
+import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
+import de.upteams.tasktracker.files.cache.LocalObjectCache;
+import de.upteams.tasktracker.files.dto.PresignedUrlDto;
+import de.upteams.tasktracker.files.dto.StoredFileDto;
+import de.upteams.tasktracker.files.dto.UploadUrlRequestDto;
+import de.upteams.tasktracker.files.entity.FileKind;
+import de.upteams.tasktracker.files.entity.FileStatus;
+import de.upteams.tasktracker.files.entity.StoredFile;
+import de.upteams.tasktracker.files.persistence.StoredFileRepository;
+import de.upteams.tasktracker.files.service.interfaces.AvatarService;
+import de.upteams.tasktracker.project.entity.Project;
+import de.upteams.tasktracker.task.entity.Task;
+import de.upteams.tasktracker.task.service.interfaces.TaskService;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class FileStorageServiceImplTest {
+
+    private StoredFileRepository repository;
+    private TaskService taskService;
+    private CollaboratorService collaboratorService;
+    private S3Presigner presigner;
+    private S3Client s3Client;
+    private AvatarService avatarService;
+    private FileStorageServiceImpl service;
+    private final AppUser user = new AppUser();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(StoredFileRepository.class);
+        taskService = mock(TaskService.class);
+        collaboratorService = mock(CollaboratorService.class);
+        when(repository.save(any(StoredFile.class))).thenAnswer(invocation -> withId(invocation.getArgument(0)));
+        ReflectionTestUtils.setField(user, "id", UUID.randomUUID());
+
+        // подпись считается локально, запросов к хранилищу нет
+        presigner = S3Presigner.builder()
+                .endpointOverride(URI.create("https://fra1.digitaloceanspaces.com"))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")))
+                .region(Region.of("fra1"))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+        AwsS3Configuration s3Config = new AwsS3Configuration();
+        s3Config.setBucketName("tasktracker");
+
+        UserService userService = mock(UserService.class);
+        when(userService.getReference(user.getId())).thenReturn(user);
+
+        s3Client = mock(S3Client.class);
+        avatarService = mock(AvatarService.class);
+        service = new FileStorageServiceImpl(repository, taskService, collaboratorService, userService, avatarService,
+                presigner, s3Client, s3Config, new FileStorageProperties(), mock(LocalObjectCache.class),
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        presigner.close();
+    }
+
+    @Test
+    void createUploadUrl_signsContentTypeOfAttachment() {
+        Project project = mock(Project.class);
+        Task task = mock(Task.class);
+        UUID taskId = UUID.randomUUID();
+        when(task.getId()).thenReturn(taskId);
+        when(task.getProject()).thenReturn(project);
+        when(taskService.getOrThrow(taskId.toString())).thenReturn(task);
+        when(collaboratorService.hasUserPermission(user, project, FileStorageServiceImpl.EDITOR_ROLES)).thenReturn(true);
+
+        PresignedUrlDto url = service.createUploadUrl(new UploadUrlRequestDto(
+                FileKind.ATTACHMENT, taskId.toString(), "spec.pdf", "application/pdf", 1024L), user);
+
+        assertEquals("PUT", url.method());
+        assertTrue(url.url().startsWith("https://fra1.digitaloceanspaces.com/tasktracker/attachments/" + taskId + "/"));
+        assertEquals("application/pdf", url.headers().get("content-type"));
+        assertFalse(url.headers().containsKey("host"));
+        verify(repository).save(argThat(file -> file.getStatus() == FileStatus.PENDING && file.getSize() == 1024));
+    }
+
+    @Test
+    void createUploadUrl_signsAvatarUnderUserKey() {
+        PresignedUrlDto url = service.createUploadUrl(
+                new UploadUrlRequestDto(FileKind.AVATAR, null, "me.png", "image/png", 1024L), user);
+
+        assertTrue(url.url().startsWith("https://fra1.digitaloceanspaces.com/tasktracker/avatars/" + user.getId() + "/"));
+        verify(repository).save(argThat(file -> file.getKind() == FileKind.AVATAR && file.getTask() == null));
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void createUploadUrl_rejectsInvalidAvatarsAndTooBigAttachments() {
+        RestApiException bigAvatar = assertThrows(RestApiException.class, () -> service.createUploadUrl(
+                new UploadUrlRequestDto(FileKind.AVATAR, null, "me.png", "image/png", 6L * 1024 * 1024), user));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, bigAvatar.getHttpStatus());
+
+        RestApiException notImage = assertThrows(RestApiException.class, () -> service.createUploadUrl(
+                new UploadUrlRequestDto(FileKind.AVATAR, null, "me.svg", "image/svg+xml", 1024L), user));
+        assertEquals(HttpStatus.BAD_REQUEST, notImage.getHttpStatus());
+
+        RestApiException tooBig = assertThrows(RestApiException.class, () -> service.createUploadUrl(
+                new UploadUrlRequestDto(FileKind.ATTACHMENT, UUID.randomUUID().toString(), "big.bin",
+                        "application/octet-stream", 200L * 1024 * 1024), user));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, tooBig.getHttpStatus());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void completeUpload_rendersUploadedAvatar() {
+        StoredFile file = withId(new StoredFile(FileKind.AVATAR, "avatars/u/1", user, null,
+                "me.png", "image/png", 3));
+        when(repository.findById(file.getId())).thenReturn(Optional.of(file));
+        when(s3Client.headObject(any(Consumer.class)))
+                .thenReturn(HeadObjectResponse.builder().contentLength(3L).eTag("\"e\"").build());
+        byte[] image = {1, 2, 3};
+        when(s3Client.getObjectAsBytes(any(Consumer.class)))
+                .thenReturn(ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), image));
+
+        StoredFileDto dto = service.completeUpload(file.getId().toString(), user);
+
+        verify(avatarService).replace(image, user);
+        assertEquals(FileStatus.UPLOADED, file.getStatus());
+        assertEquals(3, dto.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void completeUpload_keepsAvatarPendingIfItCanNotBeRendered() {
+        StoredFile file = withId(new StoredFile(FileKind.AVATAR, "avatars/u/1", user, null,
+                "me.png", "image/png", 3));
+        when(repository.findById(file.getId())).thenReturn(Optional.of(file));
+        when(s3Client.headObject(any(Consumer.class))).thenReturn(HeadObjectResponse.builder().contentLength(3L).build());
+        when(s3Client.getObjectAsBytes(any(Consumer.class)))
+                .thenReturn(ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), new byte[3]));
+        when(avatarService.replace(any(), eq(user)))
+                .thenThrow(new RestApiException(HttpStatus.BAD_REQUEST, "Unsupported image"));
+
+        assertThrows(RestApiException.class, () -> service.completeUpload(file.getId().toString(), user));
+
+        assertEquals(FileStatus.PENDING, file.getStatus());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void createDownloadUrl_returnsCachedUrlToProjectMembersOnly() {
+        Project project = mock(Project.class);
+        Task task = mock(Task.class);
+        when(task.getProject()).thenReturn(project);
+        StoredFile file = withId(new StoredFile(FileKind.ATTACHMENT, "attachments/t/1", user, task,
+                "spec.pdf", "application/pdf", 10));
+        file.setStatus(FileStatus.UPLOADED);
+        when(repository.findWithTaskById(file.getId())).thenReturn(Optional.of(file));
+        when(collaboratorService.isUserInProject(user, project)).thenReturn(true);
+
+        PresignedUrlDto first = service.createDownloadUrl(file.getId().toString(), user);
+        PresignedUrlDto second = service.createDownloadUrl(file.getId().toString(), user);
+
+        assertEquals("GET", first.method());
+        assertEquals(first, second);
+        assertTrue(first.url().contains("response-content-disposition=attachment"));
+
+        AppUser stranger = new AppUser();
+        RestApiException forbidden = assertThrows(RestApiException.class,
+                () -> service.createDownloadUrl(file.getId().toString(), stranger));
+        assertEquals(HttpStatus.FORBIDDEN, forbidden.getHttpStatus());
+    }
+
+    private static StoredFile withId(StoredFile file) {
+        ReflectionTestUtils.setField(file, "id", UUID.randomUUID());
+        return file;
+    }
+}
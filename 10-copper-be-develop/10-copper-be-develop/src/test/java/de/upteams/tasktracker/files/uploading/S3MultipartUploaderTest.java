@@ -0,0 +1,183 @@
+package de.upteams.tasktracker.files.uploading;
+
+import de.upteams.tasktracker.configuration.S3MultipartProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsResponse;
+import software.amazon.awssdk.services.s3.model.Part;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class S3MultipartUploaderTest {
+
+    private static final int PART_SIZE = (int) S3MultipartUploader.MIN_PART_SIZE;
+
+    private S3AsyncClient s3Client;
+    private SimpleMeterRegistry meterRegistry;
+    private S3MultipartUploader uploader;
+    private final PutObjectRequest object = PutObjectRequest.builder().bucket("bucket").key("files/big.bin").build();
+
+    @BeforeEach
+    void setUp() {
+        s3Client = mock(S3AsyncClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        S3MultipartProperties properties = new S3MultipartProperties();
+        properties.setPartSize(DataSize.ofBytes(PART_SIZE));
+        properties.setMaxInFlightParts(2);
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        uploader = new S3MultipartUploader(s3Client, properties, meterRegistry);
+
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class))).thenReturn(
+                CompletableFuture.completedFuture(CreateMultipartUploadResponse.builder().uploadId("upload-1").build()));
+        when(s3Client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class))).thenReturn(
+                CompletableFuture.completedFuture(CompleteMultipartUploadResponse.builder().build()));
+    }
+
+    @Test
+    void upload_putsStreamSmallerThanPartAsOneObject() {
+        when(s3Client.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+
+        MultipartUploadResult result = uploader.upload(object, new ByteArrayInputStream(new byte[1000]), null);
+
+        assertTrue(result.completed());
+        assertNull(result.uploadId());
+        assertEquals(1000, result.bytes());
+        verify(s3Client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    void upload_sendsPartsInOrderAndRetriesFailedPart() {
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(UploadPartResponse.builder().eTag("\"e1\"").build()))
+                .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().statusCode(503).message("Slow Down").build()))
+                .thenReturn(CompletableFuture.completedFuture(UploadPartResponse.builder().eTag("\"e2\"").build()))
+                .thenReturn(CompletableFuture.completedFuture(UploadPartResponse.builder().eTag("\"e3\"").build()));
+
+        MultipartUploadResult result = uploader.upload(object, new ByteArrayInputStream(content()), null);
+
+        assertTrue(result.completed());
+        assertEquals("upload-1", result.uploadId());
+        assertEquals(content().length, result.bytes());
+        assertEquals(3, result.uploadedParts());
+        ArgumentCaptor<CompleteMultipartUploadRequest> completed = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3Client).completeMultipartUpload(completed.capture());
+        assertEquals(List.of(1, 2, 3), completed.getValue().multipartUpload().parts().stream()
+                .map(CompletedPart::partNumber)
+                .toList());
+        assertEquals(1, meterRegistry.get("s3.upload.part.retries").counter().count());
+    }
+
+    @Test
+    void upload_resumeSkipsStoredParts() throws Exception {
+        byte[] content = content();
+        String firstPartMd5 = HexFormat.of().formatHex(
+                MessageDigest.getInstance("MD5").digest(Arrays.copyOf(content, PART_SIZE)));
+        when(s3Client.listParts(any(ListPartsRequest.class))).thenReturn(CompletableFuture.completedFuture(
+                ListPartsResponse.builder()
+                        .parts(Part.builder().partNumber(1).size((long) PART_SIZE).eTag("\"" + firstPartMd5 + "\"").build())
+                        .isTruncated(false)
+                        .build()));
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(UploadPartResponse.builder().eTag("\"e\"").build()));
+
+        MultipartUploadResult result = uploader.upload(object, new ByteArrayInputStream(content), "upload-0");
+
+        assertTrue(result.completed());
+        assertEquals(1, result.skippedParts());
+        assertEquals(2, result.uploadedParts());
+        verify(s3Client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    void upload_keepsUploadIdWhenPartFailsPermanently() {
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().statusCode(403).message("Denied").build()));
+
+        MultipartUploadResult result = uploader.upload(object, new ByteArrayInputStream(content()), null);
+
+        assertFalse(result.completed());
+        assertEquals("upload-1", result.uploadId());
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        assertEquals(0, meterRegistry.get("s3.upload.part.retries").counter().count());
+    }
+
+    @Test
+    void upload_sharesBoundedBufferPoolBetweenUploads() throws Exception {
+        S3MultipartProperties properties = new S3MultipartProperties();
+        properties.setPartSize(DataSize.ofBytes(PART_SIZE));
+        properties.setMaxInFlightParts(2);
+        properties.setMaxBuffers(2);
+        S3MultipartUploader bounded = new S3MultipartUploader(s3Client, properties, meterRegistry);
+        BlockingQueue<CompletableFuture<UploadPartResponse>> inFlight = new LinkedBlockingQueue<>();
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class))).thenAnswer(invocation -> {
+            CompletableFuture<UploadPartResponse> part = new CompletableFuture<>();
+            inFlight.add(part);
+            return part;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MultipartUploadResult> first =
+                    executor.submit(() -> bounded.upload(object, new ByteArrayInputStream(content()), null));
+            Future<MultipartUploadResult> second =
+                    executor.submit(() -> bounded.upload(object, new ByteArrayInputStream(content()), null));
+
+            // 2 загрузки по 3 части, но в полёте не больше частей, чем буферов в пуле
+            for (int sent = 0; sent < 6; sent++) {
+                CompletableFuture<UploadPartResponse> part = inFlight.poll(5, TimeUnit.SECONDS);
+                assertNotNull(part, "upload stalled after " + sent + " parts");
+                Thread.sleep(50);
+                assertTrue(inFlight.size() <= 1, "parts in flight: " + (inFlight.size() + 1));
+                part.complete(UploadPartResponse.builder().eTag("\"e\"").build());
+            }
+
+            assertTrue(first.get(5, TimeUnit.SECONDS).completed());
+            assertTrue(second.get(5, TimeUnit.SECONDS).completed());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Two full parts and a short last one
+     */
+    private static byte[] content() {
+        byte[] content = new byte[PART_SIZE * 2 + 1234];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+}
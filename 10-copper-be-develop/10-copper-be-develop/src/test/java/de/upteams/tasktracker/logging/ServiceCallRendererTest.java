@@ -0,0 +1,40 @@
+package de.upteams.tasktracker.logging;
+
+import de.upteams.tasktracker.project.entity.Project;
+import de.upteams.tasktracker.user.dto.ChangePasswordRequestDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceCallRendererTest {
+
+    @Test
+    void render_entityById_withoutToString() {
+        Project project = new Project() {
+            @Override
+            public String toString() {
+                throw new AssertionError("toString must not be called");
+            }
+        };
+
+        assertTrue(ServiceCallRenderer.render(project, 512).endsWith("#null"));
+    }
+
+    @Test
+    void renderArgs_showsOnlySizesAndTypes_andIsCapped() {
+        Object[] args = {List.of(1, 2, 3), Optional.of(7), "x".repeat(100), new byte[5],
+                new ChangePasswordRequestDto("old-secret", "new-secret", "new-secret")};
+
+        String rendered = ServiceCallRenderer.renderArgs(args, 512);
+
+        assertTrue(rendered.contains("[size=3]"));
+        assertTrue(rendered.contains("Optional[7]"));
+        assertTrue(rendered.contains("byte[length=5]"));
+        assertTrue(rendered.contains("ChangePasswordRequestDto"));
+        assertFalse(rendered.contains("secret"));
+        assertEquals(20 + "...".length(), ServiceCallRenderer.renderArgs(args, 20).length());
+    }
+}
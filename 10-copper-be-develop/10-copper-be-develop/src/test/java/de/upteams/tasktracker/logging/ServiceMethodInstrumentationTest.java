@@ -0,0 +1,62 @@
+package de.upteams.tasktracker.logging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceMethodInstrumentationTest {
+
+    private SimpleMeterRegistry registry;
+    private SampleService service;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        ServiceCallLoggingProperties properties = new ServiceCallLoggingProperties();
+        properties.setSampleRate(1.0);
+        properties.getLogPackages().add("de.upteams.tasktracker");
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMethodInstrumentation(registry, properties));
+        service = factory.getProxy();
+    }
+
+    @Test
+    void aroundServiceMethod_recordsLatencyPerMethod() {
+        service.echo("a");
+        service.echo("b");
+
+        assertEquals(2, registry.get("service.method")
+                .tag("class", "SampleService")
+                .tag("method", "echo")
+                .timer()
+                .count());
+    }
+
+    @Test
+    void aroundServiceMethod_countsErrorsByException_andRethrows() {
+        assertThrows(IllegalStateException.class, service::fail);
+
+        assertEquals(1, registry.get("service.method.errors")
+                .tag("method", "fail")
+                .tag("exception", "IllegalStateException")
+                .counter()
+                .count());
+        assertEquals(1, registry.get("service.method").tag("method", "fail").timer().count());
+    }
+
+    static class SampleService {
+
+        public String echo(String value) {
+            return value;
+        }
+
+        public void fail() {
+            throw new IllegalStateException("boom");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package de.upteams.tasktracker.mail;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailSenderTest {
+
+    @RegisterExtension
+    static final GreenMailExtension SMTP = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Test
+    void sendAll_deliversBatchOverOneConnection() throws Exception {
+        EmailSender sender = sender(SMTP.getSmtp().getPort());
+
+        Map<Integer, Exception> failures = sender.sendAll(List.of(
+                new OutgoingEmail("homer@simpsons.com", "Confirm", "<p>1</p>"),
+                new OutgoingEmail("marge@simpsons.com", "Confirm", "<p>2</p>"),
+                new OutgoingEmail("bart@simpsons.com", "Reset", "<p>3</p>")
+        ));
+
+        assertTrue(failures.isEmpty());
+        MimeMessage[] received = SMTP.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("Reset", received[2].getSubject());
+    }
+
+    @Test
+    void sendAll_reportsEveryMessageWhenServerIsUnavailable() {
+        EmailSender sender = sender(SMTP.getSmtp().getPort() + 1);
+
+        Map<Integer, Exception> failures = sender.sendAll(List.of(
+                new OutgoingEmail("homer@simpsons.com", "Confirm", "<p>1</p>"),
+                new OutgoingEmail("marge@simpsons.com", "Confirm", "<p>2</p>")
+        ));
+
+        assertEquals(2, failures.size());
+        assertNotNull(failures.get(0));
+        assertNotNull(failures.get(1));
+    }
+
+    private static EmailSender sender(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        EmailSender sender = new EmailSender(mailSender, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(sender, "senderEmail", "noreply@tasktracker.local");
+        return sender;
+    }
+}
@@ -1,5 +1,6 @@
 package de.upteams.tasktracker.mail;
 
+import de.upteams.tasktracker.mail.outbox.EmailOutbox;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -15,10 +16,10 @@ class EmailServiceTest {
 
     @Test
     void sendConfirmationEmail_buildsLinkWithApiPrefix() {
-        EmailSender emailSender = mock(EmailSender.class);
+        EmailOutbox emailOutbox = mock(EmailOutbox.class);
         TemplateEngine templateEngine = mock(TemplateEngine.class);
 
-        EmailService service = new EmailService(emailSender, templateEngine);
+        EmailService service = new EmailService(emailOutbox, templateEngine);
         ReflectionTestUtils.setField(service, "frontendUrl", "http://localhost:5173");
 
         @SuppressWarnings("unchecked")
@@ -34,7 +35,7 @@ class EmailServiceTest {
         assertEquals("John", model.get("firstName"));
         assertEquals("Doe", model.get("lastName"));
 
-        verify(emailSender).sendEmail(eq("u@ex.com"), anyString(), anyString());
-        verifyNoMoreInteractions(emailSender);
+        verify(emailOutbox).enqueue(eq("u@ex.com"), anyString(), eq("<html/>"), eq("confirm:u@ex.com"));
+        verifyNoMoreInteractions(emailOutbox);
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package de.upteams.tasktracker.mail;
+
+import de.upteams.tasktracker.configuration.FreemarkerConfig;
+import de.upteams.tasktracker.mail.exception.TemplateNotFoundException;
+import de.upteams.tasktracker.mail.exception.TemplateProcessingException;
+import freemarker.template.Configuration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateEngineTest {
+
+    private static final String[] TEMPLATES = {"confirm_registration_mail.ftlh", "password_reset_mail.ftlh"};
+
+    private final Configuration configuration = new FreemarkerConfig().freemarkerConfiguration(true);
+
+    @Test
+    void generateHtml_precompiledOutputEqualsFreemarker() throws Exception {
+        TemplateEngine engine = new TemplateEngine(configuration, new SimpleMeterRegistry(), true, TEMPLATES);
+        Map<String, Object> model = Map.of(
+                "link", "https://tasktracker.local/confirm?code=1&next=\"<x>\"",
+                "firstName", "Homer <script>",
+                "lastName", "O'Simpson"
+        );
+
+        for (String template : TEMPLATES) {
+            String expected = FreeMarkerTemplateUtils.processTemplateIntoString(
+                    configuration.getTemplate(template), model);
+
+            assertEquals(expected, engine.generateHtml(template, model), template);
+            assertEquals(expected, engine.generateHtml(template, model), template + " with pooled buffer");
+        }
+        assertFalse(engine.generateHtml(TEMPLATES[0], model).contains("<script>"));
+    }
+
+    @Test
+    void generateHtml_fallsBackToFreemarkerForIncompleteModel() {
+        TemplateEngine engine = new TemplateEngine(configuration, new SimpleMeterRegistry(), true, TEMPLATES);
+
+        assertThrows(TemplateProcessingException.class,
+                () -> engine.generateHtml("password_reset_mail.ftlh", Map.of("firstName", "Homer")));
+        assertTrue(engine.generateHtml("password_reset_mail.ftlh", Map.of("link", "https://x")).contains("https://x"));
+    }
+
+    @Test
+    void constructor_failsOnMissingPreloadedTemplate() {
+        assertThrows(TemplateNotFoundException.class, () -> new TemplateEngine(
+                configuration, new SimpleMeterRegistry(), true, new String[]{"missing.ftlh"}));
+    }
+}
@@ -0,0 +1,138 @@
+package de.upteams.tasktracker.mail.outbox;
+
+import de.upteams.tasktracker.mail.EmailSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxTest {
+
+    private EmailOutboxRepository repository;
+    private EmailSender emailSender;
+    private PlatformTransactionManager transactionManager;
+    private EmailOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(EmailOutboxRepository.class);
+        emailSender = mock(EmailSender.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        EmailOutboxProperties properties = new EmailOutboxProperties();
+        properties.setMaxAttempts(2);
+        outbox = new EmailOutbox(repository, emailSender, properties, transactionManager,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void sendDueBatch_marksSentAndSchedulesRetries() {
+        EmailOutboxMessage sent = message();
+        EmailOutboxMessage retried = message();
+        EmailOutboxMessage givenUp = message();
+        givenUp.setAttempts(1);
+        List<EmailOutboxMessage> batch = List.of(sent, retried, givenUp);
+        when(repository.lockDue(any(Instant.class), any(Limit.class))).thenReturn(batch);
+        when(repository.findClaimed(anyList(), any(Instant.class))).thenReturn(batch);
+        when(emailSender.sendAll(anyList())).thenReturn(Map.of(
+                1, new IllegalStateException("451 try later"),
+                2, new IllegalStateException("550 no such user")
+        ));
+
+        assertEquals(3, outbox.sendDueBatch());
+
+        assertEquals(OutboxStatus.SENT, sent.getStatus());
+        assertNotNull(sent.getSentAt());
+        assertEquals(OutboxStatus.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertTrue(retried.getNextAttemptAt().isAfter(Instant.now().plusSeconds(29)));
+        assertEquals("451 try later", retried.getLastError());
+        assertEquals(OutboxStatus.FAILED, givenUp.getStatus());
+    }
+
+    @Test
+    void sendDueBatch_sendsOutsideOfClaimAndResultTransactions() {
+        EmailOutboxMessage message = message();
+        when(repository.lockDue(any(Instant.class), any(Limit.class))).thenAnswer(invocation -> {
+            assertEquals(OutboxStatus.PENDING, message.getStatus());
+            return List.of(message);
+        });
+        when(emailSender.sendAll(anyList())).thenAnswer(invocation -> {
+            assertEquals(OutboxStatus.SENDING, message.getStatus());
+            assertTrue(message.getNextAttemptAt().isAfter(Instant.now().plus(Duration.ofMinutes(9))));
+            return Map.of();
+        });
+        when(repository.findClaimed(anyList(), any(Instant.class))).thenReturn(List.of(message));
+
+        outbox.sendDueBatch();
+
+        InOrder inOrder = inOrder(transactionManager, repository, emailSender);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(repository).lockDue(any(Instant.class), any(Limit.class));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(emailSender).sendAll(anyList());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(repository).findClaimed(anyList(), any(Instant.class));
+        inOrder.verify(transactionManager).commit(any());
+        assertEquals(OutboxStatus.SENT, message.getStatus());
+    }
+
+    @Test
+    void sendDueBatch_leavesMessagesClaimedAgainAfterLeaseExpired() {
+        EmailOutboxMessage message = message();
+        when(repository.lockDue(any(Instant.class), any(Limit.class))).thenReturn(List.of(message));
+        when(repository.findClaimed(anyList(), any(Instant.class))).thenReturn(List.of());
+        when(emailSender.sendAll(anyList())).thenReturn(Map.of(0, new IllegalStateException("451 try later")));
+
+        assertEquals(1, outbox.sendDueBatch());
+
+        assertEquals(OutboxStatus.SENDING, message.getStatus());
+        assertEquals(0, message.getAttempts());
+    }
+
+    @Test
+    void enqueue_replacesPendingEmailWithSameKey() {
+        when(repository.deletePending(any())).thenReturn(0, 1);
+
+        outbox.enqueue("homer@simpsons.com", "Confirm", "<p>old</p>", "confirm:homer@simpsons.com");
+        outbox.enqueue("homer@simpsons.com", "Confirm", "<p>new</p>", "confirm:homer@simpsons.com");
+
+        ArgumentCaptor<EmailOutboxMessage> saved = ArgumentCaptor.forClass(EmailOutboxMessage.class);
+        verify(repository, times(2)).save(saved.capture());
+        String key = saved.getAllValues().get(0).getDedupKey();
+        assertEquals(key, saved.getAllValues().get(1).getDedupKey());
+        assertEquals("<p>new</p>", saved.getAllValues().get(1).getHtml());
+        verify(repository, times(2)).deletePending(key);
+    }
+
+    @Test
+    void backoff_doublesUpToMax() {
+        Duration initial = Duration.ofSeconds(30);
+        Duration max = Duration.ofMinutes(5);
+
+        assertEquals(Duration.ofSeconds(30), EmailOutbox.backoff(1, initial, max));
+        assertEquals(Duration.ofSeconds(120), EmailOutbox.backoff(3, initial, max));
+        assertEquals(max, EmailOutbox.backoff(10, initial, max));
+        assertEquals(max, EmailOutbox.backoff(100, initial, max));
+    }
+
+    private static EmailOutboxMessage message() {
+        EmailOutboxMessage message = new EmailOutboxMessage("homer@simpsons.com", "Confirm", "<p/>", "key", Instant.now());
+        ReflectionTestUtils.setField(message, "id", UUID.randomUUID());
+        return message;
+    }
+}
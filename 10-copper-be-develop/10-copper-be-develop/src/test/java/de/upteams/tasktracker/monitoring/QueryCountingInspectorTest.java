@@ -0,0 +1,46 @@
+package de.upteams.tasktracker.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCountingInspectorTest {
+
+    private final QueryCountingInspector inspector = new QueryCountingInspector();
+
+    @AfterEach
+    void tearDown() {
+        RequestQueryStats.finish();
+    }
+
+    @Test
+    void inspect_countsStatementsOfCurrentRequest_andKeepsSql() {
+        RequestQueryStats.start("TaskController.getPage", 2, false, Long.MAX_VALUE);
+
+        assertEquals("select 1", inspector.inspect("select 1"));
+        inspector.inspect("select 2");
+        inspector.inspect("select 3");
+
+        RequestQueryStats stats = RequestQueryStats.finish();
+        assertEquals(3, stats.statements());
+        assertTrue(stats.isOverBudget());
+        assertEquals("select 3", stats.lastSql());
+    }
+
+    @Test
+    void inspect_failsStatementOverBudget_whenEnabled() {
+        RequestQueryStats.start("TaskController.getPage", 1, true, Long.MAX_VALUE);
+        inspector.inspect("select 1");
+
+        QueryBudgetExceededException ex = assertThrows(QueryBudgetExceededException.class,
+                () -> inspector.inspect("select 2"));
+        assertTrue(ex.getMessage().contains("TaskController.getPage"));
+    }
+
+    @Test
+    void inspect_ignoresStatementsOutsideOfRequests() {
+        assertEquals("select 1", inspector.inspect("select 1"));
+        assertNull(RequestQueryStats.current());
+    }
+}
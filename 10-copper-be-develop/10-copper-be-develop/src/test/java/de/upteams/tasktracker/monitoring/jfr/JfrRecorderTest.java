@@ -0,0 +1,57 @@
+package de.upteams.tasktracker.monitoring.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecorderTest {
+
+    private final JfrRecorder recorder = new JfrRecorder(new JfrProperties());
+
+    @AfterEach
+    void tearDown() {
+        recorder.destroy();
+    }
+
+    @Test
+    void stop_returnsRecordingWithApplicationEvents() throws Exception {
+        assertTrue(recorder.start(Duration.ofMinutes(1)).isPresent());
+        assertTrue(recorder.start(Duration.ofMinutes(1)).isEmpty(), "only one on-demand recording at a time");
+
+        ApiRequestEvent event = new ApiRequestEvent();
+        event.begin();
+        event.path = "/api/v1/tasks/{id}";
+        event.userIdHash = RequestTrace.hashUserId(UUID.randomUUID());
+        event.status = 200;
+        event.commit();
+
+        Path file = recorder.stop().orElseThrow();
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(recorded -> recorded.getEventType().getName().equals("de.upteams.tasktracker.ApiRequest"))
+                    .toList();
+            assertEquals(1, events.size());
+            assertEquals("/api/v1/tasks/{id}", events.get(0).getString("path"));
+            assertEquals(16, events.get(0).getString("userIdHash").length());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        assertTrue(recorder.stop().isEmpty());
+    }
+
+    @Test
+    void start_capsDurationByProperties() {
+        JfrRecordingStatus status = recorder.start(Duration.ofDays(1)).orElseThrow();
+
+        assertEquals(new JfrProperties().getMaxDuration(), status.duration());
+    }
+}
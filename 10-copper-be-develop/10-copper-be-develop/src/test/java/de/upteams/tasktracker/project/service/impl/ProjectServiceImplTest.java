@@ -0,0 +1,43 @@
+package de.upteams.tasktracker.project.service.impl;
+
+import de.upteams.tasktracker.project.dto.request.ProjectCreateDto;
+import de.upteams.tasktracker.project.entity.Project;
+import de.upteams.tasktracker.project.persistence.ProjectRepository;
+import de.upteams.tasktracker.project.utils.ProjectMapper;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.entity.ConfirmationStatus;
+import de.upteams.tasktracker.user.entity.Role;
+import de.upteams.tasktracker.user.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProjectServiceImplTest {
+
+    @Test
+    void save_setsLoadedUserAsOwnerInsteadOfPrincipal() {
+        ProjectRepository repository = mock(ProjectRepository.class);
+        ProjectMapper mapper = mock(ProjectMapper.class);
+        UserService userService = mock(UserService.class);
+        UUID id = UUID.randomUUID();
+        // principal, восстановленный из claims токена: без профиля
+        AppUser principal = AppUser.fromTokenClaims(id, "homer@example.com", Role.ROLE_USER,
+                ConfirmationStatus.CONFIRMED, 0);
+        AppUser stored = new AppUser();
+        ProjectCreateDto dto = mock(ProjectCreateDto.class);
+        when(mapper.mapDtoToEntity(dto)).thenReturn(new Project());
+        when(userService.getByIdOrThrow(id.toString())).thenReturn(stored);
+        when(repository.save(any(Project.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        new ProjectServiceImpl(repository, mapper, userService).save(dto, principal);
+
+        ArgumentCaptor<Project> saved = ArgumentCaptor.forClass(Project.class);
+        verify(repository).save(saved.capture());
+        assertSame(stored, saved.getValue().getOwner());
+    }
+}
@@ -0,0 +1,91 @@
+package de.upteams.tasktracker.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Hs256JwtCodecTest {
+
+    private static final SecretKey OLD_KEY = Keys.hmacShaKeyFor(Decoders.BASE64.decode(
+            "eW91ci0yNTYtYml0LXNlY3JldC1mb3ItYWNjZXNzLXRva2VuLTAxMjM0NTY3ODlhYmNkZWY="));
+    private static final SecretKey NEW_KEY = Keys.hmacShaKeyFor(Decoders.BASE64.decode(
+            "eW91ci0yNTYtYml0LXNlY3JldC1mb3ItcmVmcmVzaC10b2tlbi1hYmNkZWYwMTIzNDU2Nzg5"));
+    private static final long NOW = 1_700_000_000L;
+
+    private static final TokenClaims CLAIMS = new TokenClaims(
+            "homer\"simpson\"@simpsons.com", "c0ffee00-0000-0000-0000-000000000001",
+            "ROLE_USER", "CONFIRMED", 7, NOW + 600);
+
+    @Test
+    void signAndVerify_roundTrip() {
+        Hs256JwtCodec codec = new Hs256JwtCodec(List.of(NEW_KEY));
+
+        assertEquals(CLAIMS, codec.verify(codec.sign(CLAIMS), NOW).orElseThrow());
+    }
+
+    @Test
+    void verify_acceptsTokenOfPreviousKeyAfterRotation() {
+        String oldToken = new Hs256JwtCodec(List.of(OLD_KEY)).sign(CLAIMS);
+
+        assertTrue(new Hs256JwtCodec(List.of(NEW_KEY, OLD_KEY)).verify(oldToken, NOW).isPresent());
+        assertTrue(new Hs256JwtCodec(List.of(NEW_KEY)).verify(oldToken, NOW).isEmpty());
+    }
+
+    @Test
+    void verify_acceptsTokenIssuedByJjwt() {
+        String jjwtToken = Jwts.builder()
+                .subject("homer@simpsons.com")
+                .claim("ver", 2)
+                .expiration(new Date((NOW + 600) * 1000))
+                .signWith(OLD_KEY, Jwts.SIG.HS256)
+                .compact();
+
+        TokenClaims claims = new Hs256JwtCodec(List.of(NEW_KEY, OLD_KEY)).verify(jjwtToken, NOW).orElseThrow();
+
+        assertEquals("homer@simpsons.com", claims.subject());
+        assertEquals(2, claims.tokenVersion());
+        assertNull(claims.userId());
+    }
+
+    @Test
+    void verify_rejectsExpiredAndForgedTokens() {
+        Hs256JwtCodec codec = new Hs256JwtCodec(List.of(NEW_KEY));
+        String token = codec.sign(CLAIMS);
+        String forged = new Hs256JwtCodec(List.of(OLD_KEY)).sign(CLAIMS);
+        String adminToken = codec.sign(new TokenClaims(CLAIMS.subject(), CLAIMS.userId(),
+                "ROLE_ADMIN", CLAIMS.confirmationStatus(), CLAIMS.tokenVersion(), CLAIMS.expiresAt()));
+        String tampered = adminToken.substring(0, adminToken.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+
+        assertTrue(codec.verify(token, NOW + 600).isEmpty());
+        assertTrue(codec.verify(forged, NOW).isEmpty());
+        assertTrue(codec.verify(tampered, NOW).isEmpty());
+        assertTrue(codec.verify("not.a.token", NOW).isEmpty());
+    }
+
+    @Test
+    void verify_readsTokensLongerThanThreadBuffers() {
+        Hs256JwtCodec codec = new Hs256JwtCodec(List.of(NEW_KEY));
+        TokenClaims longClaims = new TokenClaims("homer".repeat(200) + "@simpsons.com", CLAIMS.userId(),
+                CLAIMS.role(), CLAIMS.confirmationStatus(), CLAIMS.tokenVersion(), CLAIMS.expiresAt());
+
+        assertEquals(longClaims, codec.verify(codec.sign(longClaims), NOW).orElseThrow());
+        assertEquals(CLAIMS, codec.verify(codec.sign(CLAIMS), NOW).orElseThrow());
+    }
+
+    @Test
+    void verify_rejectsNonAsciiAndNonCanonicalSegments() {
+        Hs256JwtCodec codec = new Hs256JwtCodec(List.of(NEW_KEY));
+        String token = codec.sign(CLAIMS);
+        int firstDot = token.indexOf('.');
+
+        assertTrue(codec.verify(token.substring(0, firstDot + 1) + "\u00e9" + token.substring(firstDot + 2), NOW).isEmpty());
+        assertTrue(codec.verify(token.substring(0, firstDot + 1) + "=" + token.substring(firstDot + 2), NOW).isEmpty());
+    }
+}
@@ -0,0 +1,87 @@
+package de.upteams.tasktracker.security.password;
+
+import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_roundTrip() {
+        encoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofSeconds(5));
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    void upgradeEncoding_detectsLowerCostFactor() {
+        encoder = new BoundedPasswordEncoder(5, 1, 1, Duration.ofSeconds(5));
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    void upgradeEncoding_neverLowersCostAboveConfiguredMinimum() {
+        encoder = new BoundedPasswordEncoder(6, 5, 1, 1, Duration.ofSeconds(5));
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("secret")));
+    }
+
+    @Test
+    void constructor_rejectsMinimumAboveStrength() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedPasswordEncoder(5, 6, 1, 1, Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void encode_rejectedWith503WhenQueueIsFull() throws InterruptedException {
+        encoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        // занимаем единственный поток и место в очереди
+        encoder.getExecutor().execute(() -> awaitQuietly(release));
+        encoder.getExecutor().execute(() -> awaitQuietly(release));
+
+        RestApiException ex = assertThrows(RestApiException.class, () -> encoder.encode("secret"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getHttpStatus());
+        release.countDown();
+    }
+
+    @Test
+    void calibrator_doublesCostWhileTargetAllows() {
+        long ms = 1_000_000L;
+        assertEquals(10, BcryptCostCalibrator.strengthFor(250 * ms, 300 * ms, 10, 14));
+        assertEquals(12, BcryptCostCalibrator.strengthFor(250 * ms, 60 * ms, 10, 14));
+        assertEquals(14, BcryptCostCalibrator.strengthFor(250 * ms, 1 * ms, 10, 14));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
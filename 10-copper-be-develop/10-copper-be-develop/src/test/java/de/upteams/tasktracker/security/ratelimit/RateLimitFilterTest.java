@@ -0,0 +1,172 @@
+package de.upteams.tasktracker.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class RateLimitFilterTest {
+
+    private static final String LOGIN = "/api/v1/auth/login";
+    private static final String FORGOT = "/api/v1/password/forgot";
+
+    private SimpleMeterRegistry meterRegistry;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(
+                route(LOGIN, 2, 0),
+                route(FORGOT, 100, 1)
+        ));
+        meterRegistry = new SimpleMeterRegistry();
+        RateLimitFilter filter = new RateLimitFilter(properties, new ObjectMapper(), meterRegistry);
+        mockMvc = MockMvcBuilders.standaloneSetup(new EchoController())
+                .addFilters(chunkedTransferEncoding(), filter)
+                .build();
+    }
+
+    @Test
+    void rejectsWithRetryAfterWhenIpBucketIsEmpty() throws Exception {
+        mockMvc.perform(json(LOGIN, "a@ex.com")).andExpect(status().isOk());
+        mockMvc.perform(json(LOGIN, "b@ex.com")).andExpect(status().isOk());
+
+        mockMvc.perform(json(LOGIN, "c@ex.com"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "60"))
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.path").value(LOGIN));
+        assertEquals(1, meterRegistry.get("security.rate_limit.rejected").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    void otherClientIpHasOwnBucket() throws Exception {
+        mockMvc.perform(json(LOGIN, "a@ex.com")).andExpect(status().isOk());
+        mockMvc.perform(json(LOGIN, "a@ex.com")).andExpect(status().isOk());
+
+        mockMvc.perform(json(LOGIN, "a@ex.com").with(request -> {
+            request.setRemoteAddr("10.0.0.2");
+            return request;
+        })).andExpect(status().isOk());
+    }
+
+    @Test
+    void pathVariantsShareBucketOfRoute() throws Exception {
+        mockMvc.perform(json(LOGIN, "a@ex.com")).andExpect(status().isOk());
+        // без trailing-slash-matching контроллер отвечает 404, но запрос всё равно расходует токен
+        mockMvc.perform(json(LOGIN + "/", "a@ex.com")).andExpect(status().isNotFound());
+
+        mockMvc.perform(json("/api//v1/auth/login/", "a@ex.com")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(json("/api/v1/auth/login;jsessionid=1", "a@ex.com")).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void limitsEmailFromChunkedBodyAndPassesBodyToController() throws Exception {
+        mockMvc.perform(chunked(json(FORGOT, "Homer@Example.com")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("Homer@Example.com"));
+
+        mockMvc.perform(chunked(json(FORGOT, "homer@example.com")).with(request -> {
+                    request.setRemoteAddr("10.0.0.2");
+                    return request;
+                }))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        assertEquals(1, meterRegistry.get("security.rate_limit.rejected").tag("key", "email").counter().count());
+    }
+
+    @Test
+    void rejectsChunkedBodyOverLimit() throws Exception {
+        String padding = " ".repeat(RateLimitFilter.MAX_INSPECTED_BODY);
+
+        mockMvc.perform(chunked(post(FORGOT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(padding + "{\"email\":\"homer@example.com\"}")))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void rejectsDeclaredBodyOverLimit() throws Exception {
+        mockMvc.perform(post(FORGOT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new byte[RateLimitFilter.MAX_INSPECTED_BODY + 1]))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void normalizePath_removesRepeatedAndTrailingSlashes() {
+        assertEquals(LOGIN, RateLimitFilter.normalizePath("//api/v1//auth/login//"));
+        assertEquals("/", RateLimitFilter.normalizePath("/"));
+    }
+
+    private static RateLimitProperties.Route route(String path, int ipCapacity, int emailCapacity) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPath(path);
+        route.setIpCapacity(ipCapacity);
+        route.setIpRefillPerMinute(1);
+        route.setEmailCapacity(emailCapacity);
+        route.setEmailRefillPerMinute(1);
+        return route;
+    }
+
+    private static MockHttpServletRequestBuilder json(String path, String email) {
+        return post(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"secret\"}");
+    }
+
+    private static MockHttpServletRequestBuilder chunked(MockHttpServletRequestBuilder builder) {
+        return builder.header("Transfer-Encoding", "chunked");
+    }
+
+    /**
+     * MockMvc always knows the content length, as the container does not for chunked requests
+     */
+    private static Filter chunkedTransferEncoding() {
+        return (request, response, chain) -> {
+            HttpServletRequest http = (HttpServletRequest) request;
+            if (!"chunked".equals(http.getHeader("Transfer-Encoding"))) {
+                chain.doFilter(request, response);
+                return;
+            }
+            chain.doFilter(new HttpServletRequestWrapper(http) {
+                @Override
+                public int getContentLength() {
+                    return -1;
+                }
+
+                @Override
+                public long getContentLengthLong() {
+                    return -1;
+                }
+            }, response);
+        };
+    }
+
+    @RestController
+    static class EchoController {
+
+        @PostMapping({LOGIN, FORGOT})
+        Map<String, String> echo(@RequestBody Map<String, String> body) {
+            return body;
+        }
+    }
+}
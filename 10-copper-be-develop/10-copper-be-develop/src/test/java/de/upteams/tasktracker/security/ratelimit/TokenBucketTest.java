@@ -0,0 +1,41 @@
+package de.upteams.tasktracker.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryConsume_allowsBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, SECOND, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(0) > 0);
+    }
+
+    @Test
+    void tryConsume_returnsTimeUntilNextToken() {
+        TokenBucket bucket = new TokenBucket(1, SECOND, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(SECOND / 2, bucket.tryConsume(SECOND / 2));
+        assertEquals(0, bucket.tryConsume(SECOND));
+    }
+
+    @Test
+    void tryConsume_refillsNotAboveCapacity() {
+        TokenBucket bucket = new TokenBucket(2, SECOND, 0);
+
+        long later = 100 * SECOND;
+        assertEquals(0, bucket.tryConsume(later));
+        assertEquals(0, bucket.tryConsume(later));
+        assertTrue(bucket.tryConsume(later) > 0);
+    }
+}
@@ -0,0 +1,68 @@
+package de.upteams.tasktracker.security.service;
+
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.persistence.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CustomUserDetailsServiceTest {
+
+    private static final String EMAIL = "homer@simpsons.com";
+
+    private UserRepository repository;
+    private CustomUserDetailsService service;
+    private AppUser user;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserRepository.class);
+        service = new CustomUserDetailsService(repository, new SimpleMeterRegistry(), 100, 60);
+        user = new AppUser("old-hash", EMAIL, "Homer", "Simpson");
+        when(repository.findByEmailNormalized(EMAIL)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void loadUserByUsername_queriesDatabaseOnceAndReturnsOwnCopies() {
+        AuthUserDetails first = (AuthUserDetails) service.loadUserByUsername(EMAIL);
+        first.user().setPassword("changed-by-caller");
+        AuthUserDetails second = (AuthUserDetails) service.loadUserByUsername("Homer@Simpsons.com");
+
+        assertNotSame(first.user(), second.user());
+        assertNotSame(user, second.user());
+        assertEquals("old-hash", second.getPassword());
+        verify(repository, times(1)).findByEmailNormalized(EMAIL);
+    }
+
+    @Test
+    void updatePassword_evictsCachedPrincipal() {
+        UserDetails cached = service.loadUserByUsername(EMAIL);
+
+        service.updatePassword(cached, "new-hash");
+
+        assertEquals("new-hash", service.loadUserByUsername(EMAIL).getPassword());
+        // поиск при загрузке, при смене пароля и снова после вытеснения
+        verify(repository, times(3)).findByEmailNormalized(EMAIL);
+    }
+
+    @Test
+    void evictUser_loadsChangedCredentialsOnNextLookup() {
+        service.loadUserByUsername(EMAIL);
+        AppUser changed = new AppUser("reset-hash", EMAIL, "Homer", "Simpson");
+        changed.incrementTokenVersion();
+        when(repository.findByEmailNormalized(EMAIL)).thenReturn(Optional.of(changed));
+
+        assertEquals("old-hash", service.loadUserByUsername(EMAIL).getPassword());
+        service.evictUser("HOMER@simpsons.com");
+
+        AuthUserDetails reloaded = (AuthUserDetails) service.loadUserByUsername(EMAIL);
+        assertEquals("reset-hash", reloaded.getPassword());
+        assertEquals(changed.getTokenVersion(), reloaded.user().getTokenVersion());
+    }
+}
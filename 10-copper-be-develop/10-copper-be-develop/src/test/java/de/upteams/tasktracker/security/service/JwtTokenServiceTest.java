@@ -1,26 +1,130 @@
 package de.upteams.tasktracker.security.service;
 
-
+import de.upteams.tasktracker.security.jwt.TokenClaims;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.entity.ConfirmationStatus;
+import de.upteams.tasktracker.user.entity.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 class JwtTokenServiceTest {
 
+    private static final String ACCESS_SECRET = "eW91ci0yNTYtYml0LXNlY3JldC1mb3ItYWNjZXNzLXRva2VuLTAxMjM0NTY3ODlhYmNkZWY=";
+    private static final String REFRESH_SECRET = "eW91ci0yNTYtYml0LXNlY3JldC1mb3ItcmVmcmVzaC10b2tlbi1hYmNkZWYwMTIzNDU2Nzg5";
+
     @Test
     void shouldCreateKeysWithValidSecrets() {
         String base64Secret_1 = "eW91ci0yNTYtYml0LXNlY3JldC1mb3ItYWNjZXNzLXRva2VuLTAxMjM0NTY3ODlhYmNkZWY==";
         String base64Secret_2 = "eW91ci0yNTYtYml0LXNlY3JldC1mb3ItcmVmcmVzaC10b2tlbi1hYmNkZWYwMTIzNDU2Nzg5";
-        assertDoesNotThrow(() -> new JwtTokenService(base64Secret_1, base64Secret_2));
+        assertDoesNotThrow(() -> new JwtTokenService(base64Secret_1, base64Secret_2, new SimpleMeterRegistry()));
     }
 
     @Test
     void shouldThrowOnShortSecret() {
         String shortSecret = Base64.getEncoder().encodeToString("short".getBytes());
         assertThrows(IllegalArgumentException.class,
-                () -> new JwtTokenService(shortSecret, shortSecret));
+                () -> new JwtTokenService(shortSecret, shortSecret, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void verifyToken_returnsSameClaimsForRepeatedToken() {
+        JwtTokenService service = createService();
+        String token = service.generateAccessToken(homer());
+
+        Optional<TokenClaims> first = service.verifyToken(token, JwtTokenService.TokenType.ACCESS);
+        Optional<TokenClaims> second = service.verifyToken(token, JwtTokenService.TokenType.ACCESS);
+
+        assertTrue(first.isPresent());
+        assertEquals("homer@simpsons.com", first.get().subject());
+        assertSame(first.get(), second.orElseThrow());
+    }
+
+    @Test
+    void verifyToken_rejectsTokenOfAnotherType() {
+        JwtTokenService service = createService();
+        String refreshToken = service.generateRefreshToken(homer());
+
+        assertTrue(service.verifyToken(refreshToken, JwtTokenService.TokenType.REFRESH).isPresent());
+        assertTrue(service.verifyToken(refreshToken, JwtTokenService.TokenType.ACCESS).isEmpty());
+    }
+
+    @Test
+    void verifyToken_rejectsTamperedToken() {
+        JwtTokenService service = createService();
+        String token = service.generateAccessToken(homer());
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertTrue(service.verifyToken(tampered, JwtTokenService.TokenType.ACCESS).isEmpty());
+        assertFalse(service.validateToken(tampered, JwtTokenService.TokenType.ACCESS));
+    }
+
+    @Test
+    void extractPrincipal_restoresUserFromAccessTokenClaims() {
+        JwtTokenService service = createService();
+        UUID userId = UUID.randomUUID();
+        AppUser user = AppUser.fromTokenClaims(userId, "homer@simpsons.com",
+                Role.ROLE_USER, ConfirmationStatus.CONFIRMED, 3);
+        TokenClaims claims = service.verifyToken(service.generateAccessToken(user), JwtTokenService.TokenType.ACCESS)
+                .orElseThrow();
+
+        AppUser restored = service.extractPrincipal(claims).orElseThrow().user();
+
+        assertEquals(userId, restored.getId());
+        assertEquals("homer@simpsons.com", restored.getEmail());
+        assertEquals(Role.ROLE_USER, restored.getRole());
+        assertEquals(ConfirmationStatus.CONFIRMED, restored.getConfirmationStatus());
+        assertEquals(3, service.getTokenVersion(claims));
+    }
+
+    @Test
+    void extractPrincipal_isEmptyForTokenWithoutUserClaims() {
+        JwtTokenService service = createService();
+        TokenClaims claims = service.verifyToken(service.generateRefreshToken(homer()), JwtTokenService.TokenType.REFRESH)
+                .orElseThrow();
+
+        assertTrue(service.extractPrincipal(claims).isEmpty());
+    }
+
+    @Test
+    void verifyToken_recordsCacheHitsAndInvalidTokens() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JwtTokenService service = new JwtTokenService(ACCESS_SECRET, REFRESH_SECRET,
+                new String[0], new String[0], 100, registry);
+        ReflectionTestUtils.setField(service, "accessTokenLiveInMinutes", 10);
+        String token = service.generateAccessToken(homer());
+
+        service.verifyToken(token, JwtTokenService.TokenType.ACCESS);
+        service.verifyToken(token, JwtTokenService.TokenType.ACCESS);
+        service.verifyToken("not.a.token", JwtTokenService.TokenType.ACCESS);
+
+        assertEquals(1, verifyCount(registry, "hit", "valid"));
+        assertEquals(1, verifyCount(registry, "miss", "valid"));
+        assertEquals(1, verifyCount(registry, "miss", "invalid"));
+        assertEquals(1, registry.get("security.jwt.sign").tag("type", "access").timer().count());
+    }
+
+    private static long verifyCount(SimpleMeterRegistry registry, String cache, String result) {
+        return registry.get("security.jwt.verify")
+                .tags("type", "access", "cache", cache, "result", result)
+                .timer()
+                .count();
+    }
+
+    private static AppUser homer() {
+        return new AppUser("pwd", "homer@simpsons.com", "Homer", "Simpson");
+    }
+
+    private JwtTokenService createService() {
+        JwtTokenService service = new JwtTokenService(ACCESS_SECRET, REFRESH_SECRET, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "accessTokenLiveInMinutes", 10);
+        ReflectionTestUtils.setField(service, "refreshTokenLiveInMinutes", 60);
+        return service;
     }
 }
@@ -0,0 +1,110 @@
+package de.upteams.tasktracker.security.service;
+
+import de.upteams.tasktracker.user.persistence.TokenVersionView;
+import de.upteams.tasktracker.user.persistence.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenVersionRegistryTest {
+
+    private static final long ACCESS_TOKEN_MINUTES = 10;
+
+    private UserRepository repository;
+    private TokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserRepository.class);
+        registry = new TokenVersionRegistry(repository, true, ACCESS_TOKEN_MINUTES);
+    }
+
+    @Test
+    void refresh_readsOnlyVersionsChangedSincePreviousRefresh() {
+        UUID userId = UUID.randomUUID();
+        when(repository.findTokenVersionsRevokedSince(any()))
+                .thenReturn(List.of(view(userId, 2, Instant.now())));
+
+        Instant before = Instant.now();
+        registry.refresh();
+        registry.refresh();
+
+        assertFalse(registry.isCurrent(userId, 1));
+        assertTrue(registry.isCurrent(userId, 2));
+        verify(repository, times(1)).findTokenVersionsRevokedSince(any());
+        ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+        verify(repository).findTokenVersionsChangedSince(since.capture());
+        assertFalse(since.getValue().isBefore(before.minus(TokenVersionRegistry.REFRESH_OVERLAP)));
+    }
+
+    @Test
+    void refresh_dropsRevocationsOlderThanAccessTokenLifetime() {
+        UUID recent = UUID.randomUUID();
+        UUID expired = UUID.randomUUID();
+        Instant longAgo = Instant.now()
+                .minus(Duration.ofMinutes(ACCESS_TOKEN_MINUTES))
+                .minus(TokenVersionRegistry.REFRESH_OVERLAP)
+                .minusSeconds(1);
+        when(repository.findTokenVersionsRevokedSince(any()))
+                .thenReturn(List.of(view(recent, 3, Instant.now()), view(expired, 5, longAgo)));
+
+        registry.refresh();
+
+        assertEquals(1, registry.size());
+        assertFalse(registry.isCurrent(recent, 2));
+        assertTrue(registry.isCurrent(expired, 0));
+    }
+
+    @Test
+    void update_keepsHighestVersionAndIgnoresOldRevocations() {
+        UUID userId = UUID.randomUUID();
+
+        registry.update(userId, 4, Instant.now());
+        registry.update(userId, 3, Instant.now());
+        registry.update(UUID.randomUUID(), 7, Instant.now().minus(Duration.ofDays(1)));
+        registry.update(UUID.randomUUID(), 7, null);
+
+        assertEquals(1, registry.size());
+        assertFalse(registry.isCurrent(userId, 3));
+        assertTrue(registry.isCurrent(userId, 4));
+    }
+
+    @Test
+    void refresh_doesNothingOutsideStatelessMode() {
+        registry = new TokenVersionRegistry(repository, false, ACCESS_TOKEN_MINUTES);
+
+        registry.update(UUID.randomUUID(), 1, Instant.now());
+        registry.refresh();
+
+        assertEquals(0, registry.size());
+        verifyNoInteractions(repository);
+    }
+
+    private static TokenVersionView view(UUID id, int tokenVersion, Instant updatedAt) {
+        return new TokenVersionView() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public int getTokenVersion() {
+                return tokenVersion;
+            }
+
+            @Override
+            public Instant getTokenVersionUpdatedAt() {
+                return updatedAt;
+            }
+        };
+    }
+}
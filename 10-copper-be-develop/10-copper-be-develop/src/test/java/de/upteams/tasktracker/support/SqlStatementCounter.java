@@ -0,0 +1,34 @@
+package de.upteams.tasktracker.support;
+
+import de.upteams.tasktracker.monitoring.QueryCountingInspector;
+import de.upteams.tasktracker.monitoring.RequestQueryStats;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts JDBC statements prepared by Hibernate while an action runs, so tests can pin the number of queries
+ * of a read path. Requires {@link QueryCountingInspector} as the statement inspector, like the application.
+ */
+public final class SqlStatementCounter {
+
+    private SqlStatementCounter() {
+    }
+
+    /**
+     * Runs the action and fails if it prepared a different number of statements.
+     */
+    public static <T> T assertStatements(int expected, Supplier<T> action) {
+        final RequestQueryStats stats = RequestQueryStats.start("test", Integer.MAX_VALUE, false, Long.MAX_VALUE);
+        final T result;
+        try {
+            result = action.get();
+        } finally {
+            RequestQueryStats.finish();
+        }
+        assertEquals(expected, stats.statements(),
+                () -> "Unexpected number of SQL statements, the last one: " + stats.lastSql());
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+package de.upteams.tasktracker.task;
+
+import de.upteams.tasktracker.collaborator.entity.Collaborator;
+import de.upteams.tasktracker.collaborator.entity.ProjectRoles;
+import de.upteams.tasktracker.collaborator.service.impl.ProjectMembershipCache;
+import de.upteams.tasktracker.collaborator.service.interfaces.CollaboratorService;
+import de.upteams.tasktracker.project.entity.Project;
+import de.upteams.tasktracker.project.service.impl.ProjectServiceImpl;
+import de.upteams.tasktracker.project.utils.ProjectMapperImpl;
+import de.upteams.tasktracker.security.service.TokenVersionRegistry;
+import de.upteams.tasktracker.task.dto.TaskDto;
+import de.upteams.tasktracker.task.dto.TaskPageDto;
+import de.upteams.tasktracker.task.entity.Task;
+import de.upteams.tasktracker.task.service.impl.TaskServiceImpl;
+import de.upteams.tasktracker.task.utils.TaskMappingServiceImpl;
+import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.service.UserService;
+import de.upteams.tasktracker.user.util.AppUserMapperImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.upteams.tasktracker.support.SqlStatementCounter.assertStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pins the number of SQL statements of task and project read endpoints,
+ * so a new lazy association touched in a mapper shows up as a failing test instead of N+1 in production.
+ * Access checks are mocked, they are served by {@link ProjectMembershipCache} in the application.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:read-path;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "de.upteams.tasktracker.monitoring.QueryCountingInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({
+        TaskServiceImpl.class,
+        ProjectServiceImpl.class,
+        TaskMappingServiceImpl.class,
+        ProjectMapperImpl.class,
+        AppUserMapperImpl.class
+})
+class ReadPathQueryCountTest {
+
+    private static final int TASKS = 6;
+    private static final int PROJECTS = 4;
+
+    @MockitoBean
+    private CollaboratorService collaboratorService;
+    @MockitoBean
+    private ProjectMembershipCache membershipCache;
+    @MockitoBean
+    private TokenVersionRegistry tokenVersionRegistry;
+    @MockitoBean
+    private UserService userService;
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private TaskServiceImpl taskService;
+    @Autowired
+    private ProjectServiceImpl projectService;
+
+    private AppUser user;
+    private Project project;
+    private final List<Task> tasks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(collaboratorService.isUserInProject(any(), any())).thenReturn(true);
+
+        for (int p = 0; p < PROJECTS; p++) {
+            AppUser owner = em.persist(new AppUser("secret", "owner" + p + "@simpsons.com", "Owner", "Simpson"));
+            project = em.persist(new Project("Project " + p, null, owner));
+        }
+        user = em.persist(new AppUser("secret", "homer@simpsons.com", "Homer", "Simpson"));
+        List<Collaborator> team = new ArrayList<>();
+        for (int c = 0; c < 2; c++) {
+            AppUser member = em.persist(new AppUser("secret", "member" + c + "@simpsons.com", "Bart", "Simpson"));
+            Collaborator collaborator = new Collaborator();
+            collaborator.setAppUser(member);
+            collaborator.setProject(project);
+            collaborator.getProjectRolesSet().add(ProjectRoles.MEMBER);
+            team.add(em.persist(collaborator));
+        }
+        for (int t = 0; t < TASKS; t++) {
+            Task task = new Task("Task " + (char) ('A' + t), project);
+            task.getExecutors().addAll(team);
+            tasks.add(em.persist(task));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void getTaskPage_usesConstantNumberOfStatements() {
+        // проект + страница задач
+        TaskPageDto page = assertStatements(2,
+                () -> taskService.getPage(project.getId().toString(), null, TASKS - 1, user));
+
+        assertEquals(TASKS - 1, page.getItems().size());
+    }
+
+    @Test
+    void getAllTasksUnpaged_usesConstantNumberOfStatements() {
+        List<TaskDto> all = assertStatements(2,
+                () -> taskService.getAll(project.getId().toString(), user));
+
+        assertEquals(TASKS, all.size());
+    }
+
+    @Test
+    void getTaskById_usesOneStatement() {
+        TaskDto task = assertStatements(1,
+                () -> taskService.getById(tasks.get(0).getId().toString()));
+
+        assertEquals("Task A", task.getTitle());
+    }
+
+    @Test
+    void getAllProjects_usesOneStatement() {
+        assertEquals(PROJECTS, assertStatements(1, () -> projectService.getAll()).size());
+    }
+
+    @Test
+    void getProjectById_usesOneStatement() {
+        assertStatements(1, () -> projectService.getById(project.getId().toString()));
+    }
+}
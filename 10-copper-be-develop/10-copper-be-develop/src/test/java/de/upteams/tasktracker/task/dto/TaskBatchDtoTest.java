@@ -0,0 +1,52 @@
+package de.upteams.tasktracker.task.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskBatchDtoTest {
+
+    private static final String PROJECT_ID = "7c1e6a3b-2f4d-4b8e-9c0a-1d2e3f4a5b6c";
+
+    private static Validator validator;
+
+    @BeforeAll
+    static void init() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+    }
+
+    @Test
+    void deleteBatch_rejectsNullId() {
+        var dto = new TaskBatchDeleteDto(PROJECT_ID, Arrays.asList("0d6f4a6e-5f9b-4c1e-9a51-2d8a4c9f1b7e", null));
+
+        Set<ConstraintViolation<TaskBatchDeleteDto>> v = validator.validate(dto);
+
+        assertEquals(1, v.size());
+        assertEquals("ids[1].<list element>", v.iterator().next().getPropertyPath().toString());
+    }
+
+    @Test
+    void requestBatch_rejectsNullTask() {
+        var dto = new TaskBatchRequestDto(PROJECT_ID, Arrays.asList(new TaskBatchItemDto(null, "Title", null), null));
+
+        Set<ConstraintViolation<TaskBatchRequestDto>> v = validator.validate(dto);
+
+        assertEquals(1, v.size());
+        assertEquals("tasks[1].<list element>", v.iterator().next().getPropertyPath().toString());
+    }
+
+    @Test
+    void batches_withoutNullItems_areValid() {
+        assertTrue(validator.validate(new TaskBatchDeleteDto(PROJECT_ID, List.of("not-a-uuid"))).isEmpty());
+        assertTrue(validator.validate(
+                new TaskBatchRequestDto(PROJECT_ID, List.of(new TaskBatchItemDto(null, null, null)))).isEmpty());
+    }
+}
@@ -0,0 +1,209 @@
+package de.upteams.tasktracker.task.service.impl;
+
+import de.upteams.tasktracker.collaborator.service.interfaces.CollaboratorService;
+import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
+import de.upteams.tasktracker.project.entity.Project;
+import de.upteams.tasktracker.project.service.interfaces.ProjectService;
+import de.upteams.tasktracker.task.dto.TaskBatchDeleteDto;
+import de.upteams.tasktracker.task.dto.TaskBatchItemDto;
+import de.upteams.tasktracker.task.dto.TaskBatchRequestDto;
+import de.upteams.tasktracker.task.dto.TaskBatchResultDto;
+import de.upteams.tasktracker.task.dto.TaskPageDto;
+import de.upteams.tasktracker.task.entity.Task;
+import de.upteams.tasktracker.task.persistence.TaskRepository;
+import de.upteams.tasktracker.task.utils.TaskCursor;
+import de.upteams.tasktracker.task.utils.TaskMappingService;
+import de.upteams.tasktracker.task.utils.TaskNdjsonWriter;
+import de.upteams.tasktracker.user.entity.AppUser;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TaskServiceImplTest {
+
+    private static final String PROJECT_ID = UUID.randomUUID().toString();
+
+    private TaskRepository repository;
+    private CollaboratorService collaboratorService;
+    private EntityManager entityManager;
+    private TaskServiceImpl service;
+    private Project project;
+    private final AppUser user = new AppUser();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TaskRepository.class);
+        collaboratorService = mock(CollaboratorService.class);
+        entityManager = mock(EntityManager.class);
+        ProjectService projectService = mock(ProjectService.class);
+        project = mock(Project.class);
+        when(project.getId()).thenReturn(UUID.fromString(PROJECT_ID));
+        when(projectService.getOrTrow(PROJECT_ID)).thenReturn(project);
+        when(collaboratorService.isUserInProject(user, project)).thenReturn(true);
+        when(collaboratorService.hasUserPermission(eq(user), eq(project), anyCollection())).thenReturn(true);
+        service = new TaskServiceImpl(repository, mock(TaskMappingService.class), projectService,
+                collaboratorService, entityManager, Validation.buildDefaultValidatorFactory().getValidator(),
+                2, 3, 3, 2, 1);
+    }
+
+    @Test
+    void getPage_returnsCursorOfLastTask_whenMoreTasksExist() {
+        Task first = task(1);
+        Task second = task(2);
+        Task third = task(3);
+        when(repository.findFirstPage(project.getId(), Limit.of(3))).thenReturn(List.of(first, second, third));
+
+        TaskPageDto page = service.getPage(PROJECT_ID, null, null, user);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(TaskCursor.of(second), TaskCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void getPage_continuesAfterCursor_andEndsOnLastPage() {
+        TaskCursor cursor = TaskCursor.of(task(2));
+        Task third = task(3);
+        when(repository.findPageAfter(project.getId(), cursor.createdAt(), cursor.id(), Limit.of(4)))
+                .thenReturn(List.of(third));
+
+        TaskPageDto page = service.getPage(PROJECT_ID, cursor.encode(), 3, user);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getPage_rejectsPageSizeOutOfLimits() {
+        assertThrows(RestApiException.class, () -> service.getPage(PROJECT_ID, null, 0, user));
+        assertThrows(RestApiException.class, () -> service.getPage(PROJECT_ID, null, 4, user));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void exportTasks_writesEveryPageAndClearsPersistenceContext() throws Exception {
+        Task first = task(1);
+        Task second = task(2);
+        Task third = task(3);
+        when(repository.findFirstPage(project.getId(), Limit.of(2))).thenReturn(List.of(first, second));
+        when(repository.findPageAfter(project.getId(), second.getCreatedAt(), second.getId(), Limit.of(2)))
+                .thenReturn(List.of(third));
+        TaskNdjsonWriter writer = mock(TaskNdjsonWriter.class);
+
+        service.exportTasks(PROJECT_ID, user, writer);
+
+        InOrder inOrder = inOrder(writer, entityManager);
+        inOrder.verify(writer).start();
+        inOrder.verify(writer, times(2)).write(any());
+        inOrder.verify(entityManager).clear();
+        inOrder.verify(writer).write(any());
+        inOrder.verify(entityManager).clear();
+        inOrder.verify(writer).finish();
+        // последняя страница неполная, следующую не запрашиваем
+        verify(repository, times(1)).findPageAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    void exportTasks_rejectsExportOverConcurrencyLimit() throws Exception {
+        when(repository.findFirstPage(any(), any())).thenReturn(List.of());
+        TaskNdjsonWriter running = mock(TaskNdjsonWriter.class);
+        TaskNdjsonWriter rejected = mock(TaskNdjsonWriter.class);
+        doAnswer(invocation -> {
+            RestApiException busy = assertThrows(RestApiException.class,
+                    () -> service.exportTasks(PROJECT_ID, user, rejected));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, busy.getHttpStatus());
+            return null;
+        }).when(running).start();
+
+        service.exportTasks(PROJECT_ID, user, running);
+        service.exportTasks(PROJECT_ID, user, mock(TaskNdjsonWriter.class));
+
+        verify(running).finish();
+        verifyNoInteractions(rejected);
+    }
+
+    @Test
+    void exportTasks_writesNothing_whenUserIsNotInProject() throws Exception {
+        when(collaboratorService.isUserInProject(user, project)).thenReturn(false);
+        TaskNdjsonWriter writer = mock(TaskNdjsonWriter.class);
+
+        assertThrows(RestApiException.class, () -> service.exportTasks(PROJECT_ID, user, writer));
+        verifyNoInteractions(writer, repository);
+    }
+
+    @Test
+    void createAll_savesValidTasks_andReportsInvalidOnes() {
+        when(repository.save(any(Task.class))).thenAnswer(invocation -> {
+            Task task = invocation.getArgument(0);
+            ReflectionTestUtils.setField(task, "id", UUID.randomUUID());
+            return task;
+        });
+        TaskBatchRequestDto request = new TaskBatchRequestDto(PROJECT_ID, List.of(
+                new TaskBatchItemDto(null, "Write tests", null),
+                new TaskBatchItemDto(null, "x", null)));
+
+        TaskBatchResultDto result = service.createAll(request, user);
+
+        assertEquals(1, result.succeeded());
+        assertEquals(201, result.items().get(0).status());
+        assertNotNull(result.items().get(0).id());
+        assertEquals(400, result.items().get(1).status());
+        verify(repository, times(1)).save(any(Task.class));
+        verify(collaboratorService, times(1)).hasUserPermission(eq(user), eq(project), anyCollection());
+    }
+
+    @Test
+    void updateAll_skipsTasksOfOtherProjects_withOneSelect() {
+        Task own = task(1);
+        when(own.getProject()).thenReturn(project);
+        Task foreign = task(2);
+        when(foreign.getProject()).thenReturn(mock(Project.class));
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(own, foreign));
+        TaskBatchRequestDto request = new TaskBatchRequestDto(PROJECT_ID, List.of(
+                new TaskBatchItemDto(own.getId().toString(), "New title", null),
+                new TaskBatchItemDto(foreign.getId().toString(), "New title", null),
+                new TaskBatchItemDto("not-an-id", "New title", null)));
+
+        TaskBatchResultDto result = service.updateAll(request, user);
+
+        assertEquals(List.of(200, 404, 404), result.items().stream().map(TaskBatchResultDto.Item::status).toList());
+        verify(own).setTitle("New title");
+        verify(foreign, never()).setTitle(any());
+        verify(repository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void deleteAll_rejectsWholeBatch_withoutPermission() {
+        when(collaboratorService.hasUserPermission(eq(user), eq(project), anyCollection())).thenReturn(false);
+
+        assertThrows(RestApiException.class,
+                () -> service.deleteAll(new TaskBatchDeleteDto(PROJECT_ID, List.of(UUID.randomUUID().toString())), user));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void deleteAll_rejectsTooLargeBatch() {
+        List<String> ids = List.of("1", "2", "3", "4");
+
+        assertThrows(RestApiException.class, () -> service.deleteAll(new TaskBatchDeleteDto(PROJECT_ID, ids), user));
+        verifyNoInteractions(repository);
+    }
+
+    private static Task task(int second) {
+        Task task = mock(Task.class);
+        when(task.getId()).thenReturn(UUID.randomUUID());
+        when(task.getCreatedAt()).thenReturn(Instant.ofEpochSecond(1_700_000_000L + second));
+        return task;
+    }
+}
@@ -0,0 +1,31 @@
+package de.upteams.tasktracker.task.utils;
+
+import de.upteams.tasktracker.exception.handling.exceptions.common.RestApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskCursorTest {
+
+    @Test
+    void encode_decode_roundTrip() {
+        TaskCursor cursor = new TaskCursor(Instant.parse("2025-04-26T10:00:00.123456Z"), UUID.randomUUID());
+
+        String token = cursor.encode();
+
+        assertEquals(cursor, TaskCursor.decode(token));
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decode_rejectsForeignTokens() {
+        for (String token : new String[]{"not a cursor", "AAAA", "%%%"}) {
+            RestApiException ex = assertThrows(RestApiException.class, () -> TaskCursor.decode(token));
+            assertEquals(HttpStatus.BAD_REQUEST, ex.getHttpStatus());
+        }
+    }
+}
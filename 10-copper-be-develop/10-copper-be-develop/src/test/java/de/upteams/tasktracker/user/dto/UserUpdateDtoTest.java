@@ -29,7 +29,6 @@ class UserUpdateDtoTest {
                 "   ",     // displayName -> invalid
                 "",        // position    -> invalid
                 " \t ",    // department  -> invalid
-                null,      // avatarUrl (optional)
                 null       // bio (optional)
         );
         Set<ConstraintViolation<UserUpdateDto>> v = validator.validate(dto);
@@ -44,14 +43,14 @@ class UserUpdateDtoTest {
         var ok = new UserUpdateDto(
                 "user@example.com",
                 "Homer", "Dev", "Eng",
-                null, null
+                null
         );
         assertTrue(validator.validate(ok).isEmpty());
 
         var badFormat = new UserUpdateDto(
                 "not-an-email",
                 "Homer", "Dev", "Eng",
-                null, null
+                null
         );
         assertFalse(validator.validate(badFormat).isEmpty());
 
@@ -59,27 +58,8 @@ class UserUpdateDtoTest {
         var tooLong = new UserUpdateDto(
                 longEmail,
                 "Homer", "Dev", "Eng",
-                null, null
-        );
-        assertFalse(validator.validate(tooLong).isEmpty());
-    }
-
-    @Test
-    void avatar_url_must_be_valid_when_present() {
-        var bad = new UserUpdateDto(
-                null,
-                "Homer", "Dev", "Eng",
-                "not-a-url",
                 null
         );
-        assertFalse(validator.validate(bad).isEmpty());
-
-        var ok = new UserUpdateDto(
-                null,
-                "Homer", "Dev", "Eng",
-                "https://example.com/a.png",
-                null
-        );
-        assertTrue(validator.validate(ok).isEmpty());
+        assertFalse(validator.validate(tooLong).isEmpty());
     }
 }
\ No newline at end of file
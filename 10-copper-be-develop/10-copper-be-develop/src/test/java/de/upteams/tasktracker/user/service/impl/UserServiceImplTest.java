@@ -1,9 +1,11 @@
 package de.upteams.tasktracker.user.service.impl;
 
 
+import de.upteams.tasktracker.security.service.CustomUserDetailsService;
 import de.upteams.tasktracker.user.dto.request.UserUpdateDto;
 import de.upteams.tasktracker.user.dto.response.UserResponseDto;
 import de.upteams.tasktracker.user.entity.AppUser;
+import de.upteams.tasktracker.user.entity.AvatarSize;
 import de.upteams.tasktracker.user.exception.EmailAlreadyUsedException;
 import de.upteams.tasktracker.user.persistence.UserRepository;
 import de.upteams.tasktracker.user.service.impl.UserServiceImpl;
@@ -12,6 +14,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,6 +27,7 @@ class UserServiceImplTest {
     private UserRepository repository;
     private AppUserMapper mappingService;
     private org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
+    private CustomUserDetailsService userDetailsService;
     private UserServiceImpl service;
 
     @BeforeEach
@@ -30,7 +35,8 @@ class UserServiceImplTest {
         repository = mock(UserRepository.class);
         mappingService = mock(AppUserMapper.class);
         passwordEncoder = mock(org.springframework.security.crypto.password.PasswordEncoder.class);
-        service = new UserServiceImpl(repository, mappingService, passwordEncoder);
+        userDetailsService = mock(CustomUserDetailsService.class);
+        service = new UserServiceImpl(repository, mappingService, passwordEncoder, userDetailsService);
     }
 
     @Test
@@ -40,10 +46,10 @@ class UserServiceImplTest {
         user.setEmail("old@example.com"); // id не трогаем
 
         when(repository.findById(id)).thenReturn(Optional.of(user));
-        when(repository.existsByEmailIgnoreCaseAndIdNot("new@example.com", id)).thenReturn(false);
+        when(repository.existsByEmailNormalizedAndIdNot("new@example.com", id)).thenReturn(false);
         when(mappingService.mapEntityToDto(any())).thenReturn(mock(UserResponseDto.class));
 
-        var dto = new UserUpdateDto("NEW@Example.com", " Homer ", " Dev ", " Eng ", null, null);
+        var dto = new UserUpdateDto("NEW@Example.com", " Homer ", " Dev ", " Eng ", null);
         service.updateUser(id, dto);
 
         var captor = ArgumentCaptor.forClass(AppUser.class);
@@ -54,6 +60,9 @@ class UserServiceImplTest {
         assertEquals("Homer", saved.getDisplayName());
         assertEquals("Dev", saved.getPosition());
         assertEquals("Eng", saved.getDepartment());
+
+        verify(userDetailsService).evictUser("old@example.com");
+        verify(userDetailsService).evictUser("new@example.com");
     }
 
 
@@ -64,12 +73,31 @@ class UserServiceImplTest {
         user.setEmail("old@example.com"); // id не трогаем
 
         when(repository.findById(id)).thenReturn(Optional.of(user));
-        when(repository.existsByEmailIgnoreCaseAndIdNot(eq("new@example.com"), any()))
+        when(repository.existsByEmailNormalizedAndIdNot(eq("new@example.com"), any()))
                 .thenReturn(true);
 
-        var dto = new UserUpdateDto("new@example.com", "Homer", "Dev", "Eng", null, null);
+        var dto = new UserUpdateDto("new@example.com", "Homer", "Dev", "Eng", null);
 
         assertThrows(EmailAlreadyUsedException.class, () -> service.updateUser(id, dto));
         verify(repository, never()).save(any());
     }
+
+    @Test
+    void replaceAvatarKeys_updatesLockedRow_and_returnsReplacedKeys() {
+        UUID id = UUID.randomUUID();
+        AppUser user = new AppUser();
+        user.setAvatarKey(AvatarSize.SMALL, "avatars/old/small.jpg");
+        user.setAvatarKey(AvatarSize.MEDIUM, "avatars/new/medium.jpg");
+
+        when(repository.findByIdForUpdate(id)).thenReturn(Optional.of(user));
+
+        var replaced = service.replaceAvatarKeys(id, Map.of(
+                AvatarSize.SMALL, "avatars/new/small.jpg",
+                AvatarSize.MEDIUM, "avatars/new/medium.jpg"), "/avatar/medium");
+
+        assertEquals(List.of("avatars/old/small.jpg"), replaced);
+        assertEquals("avatars/new/small.jpg", user.getAvatarKey(AvatarSize.SMALL));
+        assertEquals("/avatar/medium", user.getAvatarUrl());
+        verify(repository, never()).findById(any());
+    }
 }